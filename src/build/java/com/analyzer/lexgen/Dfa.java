@@ -0,0 +1,257 @@
+package com.analyzer.lexgen;
+
+import java.util.*;
+
+/**
+ * Autómata determinista mínimo equivalente al no determinista de una
+ * especificación. Los caracteres se agrupan en clases (caracteres que ninguna
+ * regla distingue entre sí) y las transiciones se indexan por clase.
+ */
+final class Dfa {
+
+    static final int SIN_TOKEN = -1;
+
+    final TokenSpec spec;
+    // Clase de cada carácter ASCII y, desde 128, intervalos con su clase
+    final int[] claseAscii = new int[128];
+    final int[] iniciosRango;
+    final int[] clasesRango;
+    final int cantidadClases;
+
+    // transiciones[estado][clase] = destino, o -1; el estado 0 es el inicial
+    final int[][] transiciones;
+    final int[] acepta;
+    final int[] aceptaAlFinal;
+
+    private Dfa(TokenSpec spec, int[] claseAscii, int[] iniciosRango, int[] clasesRango, int cantidadClases,
+                int[][] transiciones, int[] acepta, int[] aceptaAlFinal) {
+        this.spec = spec;
+        System.arraycopy(claseAscii, 0, this.claseAscii, 0, 128);
+        this.iniciosRango = iniciosRango;
+        this.clasesRango = clasesRango;
+        this.cantidadClases = cantidadClases;
+        this.transiciones = transiciones;
+        this.acepta = acepta;
+        this.aceptaAlFinal = aceptaAlFinal;
+    }
+
+    int cantidadEstados() { return transiciones.length; }
+
+    static Dfa construir(TokenSpec spec) {
+        Nfa nfa = Nfa.construir(spec);
+
+        // Clases: intervalos elementales agrupados por los conjuntos que los contienen
+        TreeSet<Integer> cortes = new TreeSet<>(List.of(0, 128));
+        for (int[] conjunto : nfa.conjuntos) {
+            for (int i = 0; i < conjunto.length; i += 2) {
+                cortes.add(conjunto[i]);
+                if (conjunto[i + 1] < Nfa.MAX_CARACTER) {
+                    cortes.add(conjunto[i + 1] + 1);
+                }
+            }
+        }
+        Map<BitSet, Integer> clasePorFirma = new HashMap<>();
+        List<Integer> inicios = new ArrayList<>(cortes);
+        int[] clasePorIntervalo = new int[inicios.size()];
+        for (int k = 0; k < inicios.size(); k++) {
+            BitSet firma = new BitSet();
+            for (int t = 0; t < nfa.conjuntos.size(); t++) {
+                if (Nfa.contiene(nfa.conjuntos.get(t), inicios.get(k))) {
+                    firma.set(t);
+                }
+            }
+            clasePorIntervalo[k] = clasePorFirma.computeIfAbsent(firma, f -> clasePorFirma.size());
+        }
+        int cantidadClases = clasePorFirma.size();
+
+        int[] claseAscii = new int[128];
+        List<Integer> iniciosRango = new ArrayList<>();
+        List<Integer> clasesRango = new ArrayList<>();
+        for (int k = 0; k < inicios.size(); k++) {
+            int desde = inicios.get(k);
+            int hasta = k + 1 < inicios.size() ? inicios.get(k + 1) : Nfa.MAX_CARACTER + 1;
+            if (desde < 128) {
+                Arrays.fill(claseAscii, desde, Math.min(hasta, 128), clasePorIntervalo[k]);
+            } else if (clasesRango.isEmpty() || clasesRango.get(clasesRango.size() - 1) != clasePorIntervalo[k]) {
+                iniciosRango.add(desde);
+                clasesRango.add(clasePorIntervalo[k]);
+            }
+        }
+
+        // Qué clases cubre cada transición del no determinista
+        boolean[][] cubre = new boolean[nfa.conjuntos.size()][cantidadClases];
+        for (int k = 0; k < inicios.size(); k++) {
+            for (int t = 0; t < nfa.conjuntos.size(); t++) {
+                if (Nfa.contiene(nfa.conjuntos.get(t), inicios.get(k))) {
+                    cubre[t][clasePorIntervalo[k]] = true;
+                }
+            }
+        }
+
+        // Construcción por subconjuntos
+        List<BitSet> estados = new ArrayList<>();
+        Map<BitSet, Integer> indices = new HashMap<>();
+        List<int[]> filas = new ArrayList<>();
+        BitSet inicial = new BitSet();
+        inicial.set(nfa.inicial);
+        inicial = nfa.clausura(inicial);
+        estados.add(inicial);
+        indices.put(inicial, 0);
+        for (int s = 0; s < estados.size(); s++) {
+            BitSet actual = estados.get(s);
+            int[] fila = new int[cantidadClases];
+            for (int clase = 0; clase < cantidadClases; clase++) {
+                BitSet siguiente = new BitSet();
+                for (int t = 0; t < nfa.conjuntos.size(); t++) {
+                    if (cubre[t][clase] && actual.get(nfa.origenes.get(t))) {
+                        siguiente.set(nfa.destinos.get(t));
+                    }
+                }
+                if (siguiente.isEmpty()) {
+                    fila[clase] = -1;
+                    continue;
+                }
+                siguiente = nfa.clausura(siguiente);
+                Integer indice = indices.get(siguiente);
+                if (indice == null) {
+                    indice = estados.size();
+                    estados.add(siguiente);
+                    indices.put(siguiente, indice);
+                }
+                fila[clase] = indice;
+            }
+            filas.add(fila);
+        }
+
+        int[] acepta = new int[estados.size()];
+        int[] aceptaAlFinal = new int[estados.size()];
+        for (int s = 0; s < estados.size(); s++) {
+            acepta[s] = SIN_TOKEN;
+            aceptaAlFinal[s] = SIN_TOKEN;
+            for (int e = estados.get(s).nextSetBit(0); e >= 0; e = estados.get(s).nextSetBit(e + 1)) {
+                int regla = nfa.reglas.get(e);
+                if (regla < 0) {
+                    continue;
+                }
+                if (spec.reglas.get(regla).alFinal) {
+                    aceptaAlFinal[s] = aceptaAlFinal[s] == SIN_TOKEN ? regla : Math.min(aceptaAlFinal[s], regla);
+                } else {
+                    acepta[s] = acepta[s] == SIN_TOKEN ? regla : Math.min(acepta[s], regla);
+                }
+            }
+        }
+
+        int[][] transiciones = filas.toArray(new int[0][]);
+        quitarMuertos(transiciones, acepta, aceptaAlFinal);
+        return minimizar(spec, claseAscii, iniciosRango, clasesRango, cantidadClases,
+                transiciones, acepta, aceptaAlFinal);
+    }
+
+    /**
+     * Quita las transiciones hacia estados desde los que ya no se puede aceptar
+     * ningún token; el recorrido se detiene antes con el mismo resultado
+     */
+    private static void quitarMuertos(int[][] transiciones, int[] acepta, int[] aceptaAlFinal) {
+        int n = transiciones.length;
+        boolean[] vivo = new boolean[n];
+        for (int s = 0; s < n; s++) {
+            vivo[s] = acepta[s] != SIN_TOKEN || aceptaAlFinal[s] != SIN_TOKEN;
+        }
+        boolean cambio = true;
+        while (cambio) {
+            cambio = false;
+            for (int s = 0; s < n; s++) {
+                if (vivo[s]) {
+                    continue;
+                }
+                for (int destino : transiciones[s]) {
+                    if (destino >= 0 && vivo[destino]) {
+                        vivo[s] = true;
+                        cambio = true;
+                        break;
+                    }
+                }
+            }
+        }
+        for (int[] fila : transiciones) {
+            for (int clase = 0; clase < fila.length; clase++) {
+                if (fila[clase] >= 0 && !vivo[fila[clase]]) {
+                    fila[clase] = -1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Refina la partición por lo que acepta cada estado hasta que los estados de
+     * un mismo grupo van a los mismos grupos con cada clase, y numera los grupos
+     * en el orden en que se alcanzan desde el inicial
+     */
+    private static Dfa minimizar(TokenSpec spec, int[] claseAscii, List<Integer> iniciosRango,
+                                 List<Integer> clasesRango, int cantidadClases,
+                                 int[][] transiciones, int[] acepta, int[] aceptaAlFinal) {
+        int n = transiciones.length;
+        int[] grupo = new int[n];
+        Map<List<Integer>, Integer> firmas = new HashMap<>();
+        for (int s = 0; s < n; s++) {
+            grupo[s] = firmas.computeIfAbsent(List.of(acepta[s], aceptaAlFinal[s]), f -> firmas.size());
+        }
+        int cantidad = firmas.size();
+
+        while (true) {
+            Map<List<Integer>, Integer> nuevas = new HashMap<>();
+            int[] nuevoGrupo = new int[n];
+            for (int s = 0; s < n; s++) {
+                List<Integer> firma = new ArrayList<>(cantidadClases + 1);
+                firma.add(grupo[s]);
+                for (int destino : transiciones[s]) {
+                    firma.add(destino >= 0 ? grupo[destino] : -1);
+                }
+                nuevoGrupo[s] = nuevas.computeIfAbsent(firma, f -> nuevas.size());
+            }
+            grupo = nuevoGrupo;
+            if (nuevas.size() == cantidad) {
+                break;
+            }
+            cantidad = nuevas.size();
+        }
+
+        // Numeración en el orden en que se alcanzan, con el inicial primero
+        int[] numero = new int[cantidad];
+        Arrays.fill(numero, -1);
+        int[] representante = new int[cantidad];
+        Deque<Integer> pendientes = new ArrayDeque<>();
+        int siguiente = 0;
+        numero[grupo[0]] = siguiente++;
+        representante[0] = 0;
+        pendientes.add(0);
+        while (!pendientes.isEmpty()) {
+            int s = pendientes.poll();
+            for (int destino : transiciones[s]) {
+                if (destino >= 0 && numero[grupo[destino]] < 0) {
+                    representante[siguiente] = destino;
+                    numero[grupo[destino]] = siguiente++;
+                    pendientes.add(destino);
+                }
+            }
+        }
+
+        int[][] minimas = new int[siguiente][cantidadClases];
+        int[] aceptaMinimo = new int[siguiente];
+        int[] aceptaAlFinalMinimo = new int[siguiente];
+        for (int g = 0; g < siguiente; g++) {
+            int s = representante[g];
+            for (int clase = 0; clase < cantidadClases; clase++) {
+                int destino = transiciones[s][clase];
+                minimas[g][clase] = destino >= 0 ? numero[grupo[destino]] : -1;
+            }
+            aceptaMinimo[g] = acepta[s];
+            aceptaAlFinalMinimo[g] = aceptaAlFinal[s];
+        }
+
+        return new Dfa(spec, claseAscii,
+                iniciosRango.stream().mapToInt(Integer::intValue).toArray(),
+                clasesRango.stream().mapToInt(Integer::intValue).toArray(),
+                cantidadClases, minimas, aceptaMinimo, aceptaAlFinalMinimo);
+    }
+}
@@ -0,0 +1,122 @@
+package com.analyzer.lexgen;
+
+import java.util.*;
+
+/**
+ * Escribe el código Java de la clase con las tablas de un autómata. La clase
+ * generada es final y de paquete, y solo expone constantes y consultas
+ * estáticas sobre las tablas; el escáner de cada lenguaje decide qué hacer con
+ * cada token.
+ */
+final class DfaWriter {
+
+    private static final int POR_LINEA = 24;
+
+    private final Dfa dfa;
+    private final StringBuilder codigo = new StringBuilder();
+
+    private DfaWriter(Dfa dfa) {
+        this.dfa = dfa;
+    }
+
+    static String escribir(Dfa dfa) {
+        return new DfaWriter(dfa).generar();
+    }
+
+    private String generar() {
+        TokenSpec spec = dfa.spec;
+        String tipo = dfa.cantidadEstados() < Byte.MAX_VALUE && dfa.cantidadClases < Byte.MAX_VALUE
+                && spec.reglas.size() < Byte.MAX_VALUE ? "byte" : "short";
+
+        linea("package " + spec.paquete + ";");
+        linea("");
+        linea("/**");
+        linea(" * Autómata mínimo generado por " + TokenSpecProcessor.class.getSimpleName()
+                + " a partir de " + spec.origen + "; no editar.");
+        linea(" * " + dfa.cantidadEstados() + " estados y " + dfa.cantidadClases + " clases de carácter.");
+        linea(" */");
+        linea("final class " + spec.clase + " {");
+        linea("");
+        linea("    static final int SIN_TOKEN = -1;");
+        for (int r = 0; r < spec.reglas.size(); r++) {
+            TokenSpec.Regla regla = spec.reglas.get(r);
+            linea("    // " + regla.expresion + (regla.alFinal ? "  " + TokenSpec.AL_FINAL : ""));
+            linea("    static final int " + regla.nombre + " = " + r + ";");
+        }
+        linea("    static final int NUM_REGLAS = " + spec.reglas.size() + ";");
+        linea("");
+        linea("    static final int ESTADO_INICIAL = 0;");
+        linea("    static final int NUM_ESTADOS = " + dfa.cantidadEstados() + ";");
+        linea("    static final int NUM_CLASES = " + dfa.cantidadClases + ";");
+        linea("");
+
+        arreglo(tipo, "CLASE_ASCII", dfa.claseAscii);
+        linea("    // Desde 128: intervalos [INICIO_RANGO[k], INICIO_RANGO[k + 1]) con su clase");
+        arreglo("char", "INICIO_RANGO", dfa.iniciosRango);
+        arreglo(tipo, "CLASE_RANGO", dfa.clasesRango);
+
+        int[] plana = new int[dfa.cantidadEstados() * dfa.cantidadClases];
+        for (int s = 0; s < dfa.cantidadEstados(); s++) {
+            System.arraycopy(dfa.transiciones[s], 0, plana, s * dfa.cantidadClases, dfa.cantidadClases);
+        }
+        linea("    // Destino de estado * NUM_CLASES + clase, o -1");
+        arreglo(tipo, "TRANSICIONES", plana);
+        arreglo(tipo, "ACEPTA", dfa.acepta);
+        arreglo(tipo, "ACEPTA_AL_FINAL", dfa.aceptaAlFinal);
+
+        linea("    private " + spec.clase + "() {");
+        linea("    }");
+        linea("");
+        linea("    static int clase(char c) {");
+        linea("        if (c < 128) {");
+        linea("            return CLASE_ASCII[c];");
+        linea("        }");
+        linea("        int k = 0;");
+        linea("        while (k + 1 < INICIO_RANGO.length && INICIO_RANGO[k + 1] <= c) {");
+        linea("            k++;");
+        linea("        }");
+        linea("        return CLASE_RANGO[k];");
+        linea("    }");
+        linea("");
+        linea("    /**");
+        linea("     * Estado siguiente, o -1 si ningún token sigue con esa clase");
+        linea("     */");
+        linea("    static int siguiente(int estado, int clase) {");
+        linea("        return TRANSICIONES[estado * NUM_CLASES + clase];");
+        linea("    }");
+        linea("");
+        linea("    /**");
+        linea("     * Regla del token que termina en el estado, o SIN_TOKEN");
+        linea("     */");
+        linea("    static int acepta(int estado) {");
+        linea("        return ACEPTA[estado];");
+        linea("    }");
+        linea("");
+        linea("    /**");
+        linea("     * Regla que se acepta si el texto se termina en el estado, o SIN_TOKEN");
+        linea("     */");
+        linea("    static int aceptaAlFinal(int estado) {");
+        linea("        return ACEPTA_AL_FINAL[estado];");
+        linea("    }");
+        linea("}");
+        return codigo.toString();
+    }
+
+    private void arreglo(String tipo, String nombre, int[] valores) {
+        linea("    private static final " + tipo + "[] " + nombre + " = {");
+        for (int i = 0; i < valores.length; i += POR_LINEA) {
+            StringBuilder fila = new StringBuilder("            ");
+            for (int j = i; j < Math.min(valores.length, i + POR_LINEA); j++) {
+                fila.append(valores[j]);
+                fila.append(j + 1 < valores.length ? ", " : "");
+            }
+            linea(fila.toString().stripTrailing());
+        }
+        linea("    };");
+        linea("");
+    }
+
+    private void linea(String texto) {
+        codigo.append(texto).append('\n');
+    }
+}
@@ -0,0 +1,299 @@
+package com.analyzer.lexgen;
+
+import java.util.*;
+
+/**
+ * Autómata no determinista de Thompson con las reglas de una especificación.
+ * Cada estado tiene a lo sumo una transición por un conjunto de caracteres
+ * y cualquier cantidad de transiciones vacías.
+ * <p>
+ * Expresiones admitidas: literales, {@code .} (cualquier carácter salvo
+ * salto de línea), clases {@code [a-z_]} y {@code [^...]}, escapes
+ * {@code \n \t \r \f \s \d} o de un carácter especial, grupos, {@code |},
+ * {@code *}, {@code +} y {@code ?}.
+ */
+final class Nfa {
+
+    static final int MAX_CARACTER = Character.MAX_VALUE;
+
+    // Transición por conjunto: conjunto (intervalos cerrados [a0, b0, a1, b1...]) y destino
+    final List<int[]> conjuntos = new ArrayList<>();
+    final List<Integer> destinos = new ArrayList<>();
+    final List<Integer> origenes = new ArrayList<>();
+
+    // Transiciones vacías por estado
+    final List<List<Integer>> vacias = new ArrayList<>();
+    // Regla que acepta cada estado, o -1
+    final List<Integer> reglas = new ArrayList<>();
+    int inicial;
+
+    static Nfa construir(TokenSpec spec) {
+        Nfa nfa = new Nfa();
+        nfa.inicial = nfa.nuevoEstado();
+        for (int r = 0; r < spec.reglas.size(); r++) {
+            TokenSpec.Regla regla = spec.reglas.get(r);
+            int[] fragmento;
+            try {
+                fragmento = new Lector(nfa, regla.expresion).leer();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(spec.origen + ":" + regla.linea + ": " + e.getMessage());
+            }
+            nfa.vacia(nfa.inicial, fragmento[0]);
+            nfa.reglas.set(fragmento[1], r);
+        }
+        return nfa;
+    }
+
+    int cantidadEstados() { return reglas.size(); }
+
+    private int nuevoEstado() {
+        vacias.add(new ArrayList<>());
+        reglas.add(-1);
+        return reglas.size() - 1;
+    }
+
+    private void vacia(int desde, int hasta) {
+        vacias.get(desde).add(hasta);
+    }
+
+    private int[] porConjunto(int[] conjunto) {
+        int inicio = nuevoEstado();
+        int fin = nuevoEstado();
+        conjuntos.add(conjunto);
+        origenes.add(inicio);
+        destinos.add(fin);
+        return new int[]{inicio, fin};
+    }
+
+    /**
+     * Clausura por transiciones vacías de un conjunto de estados
+     */
+    BitSet clausura(BitSet estados) {
+        BitSet resultado = (BitSet) estados.clone();
+        Deque<Integer> pendientes = new ArrayDeque<>();
+        estados.stream().forEach(pendientes::push);
+        while (!pendientes.isEmpty()) {
+            for (int siguiente : vacias.get(pendientes.pop())) {
+                if (!resultado.get(siguiente)) {
+                    resultado.set(siguiente);
+                    pendientes.push(siguiente);
+                }
+            }
+        }
+        return resultado;
+    }
+
+    // ==============================================
+    // CONJUNTOS DE CARACTERES
+    // ==============================================
+
+    static int[] rango(int desde, int hasta) {
+        return new int[]{desde, hasta};
+    }
+
+    static int[] union(int[] a, int[] b) {
+        List<int[]> intervalos = new ArrayList<>();
+        for (int i = 0; i < a.length; i += 2) intervalos.add(new int[]{a[i], a[i + 1]});
+        for (int i = 0; i < b.length; i += 2) intervalos.add(new int[]{b[i], b[i + 1]});
+        intervalos.sort(Comparator.comparingInt(x -> x[0]));
+
+        List<Integer> resultado = new ArrayList<>();
+        for (int[] intervalo : intervalos) {
+            int ultimo = resultado.size() - 1;
+            if (ultimo > 0 && intervalo[0] <= resultado.get(ultimo) + 1) {
+                resultado.set(ultimo, Math.max(resultado.get(ultimo), intervalo[1]));
+            } else {
+                resultado.add(intervalo[0]);
+                resultado.add(intervalo[1]);
+            }
+        }
+        return resultado.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    static int[] complemento(int[] conjunto) {
+        List<Integer> resultado = new ArrayList<>();
+        int desde = 0;
+        for (int i = 0; i < conjunto.length; i += 2) {
+            if (conjunto[i] > desde) {
+                resultado.add(desde);
+                resultado.add(conjunto[i] - 1);
+            }
+            desde = conjunto[i + 1] + 1;
+        }
+        if (desde <= MAX_CARACTER) {
+            resultado.add(desde);
+            resultado.add(MAX_CARACTER);
+        }
+        return resultado.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    static boolean contiene(int[] conjunto, int c) {
+        for (int i = 0; i < conjunto.length; i += 2) {
+            if (c >= conjunto[i] && c <= conjunto[i + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ==============================================
+    // LECTURA DE EXPRESIONES
+    // ==============================================
+
+    /**
+     * Analizador descendente de una expresión; cada método devuelve el
+     * fragmento {estado inicial, estado final} que la reconoce
+     */
+    private static final class Lector {
+        private final Nfa nfa;
+        private final String expresion;
+        private int posicion;
+
+        Lector(Nfa nfa, String expresion) {
+            this.nfa = nfa;
+            this.expresion = expresion;
+        }
+
+        int[] leer() {
+            int[] fragmento = alternativa();
+            if (posicion < expresion.length()) {
+                throw new IllegalArgumentException("')' sin abrir en la posición " + posicion);
+            }
+            return fragmento;
+        }
+
+        private int[] alternativa() {
+            int[] primera = secuencia();
+            if (posicion >= expresion.length() || expresion.charAt(posicion) != '|') {
+                return primera;
+            }
+            int inicio = nfa.nuevoEstado();
+            int fin = nfa.nuevoEstado();
+            enlazarAlternativa(inicio, fin, primera);
+            while (posicion < expresion.length() && expresion.charAt(posicion) == '|') {
+                posicion++;
+                enlazarAlternativa(inicio, fin, secuencia());
+            }
+            return new int[]{inicio, fin};
+        }
+
+        private void enlazarAlternativa(int inicio, int fin, int[] fragmento) {
+            nfa.vacia(inicio, fragmento[0]);
+            nfa.vacia(fragmento[1], fin);
+        }
+
+        private int[] secuencia() {
+            int inicio = nfa.nuevoEstado();
+            int fin = inicio;
+            while (posicion < expresion.length() && expresion.charAt(posicion) != '|'
+                    && expresion.charAt(posicion) != ')') {
+                int[] fragmento = repeticion();
+                nfa.vacia(fin, fragmento[0]);
+                fin = fragmento[1];
+            }
+            return new int[]{inicio, fin};
+        }
+
+        private int[] repeticion() {
+            int[] fragmento = atomo();
+            while (posicion < expresion.length()) {
+                char operador = expresion.charAt(posicion);
+                if (operador != '*' && operador != '+' && operador != '?') {
+                    break;
+                }
+                posicion++;
+                int inicio = nfa.nuevoEstado();
+                int fin = nfa.nuevoEstado();
+                nfa.vacia(inicio, fragmento[0]);
+                nfa.vacia(fragmento[1], fin);
+                if (operador != '+') {
+                    nfa.vacia(inicio, fin);
+                }
+                if (operador != '?') {
+                    nfa.vacia(fragmento[1], fragmento[0]);
+                }
+                fragmento = new int[]{inicio, fin};
+            }
+            return fragmento;
+        }
+
+        private int[] atomo() {
+            char c = expresion.charAt(posicion++);
+            switch (c) {
+                case '(': {
+                    int[] fragmento = alternativa();
+                    if (posicion >= expresion.length() || expresion.charAt(posicion) != ')') {
+                        throw new IllegalArgumentException("falta ')' en '" + expresion + "'");
+                    }
+                    posicion++;
+                    return fragmento;
+                }
+                case '[':
+                    return nfa.porConjunto(clase());
+                case '.':
+                    return nfa.porConjunto(complemento(rango('\n', '\n')));
+                case '\\':
+                    return nfa.porConjunto(escape());
+                case '*':
+                case '+':
+                case '?':
+                    throw new IllegalArgumentException("'" + c + "' sin nada que repetir en la posición " + (posicion - 1));
+                default:
+                    return nfa.porConjunto(rango(c, c));
+            }
+        }
+
+        private int[] clase() {
+            boolean negada = posicion < expresion.length() && expresion.charAt(posicion) == '^';
+            if (negada) {
+                posicion++;
+            }
+            int[] conjunto = new int[0];
+            boolean primero = true;
+            while (true) {
+                if (posicion >= expresion.length()) {
+                    throw new IllegalArgumentException("falta ']' en '" + expresion + "'");
+                }
+                char c = expresion.charAt(posicion);
+                if (c == ']' && !primero) {
+                    posicion++;
+                    break;
+                }
+                primero = false;
+                posicion++;
+                int[] elemento;
+                if (c == '\\') {
+                    elemento = escape();
+                } else if (posicion + 1 < expresion.length() && expresion.charAt(posicion) == '-'
+                        && expresion.charAt(posicion + 1) != ']') {
+                    char hasta = expresion.charAt(posicion + 1);
+                    posicion += 2;
+                    if (hasta < c) {
+                        throw new IllegalArgumentException("rango inválido " + c + "-" + hasta);
+                    }
+                    elemento = rango(c, hasta);
+                } else {
+                    elemento = rango(c, c);
+                }
+                conjunto = union(conjunto, elemento);
+            }
+            return negada ? complemento(conjunto) : conjunto;
+        }
+
+        private int[] escape() {
+            if (posicion >= expresion.length()) {
+                throw new IllegalArgumentException("'\\' al final de '" + expresion + "'");
+            }
+            char c = expresion.charAt(posicion++);
+            switch (c) {
+                case 'n': return rango('\n', '\n');
+                case 't': return rango('\t', '\t');
+                case 'r': return rango('\r', '\r');
+                case 'f': return rango('\f', '\f');
+                case 'd': return rango('0', '9');
+                case 's': return union(rango('\t', '\r'), rango(' ', ' '));
+                default: return rango(c, c);
+            }
+        }
+    }
+}
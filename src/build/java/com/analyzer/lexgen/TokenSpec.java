@@ -0,0 +1,107 @@
+package com.analyzer.lexgen;
+
+import java.util.*;
+
+/**
+ * Especificación declarativa del léxico de un lenguaje, leída de un archivo
+ * .tokens. Formato, una declaración por línea:
+ * <pre>
+ * # comentario
+ * paquete com.ejemplo
+ * clase   EjemploTokenDfa
+ * NOMBRE  expresión regular              (el resto de la línea, sin recortar espacios internos)
+ * NOMBRE  expresión regular  @alFinal    (solo se acepta si el texto se termina en ese estado)
+ * </pre>
+ * Las reglas están en orden de prioridad: gana el token más largo y, a igual
+ * longitud, la regla que aparece primero.
+ */
+final class TokenSpec {
+
+    static final String AL_FINAL = "@alFinal";
+
+    /**
+     * Regla de token: nombre de la constante, expresión y si solo se acepta al final del texto
+     */
+    static final class Regla {
+        final String nombre;
+        final String expresion;
+        final boolean alFinal;
+        final int linea;
+
+        Regla(String nombre, String expresion, boolean alFinal, int linea) {
+            this.nombre = nombre;
+            this.expresion = expresion;
+            this.alFinal = alFinal;
+            this.linea = linea;
+        }
+    }
+
+    final String origen;
+    final String paquete;
+    final String clase;
+    final List<Regla> reglas;
+
+    private TokenSpec(String origen, String paquete, String clase, List<Regla> reglas) {
+        this.origen = origen;
+        this.paquete = paquete;
+        this.clase = clase;
+        this.reglas = reglas;
+    }
+
+    /**
+     * @throws IllegalArgumentException con el número de línea si el archivo no es válido
+     */
+    static TokenSpec leer(String origen, List<String> lineas) {
+        String paquete = null;
+        String clase = null;
+        List<Regla> reglas = new ArrayList<>();
+        Set<String> nombres = new HashSet<>();
+
+        for (int n = 0; n < lineas.size(); n++) {
+            String linea = lineas.get(n).strip();
+            if (linea.isEmpty() || linea.startsWith("#")) {
+                continue;
+            }
+            int espacio = 0;
+            while (espacio < linea.length() && !Character.isWhitespace(linea.charAt(espacio))) {
+                espacio++;
+            }
+            String nombre = linea.substring(0, espacio);
+            String resto = linea.substring(espacio).strip();
+            if (resto.isEmpty()) {
+                throw error(origen, n, "falta el valor de '" + nombre + "'");
+            }
+
+            if (nombre.equals("paquete")) {
+                paquete = resto;
+            } else if (nombre.equals("clase")) {
+                clase = resto;
+            } else {
+                if (!nombre.matches("[A-Z][A-Z0-9_]*")) {
+                    throw error(origen, n, "nombre de regla inválido: " + nombre);
+                }
+                if (!nombres.add(nombre)) {
+                    throw error(origen, n, "regla repetida: " + nombre);
+                }
+                boolean alFinal = resto.endsWith(AL_FINAL)
+                        && Character.isWhitespace(resto.charAt(resto.length() - AL_FINAL.length() - 1));
+                if (alFinal) {
+                    resto = resto.substring(0, resto.length() - AL_FINAL.length()).strip();
+                }
+                reglas.add(new Regla(nombre, resto, alFinal, n + 1));
+            }
+        }
+
+        if (paquete == null || clase == null) {
+            throw new IllegalArgumentException(origen + ": faltan las declaraciones 'paquete' y 'clase'");
+        }
+        if (reglas.isEmpty()) {
+            throw new IllegalArgumentException(origen + ": no hay reglas");
+        }
+        return new TokenSpec(origen, paquete, clase, reglas);
+    }
+
+    private static IllegalArgumentException error(String origen, int indiceLinea, String mensaje) {
+        return new IllegalArgumentException(origen + ":" + (indiceLinea + 1) + ": " + mensaje);
+    }
+}
@@ -0,0 +1,84 @@
+package com.analyzer.lexgen;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Genera, durante la compilación, una clase con el autómata mínimo de cada
+ * especificación .tokens del directorio indicado con la opción
+ * {@code -Aespecificaciones=<directorio>}. No procesa anotaciones: solo
+ * aprovecha la primera ronda para agregar las clases generadas a la
+ * compilación.
+ */
+@SupportedAnnotationTypes("*")
+@SupportedOptions(TokenSpecProcessor.OPCION_DIRECTORIO)
+public final class TokenSpecProcessor extends AbstractProcessor {
+
+    static final String OPCION_DIRECTORIO = "especificaciones";
+    private static final String EXTENSION = ".tokens";
+
+    private boolean generado;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> anotaciones, RoundEnvironment ronda) {
+        if (generado) {
+            return false;
+        }
+        generado = true;
+
+        Messager mensajes = processingEnv.getMessager();
+        String opcion = processingEnv.getOptions().get(OPCION_DIRECTORIO);
+        if (opcion == null) {
+            mensajes.printMessage(Diagnostic.Kind.WARNING,
+                    "Sin -A" + OPCION_DIRECTORIO + "=<directorio>: no se generan los autómatas léxicos");
+            return false;
+        }
+
+        Path directorio = Paths.get(opcion);
+        for (Path archivo : especificaciones(directorio)) {
+            String origen = directorio.getFileName() + "/" + archivo.getFileName();
+            try {
+                TokenSpec spec = TokenSpec.leer(origen, Files.readAllLines(archivo, StandardCharsets.UTF_8));
+                Dfa dfa = Dfa.construir(spec);
+                try (Writer salida = processingEnv.getFiler()
+                        .createSourceFile(spec.paquete + "." + spec.clase).openWriter()) {
+                    salida.write(DfaWriter.escribir(dfa));
+                }
+                mensajes.printMessage(Diagnostic.Kind.NOTE, origen + ": " + spec.clase + " con "
+                        + dfa.cantidadEstados() + " estados y " + dfa.cantidadClases + " clases");
+            } catch (IllegalArgumentException e) {
+                mensajes.printMessage(Diagnostic.Kind.ERROR, e.getMessage());
+            } catch (IOException e) {
+                mensajes.printMessage(Diagnostic.Kind.ERROR, origen + ": " + e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    private List<Path> especificaciones(Path directorio) {
+        if (!Files.isDirectory(directorio)) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "No existe el directorio de especificaciones " + directorio);
+            return List.of();
+        }
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos.filter(a -> a.getFileName().toString().endsWith(EXTENSION)).sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
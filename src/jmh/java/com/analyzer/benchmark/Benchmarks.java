@@ -0,0 +1,30 @@
+package com.analyzer.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Punto de entrada de target/benchmarks.jar. Acepta las opciones de línea de
+ * comandos de JMH (por ejemplo {@code LexerBenchmark -p tamano=GRANDE}) y
+ * agrega siempre el perfilador gc, que informa la tasa de asignación.
+ * Compilado también con el perfil vector ({@code mvn -Pbenchmarks,vector package})
+ * y con {@code -jvmArgsAppend "--add-modules=jdk.incubator.vector"} se mide el
+ * recorrido vectorial de los escáneres.
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
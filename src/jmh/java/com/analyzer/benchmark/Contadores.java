@@ -0,0 +1,30 @@
+package com.analyzer.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Contadores que JMH informa como tasas junto al resultado de cada
+ * benchmark: megabytes y tokens procesados por segundo.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class Contadores {
+
+    public double megabytes;
+    public long tokens;
+
+    @Setup(Level.Iteration)
+    public void reiniciar() {
+        megabytes = 0;
+        tokens = 0;
+    }
+
+    void registrar(double megabytesLeidos, int tokensProducidos) {
+        megabytes += megabytesLeidos;
+        tokens += tokensProducidos;
+    }
+}
@@ -0,0 +1,126 @@
+package com.analyzer.benchmark;
+
+import com.analyzer.model.LanguageType;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Textos de prueba de cada lenguaje. Se arman repitiendo un fragmento hasta
+ * el tamaño pedido; en cada copia cambian los nombres, para que los
+ * identificadores no sean siempre los mismos.
+ */
+public final class Corpus {
+
+    /**
+     * Tamaños de los textos: un archivo corto, uno mediano y un script muy grande
+     */
+    public enum Tamano {
+        PEQUENO(4 * 1024),
+        MEDIANO(256 * 1024),
+        GRANDE(4 * 1024 * 1024);
+
+        final int caracteres;
+
+        Tamano(int caracteres) {
+            this.caracteres = caracteres;
+        }
+    }
+
+    private static final String PYTHON =
+            "# Bloque {n}\n" +
+            "import os\n" +
+            "from collections import defaultdict\n" +
+            "\n" +
+            "class Registro{n}:\n" +
+            "    \"\"\"Registro de prueba {n}\"\"\"\n" +
+            "    def __init__(self, nombre, valor=0x1F):\n" +
+            "        self.nombre = nombre\n" +
+            "        self.valor_{n} = valor * 2.5e3 + 1_000\n" +
+            "\n" +
+            "    def procesar(self, datos):\n" +
+            "        total_{n} = 0\n" +
+            "        for i in range(len(datos)):\n" +
+            "            if datos[i] >= 10 and not datos[i] == 99:\n" +
+            "                total_{n} += datos[i] // 3\n" +
+            "            elif datos[i] != 0:\n" +
+            "                total_{n} -= 1\n" +
+            "        return {'total': total_{n}, \"nombre\": self.nombre}\n" +
+            "\n" +
+            "def main_{n}(args):\n" +
+            "    registro = Registro{n}('r{n}', 42)\n" +
+            "    print(registro.procesar([1, 2, 3, 4, 5]))\n" +
+            "\n";
+
+    private static final String HTML =
+            "<!-- Sección {n} -->\n" +
+            "<div class=\"seccion\" id=\"s{n}\">\n" +
+            "  <h2>Título {n}</h2>\n" +
+            "  <p>Texto de la sección <b>{n}</b> con un <a href=\"/pagina/{n}\">enlace</a>.</p>\n" +
+            "  <ul>\n" +
+            "    <li>Primero</li>\n" +
+            "    <li>Segundo</li>\n" +
+            "  </ul>\n" +
+            "  <img src=\"imagen{n}.png\" alt=\"imagen\">\n" +
+            "  <form action=\"/enviar\" method=\"post\">\n" +
+            "    <input type=\"text\" name=\"campo{n}\">\n" +
+            "    <br>\n" +
+            "    <button type=\"submit\">Enviar</button>\n" +
+            "  </form>\n" +
+            "</div>\n";
+
+    private static final String SQL =
+            "-- Bloque {n}\n" +
+            "CREATE TABLE clientes_{n} (id NUMBER PRIMARY KEY, nombre VARCHAR2(50), saldo NUMBER(10,2));\n" +
+            "INSERT INTO clientes_{n} (id, nombre, saldo) VALUES ({n}, 'Cliente ''{n}''', 1500.75);\n" +
+            "SELECT c.id, c.nombre, SUM(p.total) AS total\n" +
+            "  FROM clientes_{n} c INNER JOIN pedidos p ON p.cliente_id = c.id\n" +
+            " WHERE c.saldo >= 100 AND p.estado <> 'ANULADO'\n" +
+            " GROUP BY c.id, c.nombre\n" +
+            "HAVING COUNT(*) > 2\n" +
+            " ORDER BY total DESC;\n" +
+            "/* Ajuste de saldos\n   del bloque {n} */\n" +
+            "UPDATE clientes_{n} SET saldo = saldo * 1.05 WHERE id = {n};\n" +
+            "DELETE FROM pedidos WHERE cliente_id = {n};\n" +
+            "\n";
+
+    private Corpus() {
+    }
+
+    /**
+     * Texto del lenguaje con al menos el tamaño indicado
+     */
+    public static String texto(LanguageType lenguaje, Tamano tamano) {
+        String fragmento = fragmento(lenguaje);
+        StringBuilder texto = new StringBuilder(tamano.caracteres + fragmento.length() * 2);
+        if (lenguaje == LanguageType.HTML) {
+            texto.append("<!DOCTYPE html>\n<html>\n<head><title>Prueba</title></head>\n<body>\n");
+        }
+        for (int n = 1; texto.length() < tamano.caracteres; n++) {
+            texto.append(fragmento.replace("{n}", Integer.toString(n)));
+        }
+        if (lenguaje == LanguageType.HTML) {
+            texto.append("</body>\n</html>\n");
+        }
+        return texto.toString();
+    }
+
+    /**
+     * Tamaño del texto en megabytes, codificado en UTF-8
+     */
+    public static double megabytes(String texto) {
+        return texto.getBytes(StandardCharsets.UTF_8).length / (1024.0 * 1024.0);
+    }
+
+    private static String fragmento(LanguageType lenguaje) {
+        switch (lenguaje) {
+            case PYTHON:
+                return PYTHON;
+            case HTML:
+                return HTML;
+            case PLSQL:
+                return SQL;
+            default:
+                throw new IllegalArgumentException("Lenguaje sin corpus: " + lenguaje);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.analyzer.benchmark;
+
+import com.analyzer.model.ErrorSink;
+import com.analyzer.model.LanguageType;
+import com.analyzer.model.TokenBuffer;
+import com.analyzer.service.LexicalAnalizer.HTMLLexicalAnalyzer;
+import com.analyzer.service.LexicalAnalizer.PythonLexicalAnalyzer;
+import com.analyzer.service.LexicalAnalizer.SQLLexicalAnalyzer;
+import com.analyzer.service.interfaces.ILexicalAnalyzer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Análisis léxico completo de un documento con el analizador de cada lenguaje.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LexerBenchmark {
+
+    @Param({"PYTHON", "HTML", "PLSQL"})
+    public LanguageType lenguaje;
+
+    @Param({"PEQUENO", "MEDIANO", "GRANDE"})
+    public Corpus.Tamano tamano;
+
+    private String texto;
+    private double megabytes;
+    private ILexicalAnalyzer analizador;
+
+    @Setup
+    public void preparar() {
+        texto = Corpus.texto(lenguaje, tamano);
+        megabytes = Corpus.megabytes(texto);
+        analizador = analizadorDe(lenguaje);
+    }
+
+    static ILexicalAnalyzer analizadorDe(LanguageType lenguaje) {
+        switch (lenguaje) {
+            case PYTHON:
+                return new PythonLexicalAnalyzer();
+            case HTML:
+                return new HTMLLexicalAnalyzer();
+            case PLSQL:
+                return new SQLLexicalAnalyzer();
+            default:
+                throw new IllegalArgumentException("Lenguaje sin analizador: " + lenguaje);
+        }
+    }
+
+    @Benchmark
+    public TokenBuffer analizar(Contadores contadores) {
+        TokenBuffer tokens = analizador.analyzeLexicalBuffer(texto, new ErrorSink());
+        contadores.registrar(megabytes, tokens.size());
+        return tokens;
+    }
+}
@@ -0,0 +1,137 @@
+package com.analyzer.benchmark;
+
+import com.analyzer.controller.AnalysisController;
+import com.analyzer.model.AnalysisError;
+import com.analyzer.model.ErrorSink;
+import com.analyzer.model.LanguageType;
+import com.analyzer.model.TokenBuffer;
+import com.analyzer.model.TokenDelta;
+import com.analyzer.service.LanguageDetectorService;
+import com.analyzer.service.SemanticAnalyzerService;
+import com.analyzer.service.SyntacticAnalyzerService;
+import com.analyzer.service.metrics.AnalysisMetrics;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Las etapas que siguen al análisis léxico, cada una sobre los tokens ya
+ * calculados, más la detección de lenguaje, el análisis completo del
+ * controlador tal como lo ejecuta la interfaz y una edición del editor
+ * aplicada al análisis léxico incremental.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PipelineBenchmark {
+
+    @Param({"PYTHON", "HTML", "PLSQL"})
+    public LanguageType lenguaje;
+
+    @Param({"PEQUENO", "MEDIANO", "GRANDE"})
+    public Corpus.Tamano tamano;
+
+    private String texto;
+    private double megabytes;
+    private TokenBuffer tokens;
+
+    private final LanguageDetectorService detector = new LanguageDetectorService();
+    private final SyntacticAnalyzerService sintactico = new SyntacticAnalyzerService();
+    private final SemanticAnalyzerService semantico = new SemanticAnalyzerService();
+
+    @Setup
+    public void preparar() {
+        texto = Corpus.texto(lenguaje, tamano);
+        megabytes = Corpus.megabytes(texto);
+        tokens = LexerBenchmark.analizadorDe(lenguaje).analyzeLexicalBuffer(texto, new ErrorSink());
+    }
+
+    @Benchmark
+    public LanguageType deteccion(Contadores contadores) {
+        LanguageType detectado = detector.detectLanguage(texto);
+        contadores.registrar(megabytes, 0);
+        return detectado;
+    }
+
+    @Benchmark
+    public List<AnalysisError> sintactico(Contadores contadores) {
+        List<AnalysisError> errores = sintactico.analyze(tokens, lenguaje);
+        contadores.registrar(megabytes, tokens.size());
+        return errores;
+    }
+
+    @Benchmark
+    public List<AnalysisError> semantico(Contadores contadores) {
+        List<AnalysisError> errores = semantico.analyze(tokens, lenguaje, null);
+        contadores.registrar(megabytes, tokens.size());
+        return errores;
+    }
+
+    /**
+     * Cada llamada usa un controlador nuevo, así que no aprovecha nada de un
+     * análisis anterior del mismo texto
+     */
+    @Benchmark
+    public AnalysisController.AnalysisResult completo(Controlador controlador, Contadores contadores) {
+        AnalysisController.AnalysisResult resultado = controlador.controlador.performCompleteAnalysis(texto);
+        contadores.registrar(megabytes, resultado.getTokens() != null ? resultado.getTokens().size() : 0);
+        return resultado;
+    }
+
+    /**
+     * Inserta una línea en blanco a mitad del texto y, en la llamada siguiente,
+     * la quita; solo se mide lo que se vuelve a tokenizar
+     */
+    @Benchmark
+    public TokenDelta edicion(Editor editor, Contadores contadores) {
+        TokenDelta cambio = editor.editar();
+        contadores.registrar(0, cambio.agregados());
+        return cambio;
+    }
+
+    /**
+     * Controlador recién creado para cada llamada a {@link #completo}
+     */
+    @State(Scope.Thread)
+    public static class Controlador {
+        AnalysisController controlador;
+
+        @Setup(Level.Invocation)
+        public void crear() {
+            controlador = new AnalysisController(new AnalysisMetrics());
+        }
+    }
+
+    /**
+     * Controlador con una sesión del editor sobre el texto del benchmark
+     */
+    @State(Scope.Thread)
+    public static class Editor {
+        private AnalysisController controlador;
+        private int posicion;
+        private boolean insertada;
+
+        @Setup(Level.Trial)
+        public void abrir(PipelineBenchmark benchmark) {
+            String texto = benchmark.texto;
+            controlador = new AnalysisController(new AnalysisMetrics());
+            // La primera edición inicia la sesión y el análisis carga el texto
+            controlador.registrarEdicion(0, 0, "");
+            controlador.performCompleteAnalysis(texto);
+            posicion = texto.indexOf('\n', texto.length() / 2) + 1;
+            insertada = false;
+        }
+
+        TokenDelta editar() {
+            TokenDelta cambio = insertada
+                    ? controlador.registrarEdicion(posicion, 1, "")
+                    : controlador.registrarEdicion(posicion, 0, "\n");
+            insertada = !insertada;
+            return cambio;
+        }
+    }
+}
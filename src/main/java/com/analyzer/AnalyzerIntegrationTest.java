@@ -3,8 +3,18 @@ package com.analyzer;
 import com.analyzer.controller.AnalysisController;
 import com.analyzer.model.AnalysisError;
 import com.analyzer.model.LanguageType;
-
+import com.analyzer.model.Token;
+import com.analyzer.model.TokenBuffer;
+import com.analyzer.service.LanguageDetectorService;
+import com.analyzer.service.LexicalAnalizer.HTMLLexicalAnalyzer;
+import com.analyzer.service.LexicalAnalizer.IncrementalLexer;
+import com.analyzer.service.LexicalAnalizer.PythonLexicalAnalyzer;
+import com.analyzer.service.LexicalAnalizer.SQLLexicalAnalyzer;
+import com.analyzer.service.interfaces.ILexicalAnalyzer;
+
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 public class AnalyzerIntegrationTest {
 
@@ -14,9 +24,11 @@ public class AnalyzerIntegrationTest {
         System.out.println("Iniciando pruebas de integración...\n");
 
         inicializar();
+        probarDeteccionLenguaje();
         //probarAnalisisPython();
         probarAnalisisHtml();
 //        probarAnalisisPlsql();
+        probarAnalisisIncremental();
 
         System.out.println("\nPruebas de integración completadas.");
     }
@@ -50,6 +62,27 @@ public class AnalyzerIntegrationTest {
 //        verificarResultado(resultado, LanguageType.PYTHON);
 //    }
 
+    private void probarDeteccionLenguaje() {
+        System.out.println("\n=== Prueba de detección de lenguaje ===");
+        // "from" también es señal de Python, pero no debe superar a las del lenguaje del texto
+        verificarDeteccion("INSERT INTO t VALUES (1); SELECT a FROM t; SELECT b FROM u; SELECT c FROM v;",
+                LanguageType.PLSQL);
+        verificarDeteccion("DELETE FROM a; DELETE FROM b; SELECT x FROM c;", LanguageType.PLSQL);
+        verificarDeteccion("<html><body><p>Data from this page comes from many sources, "
+                + "from users and from partners.</p></body></html>", LanguageType.HTML);
+        verificarDeteccion("from os import path\nimport sys\n", LanguageType.PYTHON);
+        verificarDeteccion("texto sin ninguna señal", LanguageType.UNKNOWN);
+    }
+
+    private void verificarDeteccion(String codigo, LanguageType lenguajeEsperado) {
+        LanguageType detectado = new LanguageDetectorService().detectLanguage(codigo);
+        if (detectado != lenguajeEsperado) {
+            System.out.println("ERROR: se detectó " + detectado + " en lugar de " + lenguajeEsperado + ": " + codigo);
+        } else {
+            System.out.println("- " + lenguajeEsperado + " detectado correctamente");
+        }
+    }
+
     private void probarAnalisisHtml() {
         System.out.println("\n=== Prueba de análisis HTML ===");
         String codigoHtml =
@@ -64,6 +97,66 @@ public class AnalyzerIntegrationTest {
 
         verificarResultado(resultado, LanguageType.HTML);
     }
+
+    private void probarAnalisisIncremental() {
+        System.out.println("\n=== Prueba de análisis incremental ===");
+        verificarIncremental(LanguageType.PYTHON, new PythonLexicalAnalyzer(), new String[]{
+                "def f(x):\n", "    return x\n", "\n", "'''doc\n", "'''", "  ", "if a:\n", "\tb=1\n",
+                "s = \"abc", "(", "]", "x+1"});
+        // ı y ſ cambian de letra al pasar a mayúsculas; '' es el escape de comilla en SQL
+        verificarIncremental(LanguageType.PLSQL, new SQLLexicalAnalyzer(), new String[]{
+                "SELECT a FROM t;\n", "'str\n", "'", "\n", "INSERT INTO t VALUES (1);\n", "-- c\n", "/* x */",
+                "DELETE FROM t", "(", ")", " ", "--", "-", "''", "sel\u0131ct ", "\u017Fet ", "o'neil", "x\n'"});
+        verificarIncremental(LanguageType.HTML, new HTMLLexicalAnalyzer(), new String[]{
+                "<script>", "</script>", "\n", "<p>", "</p>", " x < y ", "<div class=\"a", "\">", "text",
+                "<!-- c -->", "<"});
+    }
+
+    /**
+     * Aplica ediciones al azar al análisis incremental y compara, después de
+     * cada una, sus tokens y errores con los de analizar el texto completo
+     */
+    private void verificarIncremental(LanguageType lenguaje, ILexicalAnalyzer completo, String[] fragmentos) {
+        Random azar = new Random(3);
+        for (int documento = 0; documento < 200; documento++) {
+            StringBuilder texto = new StringBuilder();
+            for (int i = 0; i < 20; i++) {
+                texto.append(fragmentos[azar.nextInt(fragmentos.length)]);
+            }
+            IncrementalLexer incremental = IncrementalLexer.para(lenguaje);
+            incremental.cargar(texto);
+
+            for (int edicion = 0; edicion <= 10; edicion++) {
+                List<AnalysisError> errores = new ArrayList<>();
+                TokenBuffer tokens = completo.analyzeLexicalBuffer(texto.toString(), errores);
+                if (!describir(tokens, errores).equals(describir(incremental.tokens(), incremental.errores()))) {
+                    System.out.println("ERROR: el análisis incremental de " + lenguaje
+                            + " difiere del completo en: " + texto);
+                    return;
+                }
+
+                int inicio = azar.nextInt(texto.length() + 1);
+                int eliminados = Math.min(azar.nextInt(5), texto.length() - inicio);
+                String insertado = azar.nextBoolean() ? fragmentos[azar.nextInt(fragmentos.length)] : "";
+                incremental.editar(inicio, eliminados, insertado);
+                texto.replace(inicio, inicio + eliminados, insertado);
+            }
+        }
+        System.out.println("- " + lenguaje + ": el análisis incremental coincide con el completo");
+    }
+
+    private String describir(TokenBuffer tokens, List<AnalysisError> errores) {
+        StringBuilder descripcion = new StringBuilder();
+        for (Token token : tokens.asList()) {
+            descripcion.append(token.getType()).append(' ').append(token.getValue())
+                    .append(' ').append(token.getPosition()).append('\n');
+        }
+        for (AnalysisError error : errores) {
+            descripcion.append(error.getMessage()).append(' ').append(error.getLine())
+                    .append(':').append(error.getColumn()).append('\n');
+        }
+        return descripcion.toString();
+    }
 //
 //    private void probarAnalisisPlsql() {
 //        System.out.println("\n=== Prueba de análisis PL/SQL ===");
@@ -4,9 +4,14 @@ package com.analyzer.controller;
 import com.analyzer.model.*;
 import com.analyzer.service.*;
 import com.analyzer.service.LexicalAnalizer.HTMLLexicalAnalyzer;
+import com.analyzer.service.LexicalAnalizer.IncrementalLexer;
 import com.analyzer.service.LexicalAnalizer.PythonLexicalAnalyzer;
 import com.analyzer.service.LexicalAnalizer.SQLLexicalAnalyzer;
 import com.analyzer.service.interfaces.*;
+import com.analyzer.service.metrics.AnalysisMetrics;
+import com.analyzer.service.metrics.InstrumentedLexicalAnalyzer;
+import com.analyzer.service.metrics.InstrumentedSemanticAnalyzer;
+import com.analyzer.service.metrics.InstrumentedSyntacticAnalyzer;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -20,25 +25,49 @@ public class AnalysisController {
 
     private final ILanguageDetector languageDetector;
     private final ILexicalAnalyzer lexicalAnalyzer;
+    // El mismo servicio, para el análisis genérico del código de lenguaje desconocido
+    private final ILexicalAnalyzer lexicoGenerico;
     private final ISyntacticAnalyzer syntacticAnalyzer;
     private final ISemanticAnalyzer semanticAnalyzer;
     private final ExecutionSimulator executionSimulator;
 
+    // Análisis léxico del texto del editor que se actualiza con cada edición,
+    // y el mismo con sus métricas. Solo se usa desde que el editor registra
+    // una edición; los demás análisis usan los analizadores de cada lenguaje
+    private volatile boolean sesionEditor;
+    private IncrementalLexer lexicoIncremental;
+    private ILexicalAnalyzer lexicoEditor;
+
+    // Duración y volumen de cada etapa, por lenguaje
+    private final AnalysisMetrics metricas;
+
     public AnalysisController() {
+        this(AnalysisMetrics.global());
+    }
+
+    public AnalysisController(AnalysisMetrics metricas) {
+        this.metricas = metricas;
         this.languageDetector = new LanguageDetectorService();
         this.lexicalAnalyzer = new LexicalAnalyzerService(
                 languageDetector,
                 Map.of(
-                        LanguageType.PYTHON, new PythonLexicalAnalyzer(),
-                        LanguageType.HTML, new HTMLLexicalAnalyzer(),
-                        LanguageType.PLSQL, new SQLLexicalAnalyzer()
+                        LanguageType.PYTHON, instrumentado(LanguageType.PYTHON, new PythonLexicalAnalyzer()),
+                        LanguageType.HTML, instrumentado(LanguageType.HTML, new HTMLLexicalAnalyzer()),
+                        LanguageType.PLSQL, instrumentado(LanguageType.PLSQL, new SQLLexicalAnalyzer())
                 )
         );
-        this.syntacticAnalyzer = new SyntacticAnalyzerService();
-        this.semanticAnalyzer = new SemanticAnalyzerService();
+        this.lexicoGenerico = instrumentado(LanguageType.UNKNOWN, lexicalAnalyzer);
+        this.syntacticAnalyzer = new InstrumentedSyntacticAnalyzer(new SyntacticAnalyzerService(), metricas);
+        this.semanticAnalyzer = new InstrumentedSemanticAnalyzer(new SemanticAnalyzerService(), metricas);
         this.executionSimulator = new ExecutionSimulator();
     }
 
+    public AnalysisMetrics getMetricas() { return metricas; }
+
+    private ILexicalAnalyzer instrumentado(LanguageType lenguaje, ILexicalAnalyzer analizador) {
+        return new InstrumentedLexicalAnalyzer(lenguaje, analizador, metricas);
+    }
+
     /**
      * Realiza el análisis completo del código
      */
@@ -46,22 +75,24 @@ public class AnalysisController {
         AnalysisResult result = new AnalysisResult();
 
         try {
-            // 1. Detectar lenguaje
-            LanguageType language = languageDetector.detectLanguage(code);
+            // 1. Detectar lenguaje una sola vez; las etapas lo toman del contexto, junto
+            // con la tabla de nombres de este análisis, que se descarta al terminar
+            AnalysisContext contexto = new AnalysisContext(code, languageDetector.detect(code));
+            LanguageType language = contexto.getLanguage();
             result.setLanguage(language);
 
-            // 2. Análisis léxico
-            List<AnalysisError> lexicalErrors = new ArrayList<>();
-            List<Token> tokens = lexicalAnalyzer.analyzeLexical(code, lexicalErrors);
-            result.setTokens(tokens);
+            // 2. Análisis léxico; los mensajes se crean cuando la vista los lee
+            List<AnalysisError> lexicalErrors = new ErrorSink();
+            TokenBuffer tokens = analizarLexico(contexto, lexicalErrors);
+            result.setTokenBuffer(tokens);
             result.setLexicalErrors(lexicalErrors);
 
             // 3. Análisis sintáctico
-            List<AnalysisError> syntacticErrors = syntacticAnalyzer.analyze(tokens, language);
+            List<AnalysisError> syntacticErrors = syntacticAnalyzer.analyze(contexto);
             result.setSyntacticErrors(syntacticErrors);
 
             // 4. Análisis semántico
-            List<AnalysisError> semanticErrors = semanticAnalyzer.analyze(tokens, language, null);
+            List<AnalysisError> semanticErrors = semanticAnalyzer.analyze(contexto, null);
             result.setSemanticErrors(semanticErrors);
 
             // 5. Obtener tabla de símbolos
@@ -87,11 +118,71 @@ public class AnalysisController {
         return result;
     }
 
+    /**
+     * Aplica una edición del editor al análisis léxico incremental. La primera
+     * edición inicia la sesión del editor: desde ahí los análisis pasan por el
+     * análisis incremental. Si no hay uno para el texto actual, o la edición
+     * reemplaza todo el texto, se descarta y el próximo análisis lo vuelve a crear.
+     */
+    public synchronized TokenDelta registrarEdicion(int inicio, int eliminados, String insertado) {
+        sesionEditor = true;
+        if (lexicoIncremental == null) {
+            return null;
+        }
+        int longitud = lexicoIncremental.longitud();
+        if (inicio + eliminados > longitud || (longitud > 0 && eliminados == longitud)) {
+            lexicoIncremental = null;
+            return null;
+        }
+        long comienzo = System.nanoTime();
+        TokenDelta cambio = lexicoIncremental.editar(inicio, eliminados, insertado);
+        metricas.registrar(AnalysisMetrics.Etapa.EDICION, lexicoIncremental.lenguaje(),
+                eliminados + insertado.length(), cambio.agregados(), 0, System.nanoTime() - comienzo);
+        return cambio;
+    }
+
+    /**
+     * Tokens del código; quedan también en el contexto. Fuera de una sesión del
+     * editor cada análisis usa el analizador de su lenguaje, sin estado
+     * compartido, así que los análisis concurrentes no se esperan entre sí
+     */
+    private TokenBuffer analizarLexico(AnalysisContext contexto, List<AnalysisError> errores) {
+        LanguageType language = contexto.getLanguage();
+        TokenBuffer tokens;
+        if (language == LanguageType.UNKNOWN) {
+            tokens = lexicoGenerico.analyzeLexicalBuffer(contexto, errores);
+        } else if (sesionEditor) {
+            tokens = analizarEnEditor(contexto, errores);
+        } else {
+            tokens = lexicalAnalyzer.analyzeLexicalBuffer(contexto, errores);
+        }
+        contexto.setTokens(tokens);
+        return tokens;
+    }
+
+    /**
+     * Tokens del texto del editor con el análisis incremental. Si las ediciones
+     * ya lo dejaron al día, se devuelven sus tokens sin registrar otro análisis
+     * léxico: el tiempo de tokenizar quedó en la etapa EDICION
+     */
+    private synchronized TokenBuffer analizarEnEditor(AnalysisContext contexto, List<AnalysisError> errores) {
+        LanguageType language = contexto.getLanguage();
+        if (lexicoIncremental == null || lexicoIncremental.lenguaje() != language) {
+            lexicoIncremental = IncrementalLexer.para(language);
+            lexicoEditor = new InstrumentedLexicalAnalyzer(language, lexicoIncremental, metricas);
+        } else if (lexicoIncremental.coincideCon(contexto.getSource())) {
+            errores.addAll(lexicoIncremental.errores());
+            return lexicoIncremental.instantanea();
+        }
+        return lexicoEditor.analyzeLexicalBuffer(contexto, errores);
+    }
+
     /**
      * Clase interna para encapsular los resultados del análisis
      */
     public static class AnalysisResult {
         private LanguageType language;
+        private TokenBuffer tokenBuffer;
         private List<Token> tokens;
         private List<AnalysisError> lexicalErrors;
         private List<AnalysisError> syntacticErrors;
@@ -113,7 +204,17 @@ public class AnalysisController {
         public void setLanguage(LanguageType language) { this.language = language; }
 
         public List<Token> getTokens() { return tokens; }
-        public void setTokens(List<Token> tokens) { this.tokens = tokens; }
+        public void setTokens(List<Token> tokens) {
+            this.tokens = tokens;
+            this.tokenBuffer = tokens != null ? TokenBuffer.desdeTokens(tokens) : null;
+        }
+
+        // Tokens en columnas; getTokens() es una vista de solo lectura sobre este buffer
+        public TokenBuffer getTokenBuffer() { return tokenBuffer; }
+        public void setTokenBuffer(TokenBuffer tokenBuffer) {
+            this.tokenBuffer = tokenBuffer;
+            this.tokens = tokenBuffer != null ? tokenBuffer.asList() : null;
+        }
 
         public List<AnalysisError> getLexicalErrors() { return lexicalErrors; }
         public void setLexicalErrors(List<AnalysisError> lexicalErrors) {
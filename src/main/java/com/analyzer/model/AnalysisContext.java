@@ -0,0 +1,51 @@
+package com.analyzer.model;
+
+/**
+ * Lo que comparten las etapas de un mismo análisis: el texto, el lenguaje
+ * detectado una sola vez, el índice de líneas y la tabla de nombres, y los
+ * tokens una vez que la etapa léxica los produce. Cada análisis tiene su
+ * propio contexto y no se comparte entre hilos.
+ */
+public final class AnalysisContext {
+    private final CharSequence source;
+    private final DetectionResult detection;
+    private final InternPool internPool;
+
+    // Se calculan la primera vez que una etapa los pide
+    private LineIndex lineIndex;
+    private TokenBuffer tokens;
+
+    /**
+     * Contexto con su propia tabla de nombres, que se descarta junto con él
+     */
+    public AnalysisContext(CharSequence source, DetectionResult detection) {
+        this(source, detection, InternPool.para(source));
+    }
+
+    public AnalysisContext(CharSequence source, DetectionResult detection, InternPool internPool) {
+        this.source = source;
+        this.detection = detection;
+        this.internPool = internPool;
+    }
+
+    public CharSequence getSource() { return source; }
+    public DetectionResult getDetection() { return detection; }
+    public LanguageType getLanguage() { return detection.getLanguage(); }
+    public InternPool getInternPool() { return internPool; }
+
+    /**
+     * Índice de inicios de línea del texto, construido una sola vez
+     */
+    public LineIndex getLineIndex() {
+        if (lineIndex == null) {
+            lineIndex = new LineIndex(source);
+        }
+        return lineIndex;
+    }
+
+    /**
+     * Tokens de la etapa léxica, o null si todavía no se analizó
+     */
+    public TokenBuffer getTokens() { return tokens; }
+    public void setTokens(TokenBuffer tokens) { this.tokens = tokens; }
+}
@@ -0,0 +1,35 @@
+package com.analyzer.model;
+
+/**
+ * Resultado de la detección de lenguaje: el lenguaje, qué tan seguro es
+ * (de 0 a 1) y cuántos caracteres del texto se revisaron para decidirlo.
+ */
+public final class DetectionResult {
+    private final LanguageType language;
+    private final double confidence;
+    private final long charactersInspected;
+    private final boolean fullScan;
+
+    public DetectionResult(LanguageType language, double confidence, long charactersInspected, boolean fullScan) {
+        this.language = language;
+        this.confidence = confidence;
+        this.charactersInspected = charactersInspected;
+        this.fullScan = fullScan;
+    }
+
+    public LanguageType getLanguage() { return language; }
+    public double getConfidence() { return confidence; }
+    public long getCharactersInspected() { return charactersInspected; }
+
+    /**
+     * Indica si se recorrió el texto completo, porque era corto o porque las
+     * muestras no alcanzaron la confianza mínima
+     */
+    public boolean isFullScan() { return fullScan; }
+
+    @Override
+    public String toString() {
+        return language + " (confianza " + String.format("%.2f", confidence) + ", "
+                + charactersInspected + " caracteres" + (fullScan ? ", completo)" : ")");
+    }
+}
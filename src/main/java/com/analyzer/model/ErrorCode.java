@@ -0,0 +1,108 @@
+package com.analyzer.model;
+
+import com.analyzer.model.AnalysisError.ErrorType;
+
+/**
+ * Errores que reportan los analizadores léxicos, con su tipo y la plantilla
+ * del mensaje. En la plantilla, {0} y {1} son los argumentos que se guardaron
+ * al reportar el error en un {@link ErrorSink}.
+ */
+public enum ErrorCode {
+
+    // Análisis por ventanas, en cualquier lenguaje
+    TOKEN_DEMASIADO_LARGO(ErrorType.LEXICAL, "Token de más de {0} caracteres: se reconoce solo hasta ese largo"),
+
+    // SQL
+    SQL_STRING_SIN_TERMINAR(ErrorType.LEXICAL, "String SQL sin terminar: {0}"),
+    SQL_STRING_MUY_LARGO(ErrorType.WARNING, "String SQL muy largo ({0} caracteres)"),
+    SQL_STRING_CON_CONTROL(ErrorType.WARNING, "String contiene caracteres de control"),
+    SQL_DECIMAL_FUERA_DE_RANGO(ErrorType.LEXICAL, "Número decimal fuera de rango: {0}"),
+    SQL_ENTERO_MUY_GRANDE(ErrorType.WARNING, "Número entero muy grande: {0}"),
+    SQL_NUMERO_INVALIDO(ErrorType.LEXICAL, "Formato de número inválido: {0}"),
+    SQL_IDENTIFICADOR_MUY_LARGO(ErrorType.WARNING, "Identificador SQL muy largo ({0} caracteres)"),
+    SQL_KEYWORD_MAL_ESCRITO(ErrorType.WARNING, "Posible keyword mal escrito: '{0}', ¿quiso decir '{1}'?"),
+    SQL_CARACTER_INVALIDO(ErrorType.LEXICAL, "Carácter no reconocido en SQL: '{0}'"),
+    SQL_SELECT_SIN_FROM(ErrorType.SYNTACTIC, "SELECT sin cláusula FROM"),
+    SQL_INSERT_SIN_INTO(ErrorType.SYNTACTIC, "INSERT debe incluir INTO"),
+    SQL_INSERT_SIN_VALUES(ErrorType.SYNTACTIC, "INSERT debe incluir VALUES"),
+    SQL_UPDATE_SIN_SET(ErrorType.SYNTACTIC, "UPDATE debe incluir SET"),
+    SQL_DELETE_SIN_FROM(ErrorType.SYNTACTIC, "DELETE debe incluir FROM"),
+    SQL_DELETE_SIN_WHERE(ErrorType.WARNING, "DELETE sin WHERE eliminará todos los registros - PELIGRO"),
+    SQL_PARENTESIS_SIN_APERTURA(ErrorType.SYNTACTIC, "Paréntesis de cierre sin apertura"),
+    SQL_PARENTESIS_SIN_CERRAR(ErrorType.SYNTACTIC, "{0} paréntesis sin cerrar"),
+
+    // Python
+    PY_MEZCLA_INDENTACION(ErrorType.LEXICAL, "Mezcla inconsistente de tabs y espacios en la indentación"),
+    PY_TAB_ERROR(ErrorType.LEXICAL, "Uso inconsistente de tabs y espacios en el archivo (TabError)"),
+    PY_INDENTACION_SIN_NIVEL(ErrorType.LEXICAL, "El nivel de indentación no coincide con ningún nivel externo"),
+    PY_STRING_SIN_TERMINAR(ErrorType.LEXICAL, "String sin terminar: {0}"),
+    PY_IDENTIFICADOR_INVALIDO(ErrorType.LEXICAL,
+            "Error léxico: identificador inválido '{0}' - no puede comenzar con número"),
+    PY_ESCAPE_INVALIDO(ErrorType.LEXICAL, "Secuencia de escape inválida: {0}"),
+    PY_ESCAPE_HEX_INCOMPLETO(ErrorType.LEXICAL, "Escape hexadecimal incompleto: \\x requiere exactamente 2 dígitos"),
+    PY_UNDERSCORE_NUMERICO(ErrorType.LEXICAL, "Uso inválido de underscore en literal numérico"),
+    PY_DIGITO_BINARIO(ErrorType.LEXICAL, "Dígito inválido '{0}' en literal binario"),
+    PY_DIGITO_OCTAL(ErrorType.LEXICAL, "Dígito inválido '{0}' en literal octal"),
+    PY_DIGITO_HEXADECIMAL(ErrorType.LEXICAL, "Dígito inválido '{0}' en literal hexadecimal"),
+    PY_IDENTIFICADOR_CON_DIGITO(ErrorType.LEXICAL, "Identificador no puede empezar con dígito: {0}"),
+    PY_GUION_EN_IDENTIFICADOR(ErrorType.LEXICAL, "Carácter inválido en identificador: '-' (use underscore)"),
+    PY_IDENTIFICADOR_CORTO(ErrorType.WARNING, "Nombre de identificador muy corto: '{0}'"),
+    PY_CARACTER_INVALIDO(ErrorType.LEXICAL, "Carácter inválido: '%c' (Unicode: U+%04X)") {
+        @Override
+        String formatear(String[] argumentos) {
+            char caracter = argumentos[0].charAt(0);
+            switch (caracter) {
+                case '$':
+                    return "Carácter inválido '$' - no está definido como token en Python";
+                case '¡':
+                    return "Carácter inválido '¡' - no permitido en Python";
+                case '¿':
+                    return "Carácter inválido '¿' - no permitido en Python";
+                default:
+                    return String.format(plantilla, caracter, (int) caracter);
+            }
+        }
+    },
+    PY_PARENTESIS_SIN_CERRAR(ErrorType.LEXICAL, "EOF en declaración multilínea: {0} paréntesis sin cerrar"),
+    PY_CORCHETES_SIN_CERRAR(ErrorType.LEXICAL, "EOF en declaración multilínea: {0} corchetes sin cerrar"),
+    PY_LLAVES_SIN_CERRAR(ErrorType.LEXICAL, "EOF en declaración multilínea: {0} llaves sin cerrar"),
+
+    // HTML
+    HTML_ETIQUETA_DESCONOCIDA(ErrorType.WARNING, "Etiqueta HTML no reconocida: {0}"),
+    HTML_ETIQUETA_MAL_ESCRITA(ErrorType.WARNING, "Posible error de escritura: '{0}', ¿quiso decir '{1}'?"),
+    HTML_CARACTER_INVALIDO(ErrorType.LEXICAL, "Carácter no reconocido en HTML: '{0}'"),
+    HTML_VALOR_SIN_CERRAR(ErrorType.LEXICAL, "Valor del atributo {0} sin comilla de cierre en su línea"),
+    HTML_CIERRE_SIN_APERTURA(ErrorType.SYNTACTIC, "Etiqueta de cierre sin apertura: {0}"),
+    HTML_MAL_ANIDADAS(ErrorType.SYNTACTIC, "Etiquetas mal anidadas: esperaba </{1}> pero encontró {0}"),
+    HTML_SIN_CERRAR(ErrorType.SYNTACTIC, "Etiqueta sin cerrar: <{0}>");
+
+    private final ErrorType tipo;
+    final String plantilla;
+
+    ErrorCode(ErrorType tipo, String plantilla) {
+        this.tipo = tipo;
+        this.plantilla = plantilla;
+    }
+
+    public ErrorType getTipo() { return tipo; }
+
+    /**
+     * Mensaje con los argumentos en lugar de {0} y {1}
+     */
+    String formatear(String[] argumentos) {
+        StringBuilder mensaje = new StringBuilder(plantilla.length() + 32);
+        for (int i = 0; i < plantilla.length(); i++) {
+            char c = plantilla.charAt(i);
+            if (c == '{' && i + 2 < plantilla.length() && plantilla.charAt(i + 2) == '}') {
+                int argumento = plantilla.charAt(i + 1) - '0';
+                if (argumento >= 0 && argumento < argumentos.length) {
+                    mensaje.append(argumentos[argumento]);
+                    i += 2;
+                    continue;
+                }
+            }
+            mensaje.append(c);
+        }
+        return mensaje.toString();
+    }
+}
@@ -0,0 +1,421 @@
+package com.analyzer.model;
+
+import java.util.*;
+
+/**
+ * Lista de errores guardada como columnas de enteros (código, línea y columna)
+ * y un único arreglo de caracteres con los argumentos de cada mensaje, en
+ * lugar de un AnalysisError por error. El mensaje y el AnalysisError se crean
+ * recién cuando se lee el error con {@link #get(int)}; contar los errores o
+ * consultar su código y su posición no crea ninguno.
+ * <p>
+ * Los analizadores reportan con {@code reportar}; también se pueden agregar
+ * AnalysisError ya creados, que se guardan tal cual. Con un límite, los
+ * errores que se reportan después de alcanzarlo solo se cuentan.
+ */
+public final class ErrorSink extends AbstractList<AnalysisError> implements RandomAccess {
+
+    private static final ErrorCode[] CODIGOS = ErrorCode.values();
+    private static final int CAPACIDAD_INICIAL = 16;
+
+    // Código de los errores agregados ya creados, que no tienen argumentos
+    private static final int SIN_CODIGO = -1;
+
+    private int[] codigos = new int[CAPACIDAD_INICIAL];
+    private int[] lineas = new int[CAPACIDAD_INICIAL];
+    private int[] columnas = new int[CAPACIDAD_INICIAL];
+    // Argumentos: el primero en [inicios, cortes) y el segundo en [cortes, fines) de caracteres
+    private int[] inicios = new int[CAPACIDAD_INICIAL];
+    private int[] cortes = new int[CAPACIDAD_INICIAL];
+    private int[] fines = new int[CAPACIDAD_INICIAL];
+    private AnalysisError[] creados = new AnalysisError[CAPACIDAD_INICIAL];
+    private int tamano;
+
+    private char[] caracteres = new char[CAPACIDAD_INICIAL * 8];
+    private int usados;
+
+    private final int limite;
+    private int descartados;
+
+    // Lista a la que se pasa cada error apenas se reporta, o null
+    private final List<AnalysisError> destino;
+
+    public ErrorSink() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Guarda a lo sumo limite errores reportados; los siguientes solo se cuentan
+     * en {@link #descartados()}
+     */
+    public ErrorSink(int limite) {
+        this(limite, null);
+    }
+
+    private ErrorSink(int limite, List<AnalysisError> destino) {
+        this.limite = Math.max(0, limite);
+        this.destino = destino;
+    }
+
+    /**
+     * Sumidero para reportar en la lista indicada: la misma lista si ya es un
+     * ErrorSink, o uno que crea cada error al reportarlo y lo agrega a ella
+     */
+    public static ErrorSink sobre(List<AnalysisError> errores) {
+        if (errores instanceof ErrorSink) {
+            return (ErrorSink) errores;
+        }
+        return new ErrorSink(Integer.MAX_VALUE, errores);
+    }
+
+    public void reportar(ErrorCode codigo, int linea, int columna) {
+        if (abrir(codigo, linea, columna)) {
+            terminar(usados);
+        }
+    }
+
+    public void reportar(ErrorCode codigo, int linea, int columna, CharSequence argumento) {
+        reportar(codigo, linea, columna, argumento, 0, argumento.length());
+    }
+
+    /**
+     * Reporta un error cuyo argumento es texto[desde, hasta); se copian los
+     * caracteres, así que el texto puede cambiar después
+     */
+    public void reportar(ErrorCode codigo, int linea, int columna, CharSequence texto, int desde, int hasta) {
+        if (abrir(codigo, linea, columna)) {
+            copiar(texto, desde, hasta);
+            terminar(usados);
+        }
+    }
+
+    public void reportar(ErrorCode codigo, int linea, int columna, CharSequence texto, int desde, int hasta,
+                         CharSequence segundo) {
+        if (abrir(codigo, linea, columna)) {
+            copiar(texto, desde, hasta);
+            int corte = usados;
+            copiar(segundo, 0, segundo.length());
+            terminar(corte);
+        }
+    }
+
+    public void reportar(ErrorCode codigo, int linea, int columna, char caracter) {
+        if (abrir(codigo, linea, columna)) {
+            asegurarCaracteres(1);
+            caracteres[usados++] = caracter;
+            terminar(usados);
+        }
+    }
+
+    public void reportar(ErrorCode codigo, int linea, int columna, int valor) {
+        if (abrir(codigo, linea, columna)) {
+            copiarNumero(valor);
+            terminar(usados);
+        }
+    }
+
+    private boolean abrir(ErrorCode codigo, int linea, int columna) {
+        if (tamano >= limite) {
+            descartados++;
+            return false;
+        }
+        if (tamano == codigos.length) {
+            crecer(tamano + 1);
+        }
+        codigos[tamano] = codigo.ordinal();
+        lineas[tamano] = linea;
+        columnas[tamano] = columna;
+        inicios[tamano] = usados;
+        return true;
+    }
+
+    private void terminar(int corte) {
+        cortes[tamano] = corte;
+        fines[tamano] = usados;
+        creados[tamano] = null;
+        tamano++;
+        modCount++;
+        if (destino != null) {
+            destino.add(get(0));
+            vaciar();
+        }
+    }
+
+    private void copiar(CharSequence texto, int desde, int hasta) {
+        asegurarCaracteres(hasta - desde);
+        if (texto instanceof String) {
+            ((String) texto).getChars(desde, hasta, caracteres, usados);
+            usados += hasta - desde;
+        } else {
+            for (int i = desde; i < hasta; i++) {
+                caracteres[usados++] = texto.charAt(i);
+            }
+        }
+    }
+
+    private void copiarNumero(int valor) {
+        asegurarCaracteres(11);
+        long resto = valor;
+        if (resto < 0) {
+            caracteres[usados++] = '-';
+            resto = -resto;
+        }
+        int inicio = usados;
+        do {
+            caracteres[usados++] = (char) ('0' + resto % 10);
+            resto /= 10;
+        } while (resto > 0);
+        for (int i = inicio, j = usados - 1; i < j; i++, j--) {
+            char c = caracteres[i];
+            caracteres[i] = caracteres[j];
+            caracteres[j] = c;
+        }
+    }
+
+    private void asegurarCaracteres(int cantidad) {
+        if (usados + cantidad > caracteres.length) {
+            caracteres = Arrays.copyOf(caracteres, Math.max(usados + cantidad, caracteres.length * 2));
+        }
+    }
+
+    private void crecer(int minimo) {
+        int capacidad = Math.max(minimo, codigos.length + (codigos.length >> 1));
+        codigos = Arrays.copyOf(codigos, capacidad);
+        lineas = Arrays.copyOf(lineas, capacidad);
+        columnas = Arrays.copyOf(columnas, capacidad);
+        inicios = Arrays.copyOf(inicios, capacidad);
+        cortes = Arrays.copyOf(cortes, capacidad);
+        fines = Arrays.copyOf(fines, capacidad);
+        creados = Arrays.copyOf(creados, capacidad);
+    }
+
+    // Consultas sin crear el error
+
+    /**
+     * Código del error, o null si se agregó ya creado
+     */
+    public ErrorCode codigo(int indice) {
+        Objects.checkIndex(indice, tamano);
+        return codigos[indice] == SIN_CODIGO ? null : CODIGOS[codigos[indice]];
+    }
+
+    public AnalysisError.ErrorType tipo(int indice) {
+        Objects.checkIndex(indice, tamano);
+        return codigos[indice] == SIN_CODIGO ? creados[indice].getErrorType() : CODIGOS[codigos[indice]].getTipo();
+    }
+
+    public int linea(int indice) {
+        Objects.checkIndex(indice, tamano);
+        return codigos[indice] == SIN_CODIGO ? creados[indice].getLine() : lineas[indice];
+    }
+
+    public int columna(int indice) {
+        Objects.checkIndex(indice, tamano);
+        return codigos[indice] == SIN_CODIGO ? creados[indice].getColumn() : columnas[indice];
+    }
+
+    /**
+     * Errores reportados después de alcanzar el límite, que no se guardaron
+     */
+    public int descartados() { return descartados; }
+
+    @Override
+    public int size() { return tamano; }
+
+    /**
+     * Crea el error la primera vez que se lee; las lecturas siguientes
+     * devuelven el mismo objeto
+     */
+    @Override
+    public AnalysisError get(int indice) {
+        Objects.checkIndex(indice, tamano);
+        AnalysisError error = creados[indice];
+        if (error == null) {
+            ErrorCode codigo = CODIGOS[codigos[indice]];
+            String[] argumentos = {
+                    new String(caracteres, inicios[indice], cortes[indice] - inicios[indice]),
+                    new String(caracteres, cortes[indice], fines[indice] - cortes[indice])
+            };
+            error = new AnalysisError(codigo.formatear(argumentos), codigo.getTipo(),
+                    lineas[indice], columnas[indice]);
+            creados[indice] = error;
+        }
+        return error;
+    }
+
+    @Override
+    public AnalysisError set(int indice, AnalysisError error) {
+        AnalysisError anterior = get(indice);
+        codigos[indice] = SIN_CODIGO;
+        creados[indice] = Objects.requireNonNull(error);
+        return anterior;
+    }
+
+    @Override
+    public void add(int indice, AnalysisError error) {
+        Objects.requireNonNull(error);
+        if (destino != null) {
+            destino.add(error);
+            return;
+        }
+        Objects.checkIndex(indice, tamano + 1);
+        if (indice == tamano && tamano >= limite) {
+            descartados++;
+            return;
+        }
+        if (tamano == codigos.length) {
+            crecer(tamano + 1);
+        }
+        desplazar(indice, indice + 1);
+        codigos[indice] = SIN_CODIGO;
+        inicios[indice] = usados;
+        cortes[indice] = usados;
+        fines[indice] = usados;
+        creados[indice] = error;
+        tamano++;
+        modCount++;
+    }
+
+    @Override
+    public AnalysisError remove(int indice) {
+        AnalysisError error = get(indice);
+        removeRange(indice, indice + 1);
+        return error;
+    }
+
+    @Override
+    protected void removeRange(int desde, int hasta) {
+        Objects.checkFromToIndex(desde, hasta, tamano);
+        desplazar(hasta, desde);
+        int nuevoTamano = tamano - (hasta - desde);
+        Arrays.fill(creados, nuevoTamano, tamano, null);
+        tamano = nuevoTamano;
+        modCount++;
+    }
+
+    @Override
+    public void clear() {
+        vaciar();
+        descartados = 0;
+        modCount++;
+    }
+
+    private void vaciar() {
+        Arrays.fill(creados, 0, tamano, null);
+        tamano = 0;
+        usados = 0;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends AnalysisError> errores) {
+        if (errores instanceof ErrorSink && destino == null) {
+            ErrorSink otro = (ErrorSink) errores;
+            int antes = tamano;
+            reemplazar(tamano, tamano, otro, 0);
+            return tamano > antes;
+        }
+        return super.addAll(errores);
+    }
+
+    /**
+     * Mueve las filas desde origen hasta el final para que empiecen en destino
+     */
+    private void desplazar(int origen, int destinoFila) {
+        int resto = tamano - origen;
+        System.arraycopy(codigos, origen, codigos, destinoFila, resto);
+        System.arraycopy(lineas, origen, lineas, destinoFila, resto);
+        System.arraycopy(columnas, origen, columnas, destinoFila, resto);
+        System.arraycopy(inicios, origen, inicios, destinoFila, resto);
+        System.arraycopy(cortes, origen, cortes, destinoFila, resto);
+        System.arraycopy(fines, origen, fines, destinoFila, resto);
+        System.arraycopy(creados, origen, creados, destinoFila, resto);
+    }
+
+    /**
+     * Reemplaza los errores [desde, hasta) por todos los de {@code nuevos} y mueve
+     * deltaLinea líneas los siguientes. Los errores que ya se leyeron no se
+     * modifican: los movidos se vuelven a crear con la línea nueva.
+     */
+    public void reemplazar(int desde, int hasta, ErrorSink nuevos, int deltaLinea) {
+        Objects.checkFromToIndex(desde, hasta, tamano);
+        int agregados = Math.min(nuevos.tamano, Math.max(0, limite - (tamano - (hasta - desde))));
+        descartados += nuevos.tamano - agregados + nuevos.descartados;
+        int nuevoTamano = tamano - (hasta - desde) + agregados;
+        if (nuevoTamano > codigos.length) {
+            crecer(nuevoTamano);
+        }
+        desplazar(hasta, desde + agregados);
+        if (nuevoTamano < tamano) {
+            Arrays.fill(creados, nuevoTamano, tamano, null);
+        }
+
+        // Los argumentos de los nuevos se agregan al final de los caracteres
+        int base = usados;
+        asegurarCaracteres(nuevos.usados);
+        System.arraycopy(nuevos.caracteres, 0, caracteres, usados, nuevos.usados);
+        usados += nuevos.usados;
+        System.arraycopy(nuevos.codigos, 0, codigos, desde, agregados);
+        System.arraycopy(nuevos.lineas, 0, lineas, desde, agregados);
+        System.arraycopy(nuevos.columnas, 0, columnas, desde, agregados);
+        System.arraycopy(nuevos.creados, 0, creados, desde, agregados);
+        for (int i = 0; i < agregados; i++) {
+            inicios[desde + i] = nuevos.inicios[i] + base;
+            cortes[desde + i] = nuevos.cortes[i] + base;
+            fines[desde + i] = nuevos.fines[i] + base;
+        }
+        tamano = nuevoTamano;
+        modCount++;
+
+        if (deltaLinea != 0) {
+            for (int i = desde + agregados; i < tamano; i++) {
+                if (codigos[i] == SIN_CODIGO) {
+                    AnalysisError error = creados[i];
+                    AnalysisError movido = new AnalysisError(error.getMessage(), error.getErrorType(),
+                            error.getLine() + deltaLinea, error.getColumn());
+                    movido.setSuggestion(error.getSuggestion());
+                    creados[i] = movido;
+                } else {
+                    lineas[i] += deltaLinea;
+                    creados[i] = null;
+                }
+            }
+        }
+        compactarSiConviene();
+    }
+
+    /**
+     * Los argumentos de los errores quitados quedan en el arreglo de caracteres
+     * hasta que ocupan más de la mitad
+     */
+    private void compactarSiConviene() {
+        int vivos = 0;
+        for (int i = 0; i < tamano; i++) {
+            vivos += fines[i] - inicios[i];
+        }
+        if (usados < 1024 || vivos * 2 > usados) {
+            return;
+        }
+        char[] compactos = new char[Math.max(vivos, CAPACIDAD_INICIAL * 8)];
+        int posicion = 0;
+        for (int i = 0; i < tamano; i++) {
+            int longitud = fines[i] - inicios[i];
+            System.arraycopy(caracteres, inicios[i], compactos, posicion, longitud);
+            cortes[i] = posicion + (cortes[i] - inicios[i]);
+            inicios[i] = posicion;
+            posicion += longitud;
+            fines[i] = posicion;
+        }
+        caracteres = compactos;
+        usados = posicion;
+    }
+
+    /**
+     * Copia independiente, con el mismo límite; comparte los errores ya creados
+     */
+    public ErrorSink copiar() {
+        ErrorSink copia = new ErrorSink(limite);
+        copia.reemplazar(0, 0, this, 0);
+        copia.descartados = descartados;
+        return copia;
+    }
+}
@@ -0,0 +1,133 @@
+package com.analyzer.model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Tabla de Strings compartidos para los nombres que se repiten en un análisis
+ * (identificadores, palabras clave, nombres de etiqueta y de atributo). Un mismo
+ * texto devuelve siempre la misma instancia mientras quede lugar en la tabla.
+ *
+ * Es de direccionamiento abierto con sondeo lineal sobre un arreglo de tamaño
+ * fijo, y se busca por el hash del tramo de texto sin crear un String. Admite
+ * varios hilos: las casillas se ocupan con compareAndSet y nunca se vacían.
+ * Cuando la tabla está llena, o el texto es muy largo, se devuelve un String
+ * nuevo sin guardarlo.
+ */
+public final class InternPool {
+
+    private static final int CAPACIDAD_POR_DEFECTO = 1 << 16;
+    // Casillas revisadas antes de renunciar a guardar un texto
+    private static final int SONDEO_MAXIMO = 16;
+    // Textos más largos casi nunca se repiten y no vale la pena guardarlos
+    private static final int LONGITUD_MAXIMA = 64;
+
+    private final AtomicReferenceArray<String> casillas;
+    private final int mascara;
+    private final int limite;
+    private final AtomicInteger ocupadas = new AtomicInteger();
+
+    public InternPool() {
+        this(CAPACIDAD_POR_DEFECTO);
+    }
+
+    /**
+     * @param capacidad cantidad máxima de textos; se redondea a una potencia de dos
+     */
+    public InternPool(int capacidad) {
+        int tamano = Integer.highestOneBit(Math.max(capacidad, 16) - 1) << 1;
+        this.casillas = new AtomicReferenceArray<>(tamano);
+        this.mascara = tamano - 1;
+        // Se deja un cuarto libre para que el sondeo siga siendo corto
+        this.limite = tamano - (tamano >> 2);
+    }
+
+    /**
+     * Tabla para los nombres de un solo análisis, con lugar según el largo del
+     * texto y como mucho la capacidad por defecto
+     */
+    public static InternPool para(CharSequence texto) {
+        return new InternPool(Math.min(CAPACIDAD_POR_DEFECTO, Math.max(64, texto.length() / 4)));
+    }
+
+    public String intern(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        return buscar(texto, 0, texto.length(), texto);
+    }
+
+    /**
+     * Instancia compartida con el contenido de texto[desde, hasta)
+     */
+    public String intern(CharSequence texto, int desde, int hasta) {
+        return buscar(texto, desde, hasta, null);
+    }
+
+    /**
+     * Cantidad de textos guardados
+     */
+    public int size() {
+        return ocupadas.get();
+    }
+
+    private String buscar(CharSequence texto, int desde, int hasta, String propio) {
+        int longitud = hasta - desde;
+        if (longitud > LONGITUD_MAXIMA) {
+            return propio != null ? propio : texto.subSequence(desde, hasta).toString();
+        }
+
+        // Mismo cálculo que String.hashCode, para comparar primero contra el hash guardado
+        int h;
+        if (propio != null) {
+            h = propio.hashCode();
+        } else {
+            h = 0;
+            for (int i = desde; i < hasta; i++) {
+                h = 31 * h + texto.charAt(i);
+            }
+        }
+
+        int casilla = mezclar(h) & mascara;
+        String nuevo = propio;
+        for (int sondeo = 0; sondeo < SONDEO_MAXIMO; sondeo++) {
+            String actual = casillas.get(casilla);
+            while (actual == null) {
+                if (ocupadas.get() >= limite) {
+                    return nuevo != null ? nuevo : texto.subSequence(desde, hasta).toString();
+                }
+                if (nuevo == null) {
+                    nuevo = texto.subSequence(desde, hasta).toString();
+                }
+                if (casillas.compareAndSet(casilla, null, nuevo)) {
+                    ocupadas.incrementAndGet();
+                    return nuevo;
+                }
+                // Otro hilo ocupó la casilla: puede ser el mismo texto
+                actual = casillas.get(casilla);
+            }
+            if (actual.hashCode() == h && igual(actual, texto, desde, longitud)) {
+                return actual;
+            }
+            casilla = (casilla + 1) & mascara;
+        }
+        return nuevo != null ? nuevo : texto.subSequence(desde, hasta).toString();
+    }
+
+    private static boolean igual(String guardado, CharSequence texto, int desde, int longitud) {
+        if (guardado.length() != longitud) {
+            return false;
+        }
+        for (int i = 0; i < longitud; i++) {
+            if (guardado.charAt(i) != texto.charAt(desde + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int mezclar(int h) {
+        h *= 0x85EBCA6B;
+        return h ^ (h >>> 15);
+    }
+}
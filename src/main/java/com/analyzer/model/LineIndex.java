@@ -0,0 +1,91 @@
+package com.analyzer.model;
+
+import java.util.Arrays;
+
+/**
+ * Índice de inicios de línea de un texto. Se construye con una sola pasada y
+ * traduce posiciones absolutas a línea y columna con búsqueda binaria, de modo
+ * que los analizadores pueden recorrer el documento completo con un único
+ * desplazamiento. Un mismo índice se puede volver a usar para otro texto con
+ * {@link #indexar(CharSequence)}, que conserva el arreglo de inicios.
+ */
+public final class LineIndex {
+    private int[] inicios = new int[16];
+    private int cantidad = 1;
+    private int longitudTexto;
+
+    /**
+     * Índice de un texto vacío
+     */
+    public LineIndex() {
+    }
+
+    public LineIndex(CharSequence texto) {
+        indexar(texto);
+    }
+
+    /**
+     * Vuelve a construir el índice para el texto indicado
+     * @return este mismo índice
+     */
+    public LineIndex indexar(CharSequence texto) {
+        int[] posiciones = inicios;
+        int total = 1;
+        int longitud = texto.length();
+        for (int i = 0; i < longitud; i++) {
+            if (texto.charAt(i) == '\n') {
+                if (total == posiciones.length) {
+                    posiciones = Arrays.copyOf(posiciones, total * 2);
+                }
+                posiciones[total++] = i + 1;
+            }
+        }
+        this.inicios = posiciones;
+        this.cantidad = total;
+        this.longitudTexto = longitud;
+        return this;
+    }
+
+    /**
+     * Número de líneas; un texto que termina en salto de línea tiene una última línea vacía
+     */
+    public int numeroLineas() { return cantidad; }
+
+    /**
+     * Posición del primer carácter de la línea (base 1)
+     */
+    public int inicioLinea(int linea) {
+        return inicios[linea - 1];
+    }
+
+    /**
+     * Posición del salto de línea que cierra la línea (base 1), o el final del texto
+     */
+    public int finLinea(int linea) {
+        return linea < cantidad ? inicios[linea] - 1 : longitudTexto;
+    }
+
+    /**
+     * Línea (base 1) que contiene la posición
+     */
+    public int linea(int posicion) {
+        int bajo = 0;
+        int alto = cantidad - 1;
+        while (bajo < alto) {
+            int medio = (bajo + alto + 1) >>> 1;
+            if (inicios[medio] <= posicion) {
+                bajo = medio;
+            } else {
+                alto = medio - 1;
+            }
+        }
+        return bajo + 1;
+    }
+
+    /**
+     * Columna (base 0) de la posición dentro de su línea
+     */
+    public int columna(int posicion) {
+        return posicion - inicios[linea(posicion) - 1];
+    }
+}
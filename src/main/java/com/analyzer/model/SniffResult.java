@@ -0,0 +1,30 @@
+package com.analyzer.model;
+
+import java.nio.charset.Charset;
+
+/**
+ * Resultado de detectar el lenguaje sobre los bytes de un archivo, antes de
+ * decodificarlo: la detección, la codificación con que se debe decodificar y
+ * cuántos bytes de BOM hay que saltar al inicio.
+ */
+public final class SniffResult {
+    private final DetectionResult detection;
+    private final Charset charset;
+    private final int bomLength;
+
+    public SniffResult(DetectionResult detection, Charset charset, int bomLength) {
+        this.detection = detection;
+        this.charset = charset;
+        this.bomLength = bomLength;
+    }
+
+    public DetectionResult getDetection() { return detection; }
+    public LanguageType getLanguage() { return detection.getLanguage(); }
+    public Charset getCharset() { return charset; }
+    public int getBomLength() { return bomLength; }
+
+    @Override
+    public String toString() {
+        return detection + " en " + charset.name() + (bomLength > 0 ? " con BOM" : "");
+    }
+}
@@ -3,21 +3,41 @@
 // --- Token.java ---
 package com.analyzer.model;
 
+import java.nio.CharBuffer;
 import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
 public class Token {
+    // El valor es la región fuente[inicio, inicio + longitud); el String se crea al pedirlo
+    private CharSequence fuente;
+    private int inicio;
+    private int longitud;
     private String value;
     private String type;
+    private TokenKind kind;
     private int line;
     private int column;
     private String subType;
-    private Map<String, String> attributes = new HashMap<>();
+    private Map<String, String> attributes;
 
     public Token(String value, String type, int line, int column) {
         this.value = value != null ? value : "";
+        this.fuente = this.value;
+        this.longitud = this.value.length();
+        this.type = type != null ? type : "UNKNOWN";
+        this.line = Math.max(0, line);
+        this.column = Math.max(0, column);
+    }
+
+    /**
+     * Token cuyo valor es una vista sobre el texto fuente, sin copiarlo
+     */
+    public Token(CharSequence fuente, int inicio, int longitud, String type, int line, int column) {
+        this.fuente = fuente;
+        this.inicio = inicio;
+        this.longitud = longitud;
         this.type = type != null ? type : "UNKNOWN";
         this.line = Math.max(0, line);
         this.column = Math.max(0, column);
@@ -28,10 +48,44 @@ public class Token {
     }
 
     // Getters y Setters
-    public String getValue() { return value; }
-    public void setValue(String value) { this.value = value != null ? value : ""; }
+    public String getValue() {
+        if (value == null) {
+            value = fuente.subSequence(inicio, inicio + longitud).toString();
+        }
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value != null ? value : "";
+        this.fuente = this.value;
+        this.inicio = 0;
+        this.longitud = this.value.length();
+    }
+
+    /**
+     * Valor como vista sobre el texto fuente, sin crear un String
+     */
+    public CharSequence getValueView() {
+        return value != null ? value : CharBuffer.wrap(fuente, inicio, inicio + longitud);
+    }
+
+    public int getValueLength() { return longitud; }
+    public char charAt(int posicion) { return fuente.charAt(inicio + posicion); }
     public String getType() { return type; }
-    public void setType(String type) { this.type = type != null ? type : "UNKNOWN"; }
+    public void setType(String type) {
+        this.type = type != null ? type : "UNKNOWN";
+        this.kind = null;
+    }
+
+    /**
+     * Tipo interno del token; UNKNOWN si el nombre no es uno de los tipos conocidos
+     */
+    public TokenKind getKind() {
+        if (kind == null) {
+            kind = TokenKind.desdeNombre(type);
+        }
+        return kind;
+    }
     public int getLine() { return line; }
     public void setLine(int line) { this.line = Math.max(0, line); }
     public int getColumn() { return column; }
@@ -41,17 +95,36 @@ public class Token {
 
     public String getPosition() { return line + ":" + column; }
     public boolean isOfType(String tokenType) { return this.type.equalsIgnoreCase(tokenType); }
-    public boolean hasValue(String tokenValue) { return this.value.equals(tokenValue); }
+    public boolean isOfKind(TokenKind tokenKind) { return getKind() == tokenKind; }
+    public boolean hasCategory(int mascara) { return getKind().es(mascara); }
+    public boolean hasValue(String tokenValue) {
+        if (tokenValue == null || tokenValue.length() != longitud) {
+            return false;
+        }
+        for (int k = 0; k < longitud; k++) {
+            if (fuente.charAt(inicio + k) != tokenValue.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
 
     @Override
     public String toString() {
-        return "Token{value='" + value + "', type='" + type + "', pos=" + getPosition() + "}";
+        return "Token{value='" + getValue() + "', type='" + type + "', pos=" + getPosition() + "}";
     }
 
     public Map<String, String> getAttributes() {
+        if (attributes == null) {
+            attributes = new HashMap<>();
+        }
         return attributes;
     }
 
+    public boolean hasAttributes() {
+        return attributes != null && !attributes.isEmpty();
+    }
+
     public void setAttributes(Map<String, String> attributes) {
         this.attributes = attributes != null ? attributes : new HashMap<>();
     }
@@ -64,12 +137,12 @@ public class Token {
         if (o == null || getClass() != o.getClass()) return false;
         Token token = (Token) o;
         return line == token.line && column == token.column &&
-                Objects.equals(value, token.value) && Objects.equals(type, token.type);
+                Objects.equals(getValue(), token.getValue()) && Objects.equals(type, token.type);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(value, type, line, column);
+        return Objects.hash(getValue(), type, line, column);
     }
 
 
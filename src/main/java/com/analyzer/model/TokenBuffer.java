@@ -0,0 +1,484 @@
+package com.analyzer.model;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Secuencia de tokens guardada como columnas de enteros (tipo, inicio, longitud,
+ * línea y columna) sobre el texto fuente, en lugar de un objeto Token por
+ * elemento. El subtipo y los atributos se guardan aparte, solo para los tokens
+ * que los tienen. Los Token se construyen bajo demanda con {@link #token(int)}
+ * o con la vista {@link #asList()}.
+ */
+public final class TokenBuffer {
+
+    // Registro compartido de nombres de tipo de token
+    private static final Map<String, Integer> IDS_TIPO = new ConcurrentHashMap<>();
+    private static volatile String[] nombresTipo = new String[0];
+
+    private static final int CAPACIDAD_INICIAL = 64;
+
+    static {
+        // Los tipos conocidos ocupan los primeros ids, en el orden de TokenKind
+        for (TokenKind tipo : TokenKind.values()) {
+            idTipo(tipo.name());
+        }
+    }
+
+    private final CharSequence fuente;
+    private int[] tipos;
+    private int[] inicios;
+    private int[] longitudes;
+    private int[] lineas;
+    private int[] columnas;
+    private int tamano;
+
+    // Tablas laterales: índice del token -> dato
+    private Map<Integer, String> subtipos;
+    private Map<Integer, Map<String, String>> atributos;
+
+    // Tabla de nombres compartidos del análisis, o null si no se comparten
+    private InternPool internado;
+
+    public TokenBuffer(CharSequence fuente) {
+        this(fuente, CAPACIDAD_INICIAL);
+    }
+
+    public TokenBuffer(CharSequence fuente, int capacidad) {
+        this.fuente = fuente != null ? fuente : "";
+        int inicial = Math.max(capacidad, 8);
+        this.tipos = new int[inicial];
+        this.inicios = new int[inicial];
+        this.longitudes = new int[inicial];
+        this.lineas = new int[inicial];
+        this.columnas = new int[inicial];
+    }
+
+    /**
+     * Crea un buffer a partir de una lista de tokens. Si la lista es la vista
+     * de un buffer se devuelve ese mismo buffer sin copiar.
+     */
+    public static TokenBuffer desdeTokens(List<Token> tokens) {
+        if (tokens instanceof Vista) {
+            return ((Vista) tokens).buffer;
+        }
+
+        StringBuilder texto = new StringBuilder();
+        TokenBuffer buffer = new TokenBuffer(texto, tokens.size());
+        for (Token token : tokens) {
+            int indice = buffer.agregar(token.getType(), texto.length(), token.getValueLength(),
+                    token.getLine(), token.getColumn());
+            texto.append(token.getValueView());
+            if (token.getSubType() != null) {
+                buffer.asignarSubtipo(indice, token.getSubType());
+            }
+            if (token.hasAttributes()) {
+                for (Map.Entry<String, String> atributo : token.getAttributes().entrySet()) {
+                    buffer.asignarAtributo(indice, atributo.getKey(), atributo.getValue());
+                }
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * Identificador numérico de un nombre de tipo, registrándolo si es nuevo
+     */
+    public static int idTipo(String nombre) {
+        Integer id = IDS_TIPO.get(nombre);
+        if (id != null) {
+            return id;
+        }
+        synchronized (IDS_TIPO) {
+            return IDS_TIPO.computeIfAbsent(nombre, n -> {
+                String[] nombres = Arrays.copyOf(nombresTipo, nombresTipo.length + 1);
+                nombres[nombres.length - 1] = n;
+                nombresTipo = nombres;
+                return nombres.length - 1;
+            });
+        }
+    }
+
+    /**
+     * Nombre de tipo registrado con el identificador indicado
+     */
+    public static String nombreTipo(int id) {
+        return nombresTipo[id];
+    }
+
+    /**
+     * Agrega un token que ocupa fuente[inicio, inicio + longitud).
+     * @return índice del token agregado
+     */
+    public int agregar(String tipo, int inicio, int longitud, int linea, int columna) {
+        return agregar(idTipo(tipo != null ? tipo : "UNKNOWN"), inicio, longitud, linea, columna);
+    }
+
+    public int agregar(TokenKind tipo, int inicio, int longitud, int linea, int columna) {
+        return agregar(tipo.ordinal(), inicio, longitud, linea, columna);
+    }
+
+    /**
+     * Agrega un token con un tipo ya registrado en {@link #idTipo(String)}.
+     * @return índice del token agregado
+     */
+    public int agregar(int idTipo, int inicio, int longitud, int linea, int columna) {
+        if (tamano == tipos.length) {
+            crecer();
+        }
+        tipos[tamano] = idTipo;
+        inicios[tamano] = inicio;
+        longitudes[tamano] = longitud;
+        lineas[tamano] = linea;
+        columnas[tamano] = columna;
+        return tamano++;
+    }
+
+    private void crecer() {
+        crecer(tipos.length + (tipos.length >> 1));
+    }
+
+    private void crecer(int nuevaCapacidad) {
+        tipos = Arrays.copyOf(tipos, nuevaCapacidad);
+        inicios = Arrays.copyOf(inicios, nuevaCapacidad);
+        longitudes = Arrays.copyOf(longitudes, nuevaCapacidad);
+        lineas = Arrays.copyOf(lineas, nuevaCapacidad);
+        columnas = Arrays.copyOf(columnas, nuevaCapacidad);
+    }
+
+    /**
+     * Reemplaza los tokens [desde, hasta) por todos los de {@code nuevos}, que deben
+     * estar sobre la misma fuente, y desplaza la posición y la línea de los siguientes
+     */
+    public void reemplazar(int desde, int hasta, TokenBuffer nuevos, int deltaPosicion, int deltaLinea) {
+        Objects.checkFromToIndex(desde, hasta, tamano);
+        int agregados = nuevos.tamano;
+        int diferencia = agregados - (hasta - desde);
+        int nuevoTamano = tamano + diferencia;
+        if (nuevoTamano > tipos.length) {
+            crecer(Math.max(nuevoTamano, tipos.length + (tipos.length >> 1)));
+        }
+
+        if (diferencia != 0) {
+            int resto = tamano - hasta;
+            System.arraycopy(tipos, hasta, tipos, hasta + diferencia, resto);
+            System.arraycopy(inicios, hasta, inicios, hasta + diferencia, resto);
+            System.arraycopy(longitudes, hasta, longitudes, hasta + diferencia, resto);
+            System.arraycopy(lineas, hasta, lineas, hasta + diferencia, resto);
+            System.arraycopy(columnas, hasta, columnas, hasta + diferencia, resto);
+        }
+
+        System.arraycopy(nuevos.tipos, 0, tipos, desde, agregados);
+        System.arraycopy(nuevos.inicios, 0, inicios, desde, agregados);
+        System.arraycopy(nuevos.longitudes, 0, longitudes, desde, agregados);
+        System.arraycopy(nuevos.lineas, 0, lineas, desde, agregados);
+        System.arraycopy(nuevos.columnas, 0, columnas, desde, agregados);
+
+        if (deltaPosicion != 0) {
+            for (int i = desde + agregados; i < nuevoTamano; i++) {
+                inicios[i] += deltaPosicion;
+            }
+        }
+        if (deltaLinea != 0) {
+            for (int i = desde + agregados; i < nuevoTamano; i++) {
+                lineas[i] += deltaLinea;
+            }
+        }
+        subtipos = reindexar(subtipos, desde, hasta, diferencia, nuevos.subtipos);
+        atributos = reindexar(atributos, desde, hasta, diferencia, nuevos.atributos);
+        tamano = nuevoTamano;
+    }
+
+    private static <V> Map<Integer, V> reindexar(Map<Integer, V> tabla, int desde, int hasta, int diferencia,
+                                                 Map<Integer, V> nuevos) {
+        if (tabla == null && nuevos == null) {
+            return null;
+        }
+        if (diferencia == 0 && tabla != null) {
+            // Los índices siguientes no cambian: basta con reemplazar el tramo
+            for (int indice = desde; indice < hasta; indice++) {
+                tabla.remove(indice);
+            }
+            if (nuevos != null) {
+                for (Map.Entry<Integer, V> entrada : nuevos.entrySet()) {
+                    tabla.put(desde + entrada.getKey(), entrada.getValue());
+                }
+            }
+            return tabla;
+        }
+        Map<Integer, V> resultado = new HashMap<>();
+        if (tabla != null) {
+            for (Map.Entry<Integer, V> entrada : tabla.entrySet()) {
+                int indice = entrada.getKey();
+                if (indice < desde) {
+                    resultado.put(indice, entrada.getValue());
+                } else if (indice >= hasta) {
+                    resultado.put(indice + diferencia, entrada.getValue());
+                }
+            }
+        }
+        if (nuevos != null) {
+            for (Map.Entry<Integer, V> entrada : nuevos.entrySet()) {
+                resultado.put(desde + entrada.getKey(), entrada.getValue());
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Copia de los tokens sobre otra fuente con el mismo contenido, por ejemplo un
+     * String fijo en lugar de un texto que se sigue editando
+     */
+    public TokenBuffer copiar(CharSequence otraFuente) {
+        TokenBuffer copia = new TokenBuffer(otraFuente, tamano);
+        System.arraycopy(tipos, 0, copia.tipos, 0, tamano);
+        System.arraycopy(inicios, 0, copia.inicios, 0, tamano);
+        System.arraycopy(longitudes, 0, copia.longitudes, 0, tamano);
+        System.arraycopy(lineas, 0, copia.lineas, 0, tamano);
+        System.arraycopy(columnas, 0, copia.columnas, 0, tamano);
+        copia.tamano = tamano;
+        copia.internado = internado;
+        if (subtipos != null) {
+            copia.subtipos = new HashMap<>(subtipos);
+        }
+        if (atributos != null) {
+            copia.atributos = new HashMap<>();
+            for (Map.Entry<Integer, Map<String, String>> entrada : atributos.entrySet()) {
+                copia.atributos.put(entrada.getKey(), new LinkedHashMap<>(entrada.getValue()));
+            }
+        }
+        return copia;
+    }
+
+    /**
+     * Comparte los valores de identificadores y palabras clave, los subtipos y los
+     * nombres de atributo a través de la tabla indicada, incluidos los ya guardados
+     */
+    public void usarInternado(InternPool internado) {
+        this.internado = internado;
+        if (internado == null) {
+            return;
+        }
+        if (subtipos != null) {
+            subtipos.replaceAll((indice, subtipo) -> internado.intern(subtipo));
+        }
+        if (atributos != null) {
+            for (Map.Entry<Integer, Map<String, String>> entrada : atributos.entrySet()) {
+                Map<String, String> nombres = new LinkedHashMap<>();
+                for (Map.Entry<String, String> atributo : entrada.getValue().entrySet()) {
+                    nombres.put(internado.intern(atributo.getKey()), atributo.getValue());
+                }
+                entrada.setValue(nombres);
+            }
+        }
+    }
+
+    public InternPool getInternado() { return internado; }
+
+    public void asignarSubtipo(int indice, String subtipo) {
+        if (subtipos == null) {
+            subtipos = new HashMap<>();
+        }
+        subtipos.put(indice, internado != null ? internado.intern(subtipo) : subtipo);
+    }
+
+    /**
+     * Agrega un atributo al token; si el nombre ya existe se conserva el primero
+     */
+    public void asignarAtributo(int indice, String nombre, String valor) {
+        if (atributos == null) {
+            atributos = new HashMap<>();
+        }
+        if (internado != null) {
+            nombre = internado.intern(nombre);
+        }
+        atributos.computeIfAbsent(indice, k -> new LinkedHashMap<>()).putIfAbsent(nombre, valor);
+    }
+
+    // Acceso por índice
+    /**
+     * Descarta los tokens conservando la capacidad de las columnas
+     */
+    public void vaciar() {
+        tamano = 0;
+        subtipos = null;
+        atributos = null;
+    }
+
+    public CharSequence getFuente() { return fuente; }
+    public int size() { return tamano; }
+    public boolean isEmpty() { return tamano == 0; }
+    public int idTipo(int indice) { return tipos[indice]; }
+    public String tipo(int indice) { return nombreTipo(tipos[indice]); }
+    public TokenKind kind(int indice) { return TokenKind.desdeId(tipos[indice]); }
+
+    /**
+     * Indica si el tipo del token pertenece a alguna categoría de la máscara
+     * (ver {@link TokenKind.Categoria})
+     */
+    public boolean tieneCategoria(int indice, int mascara) {
+        return kind(indice).es(mascara);
+    }
+    public int inicio(int indice) { return inicios[indice]; }
+    public int longitud(int indice) { return longitudes[indice]; }
+    public int linea(int indice) { return lineas[indice]; }
+    public int columna(int indice) { return columnas[indice]; }
+
+    public String subtipo(int indice) {
+        return subtipos != null ? subtipos.get(indice) : null;
+    }
+
+    public Map<String, String> atributos(int indice) {
+        Map<String, String> mapa = atributos != null ? atributos.get(indice) : null;
+        return mapa != null ? Collections.unmodifiableMap(mapa) : Collections.emptyMap();
+    }
+
+    /**
+     * Texto del token. Con una tabla de internado, los identificadores y las
+     * palabras clave iguales devuelven la misma instancia; el resto crea un String
+     * nuevo en cada llamada.
+     */
+    public String valor(int indice) {
+        int inicio = inicios[indice];
+        if (seInterna(indice)) {
+            return internado.intern(fuente, inicio, inicio + longitudes[indice]);
+        }
+        return fuente.subSequence(inicio, inicio + longitudes[indice]).toString();
+    }
+
+    private boolean seInterna(int indice) {
+        return internado != null
+                && tieneCategoria(indice, TokenKind.Categoria.IDENTIFICADOR | TokenKind.Categoria.PALABRA_CLAVE);
+    }
+
+    public char caracter(int indice, int posicion) {
+        return fuente.charAt(inicios[indice] + posicion);
+    }
+
+    /**
+     * Compara el tipo sin distinguir mayúsculas, igual que {@link Token#isOfType(String)}
+     */
+    public boolean esDeTipo(int indice, String tipo) {
+        return tipo(indice).equalsIgnoreCase(tipo);
+    }
+
+    /**
+     * Compara el texto del token sin crear Strings
+     */
+    public boolean tieneValor(int indice, String valor) {
+        return longitudes[indice] == valor.length() && coincide(inicios[indice], valor, false);
+    }
+
+    /**
+     * Equivale a valor(indice).toUpperCase().equals(valorMayusculas) para
+     * palabras clave en mayúsculas ASCII, sin crear Strings
+     */
+    public boolean tieneValorMayusculas(int indice, String valorMayusculas) {
+        return longitudes[indice] == valorMayusculas.length() && coincide(inicios[indice], valorMayusculas, true);
+    }
+
+    public boolean empiezaCon(int indice, String prefijo) {
+        return longitudes[indice] >= prefijo.length() && coincide(inicios[indice], prefijo, false);
+    }
+
+    public boolean terminaCon(int indice, String sufijo) {
+        int desde = inicios[indice] + longitudes[indice] - sufijo.length();
+        return longitudes[indice] >= sufijo.length() && coincide(desde, sufijo, false);
+    }
+
+    public boolean contiene(int indice, String texto) {
+        return buscar(indice, texto, false);
+    }
+
+    /**
+     * Equivale a valor(indice).toUpperCase().contains(textoMayusculas) sin crear Strings
+     */
+    public boolean contieneMayusculas(int indice, String textoMayusculas) {
+        return buscar(indice, textoMayusculas, true);
+    }
+
+    private boolean buscar(int indice, String texto, boolean mayusculas) {
+        int inicio = inicios[indice];
+        int ultimo = inicio + longitudes[indice] - texto.length();
+        for (int desde = inicio; desde <= ultimo; desde++) {
+            if (coincide(desde, texto, mayusculas)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean coincide(int desde, String texto, boolean mayusculas) {
+        for (int k = 0; k < texto.length(); k++) {
+            char c = fuente.charAt(desde + k);
+            if (mayusculas) {
+                c = Character.toUpperCase(c);
+            }
+            if (c != texto.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Construye un Token con los datos del índice indicado
+     */
+    public Token token(int indice) {
+        if (seInterna(indice)) {
+            return completar(indice, new Token(valor(indice), tipo(indice), lineas[indice], columnas[indice]));
+        }
+        return completar(indice, new Token(fuente, inicios[indice], longitudes[indice], tipo(indice),
+                lineas[indice], columnas[indice]));
+    }
+
+    /**
+     * Construye un Token con su valor ya copiado, que no depende del texto fuente
+     * y sigue siendo válido después de {@link #vaciar()}
+     */
+    public Token tokenIndependiente(int indice) {
+        return completar(indice, new Token(valor(indice), tipo(indice), lineas[indice], columnas[indice]));
+    }
+
+    private Token completar(int indice, Token token) {
+        String subtipo = subtipo(indice);
+        if (subtipo != null) {
+            token.setSubType(subtipo);
+        }
+        Map<String, String> mapa = atributos != null ? atributos.get(indice) : null;
+        if (mapa != null) {
+            // Uno por uno, en el mismo orden en que los agregó el analizador
+            for (Map.Entry<String, String> atributo : mapa.entrySet()) {
+                token.getAttributes().put(atributo.getKey(), atributo.getValue());
+            }
+        }
+        return token;
+    }
+
+    /**
+     * Vista de solo lectura como lista de Token; cada acceso construye un token
+     * que apunta al texto fuente sin copiar su valor
+     */
+    public List<Token> asList() {
+        return new Vista(this);
+    }
+
+    private static final class Vista extends AbstractList<Token> implements RandomAccess {
+        private final TokenBuffer buffer;
+
+        Vista(TokenBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public Token get(int indice) {
+            Objects.checkIndex(indice, buffer.tamano);
+            return buffer.token(indice);
+        }
+
+        @Override
+        public int size() {
+            return buffer.tamano;
+        }
+    }
+}
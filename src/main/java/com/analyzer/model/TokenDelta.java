@@ -0,0 +1,39 @@
+package com.analyzer.model;
+
+/**
+ * Cambio en la secuencia de tokens después de una edición: los tokens
+ * [primerToken, primerToken + eliminados) de la versión anterior fueron
+ * reemplazados por [primerToken, primerToken + agregados); los que siguen son
+ * los mismos, desplazados en posición y línea.
+ */
+public final class TokenDelta {
+    private final int primerToken;
+    private final int eliminados;
+    private final int agregados;
+    private final int primeraLinea;
+    private final int lineasReanalizadas;
+
+    public TokenDelta(int primerToken, int eliminados, int agregados, int primeraLinea, int lineasReanalizadas) {
+        this.primerToken = primerToken;
+        this.eliminados = eliminados;
+        this.agregados = agregados;
+        this.primeraLinea = primeraLinea;
+        this.lineasReanalizadas = lineasReanalizadas;
+    }
+
+    public int primerToken() { return primerToken; }
+    public int eliminados() { return eliminados; }
+    public int agregados() { return agregados; }
+
+    /**
+     * Primera línea (base 1) que se volvió a tokenizar
+     */
+    public int primeraLinea() { return primeraLinea; }
+    public int lineasReanalizadas() { return lineasReanalizadas; }
+
+    @Override
+    public String toString() {
+        return "TokenDelta{primerToken=" + primerToken + ", eliminados=" + eliminados +
+                ", agregados=" + agregados + ", lineas=" + primeraLinea + "+" + lineasReanalizadas + "}";
+    }
+}
@@ -0,0 +1,142 @@
+package com.analyzer.model;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Tipos de token conocidos por los analizadores léxicos. Cada tipo lleva una
+ * máscara de categorías (palabra clave, literal, delimitador...) y de lenguajes
+ * que lo producen, para que los analizadores decidan con switch y operaciones
+ * de bits en lugar de comparar Strings.
+ */
+public enum TokenKind {
+    KEYWORD(Categoria.PALABRA_CLAVE | Categoria.SQL | Categoria.PYTHON),
+    IDENTIFICADOR(Categoria.IDENTIFICADOR | Categoria.SQL | Categoria.PYTHON),
+    IDENTIFICADOR_PRIVADO(Categoria.IDENTIFICADOR | Categoria.PYTHON),
+    METODO_MAGICO(Categoria.IDENTIFICADOR | Categoria.PYTHON),
+    CONSTANTE(Categoria.IDENTIFICADOR | Categoria.PYTHON),
+
+    STRING(Categoria.CADENA | Categoria.SQL | Categoria.PYTHON),
+    STRING_BYTES(Categoria.CADENA | Categoria.PYTHON),
+    STRING_RAW(Categoria.CADENA | Categoria.PYTHON),
+    STRING_FORMAT(Categoria.CADENA | Categoria.PYTHON),
+    STRING_TRIPLE(Categoria.CADENA | Categoria.PYTHON),
+    STRING_SIN_TERMINAR(Categoria.CADENA | Categoria.ERROR | Categoria.SQL | Categoria.PYTHON),
+
+    NUMERO_ENTERO(Categoria.NUMERO | Categoria.SQL),
+    NUMERO_DECIMAL(Categoria.NUMERO | Categoria.SQL),
+    ENTERO(Categoria.NUMERO | Categoria.PYTHON),
+    ENTERO_BINARIO(Categoria.NUMERO | Categoria.PYTHON),
+    ENTERO_OCTAL(Categoria.NUMERO | Categoria.PYTHON),
+    ENTERO_HEXADECIMAL(Categoria.NUMERO | Categoria.PYTHON),
+    FLOTANTE(Categoria.NUMERO | Categoria.PYTHON),
+
+    OPERADOR(Categoria.OPERADOR | Categoria.SQL | Categoria.PYTHON),
+
+    PAREN_IZQ(Categoria.PUNTUACION | Categoria.APERTURA | Categoria.SQL | Categoria.PYTHON),
+    PAREN_DER(Categoria.PUNTUACION | Categoria.CIERRE | Categoria.SQL | Categoria.PYTHON),
+    CORCHETE_IZQ(Categoria.PUNTUACION | Categoria.APERTURA | Categoria.SQL | Categoria.PYTHON),
+    CORCHETE_DER(Categoria.PUNTUACION | Categoria.CIERRE | Categoria.SQL | Categoria.PYTHON),
+    LLAVE_IZQ(Categoria.PUNTUACION | Categoria.APERTURA | Categoria.SQL | Categoria.PYTHON),
+    LLAVE_DER(Categoria.PUNTUACION | Categoria.CIERRE | Categoria.SQL | Categoria.PYTHON),
+    DOS_PUNTOS(Categoria.PUNTUACION | Categoria.SQL | Categoria.PYTHON),
+    PUNTO_COMA(Categoria.PUNTUACION | Categoria.SQL | Categoria.PYTHON),
+    COMA(Categoria.PUNTUACION | Categoria.SQL | Categoria.PYTHON),
+    PUNTO(Categoria.PUNTUACION | Categoria.SQL | Categoria.PYTHON),
+    ARROBA(Categoria.PUNTUACION | Categoria.PYTHON),
+    PUNTUACION(Categoria.PUNTUACION | Categoria.SQL | Categoria.PYTHON),
+
+    COMENTARIO(Categoria.COMENTARIO | Categoria.SQL | Categoria.PYTHON),
+    COMENTARIO_BLOQUE(Categoria.COMENTARIO | Categoria.SQL),
+    COMENTARIO_HTML(Categoria.COMENTARIO | Categoria.HTML),
+
+    DOCTYPE(Categoria.ETIQUETA | Categoria.HTML),
+    ETIQUETA_APERTURA(Categoria.ETIQUETA | Categoria.APERTURA | Categoria.HTML),
+    ETIQUETA_CIERRE(Categoria.ETIQUETA | Categoria.CIERRE | Categoria.HTML),
+    ETIQUETA_AUTOCERRANTE(Categoria.ETIQUETA | Categoria.HTML),
+    TEXTO_HTML(Categoria.TEXTO | Categoria.HTML),
+
+    INDENT(Categoria.INDENTACION | Categoria.APERTURA | Categoria.PYTHON),
+    DEDENT(Categoria.INDENTACION | Categoria.CIERRE | Categoria.PYTHON),
+
+    ERROR_LEXICO(Categoria.ERROR),
+    GENERICO(Categoria.TEXTO),
+
+    // Tipos genéricos en inglés que consultan los analizadores sintáctico y semántico
+    TAG(Categoria.ETIQUETA),
+    IDENTIFIER(Categoria.IDENTIFICADOR),
+    OPERATOR(Categoria.OPERADOR),
+    NUMBER(Categoria.NUMERO),
+
+    UNKNOWN(0);
+
+    private static final TokenKind[] VALORES = values();
+    private static final Map<String, TokenKind> POR_NOMBRE = new HashMap<>();
+
+    static {
+        for (TokenKind tipo : VALORES) {
+            POR_NOMBRE.put(tipo.name(), tipo);
+        }
+    }
+
+    private final int categorias;
+
+    TokenKind(int categorias) {
+        this.categorias = categorias;
+    }
+
+    public int getCategorias() { return categorias; }
+
+    /**
+     * Indica si el tipo pertenece a alguna de las categorías de la máscara
+     */
+    public boolean es(int mascara) {
+        return (categorias & mascara) != 0;
+    }
+
+    public static TokenKind desdeId(int id) {
+        return id >= 0 && id < VALORES.length ? VALORES[id] : UNKNOWN;
+    }
+
+    /**
+     * Tipo con el nombre indicado sin distinguir mayúsculas, o UNKNOWN si no existe
+     */
+    public static TokenKind desdeNombre(String nombre) {
+        if (nombre == null) return UNKNOWN;
+        TokenKind tipo = POR_NOMBRE.get(nombre);
+        if (tipo == null) {
+            tipo = POR_NOMBRE.getOrDefault(nombre.toUpperCase(Locale.ROOT), UNKNOWN);
+        }
+        return tipo;
+    }
+
+    /**
+     * Máscaras de categoría y de lenguaje para {@link #es(int)}
+     */
+    public static final class Categoria {
+        // Categorías
+        public static final int PALABRA_CLAVE = 1;
+        public static final int IDENTIFICADOR = 1 << 1;
+        public static final int CADENA = 1 << 2;
+        public static final int NUMERO = 1 << 3;
+        public static final int OPERADOR = 1 << 4;
+        public static final int PUNTUACION = 1 << 5;
+        public static final int APERTURA = 1 << 6;
+        public static final int CIERRE = 1 << 7;
+        public static final int COMENTARIO = 1 << 8;
+        public static final int ETIQUETA = 1 << 9;
+        public static final int TEXTO = 1 << 10;
+        public static final int INDENTACION = 1 << 11;
+        public static final int ERROR = 1 << 12;
+        public static final int LITERAL = CADENA | NUMERO;
+
+        // Lenguajes que producen el tipo
+        public static final int SQL = 1 << 16;
+        public static final int PYTHON = 1 << 17;
+        public static final int HTML = 1 << 18;
+
+        private Categoria() {
+        }
+    }
+}
@@ -10,6 +10,11 @@ public class ExecutionSimulator {
 
     public List<String> simulateExecution(List<Token> tokens, LanguageType language,
                                           List<Symbol> symbols) {
+        return simulateExecution(TokenBuffer.desdeTokens(tokens), language, symbols);
+    }
+
+    public List<String> simulateExecution(TokenBuffer tokens, LanguageType language,
+                                          List<Symbol> symbols) {
         List<String> outputs = new ArrayList<>();
 
         switch (language) {
@@ -30,13 +35,13 @@ public class ExecutionSimulator {
         return outputs;
     }
 
-    private List<String> simulateHtmlExecution(List<Token> tokens, List<Symbol> symbols) {
+    private List<String> simulateHtmlExecution(TokenBuffer tokens, List<Symbol> symbols) {
         List<String> outputs = new ArrayList<>();
         outputs.add("=== SIMULACIÓN DE RENDERIZADO HTML ===");
 
-        for (Token token : tokens) {
-            if (token.isOfType("TAG")) {
-                String tagValue = token.getValue();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.kind(i) == TokenKind.TAG) {
+                String tagValue = tokens.valor(i);
                 if (!tagValue.startsWith("</")) {
                     String tagName = tagValue.substring(1,
                             tagValue.contains(" ") ? tagValue.indexOf(" ") : tagValue.length() - 1);
@@ -49,23 +54,21 @@ public class ExecutionSimulator {
         return outputs;
     }
 
-    private List<String> simulatePythonExecution(List<Token> tokens, List<Symbol> symbols) {
+    private List<String> simulatePythonExecution(TokenBuffer tokens, List<Symbol> symbols) {
         List<String> outputs = new ArrayList<>();
         outputs.add("=== SIMULACIÓN DE EJECUCIÓN PYTHON ===");
 
         for (int i = 0; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-
-            if (token.isOfType("KEYWORD")) {
-                switch (token.getValue()) {
+            if (tokens.kind(i) == TokenKind.KEYWORD) {
+                switch (tokens.valor(i)) {
                     case "def":
                         if (i + 1 < tokens.size()) {
-                            outputs.add("Definiendo función: " + tokens.get(i + 1).getValue());
+                            outputs.add("Definiendo función: " + tokens.valor(i + 1));
                         }
                         break;
                     case "class":
                         if (i + 1 < tokens.size()) {
-                            outputs.add("Definiendo clase: " + tokens.get(i + 1).getValue());
+                            outputs.add("Definiendo clase: " + tokens.valor(i + 1));
                         }
                         break;
                     case "print":
@@ -79,21 +82,19 @@ public class ExecutionSimulator {
         return outputs;
     }
 
-    private List<String> simulatePlsqlExecution(List<Token> tokens, List<Symbol> symbols) {
+    private List<String> simulatePlsqlExecution(TokenBuffer tokens, List<Symbol> symbols) {
         List<String> outputs = new ArrayList<>();
         outputs.add("=== SIMULACIÓN DE EJECUCIÓN PL/SQL ===");
 
         for (int i = 0; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-
-            if (token.isOfType("KEYWORD")) {
-                String keyword = token.getValue().toUpperCase();
+            if (tokens.kind(i) == TokenKind.KEYWORD) {
+                String keyword = tokens.valor(i).toUpperCase();
                 switch (keyword) {
                     case "CREATE":
                         if (i + 1 < tokens.size() &&
-                                tokens.get(i + 1).getValue().toUpperCase().equals("TABLE")) {
+                                tokens.tieneValorMayusculas(i + 1, "TABLE")) {
                             if (i + 2 < tokens.size()) {
-                                outputs.add("Creando tabla: " + tokens.get(i + 2).getValue());
+                                outputs.add("Creando tabla: " + tokens.valor(i + 2));
                             }
                         }
                         break;
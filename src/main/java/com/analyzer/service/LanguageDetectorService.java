@@ -1,55 +1,109 @@
-
 // --- LanguageDetectorService.java ---
 package com.analyzer.service;
 
 import com.analyzer.service.interfaces.ILanguageDetector;
+import com.analyzer.model.DetectionResult;
 import com.analyzer.model.LanguageType;
-import java.util.regex.Pattern;
+import com.analyzer.model.SniffResult;
+import com.analyzer.util.ByteSniffer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 
+/**
+ * Detecta el lenguaje con un único recorrido del texto que busca a la vez las
+ * señales de HTML, Python y PL/SQL; gana el primer lenguaje con alguna señal
+ * en el orden HTML, PL/SQL, Python. El tiempo crece linealmente con el texto.
+ * <p>
+ * En textos más largos que el prefijo y las ventanas de muestra, solo se
+ * revisan el prefijo y unas ventanas repartidas por el resto, así que el
+ * costo no depende del tamaño del texto; se recorre completo únicamente si
+ * las muestras tienen señales pero no alcanzan la confianza mínima.
+ * <p>
+ * Sobre los bytes de un archivo, la codificación sale del BOM o de validar
+ * UTF-8 en el prefijo, y las señales se buscan en los bytes sin decodificar:
+ * todas son ASCII, así que aparecen igual que en el texto decodificado.
+ */
 public class LanguageDetectorService implements ILanguageDetector {
 
-    // Patrones para HTML
-    private static final Pattern HTML_PATTERN = Pattern.compile(
-            ".*(<html|<head|<body|<div|<p>|<span|<!DOCTYPE|<meta|<link|<script>).*",
-            Pattern.CASE_INSENSITIVE | Pattern.DOTALL
-    );
+    private static final int PREFIJO = 64 * 1024;
+    private static final int VENTANAS = 4;
+    private static final int TAMANO_VENTANA = 4 * 1024;
+    private static final double CONFIANZA_MINIMA = 0.5;
 
-    // Patrones para Python
-    private static final Pattern PYTHON_PATTERN = Pattern.compile(
-            ".*(def\\s+\\w+|import\\s+\\w+|from\\s+\\w+|if\\s+\\w+:|for\\s+\\w+\\s+in|class\\s+\\w+:|print\\s*\\().*",
-            Pattern.CASE_INSENSITIVE | Pattern.DOTALL
-    );
+    private final int prefijo;
+    private final int ventanas;
+    private final int tamanoVentana;
+    private final double confianzaMinima;
 
-    // Patrones para PL/SQL
-    private static final Pattern PLSQL_PATTERN = Pattern.compile(
-            ".*(CREATE\\s+TABLE|SELECT\\s+\\*|INSERT\\s+INTO|UPDATE\\s+\\w+|DELETE\\s+FROM|BEGIN|END;|DECLARE).*",
-            Pattern.CASE_INSENSITIVE | Pattern.DOTALL
-    );
+    public LanguageDetectorService() {
+        this(PREFIJO, VENTANAS, TAMANO_VENTANA, CONFIANZA_MINIMA);
+    }
+
+    /**
+     * @param prefijo caracteres del inicio que se revisan siempre
+     * @param ventanas cantidad de ventanas de muestra después del prefijo
+     * @param tamanoVentana caracteres de cada ventana
+     * @param confianzaMinima por debajo de esta confianza se recorre el texto completo
+     */
+    public LanguageDetectorService(int prefijo, int ventanas, int tamanoVentana, double confianzaMinima) {
+        this.prefijo = prefijo;
+        this.ventanas = ventanas;
+        this.tamanoVentana = tamanoVentana;
+        this.confianzaMinima = confianzaMinima;
+    }
 
     @Override
     public LanguageType detectLanguage(String code) {
-        if (code == null || code.trim().isEmpty()) {
-            return LanguageType.UNKNOWN;
-        }
-
-        // Limpiar código para análisis
-        String cleanCode = code.trim();
+        return detect(code).getLanguage();
+    }
 
-        // Verificar HTML primero (más específico)
-        if (HTML_PATTERN.matcher(cleanCode).matches()) {
-            return LanguageType.HTML;
+    /**
+     * Detecta el lenguaje revisando el prefijo y las ventanas de muestra, o el
+     * texto completo si es corto o las muestras son ambiguas
+     */
+    @Override
+    public DetectionResult detect(CharSequence code) {
+        if (code == null) {
+            return new DetectionResult(LanguageType.UNKNOWN, 0, 0, true);
         }
 
-        // Verificar PL/SQL
-        if (PLSQL_PATTERN.matcher(cleanCode).matches()) {
-            return LanguageType.PLSQL;
+        // Un texto en blanco no tiene señales y queda como UNKNOWN
+        int longitud = code.length();
+        if (longitud <= prefijo + (long) ventanas * tamanoVentana) {
+            return recorrerCompleto(code, 0);
         }
 
-        // Verificar Python
-        if (PYTHON_PATTERN.matcher(cleanCode).matches()) {
-            return LanguageType.PYTHON;
+        LanguageScorer puntaje = new LanguageScorer();
+        long inspeccionados = puntaje.recorrer(code, 0, prefijo);
+        long resto = longitud - prefijo - tamanoVentana;
+        for (int k = 1; k <= ventanas && !puntaje.decidido(); k++) {
+            int desde = (int) (prefijo + resto * k / ventanas);
+            inspeccionados += puntaje.recorrer(code, desde, desde + tamanoVentana) - desde;
         }
+        // Sin ninguna señal en las muestras el texto no se recorre completo: sería
+        // lineal justamente en los textos grandes que no son de ningún lenguaje
+        if (puntaje.confianza() >= confianzaMinima || puntaje.lider() == LanguageType.UNKNOWN) {
+            return new DetectionResult(puntaje.lider(), puntaje.confianza(), inspeccionados, false);
+        }
+        // Las muestras ya contadas se vuelven a recorrer con el texto completo
+        return recorrerCompleto(code, inspeccionados);
+    }
+
+    /**
+     * Detecta el lenguaje y la codificación sin decodificar los bytes ni crear
+     * un String; los caracteres revisados se cuentan en unidades de la
+     * codificación, que en UTF-8 son bytes
+     */
+    @Override
+    public SniffResult detect(ByteBuffer bytes) {
+        Charset charset = ByteSniffer.detectarCharset(bytes, prefijo);
+        return new SniffResult(detect(ByteSniffer.vistaAscii(bytes, charset)), charset, ByteSniffer.longitudBom(bytes));
+    }
 
-        return LanguageType.UNKNOWN;
+    private DetectionResult recorrerCompleto(CharSequence code, long yaInspeccionados) {
+        LanguageScorer puntaje = new LanguageScorer();
+        long inspeccionados = puntaje.recorrer(code, 0, code.length());
+        return new DetectionResult(puntaje.lider(), puntaje.confianza(), yaInspeccionados + inspeccionados, true);
     }
 }
@@ -0,0 +1,247 @@
+package com.analyzer.service;
+
+import com.analyzer.model.LanguageType;
+import com.analyzer.util.KeywordTable;
+import com.analyzer.util.SignalMatcher;
+
+/**
+ * Señales de cada lenguaje que aparecen en el texto: etiquetas HTML,
+ * construcciones de Python y sentencias de PL/SQL. Un único autómata de
+ * Aho–Corasick encuentra en un recorrido el inicio literal de las señales de
+ * los tres lenguajes, sin distinguir mayúsculas; las que siguen con espacios,
+ * un nombre o una palabra se comprueban a continuación del literal, y la
+ * palabra que debe seguir se busca en una tabla de palabras clave.
+ * <p>
+ * Decide el primer lenguaje con alguna señal en el orden HTML, PL/SQL,
+ * Python, y no el que tiene más: señales como {@code from} aparecen también
+ * en SQL y en el texto de una página, y no deben superar a las del lenguaje
+ * que sí las tiene. El recorrido se detiene en la primera señal de HTML,
+ * que ya no puede cambiar el resultado.
+ */
+final class LanguageScorer implements SignalMatcher.Receptor {
+
+    // Señales del lenguaje decidido a partir de las cuales la confianza es 1
+    static final int MARGEN = 16;
+
+    // Orden de preferencia: gana el primero que tenga alguna señal
+    private static final LanguageType[] PRIORIDAD = {
+            LanguageType.HTML, LanguageType.PLSQL, LanguageType.PYTHON
+    };
+
+    // Lo que debe seguir al literal para que la señal cuente
+    private static final int NADA = 0;
+    private static final int NOMBRE = 1;             // \s+\w+
+    private static final int NOMBRE_DOS_PUNTOS = 2;  // \s+\w+:
+    private static final int NOMBRE_Y_PALABRA = 3;   // \s+\w+\s+ y la palabra
+    private static final int PALABRA = 4;            // \s+ y la palabra
+    private static final int PARENTESIS = 5;         // \s*(
+
+    // Palabras que deben seguir a los literales de NOMBRE_Y_PALABRA y PALABRA
+    private static final KeywordTable SIGUIENTES = KeywordTable.enMinusculas("in", "table", "*", "into", "from");
+
+    private static final Senal[] SENALES = {
+            new Senal("<html", LanguageType.HTML, NADA, null),
+            new Senal("<head", LanguageType.HTML, NADA, null),
+            new Senal("<body", LanguageType.HTML, NADA, null),
+            new Senal("<div", LanguageType.HTML, NADA, null),
+            new Senal("<p>", LanguageType.HTML, NADA, null),
+            new Senal("<span", LanguageType.HTML, NADA, null),
+            new Senal("<!doctype", LanguageType.HTML, NADA, null),
+            new Senal("<meta", LanguageType.HTML, NADA, null),
+            new Senal("<link", LanguageType.HTML, NADA, null),
+            new Senal("<script>", LanguageType.HTML, NADA, null),
+
+            new Senal("def", LanguageType.PYTHON, NOMBRE, null),
+            new Senal("import", LanguageType.PYTHON, NOMBRE, null),
+            new Senal("from", LanguageType.PYTHON, NOMBRE, null),
+            new Senal("if", LanguageType.PYTHON, NOMBRE_DOS_PUNTOS, null),
+            new Senal("for", LanguageType.PYTHON, NOMBRE_Y_PALABRA, "in"),
+            new Senal("class", LanguageType.PYTHON, NOMBRE_DOS_PUNTOS, null),
+            new Senal("print", LanguageType.PYTHON, PARENTESIS, null),
+
+            new Senal("create", LanguageType.PLSQL, PALABRA, "table"),
+            new Senal("select", LanguageType.PLSQL, PALABRA, "*"),
+            new Senal("insert", LanguageType.PLSQL, PALABRA, "into"),
+            new Senal("update", LanguageType.PLSQL, NOMBRE, null),
+            new Senal("delete", LanguageType.PLSQL, PALABRA, "from"),
+            new Senal("begin", LanguageType.PLSQL, NADA, null),
+            new Senal("end;", LanguageType.PLSQL, NADA, null),
+            new Senal("declare", LanguageType.PLSQL, NADA, null)
+    };
+
+    private static final SignalMatcher LITERALES = construirAutomata();
+
+    private static SignalMatcher construirAutomata() {
+        String[] literales = new String[SENALES.length];
+        for (int i = 0; i < SENALES.length; i++) {
+            literales[i] = SENALES[i].literal;
+        }
+        return new SignalMatcher(literales);
+    }
+
+    private final int[] puntajes = new int[LanguageType.values().length];
+
+    // Texto del recorrido en curso, para comprobar lo que sigue a cada literal
+    private CharSequence texto;
+    private int hasta;
+
+    /**
+     * Suma las señales de texto[desde, hasta); una señal cuenta solo si termina antes de hasta
+     * @return posición en la que se detuvo: hasta, o antes si ya se alcanzó el margen
+     */
+    int recorrer(CharSequence texto, int desde, int hasta) {
+        this.texto = texto;
+        this.hasta = hasta;
+        try {
+            return LITERALES.recorrer(texto, desde, hasta, this);
+        } finally {
+            this.texto = null;
+        }
+    }
+
+    @Override
+    public boolean encontrado(int patron, int inicio, int fin) {
+        Senal senal = SENALES[patron];
+        if (!completa(senal, fin)) {
+            return true;
+        }
+        puntajes[senal.lenguaje.ordinal()]++;
+        return !decidido();
+    }
+
+    int puntaje(LanguageType lenguaje) {
+        return puntajes[lenguaje.ordinal()];
+    }
+
+    /**
+     * Primer lenguaje con alguna señal en el orden de preferencia, o UNKNOWN si no apareció ninguna
+     */
+    LanguageType lider() {
+        for (LanguageType lenguaje : PRIORIDAD) {
+            if (puntajes[lenguaje.ordinal()] > 0) {
+                return lenguaje;
+            }
+        }
+        return LanguageType.UNKNOWN;
+    }
+
+    /**
+     * Indica si el resto del texto ya no puede cambiar el resultado: ocurre
+     * con la primera señal del lenguaje de mayor preferencia
+     */
+    boolean decidido() {
+        return puntajes[PRIORIDAD[0].ordinal()] > 0;
+    }
+
+    /**
+     * Confianza en el líder, de 0 a 1: es 1 si ya está decidido y, si no,
+     * crece con sus señales hasta llegar a 1 con el margen, porque una señal
+     * de un lenguaje de mayor preferencia en el resto del texto lo cambiaría
+     */
+    double confianza() {
+        if (decidido()) {
+            return 1;
+        }
+        LanguageType lider = lider();
+        if (lider == LanguageType.UNKNOWN) {
+            return 0;
+        }
+        return Math.min(puntajes[lider.ordinal()], MARGEN) / (double) MARGEN;
+    }
+
+    /**
+     * Indica si después del literal, que termina en fin, sigue lo que pide la señal
+     */
+    private boolean completa(Senal senal, int fin) {
+        switch (senal.continuacion) {
+            case NOMBRE:
+                return palabra(texto, espacios(texto, fin, hasta), hasta) >= 0;
+            case NOMBRE_DOS_PUNTOS:
+                return palabraYDosPuntos(texto, fin, hasta);
+            case NOMBRE_Y_PALABRA:
+                return seguidoDe(texto, palabra(texto, espacios(texto, fin, hasta), hasta), hasta, senal);
+            case PALABRA:
+                return seguidoDe(texto, fin, hasta, senal);
+            case PARENTESIS:
+                int llamada = fin;
+                while (llamada < hasta && esEspacio(texto.charAt(llamada))) {
+                    llamada++;
+                }
+                return llamada < hasta && texto.charAt(llamada) == '(';
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Indica si desde i hay uno o más espacios y después empieza la palabra
+     * que pide la señal, sin distinguir mayúsculas
+     */
+    private static boolean seguidoDe(CharSequence texto, int i, int hasta, Senal senal) {
+        int inicio = espacios(texto, i, hasta);
+        int fin = inicio + SIGUIENTES.palabra(senal.siguiente).length();
+        return inicio >= 0 && fin <= hasta && SIGUIENTES.indice(texto, inicio, fin) == senal.siguiente;
+    }
+
+    /**
+     * Indica si desde i hay uno o más espacios, una palabra y ':'
+     */
+    private static boolean palabraYDosPuntos(CharSequence texto, int i, int hasta) {
+        int fin = palabra(texto, espacios(texto, i, hasta), hasta);
+        return fin >= 0 && fin < hasta && texto.charAt(fin) == ':';
+    }
+
+    /**
+     * Fin de uno o más espacios desde i, o -1 si no hay ninguno
+     */
+    private static int espacios(CharSequence texto, int i, int hasta) {
+        if (i < 0) {
+            return -1;
+        }
+        int fin = i;
+        while (fin < hasta && esEspacio(texto.charAt(fin))) {
+            fin++;
+        }
+        return fin > i ? fin : -1;
+    }
+
+    /**
+     * Fin de uno o más caracteres de palabra ASCII desde i, o -1 si no hay ninguno
+     */
+    private static int palabra(CharSequence texto, int i, int hasta) {
+        if (i < 0) {
+            return -1;
+        }
+        int fin = i;
+        while (fin < hasta && esCaracterPalabra(texto.charAt(fin))) {
+            fin++;
+        }
+        return fin > i ? fin : -1;
+    }
+
+    private static boolean esEspacio(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean esCaracterPalabra(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    /**
+     * Literal con el que empieza una señal, su lenguaje y lo que debe seguirle
+     */
+    private static final class Senal {
+        final String literal;
+        final LanguageType lenguaje;
+        final int continuacion;
+        // Posición en SIGUIENTES de la palabra que debe seguir, o -1
+        final int siguiente;
+
+        Senal(String literal, LanguageType lenguaje, int continuacion, String siguiente) {
+            this.literal = literal;
+            this.lenguaje = lenguaje;
+            this.continuacion = continuacion;
+            this.siguiente = siguiente != null ? SIGUIENTES.indice(siguiente, 0, siguiente.length()) : -1;
+        }
+    }
+}
@@ -3,9 +3,12 @@
 package com.analyzer.service.LexicalAnalizer;
 import com.analyzer.service.interfaces.ILexicalAnalyzer;
 import com.analyzer.model.*;
+import com.analyzer.util.ContextPool;
+import com.analyzer.util.KeywordTable;
+import java.io.IOException;
+import java.io.Reader;
 import java.util.*;
-import java.util.regex.Pattern;
-import java.util.regex.Matcher;
+import java.util.function.Consumer;
 
 /**
  * Analizador léxico especializado para HTML.
@@ -13,35 +16,36 @@ import java.util.regex.Matcher;
  */
 public class HTMLLexicalAnalyzer implements ILexicalAnalyzer {
 
-    // Patrones regex para HTML
-    private static final Pattern PATRON_ETIQUETA = Pattern.compile(
-            "</?\\s*([a-zA-Z][a-zA-Z0-9]*)(\\s+[^>]*)?>", Pattern.CASE_INSENSITIVE
+    // Conjunto de etiquetas HTML válidas, sin distinguir mayúsculas
+    private static final KeywordTable ETIQUETAS_VALIDAS = KeywordTable.enMinusculas(
+            "html", "head", "title", "body", "h1", "h2", "h3", "h4", "h5", "h6",
+            "p", "div", "span", "a", "img", "ul", "ol", "li", "table", "tr", "td", "th",
+            "form", "input", "button", "textarea", "select", "option", "meta", "link",
+            "script", "style", "br", "hr", "strong", "em", "b", "i", "section", "article",
+            "nav", "aside", "header", "footer", "main"
     );
 
-    private static final Pattern PATRON_COMENTARIO = Pattern.compile(
-            "<!--[\\s\\S]*?-->", Pattern.MULTILINE | Pattern.DOTALL
+    // Etiquetas que no requieren cierre
+    private static final KeywordTable ETIQUETAS_AUTOCERRANTES = KeywordTable.exacta(
+            "br", "hr", "img", "input", "meta", "link", "area", "base", "col", "embed", "source", "track", "wbr"
     );
 
-    private static final Pattern PATRON_DOCTYPE = Pattern.compile(
-            "<!DOCTYPE[^>]*>", Pattern.CASE_INSENSITIVE
-    );
+    // Etiquetas mal escritas comunes y su sugerencia, en el mismo orden
+    private static final KeywordTable ERRORES_COMUNES = KeywordTable.enMinusculas("bol", "imagen", "enlase", "parrafo");
+    private static final String[] SUGERENCIAS = {"b", "img", "a", "p"};
 
-    private static final Pattern PATRON_ATRIBUTO = Pattern.compile(
-            "(\\w+)\\s*=\\s*([\"']?)([^\"'\\s>]*?)\\2"
+    // Atributos frecuentes, para tomar su nombre en minúsculas sin crear un String
+    private static final KeywordTable ATRIBUTOS_COMUNES = KeywordTable.enMinusculas(
+            "id", "class", "style", "href", "src", "alt", "title", "type", "name", "value", "rel",
+            "content", "charset", "lang", "width", "height", "action", "method", "placeholder", "for", "target"
     );
 
-    private static final Pattern PATRON_TEXTO = Pattern.compile(
-            "[^<>]+(?=<|$)"
-    );
+    // Tabla de nombres de los análisis sin contexto, o null; con contexto se usa la suya
+    private InternPool internado;
+
+    // Escáner e índice de líneas de cada análisis, reutilizados entre análisis
+    private static final ContextPool<Contexto> CONTEXTOS = new ContextPool<>(Contexto::new);
 
-    // Conjunto de etiquetas HTML válidas
-    private static final Set<String> ETIQUETAS_VALIDAS = Set.of(
-            "html", "head", "title", "body", "h1", "h2", "h3", "h4", "h5", "h6",
-            "p", "div", "span", "a", "img", "ul", "ol", "li", "table", "tr", "td", "th",
-            "form", "input", "button", "textarea", "select", "option", "meta", "link",
-            "script", "style", "br", "hr", "strong", "em", "b", "i", "section", "article",
-            "nav", "aside", "header", "footer", "main"
-    );
 /// verificar
     @Override
     public List<Token> analyze(String code, LanguageType language) {
@@ -52,260 +56,291 @@ public class HTMLLexicalAnalyzer implements ILexicalAnalyzer {
 
     @Override
     public List<Token> analyzeLexical(String fuente, List<AnalysisError> errores) {
-        List<Token> tokens = new ArrayList<>();
+        return analyzeLexicalBuffer(fuente, errores).asList();
+    }
 
-        if (fuente == null || fuente.trim().isEmpty()) {
-            return tokens;
-        }
+    @Override
+    public TokenBuffer analyzeLexicalBuffer(String fuente, List<AnalysisError> errores) {
+        return analyzeLexicalBuffer((CharSequence) fuente, errores);
+    }
 
-        // Dividir en líneas para análisis línea por línea
-        String[] lineas = fuente.split("\n", -1);
+    @Override
+    public void usarInternado(InternPool internado) {
+        this.internado = internado;
+    }
 
-        for (int numeroLinea = 0; numeroLinea < lineas.length; numeroLinea++) {
-            String linea = lineas[numeroLinea];
-            tokenizarLineaHTML(linea, numeroLinea + 1, tokens, errores);
-        }
+    /**
+     * Buffer vacío sobre la fuente, con la tabla de nombres indicada (o ninguna si es null)
+     */
+    private static TokenBuffer nuevoBuffer(CharSequence fuente, InternPool internado) {
+        TokenBuffer tokens = new TokenBuffer(fuente);
+        tokens.usarInternado(internado);
+        return tokens;
+    }
 
-        // Validaciones finales
-        validarEstructuraFinal(tokens, errores);
+    @Override
+    public TokenBuffer analyzeLexicalBuffer(CharSequence fuente, List<AnalysisError> errores) {
+        return analizarDocumento(fuente, null, internado, errores);
+    }
 
-        return tokens;
+    @Override
+    public TokenBuffer analyzeLexicalBuffer(AnalysisContext contexto, List<AnalysisError> errores) {
+        return analizarDocumento(contexto.getSource(), contexto.getLineIndex(), contexto.getInternPool(), errores);
     }
 
     /**
-     * Tokeniza una línea HTML completa.
+     * @param lineas índice de líneas de la fuente, o null para construirlo
+     * @param internado tabla de nombres de los tokens, o null
      */
-    private void tokenizarLineaHTML(String linea, int numeroLinea, List<Token> tokens, List<AnalysisError> errores) {
-        if (linea.trim().isEmpty()) {
-            return;
+    private TokenBuffer analizarDocumento(CharSequence fuente, LineIndex lineas, InternPool internado,
+                                          List<AnalysisError> errores) {
+        if (fuente == null || ILexicalAnalyzer.estaEnBlanco(fuente)) {
+            return new TokenBuffer("");
         }
 
-        int posicion = 0;
+        TokenBuffer tokens = nuevoBuffer(fuente, internado);
+
+        // Análisis del documento completo; comentarios y etiquetas pueden ocupar varias líneas
+        ErrorSink sumidero = ErrorSink.sobre(errores);
+        Contexto contexto = CONTEXTOS.tomar();
+        try {
+            tokenizarHTML(fuente, contexto.escaner, lineas != null ? lineas : contexto.lineas.indexar(fuente),
+                    tokens, sumidero);
+        } finally {
+            contexto.escaner.soltar();
+            CONTEXTOS.devolver(contexto);
+        }
 
-        while (posicion < linea.length()) {
-            // Saltar espacios en blanco
-            if (Character.isWhitespace(linea.charAt(posicion))) {
-                posicion++;
-                continue;
-            }
+        // Validaciones finales
+        validarEstructuraFinal(tokens, sumidero);
 
-            // Intentar tokenización en orden de prioridad
-            ResultadoToken resultado = intentarTokenizar(linea, posicion, numeroLinea, errores);
+        return tokens;
+    }
 
-            if (resultado.exito) {
-                if (resultado.token != null) {
-                    tokens.add(resultado.token);
-                }
-                posicion = resultado.siguientePosicion;
-            } else {
-                // Carácter no reconocido
-                registrarCaracterInvalido(linea.charAt(posicion), numeroLinea, posicion, errores);
-                posicion++;
-            }
+    /**
+     * Versión por ventanas; no verifica el balance de etiquetas
+     */
+    @Override
+    public void analyzeLexicalStream(Reader fuente, Consumer<Token> consumidor, List<AnalysisError> errores)
+            throws IOException {
+        StreamingWindow ventana = new StreamingWindow(fuente);
+        TokenBuffer lote = nuevoBuffer(ventana, internado);
+        Contexto contexto = CONTEXTOS.tomar();
+        HTMLScanner escaner = contexto.escaner;
+        ErrorSink sumidero = ErrorSink.sobre(errores);
+
+        try {
+            ventana.recorrer(escaner, lote, (numeroLinea, inicioLinea) ->
+                    agregarTokenHTML(ventana, escaner, numeroLinea, escaner.inicioToken() - inicioLinea, lote, sumidero),
+                    consumidor, sumidero);
+        } finally {
+            escaner.soltar();
+            CONTEXTOS.devolver(contexto);
         }
     }
 
     /**
-     * Intenta tokenizar en la posición actual según prioridades.
+     * Sesión para {@link IncrementalLexer}; el escáner no guarda estado entre tokens
      */
-    private ResultadoToken intentarTokenizar(String linea, int posicion, int numeroLinea, List<AnalysisError> errores) {
-        // 1. Comentarios HTML (prioridad alta)
-        ResultadoToken resultado = reconocerComentario(linea, posicion, numeroLinea);
-        if (resultado.exito) return resultado;
+    SesionIncremental nuevaSesion() {
+        HTMLScanner escaner = new HTMLScanner();
+        return new SesionIncremental() {
+            @Override
+            public TokenScanner escaner() { return escaner; }
+
+            @Override
+            public void reiniciar() {
+            }
 
-        // 2. DOCTYPE
-        resultado = reconocerDoctype(linea, posicion, numeroLinea);
-        if (resultado.exito) return resultado;
+            @Override
+            public Object estadoLinea() { return null; }
 
-        // 3. Etiquetas HTML
-        resultado = reconocerEtiqueta(linea, posicion, numeroLinea, errores);
-        if (resultado.exito) return resultado;
+            @Override
+            public void restaurarEstadoLinea(Object estado, int numeroLinea) {
+            }
 
-        // 4. Texto plano
-        resultado = reconocerTexto(linea, posicion, numeroLinea);
-        if (resultado.exito) return resultado;
+            @Override
+            public void agregarToken(CharSequence texto, int numeroLinea, int inicioLinea, int finLinea,
+                                     TokenBuffer tokens, ErrorSink errores) {
+                agregarTokenHTML(texto, escaner, numeroLinea, escaner.inicioToken() - inicioLinea, tokens, errores);
+            }
 
-        return new ResultadoToken(false, null, posicion);
+            @Override
+            public void validarFinal(TokenBuffer tokens, ErrorSink errores) {
+                validarEstructuraFinal(tokens, errores);
+            }
+        };
     }
 
     /**
-     * Reconoce comentarios HTML <!-- -->
+     * Tokeniza el texto completo con un único desplazamiento; la línea y la
+     * columna de cada token salen del índice de inicios de línea
      */
-    private ResultadoToken reconocerComentario(String linea, int posicion, int numeroLinea) {
-        Matcher matcher = PATRON_COMENTARIO.matcher(linea);
-        matcher.region(posicion, linea.length());
-
-        if (matcher.lookingAt()) {
-            String comentario = matcher.group();
-            Token token = new Token(comentario, "COMENTARIO_HTML", numeroLinea, posicion);
-            return new ResultadoToken(true, token, matcher.end());
-        }
+    private void tokenizarHTML(CharSequence texto, HTMLScanner escaner, LineIndex lineas, TokenBuffer tokens,
+                               ErrorSink errores) {
+        int numeroLinea = 1;
 
-        return new ResultadoToken(false, null, posicion);
-    }
+        escaner.reiniciar(texto, 0, texto.length());
 
-    /**
-     * Reconoce declaraciones DOCTYPE
-     */
-    private ResultadoToken reconocerDoctype(String linea, int posicion, int numeroLinea) {
-        Matcher matcher = PATRON_DOCTYPE.matcher(linea);
-        matcher.region(posicion, linea.length());
-
-        if (matcher.lookingAt()) {
-            String doctype = matcher.group();
-            Token token = new Token(doctype, "DOCTYPE", numeroLinea, posicion);
-            return new ResultadoToken(true, token, matcher.end());
-        }
+        while (escaner.siguiente()) {
+            int posicion = escaner.inicioToken();
+            while (numeroLinea < lineas.numeroLineas() && lineas.inicioLinea(numeroLinea + 1) <= posicion) {
+                numeroLinea++;
+            }
+            int columna = posicion - lineas.inicioLinea(numeroLinea);
 
-        return new ResultadoToken(false, null, posicion);
+            agregarTokenHTML(texto, escaner, numeroLinea, columna, tokens, errores);
+        }
     }
 
     /**
-     * Reconoce etiquetas HTML <tag> </tag>
+     * Agrega el token que acaba de reconocer la máquina de estados
      */
-    private ResultadoToken reconocerEtiqueta(String linea, int posicion, int numeroLinea, List<AnalysisError> errores) {
-        Matcher matcher = PATRON_ETIQUETA.matcher(linea);
-        matcher.region(posicion, linea.length());
-
-        if (matcher.lookingAt()) {
-            String etiquetaCompleta = matcher.group();
-            String nombreEtiqueta = matcher.group(1);
-            String atributos = matcher.group(2);
-
-            // Validar etiqueta
-            validarEtiqueta(nombreEtiqueta, numeroLinea, posicion, errores);
-
-            // Determinar tipo de etiqueta
-            String tipoToken = determinarTipoEtiqueta(etiquetaCompleta);
-            Token token = new Token(etiquetaCompleta, tipoToken, numeroLinea, posicion);
-
-            // Si tiene atributos, tokenizarlos también
-            if (atributos != null && !atributos.trim().isEmpty()) {
-                // Los atributos se manejan como parte de la etiqueta por simplicidad
-                token.getAttributes().put("atributos", atributos.trim());
-            }
-
-            return new ResultadoToken(true, token, matcher.end());
+    private void agregarTokenHTML(CharSequence texto, HTMLScanner escaner, int numeroLinea, int columna,
+                                  TokenBuffer tokens, ErrorSink errores) {
+        int posicion = escaner.inicioToken();
+        int fin = escaner.finToken();
+
+        switch (escaner.tipoToken()) {
+            case HTMLScanner.COMENTARIO:
+                tokens.agregar(TokenKind.COMENTARIO_HTML, posicion, fin - posicion, numeroLinea, columna);
+                break;
+            case HTMLScanner.DOCTYPE:
+                tokens.agregar(TokenKind.DOCTYPE, posicion, fin - posicion, numeroLinea, columna);
+                break;
+            case HTMLScanner.ETIQUETA:
+                reconocerEtiqueta(texto, numeroLinea, columna, escaner, tokens, errores);
+                break;
+            case HTMLScanner.TEXTO:
+                tokens.agregar(TokenKind.TEXTO_HTML, escaner.inicioValor(), escaner.finValor() - escaner.inicioValor(),
+                        numeroLinea, columna);
+                break;
+            default:
+                // Carácter no reconocido
+                registrarCaracterInvalido(texto.charAt(posicion), numeroLinea, columna, errores);
+                break;
         }
-
-        return new ResultadoToken(false, null, posicion);
     }
 
     /**
-     * Reconoce texto plano entre etiquetas
+     * Agrega el token de una etiqueta HTML <tag> </tag> con el nombre y
+     * los atributos que dejó registrados la máquina de estados.
      */
-    private ResultadoToken reconocerTexto(String linea, int posicion, int numeroLinea) {
-        // Buscar texto hasta la siguiente etiqueta o final de línea
-        int inicioTexto = posicion;
-        int finTexto = encontrarSiguienteEtiqueta(linea, posicion);
-
-        if (finTexto > inicioTexto) {
-            String texto = linea.substring(inicioTexto, finTexto).trim();
-            if (!texto.isEmpty()) {
-                Token token = new Token(texto, "TEXTO_HTML", numeroLinea, inicioTexto);
-                return new ResultadoToken(true, token, finTexto);
-            }
+    private void reconocerEtiqueta(CharSequence texto, int numeroLinea, int columna, HTMLScanner escaner,
+                                   TokenBuffer tokens, ErrorSink errores) {
+        int posicion = escaner.inicioToken();
+        int fin = escaner.finToken();
+
+        // Validar etiqueta; una etiqueta conocida usa como subtipo su nombre de la tabla
+        int etiqueta = validarEtiqueta(texto, escaner.inicioNombre(), escaner.finNombre(), numeroLinea, columna, errores);
+        String subtipo = etiqueta >= 0 ? ETIQUETAS_VALIDAS.palabra(etiqueta)
+                : enMinusculas(texto, escaner.inicioNombre(), escaner.finNombre(), tokens.getInternado());
+
+        // Determinar tipo de etiqueta
+        TokenKind tipoToken = determinarTipoEtiqueta(texto, posicion, fin);
+        int indice = tokens.agregar(tipoToken, posicion, fin - posicion, numeroLinea, columna);
+        tokens.asignarSubtipo(indice, subtipo);
+
+        // Atributos nombre=valor; si se repiten, gana el primero
+        for (int k = 0; k < escaner.numeroAtributos(); k++) {
+            int inicioNombre = escaner.inicioNombreAtributo(k);
+            int finNombre = escaner.finNombreAtributo(k);
+            int atributo = ATRIBUTOS_COMUNES.indice(texto, inicioNombre, finNombre);
+            String nombre = atributo >= 0 ? ATRIBUTOS_COMUNES.palabra(atributo)
+                    : enMinusculas(texto, inicioNombre, finNombre, tokens.getInternado());
+            int inicioValor = escaner.inicioValorAtributo(k);
+            String valor = inicioValor < 0 ? "" : texto.subSequence(inicioValor, escaner.finValorAtributo(k)).toString();
+            tokens.asignarAtributo(indice, nombre, valor);
         }
 
-        return new ResultadoToken(false, null, posicion);
+        int sinCerrar = escaner.valorSinCerrar();
+        if (sinCerrar >= 0) {
+            errores.reportar(ErrorCode.HTML_VALOR_SIN_CERRAR, numeroLinea, columna, texto,
+                    escaner.inicioNombreAtributo(sinCerrar), escaner.finNombreAtributo(sinCerrar));
+        }
     }
 
     /**
-     * Valida si una etiqueta HTML es reconocida
+     * Valida si la etiqueta texto[inicio, fin) es reconocida
+     * @return su índice en ETIQUETAS_VALIDAS, o -1 si no lo es
      */
-    private void validarEtiqueta(String nombreEtiqueta, int numeroLinea, int posicion, List<AnalysisError> errores) {
-        if (!ETIQUETAS_VALIDAS.contains(nombreEtiqueta.toLowerCase())) {
-            errores.add(new AnalysisError(
-                    "Etiqueta HTML no reconocida: " + nombreEtiqueta,
-                    AnalysisError.ErrorType.WARNING,
-                    numeroLinea, posicion
-            ));
+    private int validarEtiqueta(CharSequence texto, int inicio, int fin, int numeroLinea, int posicion,
+                                ErrorSink errores) {
+        int etiqueta = ETIQUETAS_VALIDAS.indice(texto, inicio, fin);
+        if (etiqueta >= 0) {
+            return etiqueta;
         }
 
+        errores.reportar(ErrorCode.HTML_ETIQUETA_DESCONOCIDA, numeroLinea, posicion, texto, inicio, fin);
+
         // Verificar etiquetas mal escritas comunes
-        Map<String, String> erroresComunes = Map.of(
-                "bol", "b",
-                "imagen", "img",
-                "enlase", "a",
-                "parrafo", "p"
-        );
-
-        String sugerencia = erroresComunes.get(nombreEtiqueta.toLowerCase());
-        if (sugerencia != null) {
-            errores.add(new AnalysisError(
-                    "Posible error de escritura: '" + nombreEtiqueta + "', ¿quiso decir '" + sugerencia + "'?",
-                    AnalysisError.ErrorType.WARNING,
-                    numeroLinea, posicion
-            ));
+        int error = ERRORES_COMUNES.indice(texto, inicio, fin);
+        if (error >= 0) {
+            errores.reportar(ErrorCode.HTML_ETIQUETA_MAL_ESCRITA, numeroLinea, posicion, texto, inicio, fin,
+                    SUGERENCIAS[error]);
         }
+        return -1;
     }
 
     /**
-     * Determina el tipo específico de etiqueta
+     * Nombre texto[inicio, fin) en minúsculas. Si ya lo está se busca en la tabla
+     * de nombres, así que un nombre repetido no crea otro String
      */
-    private String determinarTipoEtiqueta(String etiqueta) {
-        if (etiqueta.startsWith("</")) {
-            return "ETIQUETA_CIERRE";
-        } else if (etiqueta.endsWith("/>")) {
-            return "ETIQUETA_AUTOCERRANTE";
-        } else {
-            return "ETIQUETA_APERTURA";
+    private static String enMinusculas(CharSequence texto, int inicio, int fin, InternPool internado) {
+        for (int i = inicio; i < fin; i++) {
+            char c = texto.charAt(i);
+            if (Character.toLowerCase(c) != c) {
+                return texto.subSequence(inicio, fin).toString().toLowerCase();
+            }
         }
+        return internado != null ? internado.intern(texto, inicio, fin) : texto.subSequence(inicio, fin).toString();
     }
 
     /**
-     * Encuentra la posición de la siguiente etiqueta
+     * Determina el tipo específico de etiqueta
      */
-    private int encontrarSiguienteEtiqueta(String linea, int inicio) {
-        for (int i = inicio; i < linea.length(); i++) {
-            if (linea.charAt(i) == '<') {
-                return i;
-            }
+    private TokenKind determinarTipoEtiqueta(CharSequence texto, int inicio, int fin) {
+        if (texto.charAt(inicio + 1) == '/') {
+            return TokenKind.ETIQUETA_CIERRE;
+        } else if (texto.charAt(fin - 2) == '/') {
+            return TokenKind.ETIQUETA_AUTOCERRANTE;
+        } else {
+            return TokenKind.ETIQUETA_APERTURA;
         }
-        return linea.length();
     }
 
     /**
      * Registra un carácter inválido
      */
-    private void registrarCaracterInvalido(char caracter, int numeroLinea, int posicion, List<AnalysisError> errores) {
-        errores.add(new AnalysisError(
-                "Carácter no reconocido en HTML: '" + caracter + "'",
-                AnalysisError.ErrorType.LEXICAL,
-                numeroLinea, posicion
-        ));
+    private void registrarCaracterInvalido(char caracter, int numeroLinea, int posicion, ErrorSink errores) {
+        errores.reportar(ErrorCode.HTML_CARACTER_INVALIDO, numeroLinea, posicion, caracter);
     }
 
     /**
      * Validaciones finales de estructura HTML
      */
-    private void validarEstructuraFinal(List<Token> tokens, List<AnalysisError> errores) {
+    private void validarEstructuraFinal(TokenBuffer tokens, ErrorSink errores) {
         // Verificar balance de etiquetas
         Stack<String> pilaEtiquetas = new Stack<>();
 
-        for (Token token : tokens) {
-            if ("ETIQUETA_APERTURA".equals(token.getType())) {
-                String nombreEtiqueta = extraerNombreEtiqueta(token.getValue());
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.kind(i) == TokenKind.ETIQUETA_APERTURA) {
+                String nombreEtiqueta = tokens.subtipo(i);
                 if (!esEtiquetaAutocerrante(nombreEtiqueta)) {
                     pilaEtiquetas.push(nombreEtiqueta);
                 }
-            } else if ("ETIQUETA_CIERRE".equals(token.getType())) {
-                String nombreEtiqueta = extraerNombreEtiqueta(token.getValue());
+            } else if (tokens.kind(i) == TokenKind.ETIQUETA_CIERRE) {
+                String nombreEtiqueta = tokens.subtipo(i);
 
                 if (pilaEtiquetas.isEmpty()) {
-                    errores.add(new AnalysisError(
-                            "Etiqueta de cierre sin apertura: " + token.getValue(),
-                            AnalysisError.ErrorType.SYNTACTIC,
-                            token.getLine(), token.getColumn()
-                    ));
+                    errores.reportar(ErrorCode.HTML_CIERRE_SIN_APERTURA, tokens.linea(i), tokens.columna(i),
+                            tokens.getFuente(), tokens.inicio(i), tokens.inicio(i) + tokens.longitud(i));
                 } else {
                     String ultimaAbierta = pilaEtiquetas.pop();
                     if (!ultimaAbierta.equals(nombreEtiqueta)) {
-                        errores.add(new AnalysisError(
-                                "Etiquetas mal anidadas: esperaba </" + ultimaAbierta + "> pero encontró " + token.getValue(),
-                                AnalysisError.ErrorType.SYNTACTIC,
-                                token.getLine(), token.getColumn()
-                        ));
+                        errores.reportar(ErrorCode.HTML_MAL_ANIDADAS, tokens.linea(i), tokens.columna(i),
+                                tokens.getFuente(), tokens.inicio(i), tokens.inicio(i) + tokens.longitud(i),
+                                ultimaAbierta);
                     }
                 }
             }
@@ -314,46 +349,22 @@ public class HTMLLexicalAnalyzer implements ILexicalAnalyzer {
         // Etiquetas sin cerrar
         while (!pilaEtiquetas.isEmpty()) {
             String etiquetaSinCerrar = pilaEtiquetas.pop();
-            errores.add(new AnalysisError(
-                    "Etiqueta sin cerrar: <" + etiquetaSinCerrar + ">",
-                    AnalysisError.ErrorType.SYNTACTIC,
-                    1, 0
-            ));
-        }
-    }
-
-    /**
-     * Extrae el nombre de la etiqueta del token
-     */
-    private String extraerNombreEtiqueta(String etiqueta) {
-        Pattern patron = Pattern.compile("</?\\s*([a-zA-Z][a-zA-Z0-9]*)");
-        Matcher matcher = patron.matcher(etiqueta);
-        if (matcher.find()) {
-            return matcher.group(1).toLowerCase();
+            errores.reportar(ErrorCode.HTML_SIN_CERRAR, 1, 0, etiquetaSinCerrar);
         }
-        return "";
     }
 
     /**
      * Verifica si es una etiqueta autocerrante
      */
     private boolean esEtiquetaAutocerrante(String nombreEtiqueta) {
-        Set<String> autocerrantes = Set.of("br", "hr", "img", "input", "meta", "link", "area", "base", "col", "embed", "source", "track", "wbr");
-        return autocerrantes.contains(nombreEtiqueta.toLowerCase());
+        return ETIQUETAS_AUTOCERRANTES.contiene(nombreEtiqueta);
     }
 
     /**
-     * Clase auxiliar para resultados de tokenización
+     * Escáner e índice de líneas de un análisis
      */
-    private static class ResultadoToken {
-        final boolean exito;
-        final Token token;
-        final int siguientePosicion;
-
-        ResultadoToken(boolean exito, Token token, int siguientePosicion) {
-            this.exito = exito;
-            this.token = token;
-            this.siguientePosicion = siguientePosicion;
-        }
+    private static final class Contexto {
+        final HTMLScanner escaner = new HTMLScanner();
+        final LineIndex lineas = new LineIndex();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,405 @@
+package com.analyzer.service.LexicalAnalizer;
+
+import com.analyzer.util.CharScan;
+import java.util.Arrays;
+
+/**
+ * Tokenizador HTML como máquina de estados al estilo WHATWG.
+ * Recorre el texto hacia adelante pasando por los estados de datos, apertura
+ * de etiqueta, nombre de etiqueta, nombre y valor de atributo, comentario y
+ * doctype, dejando registradas las posiciones del nombre de la etiqueta y de
+ * cada atributo para que el analizador los lleve directamente al token.
+ * <p>
+ * Un '<' abre una etiqueta solo si le sigue una letra ASCII, o '/' y una
+ * letra, y el nombre sigue solo con letras, dígitos o '-'; si no, es texto. El contenido de script y style es texto crudo hasta
+ * su etiqueta de cierre, y un valor de atributo entre comillas que no se
+ * cierra en su línea termina la etiqueta al final de esa línea.
+ */
+final class HTMLScanner implements TokenScanner {
+
+    // Tipos de token reconocidos por la máquina de estados
+    static final int COMENTARIO = 0;
+    static final int DOCTYPE = 1;
+    static final int ETIQUETA = 2;
+    static final int TEXTO = 3;
+    static final int CARACTER_INVALIDO = 4;
+
+    // Resultado de finEtiqueta cuando el '<' no abre una etiqueta y es texto
+    private static final int NO_ES_ETIQUETA = -2;
+
+    // Estados dentro de una etiqueta
+    private static final int E_NOMBRE_ETIQUETA = 0;
+    private static final int E_ANTES_NOMBRE_ATRIBUTO = 1;
+    private static final int E_NOMBRE_ATRIBUTO = 2;
+    private static final int E_DESPUES_NOMBRE_ATRIBUTO = 3;
+    private static final int E_ANTES_VALOR_ATRIBUTO = 4;
+    private static final int E_VALOR_ATRIBUTO_COMILLAS = 5;
+    private static final int E_VALOR_ATRIBUTO_SIN_COMILLAS = 6;
+    private static final int E_AUTOCERRANTE = 7;
+
+    private CharSequence texto;
+    private int posicion;
+    private int limite;
+
+    private int inicioToken;
+    private int finToken;
+    private int tipoToken;
+    private int inicioValor;
+    private int finValor;
+
+    // Datos de la última etiqueta reconocida
+    private boolean cierre;
+    private int inicioNombre;
+    private int finNombre;
+    private int[] atributos = new int[16];
+    private int numeroAtributos;
+    // Atributo cuyo valor entre comillas no se cerró en su línea, o -1
+    private int valorSinCerrar;
+
+    // Fin del texto crudo que sigue a la última etiqueta script o style, o -1 si no hay uno pendiente
+    private int finCrudo = -1;
+
+    /**
+     * Prepara la máquina para recorrer texto[inicio, fin)
+     */
+    @Override
+    public void reiniciar(CharSequence texto, int inicio, int fin) {
+        this.texto = texto;
+        this.posicion = inicio;
+        this.limite = fin;
+        this.finCrudo = -1;
+    }
+
+    /**
+     * Avanza hasta el siguiente token, saltando espacios.
+     * @return false cuando se alcanza el final del rango
+     */
+    @Override
+    public boolean siguiente() {
+        if (finCrudo >= 0) {
+            // Texto crudo de script o style, desde el final de la etiqueta y sin
+            // saltar espacios, para que ningún inicio de línea quede entre ambos
+            int fin = finCrudo;
+            finCrudo = -1;
+            if (hayTexto(posicion, fin)) {
+                return textoHasta(posicion, fin);
+            }
+            posicion = fin;
+        }
+
+        posicion = CharScan.saltarEspacios(texto, posicion, limite);
+        if (posicion >= limite) {
+            return false;
+        }
+
+        int inicio = posicion;
+        int fin = -1;
+        int tipo = CARACTER_INVALIDO;
+
+        if (texto.charAt(inicio) == '<') {
+            // Estado de apertura de etiqueta
+            if (empiezaCon(inicio + 1, "!--")) {
+                fin = finComentario(inicio + 4);
+                tipo = COMENTARIO;
+            } else if (empiezaCon(inicio + 1, "!DOCTYPE")) {
+                fin = finDoctype(inicio + 9);
+                tipo = DOCTYPE;
+            }
+            if (fin < 0) {
+                fin = finEtiqueta(inicio);
+                tipo = ETIQUETA;
+                if (fin == NO_ES_ETIQUETA) {
+                    // Un '<' que no abre etiqueta es texto, hasta la siguiente etiqueta o el final de la línea
+                    return textoHasta(inicio, CharScan.buscar(texto, inicio + 1, limite, '<', '\n'));
+                }
+                if (fin >= 0 && !cierre && valorSinCerrar < 0 && texto.charAt(fin - 2) != '/' && esTextoCrudo()) {
+                    finCrudo = finTextoCrudo(fin);
+                }
+            }
+            inicioValor = inicio;
+            finValor = fin;
+        } else {
+            // Estado de datos: texto hasta la siguiente etiqueta o el final de la línea
+            fin = CharScan.buscar(texto, inicio, limite, '<', '\n');
+            inicioValor = inicio;
+            finValor = fin;
+            while (inicioValor < finValor && texto.charAt(inicioValor) <= ' ') inicioValor++;
+            while (finValor > inicioValor && texto.charAt(finValor - 1) <= ' ') finValor--;
+            tipo = TEXTO;
+            if (inicioValor == finValor) {
+                fin = -1;
+            }
+        }
+
+        if (fin < 0) {
+            // Carácter que no inicia ningún token válido
+            tipo = CARACTER_INVALIDO;
+            fin = inicio + 1;
+        }
+
+        inicioToken = inicio;
+        finToken = fin;
+        tipoToken = tipo;
+        posicion = fin;
+        return true;
+    }
+
+    /**
+     * Token de texto en texto[inicio, fin), con el valor sin los espacios de los extremos
+     */
+    private boolean textoHasta(int inicio, int fin) {
+        inicioValor = inicio;
+        finValor = fin;
+        while (inicioValor < finValor && texto.charAt(inicioValor) <= ' ') inicioValor++;
+        while (finValor > inicioValor && texto.charAt(finValor - 1) <= ' ') finValor--;
+        inicioToken = inicio;
+        finToken = fin;
+        tipoToken = TEXTO;
+        posicion = fin;
+        return true;
+    }
+
+    @Override
+    public int inicioToken() { return inicioToken; }
+    @Override
+    public int finToken() { return finToken; }
+    int tipoToken() { return tipoToken; }
+    int inicioValor() { return inicioValor; }
+    int finValor() { return finValor; }
+
+    boolean esCierre() { return cierre; }
+    int inicioNombre() { return inicioNombre; }
+    int finNombre() { return finNombre; }
+    int numeroAtributos() { return numeroAtributos; }
+    /** Atributo de la última etiqueta cuyo valor entre comillas no se cerró, o -1 */
+    int valorSinCerrar() { return valorSinCerrar; }
+    int inicioNombreAtributo(int k) { return atributos[k * 4]; }
+    int finNombreAtributo(int k) { return atributos[k * 4 + 1]; }
+    /** Inicio del valor del atributo, o -1 si el atributo no tiene valor */
+    int inicioValorAtributo(int k) { return atributos[k * 4 + 2]; }
+    int finValorAtributo(int k) { return atributos[k * 4 + 3]; }
+
+    /**
+     * Estado de comentario: busca el cierre --> en el rango, aunque esté en otra línea.
+     * @return fin del comentario, o -1 si no se cierra
+     */
+    private int finComentario(int desde) {
+        for (int i = CharScan.buscar(texto, desde, limite, '-'); i + 2 < limite;
+             i = CharScan.buscar(texto, i + 1, limite, '-')) {
+            if (texto.charAt(i + 1) == '-' && texto.charAt(i + 2) == '>') {
+                return i + 3;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Estado de doctype: consume hasta el primer '>'.
+     * @return fin del doctype, o -1 si no se cierra
+     */
+    private int finDoctype(int desde) {
+        int i = CharScan.buscar(texto, desde, limite, '>');
+        return i < limite ? i + 1 : -1;
+    }
+
+    /**
+     * Recorre una etiqueta de apertura o cierre registrando su nombre y atributos.
+     * El nombre empieza con una letra justo después de '<' o '</' y sigue con
+     * letras, dígitos o '-'; los atributos pueden continuar en las líneas siguientes.
+     * @return fin de la etiqueta, -1 si no se completa, o NO_ES_ETIQUETA si el
+     * '<' no abre ninguna
+     */
+    private int finEtiqueta(int inicio) {
+        int i = inicio + 1;
+        cierre = i < limite && texto.charAt(i) == '/';
+        if (cierre) i++;
+
+        if (i >= limite || !esLetraAscii(texto.charAt(i))) {
+            // '<!' y '<?' sin comentario ni doctype no son texto válido
+            return i < limite && !cierre && (texto.charAt(i) == '!' || texto.charAt(i) == '?') ? -1 : NO_ES_ETIQUETA;
+        }
+
+        numeroAtributos = 0;
+        valorSinCerrar = -1;
+        inicioNombre = i;
+        int estado = E_NOMBRE_ETIQUETA;
+        char comilla = 0;
+
+        while (i < limite) {
+            char c = texto.charAt(i);
+            switch (estado) {
+                case E_NOMBRE_ETIQUETA:
+                    if (esEspacio(c) || c == '/' || c == '>') {
+                        finNombre = i;
+                        estado = E_ANTES_NOMBRE_ATRIBUTO;
+                        continue;
+                    } else if (!esLetraAscii(c) && !(c >= '0' && c <= '9') && c != '-') {
+                        return NO_ES_ETIQUETA;
+                    }
+                    break;
+
+                case E_ANTES_NOMBRE_ATRIBUTO:
+                    if (c == '>') {
+                        return i + 1;
+                    } else if (c == '<' && hayLineaEntre(inicio, i)) {
+                        // Una etiqueta sin '>' no se traga la siguiente etiqueta de otra línea
+                        return -1;
+                    } else if (c == '/') {
+                        estado = E_AUTOCERRANTE;
+                    } else if (!esEspacio(c)) {
+                        nuevoAtributo(i);
+                        estado = E_NOMBRE_ATRIBUTO;
+                    }
+                    break;
+
+                case E_NOMBRE_ATRIBUTO:
+                    if (esEspacio(c) || c == '/' || c == '>' || c == '=') {
+                        atributos[numeroAtributos * 4 - 3] = i;
+                        estado = c == '=' ? E_ANTES_VALOR_ATRIBUTO : E_DESPUES_NOMBRE_ATRIBUTO;
+                        if (c != '=') continue;
+                    }
+                    break;
+
+                case E_DESPUES_NOMBRE_ATRIBUTO:
+                    if (c == '=') {
+                        estado = E_ANTES_VALOR_ATRIBUTO;
+                    } else if (!esEspacio(c)) {
+                        estado = E_ANTES_NOMBRE_ATRIBUTO;
+                        continue;
+                    }
+                    break;
+
+                case E_ANTES_VALOR_ATRIBUTO:
+                    if (c == '"' || c == '\'') {
+                        comilla = c;
+                        atributos[numeroAtributos * 4 - 2] = i + 1;
+                        estado = E_VALOR_ATRIBUTO_COMILLAS;
+                    } else if (c == '>') {
+                        return i + 1;
+                    } else if (!esEspacio(c)) {
+                        atributos[numeroAtributos * 4 - 2] = i;
+                        estado = E_VALOR_ATRIBUTO_SIN_COMILLAS;
+                    }
+                    break;
+
+                case E_VALOR_ATRIBUTO_COMILLAS:
+                    if (c == comilla) {
+                        atributos[numeroAtributos * 4 - 1] = i;
+                        estado = E_ANTES_NOMBRE_ATRIBUTO;
+                    } else if (c == '\n') {
+                        // Sin la comilla de cierre en su línea: la etiqueta termina con la línea
+                        atributos[numeroAtributos * 4 - 1] = i;
+                        valorSinCerrar = numeroAtributos - 1;
+                        return i;
+                    }
+                    break;
+
+                case E_VALOR_ATRIBUTO_SIN_COMILLAS:
+                    if (esEspacio(c) || c == '>') {
+                        atributos[numeroAtributos * 4 - 1] = i;
+                        estado = E_ANTES_NOMBRE_ATRIBUTO;
+                        continue;
+                    }
+                    break;
+
+                case E_AUTOCERRANTE:
+                    if (c == '>') {
+                        return i + 1;
+                    }
+                    estado = E_ANTES_NOMBRE_ATRIBUTO;
+                    continue;
+            }
+            i++;
+        }
+
+        // La etiqueta no se cierra dentro del rango
+        return -1;
+    }
+
+    /**
+     * Indica si la etiqueta recién reconocida es script o style, cuyo contenido es texto crudo
+     */
+    private boolean esTextoCrudo() {
+        int largo = finNombre - inicioNombre;
+        return (largo == 6 && empiezaCon(inicioNombre, "SCRIPT")) || (largo == 5 && empiezaCon(inicioNombre, "STYLE"));
+    }
+
+    /**
+     * Estado de texto crudo: busca la etiqueta de cierre con el mismo nombre,
+     * sin distinguir mayúsculas, seguida de un espacio, '/' o '>'
+     * @return inicio de la etiqueta de cierre, o el final del rango si no la hay
+     */
+    private int finTextoCrudo(int desde) {
+        int largo = finNombre - inicioNombre;
+        for (int i = CharScan.buscar(texto, desde, limite, '<'); i < limite;
+             i = CharScan.buscar(texto, i + 1, limite, '<')) {
+            int despues = i + 2 + largo;
+            if (despues < limite && texto.charAt(i + 1) == '/' && mismoNombre(i + 2, largo)) {
+                char c = texto.charAt(despues);
+                if (esEspacio(c) || c == '/' || c == '>') {
+                    return i;
+                }
+            }
+        }
+        return limite;
+    }
+
+    private boolean mismoNombre(int desde, int largo) {
+        for (int k = 0; k < largo; k++) {
+            if (Character.toLowerCase(texto.charAt(desde + k)) != Character.toLowerCase(texto.charAt(inicioNombre + k))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void nuevoAtributo(int inicio) {
+        if ((numeroAtributos + 1) * 4 > atributos.length) {
+            atributos = Arrays.copyOf(atributos, atributos.length * 2);
+        }
+        int base = numeroAtributos * 4;
+        atributos[base] = inicio;
+        atributos[base + 1] = inicio;
+        atributos[base + 2] = -1;
+        atributos[base + 3] = -1;
+        numeroAtributos++;
+    }
+
+    private boolean hayTexto(int desde, int hasta) {
+        for (int k = desde; k < hasta; k++) {
+            if (texto.charAt(k) > ' ') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hayLineaEntre(int desde, int hasta) {
+        for (int k = desde; k < hasta; k++) {
+            if (texto.charAt(k) == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean empiezaCon(int desde, String prefijo) {
+        if (desde + prefijo.length() > limite) {
+            return false;
+        }
+        for (int k = 0; k < prefijo.length(); k++) {
+            if (Character.toUpperCase(texto.charAt(desde + k)) != prefijo.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean esEspacio(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean esLetraAscii(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+}
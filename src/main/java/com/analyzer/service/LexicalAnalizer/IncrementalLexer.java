@@ -0,0 +1,486 @@
+package com.analyzer.service.LexicalAnalizer;
+
+import com.analyzer.model.*;
+import com.analyzer.service.interfaces.ILexicalAnalyzer;
+import java.util.*;
+
+/**
+ * Análisis léxico de un texto que se sigue editando. Al inicio de cada línea
+ * se guarda un punto de control con el estado del analizador: la pila de
+ * indentación en Python y, en SQL, si la normalización está dentro de un string.
+ * En SQL los tokens se crean sobre una vista normalizada del texto, sin copiarlo.
+ * Después de una edición se vuelve a tokenizar desde el último punto de control
+ * cuyo texto anterior no llegó a leer la zona editada, y se termina en cuanto
+ * una línea posterior a la edición empieza con el mismo estado que en la pasada
+ * anterior: desde ahí los tokens son los mismos, solo desplazados.
+ * <p>
+ * Los tokens y los errores son los mismos que da el análisis del documento completo.
+ * Como {@link ILexicalAnalyzer}, cada análisis carga el texto completo; quien
+ * aplica las ediciones comprueba antes con {@link #coincideCon} si ya está al día.
+ */
+public final class IncrementalLexer implements ILexicalAnalyzer {
+
+    private final LanguageType lenguaje;
+    private final SesionIncremental sesion;
+
+    // Texto del editor y texto sobre el que se crean los tokens (el mismo, o una vista normalizada)
+    private final StringBuilder original = new StringBuilder();
+    private final CharSequence texto;
+    private final TextoObservado observado;
+    // Tabla de nombres de los tokens; la de un contexto rige hasta la próxima carga
+    private InternPool internado;
+
+    private TokenBuffer tokens;
+    private ErrorSink errores = new ErrorSink();
+
+    // Puntos de control, uno por línea (índice = línea - 1)
+    private int numeroLineas;
+    private int[] inicios = new int[64];
+    private int[] primerToken = new int[64];    // -1 si un token atraviesa el inicio de la línea
+    private int[] primerError = new int[64];
+    private int[] alcance = new int[64];        // lo más lejos que leyó el escáner desde la línea, relativo a su inicio
+    private Object[] estados = new Object[64];
+    private int[] normalizacion;                // estado de la normalización al inicio de la línea
+
+    private IncrementalLexer(LanguageType lenguaje, SesionIncremental sesion, InternPool internado) {
+        this.lenguaje = lenguaje;
+        this.sesion = sesion;
+        this.internado = internado;
+        this.texto = sesion.normaliza() ? sesion.vista(original) : original;
+        this.normalizacion = sesion.normaliza() ? new int[64] : null;
+        this.observado = new TextoObservado(original);
+        cargar("");
+    }
+
+    /**
+     * Crea el análisis incremental para un lenguaje con analizador propio
+     */
+    public static IncrementalLexer para(LanguageType lenguaje) {
+        return para(lenguaje, null);
+    }
+
+    /**
+     * Igual que {@link #para(LanguageType)}, con los nombres de los tokens
+     * compartidos a través de la tabla indicada
+     */
+    public static IncrementalLexer para(LanguageType lenguaje, InternPool internado) {
+        switch (lenguaje) {
+            case PYTHON:
+                return new IncrementalLexer(lenguaje, new PythonLexicalAnalyzer().nuevaSesion(), internado);
+            case HTML:
+                return new IncrementalLexer(lenguaje, new HTMLLexicalAnalyzer().nuevaSesion(), internado);
+            case PLSQL:
+                return new IncrementalLexer(lenguaje, new SQLLexicalAnalyzer().nuevaSesion(), internado);
+            default:
+                throw new IllegalArgumentException("Sin análisis incremental para " + lenguaje);
+        }
+    }
+
+    public LanguageType lenguaje() { return lenguaje; }
+
+    /**
+     * Reemplaza todo el contenido y lo tokeniza completo
+     */
+    public void cargar(CharSequence contenido) {
+        cargar(contenido, null);
+    }
+
+    /**
+     * Reemplaza el contenido por el texto del contexto; los inicios de línea
+     * se toman de su índice en lugar de volver a buscar los saltos, y los
+     * nombres de los tokens se comparten a través de su tabla
+     */
+    public void cargar(AnalysisContext contexto) {
+        internado = contexto.getInternPool();
+        cargar(contexto.getSource(), contexto.getLineIndex());
+    }
+
+    /**
+     * @param lineas índice de líneas del contenido, o null para buscar los saltos
+     */
+    private void cargar(CharSequence contenido, LineIndex lineas) {
+        original.setLength(0);
+        tokens = new TokenBuffer(texto);
+        tokens.usarInternado(internado);
+        errores = new ErrorSink();
+
+        sesion.reiniciar();
+        numeroLineas = 1;
+        inicios[0] = 0;
+        primerToken[0] = 0;
+        primerError[0] = 0;
+        alcance[0] = -1;
+        estados[0] = sesion.estadoLinea();
+        if (normalizacion != null) {
+            normalizacion[0] = sesion.estadoNormalizacion();
+        }
+
+        editar(0, 0, contenido, lineas);
+    }
+
+    /**
+     * Aplica la edición texto[inicio, inicio + eliminados) -> insertado y
+     * vuelve a tokenizar solo lo necesario.
+     * @return tokens reemplazados respecto de la versión anterior
+     */
+    public TokenDelta editar(int inicio, int eliminados, CharSequence insertado) {
+        return editar(inicio, eliminados, insertado, null);
+    }
+
+    /**
+     * @param lineas índice de líneas de lo insertado, o null para buscar sus saltos
+     */
+    private TokenDelta editar(int inicio, int eliminados, CharSequence insertado, LineIndex lineas) {
+        Objects.checkFromIndexSize(inicio, eliminados, original.length());
+        int delta = insertado.length() - eliminados;
+        int lineaEdicion = linea(inicio);
+        int lineaFinEdicion = linea(inicio + eliminados);
+        int saltos = lineas != null ? lineas.numeroLineas() - 1 : contarSaltos(insertado);
+
+        original.replace(inicio, inicio + eliminados, insertado.toString());
+
+        int deltaLineas = ajustarLineas(lineaEdicion, lineaFinEdicion, inicio, insertado, saltos, lineas, delta);
+        // Primera línea que conserva los datos de la pasada anterior
+        int primeraConocida = lineaEdicion + saltos + 1;
+
+        int finCambio = inicio + insertado.length();
+        if (normalizacion != null) {
+            finCambio = renormalizar(lineaEdicion, primeraConocida, inicio + eliminados, delta, finCambio);
+        }
+        return retokenizar(inicio, finCambio, lineaEdicion, primeraConocida, delta, deltaLineas);
+    }
+
+    /**
+     * Tokens del texto actual; siguen al texto en cada edición
+     */
+    public TokenBuffer tokens() { return tokens; }
+
+    /**
+     * Copia de los tokens sobre un String fijo, que no cambia con las próximas ediciones
+     */
+    public TokenBuffer instantanea() {
+        if (ILexicalAnalyzer.estaEnBlanco(original)) {
+            return new TokenBuffer("");
+        }
+        return tokens.copiar(texto.toString());
+    }
+
+    /**
+     * Errores léxicos del texto actual, incluidas las validaciones sobre el documento completo
+     */
+    public List<AnalysisError> errores() {
+        if (ILexicalAnalyzer.estaEnBlanco(original)) {
+            // Igual que el análisis completo, un texto en blanco no se analiza
+            return new ErrorSink();
+        }
+        ErrorSink lista = errores.copiar();
+        sesion.validarFinal(tokens, lista);
+        return lista;
+    }
+
+    @Override
+    public List<Token> analyze(String code, LanguageType language) {
+        return analyzeLexicalBuffer(code, new ErrorSink()).asList();
+    }
+
+    @Override
+    public List<Token> analyzeLexical(String fuente, List<AnalysisError> errores) {
+        return analyzeLexicalBuffer(fuente, errores).asList();
+    }
+
+    @Override
+    public TokenBuffer analyzeLexicalBuffer(String fuente, List<AnalysisError> errores) {
+        return analyzeLexicalBuffer((CharSequence) fuente, errores);
+    }
+
+    @Override
+    public TokenBuffer analyzeLexicalBuffer(CharSequence fuente, List<AnalysisError> errores) {
+        cargar(fuente);
+        errores.addAll(errores());
+        return instantanea();
+    }
+
+    @Override
+    public TokenBuffer analyzeLexicalBuffer(AnalysisContext contexto, List<AnalysisError> errores) {
+        cargar(contexto);
+        errores.addAll(errores());
+        return instantanea();
+    }
+
+    /**
+     * Indica si el contenido es el texto actual; lo compara carácter por carácter, sin copiarlo
+     */
+    public boolean coincideCon(CharSequence contenido) {
+        int longitud = original.length();
+        if (longitud != contenido.length()) {
+            return false;
+        }
+        for (int i = 0; i < longitud; i++) {
+            if (original.charAt(i) != contenido.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int longitud() { return original.length(); }
+
+    /**
+     * Actualiza los inicios de línea: las líneas que empezaban dentro de la zona
+     * eliminada desaparecen, las de los saltos insertados quedan sin datos y las
+     * posteriores se desplazan conservando sus puntos de control.
+     * @return diferencia en el número de líneas
+     */
+    private int ajustarLineas(int lineaEdicion, int lineaFinEdicion, int inicio, CharSequence insertado,
+                              int saltos, LineIndex lineas, int delta) {
+        int deltaLineas = saltos - (lineaFinEdicion - lineaEdicion);
+        int total = numeroLineas + deltaLineas;
+        asegurarLineas(total);
+
+        int resto = numeroLineas - lineaFinEdicion;
+        int destino = lineaFinEdicion + deltaLineas;
+        System.arraycopy(inicios, lineaFinEdicion, inicios, destino, resto);
+        System.arraycopy(primerToken, lineaFinEdicion, primerToken, destino, resto);
+        System.arraycopy(primerError, lineaFinEdicion, primerError, destino, resto);
+        System.arraycopy(alcance, lineaFinEdicion, alcance, destino, resto);
+        System.arraycopy(estados, lineaFinEdicion, estados, destino, resto);
+        if (normalizacion != null) {
+            System.arraycopy(normalizacion, lineaFinEdicion, normalizacion, destino, resto);
+        }
+        for (int i = destino; i < total; i++) {
+            inicios[i] += delta;
+        }
+
+        int indice = lineaEdicion;
+        if (lineas != null) {
+            for (int l = 2; l <= lineas.numeroLineas(); l++) {
+                inicios[indice] = inicio + lineas.inicioLinea(l);
+                primerToken[indice] = -1;
+                estados[indice] = null;
+                indice++;
+            }
+        } else {
+            for (int j = 0; j < insertado.length(); j++) {
+                if (insertado.charAt(j) == '\n') {
+                    inicios[indice] = inicio + j + 1;
+                    primerToken[indice] = -1;
+                    estados[indice] = null;
+                    indice++;
+                }
+            }
+        }
+
+        numeroLineas = total;
+        return deltaLineas;
+    }
+
+    /**
+     * Vuelve a normalizar desde el inicio de la línea editada hasta que el estado
+     * de la normalización coincide con el anterior al inicio de una línea conocida.
+     * @return fin de la zona cuyo texto normalizado puede haber cambiado
+     */
+    private int renormalizar(int lineaEdicion, int primeraConocida, int finEliminado, int delta, int finEdicion) {
+        int linea = lineaEdicion;
+        int desde = inicios[linea - 1];
+        sesion.editarNormalizacion(desde, finEliminado, delta, normalizacion[linea - 1]);
+
+        for (int i = desde; i < original.length(); i++) {
+            char c = original.charAt(i);
+            sesion.normalizar(i, c);
+
+            if (c == '\n') {
+                linea++;
+                int estado = sesion.estadoNormalizacion();
+                if (linea >= primeraConocida && normalizacion[linea - 1] == estado) {
+                    sesion.resincronizarNormalizacion(i + 1);
+                    return Math.max(finEdicion, i + 1);
+                }
+                normalizacion[linea - 1] = estado;
+            }
+        }
+        sesion.terminarNormalizacion();
+        return original.length();
+    }
+
+    private TokenDelta retokenizar(int inicioEdicion, int finCambio, int lineaEdicion, int primeraConocida,
+                                   int delta, int deltaLineas) {
+        // Punto de partida: ningún token anterior leyó la zona editada
+        int desde = lineaEdicion;
+        for (int l = lineaEdicion - 1; l >= 1; l--) {
+            if (inicios[l - 1] + alcance[l - 1] >= inicioEdicion) {
+                desde = l;
+            }
+        }
+        while (primerToken[desde - 1] < 0) {
+            desde--;
+        }
+
+        int tokenBase = primerToken[desde - 1];
+        int errorBase = primerError[desde - 1];
+        TokenBuffer nuevos = new TokenBuffer(texto);
+        nuevos.usarInternado(internado);
+        ErrorSink erroresNuevos = new ErrorSink();
+
+        sesion.restaurarEstadoLinea(estados[desde - 1], desde);
+        TokenScanner escaner = sesion.escaner();
+        escaner.reiniciar(observado, inicios[desde - 1], texto.length());
+
+        int linea = desde;
+        int finAnterior = inicios[desde - 1];
+        int resincronizada = -1;
+        alcance[desde - 1] = -1;
+
+        recorrido:
+        while (true) {
+            observado.maximoLeido = -1;
+            boolean hayToken = escaner.siguiente();
+            int posicion = hayToken ? escaner.inicioToken() : Integer.MAX_VALUE;
+
+            while (linea < numeroLineas && inicios[linea] <= posicion) {
+                linea++;
+                int indice = linea - 1;
+                if (inicios[indice] < finAnterior) {
+                    // Línea que empieza dentro de un token: no es punto de control
+                    primerToken[indice] = -1;
+                    estados[indice] = null;
+                    alcance[indice] = -1;
+                    continue;
+                }
+                Object estado = sesion.estadoLinea();
+                if (linea >= primeraConocida && inicios[indice] >= finCambio && primerToken[indice] >= 0
+                        && Objects.equals(estados[indice], estado)) {
+                    resincronizada = linea;
+                    break recorrido;
+                }
+                primerToken[indice] = tokenBase + nuevos.size();
+                primerError[indice] = errorBase + erroresNuevos.size();
+                estados[indice] = estado;
+                alcance[indice] = -1;
+            }
+            if (!hayToken) {
+                break;
+            }
+
+            int fin = escaner.finToken();
+            sesion.agregarToken(texto, linea, inicios[linea - 1], finLinea(linea), nuevos, erroresNuevos);
+
+            // Un token que llegó al final del texto depende de lo que se agregue después
+            int leido = Math.max(observado.maximoLeido, fin);
+            if (leido >= texto.length() - 1) {
+                leido = texto.length();
+            }
+            alcance[linea - 1] = Math.max(alcance[linea - 1], leido - inicios[linea - 1]);
+            finAnterior = fin;
+        }
+
+        int tokenFin;
+        int errorFin;
+        if (resincronizada > 0) {
+            tokenFin = primerToken[resincronizada - 1];
+            errorFin = primerError[resincronizada - 1];
+        } else {
+            sesion.cerrar(texto, numeroLineas, nuevos);
+            tokenFin = tokens.size();
+            errorFin = errores.size();
+        }
+
+        int eliminadosTokens = tokenFin - tokenBase;
+        tokens.reemplazar(tokenBase, tokenFin, nuevos, delta, deltaLineas);
+        errores.reemplazar(errorBase, errorFin, erroresNuevos, deltaLineas);
+
+        if (resincronizada > 0) {
+            int diferenciaTokens = nuevos.size() - eliminadosTokens;
+            int diferenciaErrores = erroresNuevos.size() - (errorFin - errorBase);
+            for (int i = resincronizada - 1; i < numeroLineas; i++) {
+                if (primerToken[i] >= 0) {
+                    primerToken[i] += diferenciaTokens;
+                    primerError[i] += diferenciaErrores;
+                }
+            }
+        }
+
+        int lineasReanalizadas = (resincronizada > 0 ? resincronizada : numeroLineas + 1) - desde;
+        return new TokenDelta(tokenBase, eliminadosTokens, nuevos.size(), desde, lineasReanalizadas);
+    }
+
+    /**
+     * Línea (base 1) que contiene la posición
+     */
+    private int linea(int posicion) {
+        int bajo = 0;
+        int alto = numeroLineas - 1;
+        while (bajo < alto) {
+            int medio = (bajo + alto + 1) >>> 1;
+            if (inicios[medio] <= posicion) {
+                bajo = medio;
+            } else {
+                alto = medio - 1;
+            }
+        }
+        return bajo + 1;
+    }
+
+    private int finLinea(int linea) {
+        return linea < numeroLineas ? inicios[linea] - 1 : texto.length();
+    }
+
+    private static int contarSaltos(CharSequence texto) {
+        int saltos = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) == '\n') {
+                saltos++;
+            }
+        }
+        return saltos;
+    }
+
+    private void asegurarLineas(int cantidad) {
+        if (cantidad <= inicios.length) {
+            return;
+        }
+        int capacidad = Math.max(cantidad, inicios.length + (inicios.length >> 1));
+        inicios = Arrays.copyOf(inicios, capacidad);
+        primerToken = Arrays.copyOf(primerToken, capacidad);
+        primerError = Arrays.copyOf(primerError, capacidad);
+        alcance = Arrays.copyOf(alcance, capacidad);
+        estados = Arrays.copyOf(estados, capacidad);
+        if (normalizacion != null) {
+            normalizacion = Arrays.copyOf(normalizacion, capacidad);
+        }
+    }
+
+    /**
+     * Texto que registra la posición más lejana que leyó el escáner
+     */
+    private static final class TextoObservado implements CharSequence {
+        private final StringBuilder texto;
+        int maximoLeido;
+
+        TextoObservado(StringBuilder texto) {
+            this.texto = texto;
+        }
+
+        @Override
+        public int length() {
+            return texto.length();
+        }
+
+        @Override
+        public char charAt(int indice) {
+            if (indice > maximoLeido) {
+                maximoLeido = indice;
+            }
+            return texto.charAt(indice);
+        }
+
+        @Override
+        public CharSequence subSequence(int inicio, int fin) {
+            return texto.subSequence(inicio, fin);
+        }
+
+        @Override
+        public String toString() {
+            return texto.toString();
+        }
+    }
+}
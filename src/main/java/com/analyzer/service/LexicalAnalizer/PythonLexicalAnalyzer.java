@@ -2,9 +2,12 @@ package com.analyzer.service.LexicalAnalizer;
 
 import com.analyzer.service.interfaces.ILexicalAnalyzer;
 import com.analyzer.model.*;
+import com.analyzer.util.ContextPool;
+import com.analyzer.util.KeywordTable;
+import java.io.IOException;
+import java.io.Reader;
 import java.util.*;
-import java.util.regex.Pattern;
-import java.util.regex.Matcher;
+import java.util.function.Consumer;
 
 /**
  * Analizador léxico especializado para Python.
@@ -12,47 +15,19 @@ import java.util.regex.Matcher;
  */
 public  class PythonLexicalAnalyzer implements ILexicalAnalyzer {
 
-    // Patrones regex para Python
-//    private static final Pattern PATRON_KEYWORD = Pattern.compile(
-//            "\\b(False|None|True|and|as|assert|async|await|break|class|continue|def|del|elif|else|except|finally|for|from|global|if|import|in|is|lambda|nonlocal|not|or|pass|raise|return|try|while|with|yield)\\b"
-//    );
-
-    private static final Pattern PATRON_IDENTIFICADOR = Pattern.compile(
-            "[a-zA-Z_][a-zA-Z0-9_]*"
-    );
-
-    private static final Pattern PATRON_NUMERO = Pattern.compile(
-            "(?:0[bB][01]+(?:_[01]+)*|0[oO][0-7]+(?:_[0-7]+)*|0[xX][0-9a-fA-F]+(?:_[0-9a-fA-F]+)*|(?:\\d+(?:_\\d+)*(?:\\.\\d+(?:_\\d+)*)?(?:[eE][+-]?\\d+(?:_\\d+)*)?|\\.\\d+(?:_\\d+)*(?:[eE][+-]?\\d+(?:_\\d+)*)?))(?![a-zA-Z_])"
-    );
-
-    private static final Pattern PATRON_STRING = Pattern.compile(
-            "(?:r?b?|b?r?)(?:'''(?:[^\\\\']|\\\\.)*?'''|\"\"\"(?:[^\\\\\"]|\\\\.)*?\"\"\"|'(?:[^\\\\']|\\\\.)*?'|\"(?:[^\\\\\"]|\\\\.)*?\")"
-    );
-
-    private static final Pattern PATRON_OPERADOR = Pattern.compile(
-            "//=|\\*\\*=|<<=|>>=|:=|==|!=|<=|>=|//|\\*\\*|<<|>>|\\+=|-=|\\*=|/=|%=|&=|\\|=|\\^=|->|[+\\-*/%=<>!&|^~@]"
-    );
-
-    private static final Pattern PATRON_COMENTARIO = Pattern.compile(
-            "#.*$"
-    );
-
-    private static final Pattern PATRON_INDENTACION = Pattern.compile(
-            "^[ \\t]*"
-    );
-
     // Conjunto de keywords Python
-    private static final Set<String> KEYWORDS_PYTHON = Set.of(
+    private static final KeywordTable KEYWORDS_PYTHON = KeywordTable.exacta(
             "False", "None", "True", "and", "as", "assert", "async", "await", "break", "class","range",
             "continue", "def", "del", "elif", "else", "except", "finally", "for", "from",
             "global", "if", "import", "in", "is", "lambda", "nonlocal", "not", "or", "pass",
             "raise", "return", "try", "while", "with", "yield", "print", "exec", "delattr", "getattr", "setattr", "hasattr"
     );
 
-    // Control de indentación
-    private final Stack<Integer> pilaIndentacion = new Stack<>();
-    private boolean tieneEspacios = false;
-    private boolean tieneTabs = false;
+    // Estado de cada análisis; la instancia solo guarda configuración
+    private static final ContextPool<Contexto> CONTEXTOS = new ContextPool<>(Contexto::new);
+
+    // Tabla de nombres de los análisis sin contexto, o null; con contexto se usa la suya
+    private InternPool internado;
 
     @Override
     public List<Token> analyze(String code, LanguageType language) {
@@ -62,64 +37,215 @@ public  class PythonLexicalAnalyzer implements ILexicalAnalyzer {
 
     @Override
     public List<Token> analyzeLexical(String fuente, List<AnalysisError> errores) {
-        List<Token> tokens = new ArrayList<>();
+        return analyzeLexicalBuffer(fuente, errores).asList();
+    }
 
-        if (fuente == null || fuente.trim().isEmpty()) {
-            return tokens;
-        }
+    @Override
+    public TokenBuffer analyzeLexicalBuffer(String fuente, List<AnalysisError> errores) {
+        return analyzeLexicalBuffer((CharSequence) fuente, errores);
+    }
 
-        // Inicializar pila de indentación
-        pilaIndentacion.clear();
-        pilaIndentacion.push(0);
-        tieneEspacios = false;
-        tieneTabs = false;
+    @Override
+    public void usarInternado(InternPool internado) {
+        this.internado = internado;
+    }
 
-        // Analizar línea por línea
-        String[] lineas = fuente.split("\n", -1);
+    /**
+     * Buffer vacío sobre la fuente, con la tabla de nombres indicada (o ninguna si es null)
+     */
+    private static TokenBuffer nuevoBuffer(CharSequence fuente, InternPool internado) {
+        TokenBuffer tokens = new TokenBuffer(fuente);
+        tokens.usarInternado(internado);
+        return tokens;
+    }
 
-        for (int numeroLinea = 0; numeroLinea < lineas.length; numeroLinea++) {
-            String linea = lineas[numeroLinea];
+    @Override
+    public TokenBuffer analyzeLexicalBuffer(CharSequence fuente, List<AnalysisError> errores) {
+        return analizarDocumento(fuente, null, internado, errores);
+    }
 
-            // Procesar indentación
-            procesarIndentacion(linea, numeroLinea + 1, errores);
+    @Override
+    public TokenBuffer analyzeLexicalBuffer(AnalysisContext contexto, List<AnalysisError> errores) {
+        return analizarDocumento(contexto.getSource(), contexto.getLineIndex(), contexto.getInternPool(), errores);
+    }
 
-            // Tokenizar contenido de la línea
-            tokenizarLineaPython(linea, numeroLinea + 1, tokens, errores);
+    /**
+     * @param lineas índice de líneas de la fuente, o null para construirlo
+     * @param internado tabla de nombres de los tokens, o null
+     */
+    private TokenBuffer analizarDocumento(CharSequence fuente, LineIndex lineas, InternPool internado,
+                                          List<AnalysisError> errores) {
+        if (fuente == null || ILexicalAnalyzer.estaEnBlanco(fuente)) {
+            return new TokenBuffer("");
         }
 
-        // Validaciones finales
-        validarEstadoFinal(tokens, errores);
+        TokenBuffer tokens = nuevoBuffer(fuente, internado);
+        Contexto contexto = CONTEXTOS.tomar();
+        try {
+            contexto.reiniciar();
+
+            // Analizar el documento completo; los strings triples pueden ocupar varias líneas
+            contexto.lineas = lineas != null ? lineas : contexto.indice.indexar(fuente);
+            ErrorSink sumidero = ErrorSink.sobre(errores);
+            tokenizarPython(contexto, fuente, tokens, sumidero);
+
+            // Cerrar los bloques que siguen abiertos al final del archivo
+            cerrarBloques(contexto, fuente, contexto.lineas.numeroLineas(), tokens);
+
+            // Validaciones finales
+            validarEstadoFinal(tokens, sumidero);
+        } finally {
+            contexto.soltar();
+            CONTEXTOS.devolver(contexto);
+        }
 
         return tokens;
     }
 
     /**
-     * Procesa la indentación de una línea Python
+     * Versión por ventanas con la misma indentación que el análisis completo;
+     * no verifica el balance de delimitadores
      */
-    private void procesarIndentacion(String linea, int numeroLinea, List<AnalysisError> errores) {
-        // Ignorar líneas vacías y comentarios para indentación
-        if (linea.trim().isEmpty() || linea.trim().startsWith("#")) {
-            return;
+    @Override
+    public void analyzeLexicalStream(Reader fuente, Consumer<Token> consumidor, List<AnalysisError> errores)
+            throws IOException {
+        Contexto contexto = CONTEXTOS.tomar();
+        try {
+            analizarVentanas(contexto, fuente, consumidor, ErrorSink.sobre(errores));
+        } finally {
+            contexto.soltar();
+            CONTEXTOS.devolver(contexto);
         }
+    }
 
-        InfoIndentacion info = analizarIndentacion(linea);
+    private void analizarVentanas(Contexto contexto, Reader fuente, Consumer<Token> consumidor, ErrorSink sumidero)
+            throws IOException {
+        contexto.reiniciar();
+        StreamingWindow ventana = new StreamingWindow(fuente);
+        TokenBuffer lote = nuevoBuffer(ventana, internado);
+        PythonScanner escaner = contexto.escaner;
+
+        ventana.recorrer(escaner, lote, (numeroLinea, inicioLinea) -> {
+            int posicion = escaner.inicioToken();
+            int fin = escaner.finToken();
+            if (numeroLinea >= contexto.lineaPendiente) {
+                // Una indentación más larga que la ventana se cuenta desde el borde de la ventana
+                procesarIndentacion(contexto, ventana, Math.max(inicioLinea, 0), fin, numeroLinea, lote, sumidero);
+            }
+            contexto.lineaPendiente = numeroLinea + contarSaltos(ventana, posicion, fin) + 1;
+            agregarTokenPython(ventana, escaner, numeroLinea, posicion - inicioLinea, lote, sumidero);
+        }, consumidor, sumidero);
 
-        // Verificar consistencia tabs/espacios
-        verificarConsistenciaIndentacion(info, numeroLinea, errores);
+        // Cerrar los bloques que siguen abiertos al final de la entrada
+        int lineasReales = ventana.terminaEnSalto() ? ventana.numeroLineas() - 1 : ventana.numeroLineas();
+        while (contexto.topePila > 0) {
+            contexto.topePila--;
+            consumidor.accept(new Token("", TokenKind.DEDENT.name(), lineasReales + 1, 0));
+        }
+    }
 
-        // Validar nivel de indentación
-        validarNivelIndentacion(info, numeroLinea, errores);
+    /**
+     * Sesión para {@link IncrementalLexer}: el estado de cada línea es la pila de
+     * indentación junto con el uso de tabs y espacios visto hasta ahí
+     */
+    SesionIncremental nuevaSesion() {
+        // La sesión dura lo que el documento, así que no usa los contextos compartidos
+        Contexto contexto = new Contexto();
+        PythonScanner escaner = contexto.escaner;
+        return new SesionIncremental() {
+            private EstadoIndentacion ultimo;
+
+            @Override
+            public TokenScanner escaner() { return escaner; }
+
+            @Override
+            public void reiniciar() {
+                contexto.reiniciar();
+                ultimo = null;
+            }
+
+            @Override
+            public Object estadoLinea() {
+                // Mientras la pila no cambia, las líneas comparten el mismo estado
+                if (ultimo == null || !ultimo.coincide(contexto.pilaIndentacion, contexto.topePila, contexto.tieneEspacios, contexto.tieneTabs)) {
+                    ultimo = new EstadoIndentacion(Arrays.copyOf(contexto.pilaIndentacion, contexto.topePila + 1), contexto.tieneEspacios, contexto.tieneTabs);
+                }
+                return ultimo;
+            }
+
+            @Override
+            public void restaurarEstadoLinea(Object estado, int numeroLinea) {
+                ultimo = (EstadoIndentacion) estado;
+                if (ultimo.niveles.length > contexto.pilaIndentacion.length) {
+                    contexto.pilaIndentacion = new int[ultimo.niveles.length * 2];
+                }
+                System.arraycopy(ultimo.niveles, 0, contexto.pilaIndentacion, 0, ultimo.niveles.length);
+                contexto.topePila = ultimo.niveles.length - 1;
+                contexto.tieneEspacios = ultimo.espacios;
+                contexto.tieneTabs = ultimo.tabs;
+                contexto.lineaPendiente = numeroLinea;
+            }
+
+            @Override
+            public void agregarToken(CharSequence texto, int numeroLinea, int inicioLinea, int finLinea,
+                                     TokenBuffer tokens, ErrorSink errores) {
+                int posicion = escaner.inicioToken();
+                if (numeroLinea >= contexto.lineaPendiente) {
+                    procesarIndentacion(contexto, texto, inicioLinea, finLinea, numeroLinea, tokens, errores);
+                }
+                contexto.lineaPendiente = numeroLinea + contarSaltos(texto, posicion, escaner.finToken()) + 1;
+                agregarTokenPython(texto, escaner, numeroLinea, posicion - inicioLinea, tokens, errores);
+            }
+
+            @Override
+            public void cerrar(CharSequence texto, int numeroLineas, TokenBuffer tokens) {
+                cerrarBloques(contexto, texto, numeroLineas, tokens);
+            }
+
+            @Override
+            public void validarFinal(TokenBuffer tokens, ErrorSink errores) {
+                validarEstadoFinal(tokens, errores);
+            }
+        };
     }
 
     /**
-     * Analiza la indentación de una línea
+     * Emite un DEDENT por cada bloque que sigue abierto al final del texto
      */
-    private InfoIndentacion analizarIndentacion(String linea) {
+    private void cerrarBloques(Contexto contexto, CharSequence texto, int numeroLineas, TokenBuffer tokens) {
+        int lineasReales = texto.length() > 0 && texto.charAt(texto.length() - 1) == '\n' ? numeroLineas - 1 : numeroLineas;
+        while (contexto.topePila > 0) {
+            contexto.topePila--;
+            tokens.agregar(TokenKind.DEDENT, texto.length(), 0, lineasReales + 1, 0);
+        }
+    }
+
+    private int contarSaltos(CharSequence texto, int inicio, int fin) {
+        int saltos = 0;
+        for (int i = inicio; i < fin; i++) {
+            if (texto.charAt(i) == '\n') {
+                saltos++;
+            }
+        }
+        return saltos;
+    }
+
+    /**
+     * Procesa la indentación de la línea texto[inicioLinea, finLinea) y emite INDENT/DEDENT
+     */
+    private void procesarIndentacion(Contexto contexto, CharSequence texto, int inicioLinea, int finLinea,
+                                     int numeroLinea, TokenBuffer tokens, ErrorSink errores) {
+        // Ignorar líneas vacías y comentarios para indentación
+        int primero = primerCaracterVisible(texto, inicioLinea, finLinea);
+        if (primero < 0 || texto.charAt(primero) == '#') {
+            return;
+        }
+
         int espacios = 0;
         int tabs = 0;
-
-        for (int i = 0; i < linea.length(); i++) {
-            char c = linea.charAt(i);
+        int i = inicioLinea;
+        for (; i < finLinea; i++) {
+            char c = texto.charAt(i);
             if (c == ' ') {
                 espacios++;
             } else if (c == '\t') {
@@ -129,536 +255,470 @@ public  class PythonLexicalAnalyzer implements ILexicalAnalyzer {
             }
         }
 
-        return new InfoIndentacion(espacios, tabs);
+        // Verificar consistencia tabs/espacios
+        verificarConsistenciaIndentacion(contexto, espacios, tabs, numeroLinea, errores);
+
+        // Validar nivel de indentación
+        validarNivelIndentacion(contexto, inicioLinea, espacios, tabs, i - inicioLinea, numeroLinea, tokens, errores);
     }
 
     /**
      * Verifica consistencia entre tabs y espacios
      */
-    private void verificarConsistenciaIndentacion(InfoIndentacion info, int numeroLinea, List<AnalysisError> errores) {
+    private void verificarConsistenciaIndentacion(Contexto contexto, int espacios, int tabs, int numeroLinea, ErrorSink errores) {
         // Mezcla en la misma línea
-        if (info.espacios > 0 && info.tabs > 0) {
-            errores.add(new AnalysisError(
-                    "Mezcla inconsistente de tabs y espacios en la indentación",
-                    AnalysisError.ErrorType.LEXICAL,
-                    numeroLinea, 0
-            ));
+        if (espacios > 0 && tabs > 0) {
+            errores.reportar(ErrorCode.PY_MEZCLA_INDENTACION, numeroLinea, 0);
         }
 
         // Registro de uso en el archivo
-        if (info.espacios > 0) tieneEspacios = true;
-        if (info.tabs > 0) tieneTabs = true;
+        if (espacios > 0) contexto.tieneEspacios = true;
+        if (tabs > 0) contexto.tieneTabs = true;
 
         // Mezcla en el archivo
-        if (tieneEspacios && tieneTabs) {
-            errores.add(new AnalysisError(
-                    "Uso inconsistente de tabs y espacios en el archivo (TabError)",
-                    AnalysisError.ErrorType.LEXICAL,
-                    numeroLinea, 0
-            ));
+        if (contexto.tieneEspacios && contexto.tieneTabs) {
+            errores.reportar(ErrorCode.PY_TAB_ERROR, numeroLinea, 0);
         }
     }
 
     /**
-     * Valida el nivel de indentación
+     * Valida el nivel de indentación y emite un INDENT por cada nivel abierto
+     * y un DEDENT por cada nivel cerrado
      */
-    private void validarNivelIndentacion(InfoIndentacion info, int numeroLinea, List<AnalysisError> errores) {
-        int nivelActual = info.espacios + (info.tabs * 8); // Tab = 8 espacios
-        int nivelPrevio = pilaIndentacion.peek();
+    private void validarNivelIndentacion(Contexto contexto, int inicioLinea, int espacios, int tabs, int columna,
+                                         int numeroLinea, TokenBuffer tokens, ErrorSink errores) {
+        int nivelActual = espacios + (tabs * 8); // Tab = 8 espacios
+        int nivelPrevio = contexto.pilaIndentacion[contexto.topePila];
 
         if (nivelActual > nivelPrevio) {
             // Incremento de indentación
-            pilaIndentacion.push(nivelActual);
+            if (contexto.topePila + 1 == contexto.pilaIndentacion.length) {
+                contexto.pilaIndentacion = Arrays.copyOf(contexto.pilaIndentacion, contexto.pilaIndentacion.length * 2);
+            }
+            contexto.pilaIndentacion[++contexto.topePila] = nivelActual;
+            tokens.agregar(TokenKind.INDENT, inicioLinea, columna, numeroLinea, columna);
         } else if (nivelActual < nivelPrevio) {
             // Decremento de indentación
-            while (!pilaIndentacion.isEmpty() && pilaIndentacion.peek() > nivelActual) {
-                pilaIndentacion.pop();
+            while (contexto.topePila >= 0 && contexto.pilaIndentacion[contexto.topePila] > nivelActual) {
+                contexto.topePila--;
+                tokens.agregar(TokenKind.DEDENT, inicioLinea + columna, 0, numeroLinea, columna);
             }
 
-            if (pilaIndentacion.isEmpty() || pilaIndentacion.peek() != nivelActual) {
-                errores.add(new AnalysisError(
-                        "El nivel de indentación no coincide con ningún nivel externo",
-                        AnalysisError.ErrorType.LEXICAL,
-                        numeroLinea, 0
-                ));
+            if (contexto.topePila < 0 || contexto.pilaIndentacion[contexto.topePila] != nivelActual) {
+                errores.reportar(ErrorCode.PY_INDENTACION_SIN_NIVEL, numeroLinea, 0);
             }
         }
     }
 
     /**
-     * Tokeniza una línea Python completa
+     * Tokeniza el texto completo con un único desplazamiento. La indentación se
+     * procesa con el primer token de cada línea lógica: las líneas que quedan
+     * dentro de un string triple no abren ni cierran bloques.
      */
-    private void tokenizarLineaPython(String linea, int numeroLinea, List<Token> tokens, List<AnalysisError> errores) {
-        if (linea.trim().isEmpty()) {
-            return;
-        }
-
-        int posicion = 0;
-
-        // Saltar indentación inicial
-        while (posicion < linea.length() && Character.isWhitespace(linea.charAt(posicion))) {
-            posicion++;
-        }
-
-        while (posicion < linea.length()) {
-            // Saltar espacios entre tokens
-            if (Character.isWhitespace(linea.charAt(posicion))) {
-                posicion++;
-                continue;
+    private void tokenizarPython(Contexto contexto, CharSequence texto, TokenBuffer tokens, ErrorSink errores) {
+        LineIndex lineas = contexto.lineas;
+        PythonScanner escaner = contexto.escaner;
+        int numeroLinea = 1;
+
+        escaner.reiniciar(texto, 0, texto.length());
+
+        while (escaner.siguiente()) {
+            int posicion = escaner.inicioToken();
+            int fin = escaner.finToken();
+            while (numeroLinea < lineas.numeroLineas() && lineas.inicioLinea(numeroLinea + 1) <= posicion) {
+                numeroLinea++;
             }
+            int inicioLinea = lineas.inicioLinea(numeroLinea);
+            int finLinea = lineas.finLinea(numeroLinea);
 
-            // Si empieza con número, verificar si es parte de un identificador inválido
-            if (Character.isDigit(linea.charAt(posicion))) {
-                int inicio = posicion;
-                while (posicion < linea.length() &&
-                        (Character.isLetterOrDigit(linea.charAt(posicion)) ||
-                                linea.charAt(posicion) == '_')) {
-                    posicion++;
-                }
-                String token = linea.substring(inicio, posicion);
-
-                // Si contiene letras después del número, es un identificador inválido
-                if (token.matches("\\d+[a-zA-Z_].*")) {
-                    errores.add(new AnalysisError(
-                            "Error léxico: identificador inválido '" + token + "' - no puede comenzar con número",
-                            AnalysisError.ErrorType.LEXICAL,
-                            numeroLinea,
-                            inicio
-                    ));
-                    tokens.add(new Token(token, "ERROR_LEXICO", numeroLinea, inicio));
-                    continue;
-                }
-                // Si es solo un número, retroceder y dejar que se procese normalmente
-                posicion = inicio;
+            // Primer token de la línea: procesar indentación
+            if (numeroLinea >= contexto.lineaPendiente) {
+                procesarIndentacion(contexto, texto, inicioLinea, finLinea, numeroLinea, tokens, errores);
             }
+            contexto.lineaPendiente = (fin > finLinea ? lineas.linea(fin - 1) : numeroLinea) + 1;
 
-            // Intentar tokenización normal
-            ResultadoTokenPython resultado = intentarTokenizarPython(linea, posicion, numeroLinea, errores);
-
-            if (resultado.exito) {
-                if (resultado.token != null) {
-                    tokens.add(resultado.token);
-                }
-                posicion = resultado.siguientePosicion;
-            } else {
-                // Carácter inválido
-                registrarCaracterInvalidoPython(linea.charAt(posicion), numeroLinea, posicion, errores);
-                posicion++;
-            }
+            agregarTokenPython(texto, escaner, numeroLinea, posicion - inicioLinea, tokens, errores);
         }
     }
 
     /**
-     * Intenta tokenizar en la posición actual
+     * Agrega el token que acaba de reconocer el escáner, validándolo según su tipo
      */
-    private ResultadoTokenPython intentarTokenizarPython(String linea, int posicion, int numeroLinea, List<AnalysisError> errores) {
-        // 1. Comentarios
-        ResultadoTokenPython resultado = reconocerComentarioPython(linea, posicion, numeroLinea);
-        if (resultado.exito) return resultado;
-
-        // 2. Strings
-        resultado = reconocerStringPython(linea, posicion, numeroLinea, errores);
-        if (resultado.exito) return resultado;
-
-        // 3. Números
-        resultado = reconocerNumeroPython(linea, posicion, numeroLinea, errores);
-        if (resultado.exito) return resultado;
-
-        // 4. Operadores
-        resultado = reconocerOperadorPython(linea, posicion, numeroLinea);
-        if (resultado.exito) return resultado;
-
-        // 5. Identificadores/Keywords
-        resultado = reconocerIdentificadorPython(linea, posicion, numeroLinea, errores);
-        if (resultado.exito) return resultado;
-
-        // 6. Puntuación
-        resultado = reconocerPuntuacionPython(linea, posicion, numeroLinea);
-        if (resultado.exito) return resultado;
-
-        return new ResultadoTokenPython(false, null, posicion);
-    }
+    private void agregarTokenPython(CharSequence texto, PythonScanner escaner, int numeroLinea, int columna,
+                                    TokenBuffer tokens, ErrorSink errores) {
+        int posicion = escaner.inicioToken();
+        int fin = escaner.finToken();
+
+        switch (escaner.tipoToken()) {
+            case PythonScanner.COMENTARIO:
+                tokens.agregar(TokenKind.COMENTARIO, posicion, fin - posicion, numeroLinea, columna);
+                break;
 
-    /**
-     * Reconoce comentarios Python (#)
-     */
-    private ResultadoTokenPython reconocerComentarioPython(String linea, int posicion, int numeroLinea) {
-        if (posicion < linea.length() && linea.charAt(posicion) == '#') {
-            String comentario = linea.substring(posicion);
-            Token token = new Token(comentario, "COMENTARIO", numeroLinea, posicion);
-            return new ResultadoTokenPython(true, token, linea.length());
-        }
-        return new ResultadoTokenPython(false, null, posicion);
-    }
+            case PythonScanner.STRING:
+                validarStringPython(texto, posicion, fin, numeroLinea, columna, errores);
+                tokens.agregar(determinarTipoString(texto, posicion, fin), posicion, fin - posicion, numeroLinea,
+                        columna);
+                break;
 
-    /**
-     * Reconoce strings Python
-     */
-    private ResultadoTokenPython reconocerStringPython(String linea, int posicion, int numeroLinea, List<AnalysisError> errores) {
-        Matcher matcher = PATRON_STRING.matcher(linea);
-        matcher.region(posicion, linea.length());
+            case PythonScanner.STRING_SIN_TERMINAR:
+                errores.reportar(ErrorCode.PY_STRING_SIN_TERMINAR, numeroLinea, columna, texto, posicion, fin);
+                tokens.agregar(TokenKind.STRING_SIN_TERMINAR, posicion, fin - posicion, numeroLinea, columna);
+                break;
 
-        if (matcher.lookingAt()) {
-            String valorString = matcher.group();
+            case PythonScanner.NUMERO:
+                validarNumeroPython(texto, posicion, fin, numeroLinea, columna, errores);
+                tokens.agregar(determinarTipoNumero(texto, posicion, fin), posicion, fin - posicion, numeroLinea,
+                        columna);
+                break;
 
-            // Validar string
-            validarStringPython(valorString, numeroLinea, posicion, errores);
+            case PythonScanner.ERROR_LEXICO:
+                // Identificador que comienza con número
+                errores.reportar(ErrorCode.PY_IDENTIFICADOR_INVALIDO, numeroLinea, columna, texto, posicion, fin);
+                tokens.agregar(TokenKind.ERROR_LEXICO, posicion, fin - posicion, numeroLinea, columna);
+                break;
 
-            String tipoToken = determinarTipoString(valorString);
-            Token token = new Token(valorString, tipoToken, numeroLinea, posicion);
+            case PythonScanner.OPERADOR:
+                tokens.agregar(TokenKind.OPERADOR, posicion, fin - posicion, numeroLinea, columna);
+                break;
 
-            return new ResultadoTokenPython(true, token, matcher.end());
-        }
+            case PythonScanner.IDENTIFICADOR:
+                if (KEYWORDS_PYTHON.contiene(texto, posicion, fin)) {
+                    tokens.agregar(TokenKind.KEYWORD, posicion, fin - posicion, numeroLinea, columna);
+                    break;
+                }
+                validarIdentificadorPython(texto, posicion, fin, numeroLinea, columna, errores);
+                tokens.agregar(determinarTipoIdentificador(texto, posicion, fin), posicion, fin - posicion,
+                        numeroLinea, columna);
+                break;
 
-        // Verificar string sin terminar
-        char c = linea.charAt(posicion);
-        if (c == '"' || c == '\'') {
-            String stringIncompleto = linea.substring(posicion);
-            errores.add(new AnalysisError(
-                    "String sin terminar: " + stringIncompleto,
-                    AnalysisError.ErrorType.LEXICAL,
-                    numeroLinea, posicion
-            ));
+            case PythonScanner.PUNTUACION:
+                tokens.agregar(obtenerTipoPuntuacion(texto.charAt(posicion)), posicion, 1, numeroLinea, columna);
+                break;
 
-            Token token = new Token(stringIncompleto, "STRING_SIN_TERMINAR", numeroLinea, posicion);
-            return new ResultadoTokenPython(true, token, linea.length());
+            default:
+                // Carácter inválido
+                registrarCaracterInvalidoPython(texto.charAt(posicion), numeroLinea, columna, errores);
+                break;
         }
-
-        return new ResultadoTokenPython(false, null, posicion);
     }
 
     /**
-     * Reconoce números Python
+     * Posición del primer carácter que no es blanco ni de control en
+     * texto[inicio, fin), o -1 si no hay
      */
-    private ResultadoTokenPython reconocerNumeroPython(String linea, int posicion, int numeroLinea, List<AnalysisError> errores) {
-        Matcher matcher = PATRON_NUMERO.matcher(linea);
-        matcher.region(posicion, linea.length());
-
-        if (matcher.lookingAt()) {
-            String valorNumero = matcher.group();
-
-            // Validar número
-            validarNumeroPython(valorNumero, numeroLinea, posicion, errores);
-
-            String tipoToken = determinarTipoNumero(valorNumero);
-            Token token = new Token(valorNumero, tipoToken, numeroLinea, posicion);
-
-            return new ResultadoTokenPython(true, token, matcher.end());
+    private int primerCaracterVisible(CharSequence texto, int inicio, int fin) {
+        for (int i = inicio; i < fin; i++) {
+            if (texto.charAt(i) > ' ') {
+                return i;
+            }
         }
-
-        return new ResultadoTokenPython(false, null, posicion);
+        return -1;
     }
 
     /**
-     * Reconoce operadores Python
+     * Valida el string texto[desde, hasta)
      */
-    private ResultadoTokenPython reconocerOperadorPython(String linea, int posicion, int numeroLinea) {
-        Matcher matcher = PATRON_OPERADOR.matcher(linea);
-        matcher.region(posicion, linea.length());
-
-        if (matcher.lookingAt()) {
-            String operador = matcher.group();
-            Token token = new Token(operador, "OPERADOR", numeroLinea, posicion);
-            return new ResultadoTokenPython(true, token, matcher.end());
+    private void validarStringPython(CharSequence texto, int desde, int hasta, int numeroLinea, int posicion,
+                                     ErrorSink errores) {
+        // Verificar secuencias de escape inválidas; '\' al final de una línea la continúa
+        for (int i = desde; i + 1 < hasta; i++) {
+            if (texto.charAt(i) == '\\' && "\\\"'nrtbfav0xuUN\n\r".indexOf(texto.charAt(i + 1)) == -1) {
+                errores.reportar(ErrorCode.PY_ESCAPE_INVALIDO, numeroLinea, posicion + i - desde, texto, i, i + 2);
+                i++;
+            }
         }
 
-        return new ResultadoTokenPython(false, null, posicion);
-    }
-
-    /**
-     * Reconoce identificadores y keywords Python
-     */
-    private ResultadoTokenPython reconocerIdentificadorPython(String linea, int posicion, int numeroLinea, List<AnalysisError> errores) {
-        Matcher matcher = PATRON_IDENTIFICADOR.matcher(linea);
-        matcher.region(posicion, linea.length());
-
-        if (matcher.lookingAt()) {
-            String identificador = matcher.group();
-
-            // Validar identificador
-            validarIdentificadorPython(identificador, numeroLinea, posicion, errores);
-
-            // Determinar tipo
-            String tipoToken = determinarTipoIdentificador(identificador);
-            Token token = new Token(identificador, tipoToken, numeroLinea, posicion);
-
-            return new ResultadoTokenPython(true, token, matcher.end());
+        // Verificar escapes hex incompletos (\x seguido de menos de 2 dígitos)
+        for (int i = desde; i + 1 < hasta; i++) {
+            if (texto.charAt(i) != '\\' || texto.charAt(i + 1) != 'x') {
+                continue;
+            }
+            int digitos = 0;
+            while (digitos < 2 && i + 2 + digitos < hasta &&
+                    Character.digit(texto.charAt(i + 2 + digitos), 16) >= 0 &&
+                    texto.charAt(i + 2 + digitos) < 128) {
+                digitos++;
+            }
+            if (digitos < 2) {
+                errores.reportar(ErrorCode.PY_ESCAPE_HEX_INCOMPLETO, numeroLinea, posicion + i - desde);
+                i += 1 + digitos;
+            }
         }
-
-        return new ResultadoTokenPython(false, null, posicion);
     }
 
     /**
-     * Reconoce puntuación Python
+     * Valida el número texto[desde, hasta)
      */
-    private ResultadoTokenPython reconocerPuntuacionPython(String linea, int posicion, int numeroLinea) {
-        char c = linea.charAt(posicion);
-        if ("()[]{}:;,.@".indexOf(c) != -1) {
-            String tipoPuntuacion = obtenerTipoPuntuacion(c);
-            Token token = new Token(String.valueOf(c), tipoPuntuacion, numeroLinea, posicion);
-            return new ResultadoTokenPython(true, token, posicion + 1);
+    private void validarNumeroPython(CharSequence texto, int desde, int hasta, int numeroLinea, int posicion,
+                                     ErrorSink errores) {
+        // Verificar underscores mal ubicados
+        if (texto.charAt(desde) == '_' || texto.charAt(hasta - 1) == '_'
+                || contieneDobleUnderscore(texto, desde, hasta)) {
+            errores.reportar(ErrorCode.PY_UNDERSCORE_NUMERICO, numeroLinea, posicion);
         }
 
-        return new ResultadoTokenPython(false, null, posicion);
+        // Verificar dígitos inválidos por base
+        ErrorCode codigo = null;
+        int invalido = -1;
+        if (empiezaCon(texto, desde, hasta, '0', 'b')) {
+            codigo = ErrorCode.PY_DIGITO_BINARIO;
+            invalido = digitoFueraDeBase(texto, desde + 2, hasta, '2', '9');
+        } else if (empiezaCon(texto, desde, hasta, '0', 'o')) {
+            codigo = ErrorCode.PY_DIGITO_OCTAL;
+            invalido = digitoFueraDeBase(texto, desde + 2, hasta, '8', '9');
+        } else if (empiezaCon(texto, desde, hasta, '0', 'x')) {
+            codigo = ErrorCode.PY_DIGITO_HEXADECIMAL;
+            invalido = digitoFueraDeBase(texto, desde + 2, hasta, 'g', 'z');
+        }
+        if (invalido >= 0) {
+            errores.reportar(codigo, numeroLinea, posicion + invalido - desde, texto, invalido, invalido + 1);
+        }
     }
 
     /**
-     * Valida un string Python
+     * Posición del primer carácter de texto[desde, hasta) entre minimo y maximo,
+     * sin distinguir mayúsculas de minúsculas en las letras, o -1 si no hay
      */
-    private void validarStringPython(String valorString, int numeroLinea, int posicion, List<AnalysisError> errores) {
-        // Verificar secuencias de escape inválidas
-        Pattern escapeInvalido = Pattern.compile("\\\\[^\\\\\"'nrtbfav0xuUN]");
-        Matcher matcher = escapeInvalido.matcher(valorString);
-
-        while (matcher.find()) {
-            errores.add(new AnalysisError(
-                    "Secuencia de escape inválida: " + matcher.group(),
-                    AnalysisError.ErrorType.LEXICAL,
-                    numeroLinea, posicion + matcher.start()
-            ));
+    private static int digitoFueraDeBase(CharSequence texto, int desde, int hasta, char minimo, char maximo) {
+        for (int i = desde; i < hasta; i++) {
+            char c = texto.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            }
+            if (c >= minimo && c <= maximo) {
+                return i;
+            }
         }
+        return -1;
+    }
 
-        // Verificar escapes hex incompletos
-        Pattern hexIncompleto = Pattern.compile("\\\\x([0-9a-fA-F]{0,1})(?![0-9a-fA-F])");
-        matcher = hexIncompleto.matcher(valorString);
-        while (matcher.find()) {
-            errores.add(new AnalysisError(
-                    "Escape hexadecimal incompleto: \\x requiere exactamente 2 dígitos",
-                    AnalysisError.ErrorType.LEXICAL,
-                    numeroLinea, posicion + matcher.start()
-            ));
+    private static boolean contieneDobleUnderscore(CharSequence texto, int desde, int hasta) {
+        for (int i = desde + 1; i < hasta; i++) {
+            if (texto.charAt(i) == '_' && texto.charAt(i - 1) == '_') {
+                return true;
+            }
         }
+        return false;
     }
 
     /**
-     * Valida un número Python
+     * Indica si texto[desde, hasta) empieza con los caracteres a y b
      */
-    private void validarNumeroPython(String valorNumero, int numeroLinea, int posicion, List<AnalysisError> errores) {
-        // Verificar underscores mal ubicados
-        if (valorNumero.startsWith("_") || valorNumero.endsWith("_") || valorNumero.contains("__")) {
-            errores.add(new AnalysisError(
-                    "Uso inválido de underscore en literal numérico",
-                    AnalysisError.ErrorType.LEXICAL,
-                    numeroLinea, posicion
-            ));
-        }
-
-        // Verificar dígitos inválidos por base
-        if (valorNumero.startsWith("0b")) {
-            Pattern digitoInvalido = Pattern.compile("[2-9]");
-            Matcher matcher = digitoInvalido.matcher(valorNumero.substring(2));
-            if (matcher.find()) {
-                errores.add(new AnalysisError(
-                        "Dígito inválido '" + matcher.group() + "' en literal binario",
-                        AnalysisError.ErrorType.LEXICAL,
-                        numeroLinea, posicion + matcher.start() + 2
-                ));
-            }
-        } else if (valorNumero.startsWith("0o")) {
-            Pattern digitoInvalido = Pattern.compile("[89]");
-            Matcher matcher = digitoInvalido.matcher(valorNumero.substring(2));
-            if (matcher.find()) {
-                errores.add(new AnalysisError(
-                        "Dígito inválido '" + matcher.group() + "' en literal octal",
-                        AnalysisError.ErrorType.LEXICAL,
-                        numeroLinea, posicion + matcher.start() + 2
-                ));
-            }
-        } else if (valorNumero.startsWith("0x")) {
-            Pattern digitoInvalido = Pattern.compile("[g-zG-Z]");
-            Matcher matcher = digitoInvalido.matcher(valorNumero.substring(2));
-            if (matcher.find()) {
-                errores.add(new AnalysisError(
-                        "Dígito inválido '" + matcher.group() + "' en literal hexadecimal",
-                        AnalysisError.ErrorType.LEXICAL,
-                        numeroLinea, posicion + matcher.start() + 2
-                ));
-            }
-        }
+    private static boolean empiezaCon(CharSequence texto, int desde, int hasta, char a, char b) {
+        return hasta - desde >= 2 && texto.charAt(desde) == a && texto.charAt(desde + 1) == b;
     }
 
     /**
-     * Valida un identificador Python
+     * Valida el identificador texto[desde, hasta)
      */
-    private void validarIdentificadorPython(String identificador, int numeroLinea, int posicion, List<AnalysisError> errores) {
+    private void validarIdentificadorPython(CharSequence texto, int desde, int hasta, int numeroLinea, int posicion,
+                                            ErrorSink errores) {
         // Verificar que no empiece con número (debería estar cubierto por el patrón)
-        if (Character.isDigit(identificador.charAt(0))) {
-            errores.add(new AnalysisError(
-                    "Identificador no puede empezar con dígito: " + identificador,
-                    AnalysisError.ErrorType.LEXICAL,
-                    numeroLinea, posicion
-            ));
+        if (Character.isDigit(texto.charAt(desde))) {
+            errores.reportar(ErrorCode.PY_IDENTIFICADOR_CON_DIGITO, numeroLinea, posicion, texto, desde, hasta);
         }
 
         // Verificar caracteres inválidos (guiones)
-        if (identificador.contains("-")) {
-            errores.add(new AnalysisError(
-                    "Carácter inválido en identificador: '-' (use underscore)",
-                    AnalysisError.ErrorType.LEXICAL,
-                    numeroLinea, posicion
-            ));
+        for (int i = desde; i < hasta; i++) {
+            if (texto.charAt(i) == '-') {
+                errores.reportar(ErrorCode.PY_GUION_EN_IDENTIFICADOR, numeroLinea, posicion);
+                break;
+            }
         }
 
         // Advertencias sobre nombres muy cortos
-        if (identificador.length() == 1 && !"ijklmnxyztfgabcde_".contains(identificador)) {
-            errores.add(new AnalysisError(
-                    "Nombre de identificador muy corto: '" + identificador + "'",
-                    AnalysisError.ErrorType.WARNING,
-                    numeroLinea, posicion
-            ));
+        if (hasta - desde == 1 && "ijklmnxyztfgabcde_".indexOf(texto.charAt(desde)) < 0) {
+            errores.reportar(ErrorCode.PY_IDENTIFICADOR_CORTO, numeroLinea, posicion, texto, desde, hasta);
         }
     }
 
     /**
-     * Determina el tipo de string
+     * Determina el tipo del string texto[desde, hasta) por su prefijo
      */
-    private String determinarTipoString(String valor) {
-        if (valor.startsWith("b") || valor.startsWith("B")) return "STRING_BYTES";
-        if (valor.startsWith("r") || valor.startsWith("R")) return "STRING_RAW";
-        if (valor.startsWith("f") || valor.startsWith("F")) return "STRING_FORMAT";
-        if (valor.startsWith("'''") || valor.startsWith("\"\"\"")) return "STRING_TRIPLE";
-        return "STRING";
+    private TokenKind determinarTipoString(CharSequence texto, int desde, int hasta) {
+        char primero = texto.charAt(desde);
+        if (primero == 'b' || primero == 'B') return TokenKind.STRING_BYTES;
+        if (primero == 'r' || primero == 'R') return TokenKind.STRING_RAW;
+        if (primero == 'f' || primero == 'F') return TokenKind.STRING_FORMAT;
+        if ((primero == '\'' || primero == '"') && hasta - desde >= 3
+                && texto.charAt(desde + 1) == primero && texto.charAt(desde + 2) == primero) {
+            return TokenKind.STRING_TRIPLE;
+        }
+        return TokenKind.STRING;
+    }
+
+    /**
+     * Determina el tipo del número texto[desde, hasta)
+     */
+    private TokenKind determinarTipoNumero(CharSequence texto, int desde, int hasta) {
+        if (hasta - desde >= 2 && texto.charAt(desde) == '0') {
+            switch (texto.charAt(desde + 1)) {
+                case 'b': case 'B': return TokenKind.ENTERO_BINARIO;
+                case 'o': case 'O': return TokenKind.ENTERO_OCTAL;
+                case 'x': case 'X': return TokenKind.ENTERO_HEXADECIMAL;
+            }
+        }
+        for (int i = desde; i < hasta; i++) {
+            char c = texto.charAt(i);
+            if (c == '.' || c == 'e' || c == 'E') return TokenKind.FLOTANTE;
+        }
+        return TokenKind.ENTERO;
     }
 
     /**
-     * Determina el tipo de número
+     * Determina el tipo del identificador texto[desde, hasta)
      */
-    private String determinarTipoNumero(String valor) {
-        if (valor.startsWith("0b") || valor.startsWith("0B")) return "ENTERO_BINARIO";
-        if (valor.startsWith("0o") || valor.startsWith("0O")) return "ENTERO_OCTAL";
-        if (valor.startsWith("0x") || valor.startsWith("0X")) return "ENTERO_HEXADECIMAL";
-        if (valor.contains(".") || valor.contains("e") || valor.contains("E")) return "FLOTANTE";
-        return "ENTERO";
+    private TokenKind determinarTipoIdentificador(CharSequence texto, int desde, int hasta) {
+        if (empiezaCon(texto, desde, hasta, '_', '_')
+                && texto.charAt(hasta - 1) == '_' && texto.charAt(hasta - 2) == '_') return TokenKind.METODO_MAGICO;
+        if (texto.charAt(desde) == '_') return TokenKind.IDENTIFICADOR_PRIVADO;
+        if (esConstante(texto, desde, hasta)) return TokenKind.CONSTANTE;
+        return TokenKind.IDENTIFICADOR;
     }
 
     /**
-     * Determina el tipo de identificador
+     * Verifica si el identificador está escrito solo con mayúsculas y '_'
      */
-    private String determinarTipoIdentificador(String identificador) {
-        if (KEYWORDS_PYTHON.contains(identificador)) return "KEYWORD";
-        if (identificador.startsWith("__") && identificador.endsWith("__")) return "METODO_MAGICO";
-        if (identificador.startsWith("_")) return "IDENTIFICADOR_PRIVADO";
-        if (identificador.matches("[A-Z_]+")) return "CONSTANTE";
-        return "IDENTIFICADOR";
+    private boolean esConstante(CharSequence texto, int desde, int hasta) {
+        for (int i = desde; i < hasta; i++) {
+            char c = texto.charAt(i);
+            if ((c < 'A' || c > 'Z') && c != '_') {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
      * Obtiene el tipo de puntuación
      */
-    private String obtenerTipoPuntuacion(char c) {
+    private TokenKind obtenerTipoPuntuacion(char c) {
         switch (c) {
-            case '(': return "PAREN_IZQ";
-            case ')': return "PAREN_DER";
-            case '[': return "CORCHETE_IZQ";
-            case ']': return "CORCHETE_DER";
-            case '{': return "LLAVE_IZQ";
-            case '}': return "LLAVE_DER";
-            case ':': return "DOS_PUNTOS";
-            case ';': return "PUNTO_COMA";
-            case ',': return "COMA";
-            case '.': return "PUNTO";
-            case '@': return "ARROBA";
-            default: return "PUNTUACION";
+            case '(': return TokenKind.PAREN_IZQ;
+            case ')': return TokenKind.PAREN_DER;
+            case '[': return TokenKind.CORCHETE_IZQ;
+            case ']': return TokenKind.CORCHETE_DER;
+            case '{': return TokenKind.LLAVE_IZQ;
+            case '}': return TokenKind.LLAVE_DER;
+            case ':': return TokenKind.DOS_PUNTOS;
+            case ';': return TokenKind.PUNTO_COMA;
+            case ',': return TokenKind.COMA;
+            case '.': return TokenKind.PUNTO;
+            case '@': return TokenKind.ARROBA;
+            default: return TokenKind.PUNTUACION;
         }
     }
 
     /**
      * Registra carácter inválido
      */
-    private void registrarCaracterInvalidoPython(char caracter, int numeroLinea, int posicion, List<AnalysisError> errores) {
-        String mensaje;
-        switch (caracter) {
-            case '$':
-                mensaje = "Carácter inválido '$' - no está definido como token en Python";
-                break;
-            case '¡':
-                mensaje = "Carácter inválido '¡' - no permitido en Python";
-                break;
-            case '¿':
-                mensaje = "Carácter inválido '¿' - no permitido en Python";
-                break;
-            default:
-                mensaje = String.format("Carácter inválido: '%c' (Unicode: U+%04X)", caracter, (int)caracter);
-                break;
-        }
-
-        errores.add(new AnalysisError(
-                mensaje,
-                AnalysisError.ErrorType.LEXICAL,
-                numeroLinea, posicion
-        ));
+    private void registrarCaracterInvalidoPython(char caracter, int numeroLinea, int posicion, ErrorSink errores) {
+        errores.reportar(ErrorCode.PY_CARACTER_INVALIDO, numeroLinea, posicion, caracter);
     }
 
     /**
      * Validaciones finales
      */
-    private void validarEstadoFinal(List<Token> tokens, List<AnalysisError> errores) {
+    private void validarEstadoFinal(TokenBuffer tokens, ErrorSink errores) {
         // Verificar delimitadores balanceados
         int contadorParentesis = 0;
         int contadorCorchetes = 0;
         int contadorLlaves = 0;
 
-        for (Token token : tokens) {
-            switch (token.getType()) {
-                case "PAREN_IZQ": contadorParentesis++; break;
-                case "PAREN_DER": contadorParentesis--; break;
-                case "CORCHETE_IZQ": contadorCorchetes++; break;
-                case "CORCHETE_DER": contadorCorchetes--; break;
-                case "LLAVE_IZQ": contadorLlaves++; break;
-                case "LLAVE_DER": contadorLlaves--; break;
+        for (int i = 0; i < tokens.size(); i++) {
+            switch (tokens.kind(i)) {
+                case PAREN_IZQ: contadorParentesis++; break;
+                case PAREN_DER: contadorParentesis--; break;
+                case CORCHETE_IZQ: contadorCorchetes++; break;
+                case CORCHETE_DER: contadorCorchetes--; break;
+                case LLAVE_IZQ: contadorLlaves++; break;
+                case LLAVE_DER: contadorLlaves--; break;
             }
         }
 
         if (contadorParentesis != 0) {
-            errores.add(new AnalysisError(
-                    "EOF en declaración multilínea: " + Math.abs(contadorParentesis) + " paréntesis sin cerrar",
-                    AnalysisError.ErrorType.LEXICAL,
-                    1, 0
-            ));
+            errores.reportar(ErrorCode.PY_PARENTESIS_SIN_CERRAR, 1, 0, Math.abs(contadorParentesis));
         }
 
         if (contadorCorchetes != 0) {
-            errores.add(new AnalysisError(
-                    "EOF en declaración multilínea: " + Math.abs(contadorCorchetes) + " corchetes sin cerrar",
-                    AnalysisError.ErrorType.LEXICAL,
-                    1, 0
-            ));
+            errores.reportar(ErrorCode.PY_CORCHETES_SIN_CERRAR, 1, 0, Math.abs(contadorCorchetes));
         }
 
         if (contadorLlaves != 0) {
-            errores.add(new AnalysisError(
-                    "EOF en declaración multilínea: " + Math.abs(contadorLlaves) + " llaves sin cerrar",
-                    AnalysisError.ErrorType.LEXICAL,
-                    1, 0
-            ));
+            errores.reportar(ErrorCode.PY_LLAVES_SIN_CERRAR, 1, 0, Math.abs(contadorLlaves));
         }
     }
 
     /**
-     * Clase auxiliar para información de indentación
+     * Estado de un análisis: el escáner, el índice de líneas y la pila de
+     * indentación, que se conservan entre análisis para no volver a crearlos
      */
-    private static class InfoIndentacion {
-        final int espacios;
-        final int tabs;
-
-        InfoIndentacion(int espacios, int tabs) {
-            this.espacios = espacios;
-            this.tabs = tabs;
+    private static final class Contexto {
+        final PythonScanner escaner = new PythonScanner();
+        final LineIndex indice = new LineIndex();
+        // Índice del texto en análisis: el propio o el del contexto del análisis
+        LineIndex lineas;
+
+        // Control de indentación: pila de niveles como arreglo de enteros
+        int[] pilaIndentacion = new int[16];
+        int topePila;
+        boolean tieneEspacios;
+        boolean tieneTabs;
+
+        // Primera línea que todavía no procesó su indentación
+        int lineaPendiente;
+
+        /**
+         * Inicializa la pila de indentación
+         */
+        void reiniciar() {
+            topePila = 0;
+            pilaIndentacion[0] = 0;
+            tieneEspacios = false;
+            tieneTabs = false;
+            lineaPendiente = 1;
+        }
+
+        /**
+         * Suelta el texto analizado antes de volver a la reserva
+         */
+        void soltar() {
+            escaner.soltar();
+            lineas = null;
         }
     }
 
     /**
-     * Clase auxiliar para resultados de tokenización Python
+     * Copia inmutable de la pila de indentación al inicio de una línea
      */
-    private static class ResultadoTokenPython {
-        final boolean exito;
-        final Token token;
-        final int siguientePosicion;
+    private static final class EstadoIndentacion {
+        private final int[] niveles;
+        private final boolean espacios;
+        private final boolean tabs;
+
+        EstadoIndentacion(int[] niveles, boolean espacios, boolean tabs) {
+            this.niveles = niveles;
+            this.espacios = espacios;
+            this.tabs = tabs;
+        }
+
+        boolean coincide(int[] pila, int tope, boolean conEspacios, boolean conTabs) {
+            return niveles.length == tope + 1 && espacios == conEspacios && tabs == conTabs
+                    && Arrays.equals(niveles, 0, tope + 1, pila, 0, tope + 1);
+        }
+
+        @Override
+        public boolean equals(Object otro) {
+            if (!(otro instanceof EstadoIndentacion)) {
+                return false;
+            }
+            EstadoIndentacion estado = (EstadoIndentacion) otro;
+            return coincide(estado.niveles, estado.niveles.length - 1, estado.espacios, estado.tabs);
+        }
 
-        ResultadoTokenPython(boolean exito, Token token, int siguientePosicion) {
-            this.exito = exito;
-            this.token = token;
-            this.siguientePosicion = siguientePosicion;
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(niveles) * 4 + (espacios ? 2 : 0) + (tabs ? 1 : 0);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,292 @@
+package com.analyzer.service.LexicalAnalizer;
+
+import com.analyzer.util.CharScan;
+
+/**
+ * Máquina de estados de caracteres para el léxico Python.
+ * Decide el tipo de token por el primer carácter y recorre el resto en una
+ * sola pasada, sin expresiones regulares ni objetos intermedios.
+ */
+final class PythonScanner implements TokenScanner {
+
+    // Tipos de token reconocidos por la máquina de estados
+    static final int COMENTARIO = 0;
+    static final int STRING = 1;
+    static final int STRING_SIN_TERMINAR = 2;
+    static final int NUMERO = 3;
+    static final int ERROR_LEXICO = 4;
+    static final int OPERADOR = 5;
+    static final int IDENTIFICADOR = 6;
+    static final int PUNTUACION = 7;
+    static final int CARACTER_INVALIDO = 8;
+
+    // Estados del reconocedor de números
+    private static final int N_ENTERO = 0;
+    private static final int N_ENTERO_GUION = 1;
+    private static final int N_PUNTO = 2;
+    private static final int N_FRACCION = 3;
+    private static final int N_FRACCION_GUION = 4;
+    private static final int N_EXPONENTE = 5;
+    private static final int N_EXPONENTE_SIGNO = 6;
+    private static final int N_EXPONENTE_DIGITO = 7;
+    private static final int N_EXPONENTE_GUION = 8;
+
+    private CharSequence texto;
+    private int posicion;
+    private int limite;
+    private int inicioToken;
+    private int finToken;
+    private int tipoToken;
+
+    /**
+     * Prepara la máquina para recorrer texto[inicio, fin)
+     */
+    @Override
+    public void reiniciar(CharSequence texto, int inicio, int fin) {
+        this.texto = texto;
+        this.posicion = inicio;
+        this.limite = fin;
+    }
+
+    /**
+     * Avanza hasta el siguiente token, saltando espacios.
+     * @return false cuando se alcanza el final del rango
+     */
+    @Override
+    public boolean siguiente() {
+        posicion = CharScan.saltarEspacios(texto, posicion, limite);
+        if (posicion >= limite) {
+            return false;
+        }
+
+        int inicio = posicion;
+        char c = texto.charAt(inicio);
+        int fin;
+        int tipo;
+
+        if (esDigitoAscii(c)) {
+            int finDigitos = CharScan.finDigitos(texto, inicio, limite);
+            if (finDigitos < limite && esInicioIdentificador(texto.charAt(finDigitos))) {
+                // Identificador que empieza con número: se toma la palabra completa
+                fin = finDigitos;
+                while (fin < limite && (Character.isLetterOrDigit(texto.charAt(fin)) || texto.charAt(fin) == '_')) {
+                    fin++;
+                }
+                tipo = ERROR_LEXICO;
+            } else {
+                fin = finNumero(inicio);
+                tipo = NUMERO;
+            }
+        } else if (c == '#') {
+            fin = finDeLinea(inicio);
+            tipo = COMENTARIO;
+        } else if (c == '\'' || c == '"') {
+            fin = finString(inicio, inicio);
+            tipo = STRING;
+            if (fin < 0) {
+                fin = finDeLinea(inicio);
+                tipo = STRING_SIN_TERMINAR;
+            }
+        } else if ((c == 'r' || c == 'b') && (fin = finStringConPrefijo(inicio)) > 0) {
+            tipo = STRING;
+        } else if (c == '.' && (fin = finNumero(inicio)) > 0) {
+            tipo = NUMERO;
+        } else if ((fin = finOperador(inicio)) > 0) {
+            tipo = OPERADOR;
+        } else if (esInicioIdentificador(c)) {
+            fin = CharScan.finIdentificador(texto, inicio + 1, limite);
+            tipo = IDENTIFICADOR;
+        } else if ("()[]{}:;,.@".indexOf(c) != -1) {
+            fin = inicio + 1;
+            tipo = PUNTUACION;
+        } else {
+            fin = inicio + 1;
+            tipo = CARACTER_INVALIDO;
+        }
+
+        inicioToken = inicio;
+        finToken = fin;
+        tipoToken = tipo;
+        posicion = fin;
+        return true;
+    }
+
+    @Override
+    public int inicioToken() { return inicioToken; }
+    @Override
+    public int finToken() { return finToken; }
+    int tipoToken() { return tipoToken; }
+
+    /**
+     * Literal decimal \d+(_\d+)*(\.\d+(_\d+)*)?([eE][+-]?\d+(_\d+)*)? o que empieza
+     * con '.', quedándose con el prefijo aceptado más largo que no vaya seguido
+     * de una letra o '_'.
+     * @return fin del literal, o -1 si no hay literal válido
+     */
+    private int finNumero(int inicio) {
+        int estado;
+        int i = inicio;
+        if (texto.charAt(i) == '.') {
+            estado = N_PUNTO;
+        } else {
+            estado = N_ENTERO;
+        }
+        i++;
+
+        int mejorFin = -1;
+        while (true) {
+            boolean aceptado = estado == N_ENTERO || estado == N_FRACCION || estado == N_EXPONENTE_DIGITO;
+            if (aceptado && (i >= limite || !esInicioIdentificador(texto.charAt(i)))) {
+                mejorFin = i;
+            }
+            if (i >= limite) {
+                break;
+            }
+
+            char c = texto.charAt(i);
+            int siguiente = -1;
+            switch (estado) {
+                case N_ENTERO:
+                    if (esDigitoAscii(c)) siguiente = N_ENTERO;
+                    else if (c == '_') siguiente = N_ENTERO_GUION;
+                    else if (c == '.') siguiente = N_PUNTO;
+                    else if (c == 'e' || c == 'E') siguiente = N_EXPONENTE;
+                    break;
+                case N_ENTERO_GUION:
+                    if (esDigitoAscii(c)) siguiente = N_ENTERO;
+                    break;
+                case N_PUNTO:
+                case N_FRACCION_GUION:
+                    if (esDigitoAscii(c)) siguiente = N_FRACCION;
+                    break;
+                case N_FRACCION:
+                    if (esDigitoAscii(c)) siguiente = N_FRACCION;
+                    else if (c == '_') siguiente = N_FRACCION_GUION;
+                    else if (c == 'e' || c == 'E') siguiente = N_EXPONENTE;
+                    break;
+                case N_EXPONENTE:
+                    if (c == '+' || c == '-') siguiente = N_EXPONENTE_SIGNO;
+                    else if (esDigitoAscii(c)) siguiente = N_EXPONENTE_DIGITO;
+                    break;
+                case N_EXPONENTE_SIGNO:
+                case N_EXPONENTE_GUION:
+                    if (esDigitoAscii(c)) siguiente = N_EXPONENTE_DIGITO;
+                    break;
+                case N_EXPONENTE_DIGITO:
+                    if (esDigitoAscii(c)) siguiente = N_EXPONENTE_DIGITO;
+                    else if (c == '_') siguiente = N_EXPONENTE_GUION;
+                    break;
+            }
+            if (siguiente < 0) {
+                break;
+            }
+            estado = siguiente;
+            i++;
+        }
+        return mejorFin;
+    }
+
+    /**
+     * String con prefijo r, b, rb o br.
+     * @return fin del string, o -1 si no hay un string válido
+     */
+    private int finStringConPrefijo(int inicio) {
+        int comilla = inicio + 1;
+        if (comilla < limite && !esComilla(texto.charAt(comilla))) {
+            char otra = texto.charAt(inicio) == 'r' ? 'b' : 'r';
+            if (texto.charAt(comilla) != otra) {
+                return -1;
+            }
+            comilla++;
+        }
+        if (comilla >= limite || !esComilla(texto.charAt(comilla))) {
+            return -1;
+        }
+        return finString(inicio, comilla);
+    }
+
+    /**
+     * Reconoce un string simple o triple que empieza en la comilla indicada.
+     * El string triple puede ocupar varias líneas; si no se cierra en el rango,
+     * se reconoce el string vacío formado por las dos primeras comillas. El
+     * string simple termina en el salto de línea.
+     * @return fin del string, o -1 si no se cierra
+     */
+    private int finString(int inicio, int comilla) {
+        char q = texto.charAt(comilla);
+
+        if (comilla + 2 < limite && texto.charAt(comilla + 1) == q && texto.charAt(comilla + 2) == q) {
+            int i = comilla + 3;
+            while ((i = CharScan.buscar(texto, i, limite, q, '\\')) < limite) {
+                char c = texto.charAt(i);
+                if (c == '\\') {
+                    i += 2;
+                } else if (c == q && i + 2 < limite && texto.charAt(i + 1) == q && texto.charAt(i + 2) == q) {
+                    return i + 3;
+                } else {
+                    i++;
+                }
+            }
+            return comilla + 2;
+        }
+
+        int i = comilla + 1;
+        while ((i = CharScan.buscar(texto, i, limite, q, '\n', '\\')) < limite) {
+            char c = texto.charAt(i);
+            if (c == q) {
+                return i + 1;
+            }
+            if (c == '\n') {
+                return -1;
+            }
+            // Barra invertida
+            if (i + 1 >= limite || esFinDeLinea(texto.charAt(i + 1))) return -1;
+            i += 2;
+        }
+        return -1;
+    }
+
+    /**
+     * Operador más largo que empieza en la posición indicada, con el autómata
+     * generado desde lexico/python.tokens.
+     * @return fin del operador, o -1 si no hay operador
+     */
+    private int finOperador(int inicio) {
+        int estado = PythonOperatorDfa.ESTADO_INICIAL;
+        int fin = -1;
+        for (int i = inicio; i < limite; i++) {
+            estado = PythonOperatorDfa.siguiente(estado, PythonOperatorDfa.clase(texto.charAt(i)));
+            if (estado < 0) {
+                break;
+            }
+            if (PythonOperatorDfa.acepta(estado) != PythonOperatorDfa.SIN_TOKEN) {
+                fin = i + 1;
+            }
+        }
+        return fin;
+    }
+
+    private int finDeLinea(int desde) {
+        return CharScan.buscar(texto, desde, limite, '\n');
+    }
+
+    private static boolean esDigitoAscii(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean esInicioIdentificador(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+    }
+
+    private static boolean esParteIdentificador(char c) {
+        return esInicioIdentificador(c) || esDigitoAscii(c);
+    }
+
+    private static boolean esComilla(char c) {
+        return c == '\'' || c == '"';
+    }
+
+    private static boolean esFinDeLinea(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
@@ -2,9 +2,15 @@ package com.analyzer.service.LexicalAnalizer;
 
 import com.analyzer.service.interfaces.ILexicalAnalyzer;
 import com.analyzer.model.*;
+import com.analyzer.util.ContextPool;
+import com.analyzer.util.KeywordTable;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
 import java.util.*;
-import java.util.regex.Pattern;
-import java.util.regex.Matcher;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
 
 /**
  * Analizador léxico especializado para SQL.
@@ -12,45 +18,45 @@ import java.util.regex.Matcher;
  */
 public  class SQLLexicalAnalyzer implements ILexicalAnalyzer {
 
-    // Patrones regex para SQL
-    private static final Pattern PATRON_KEYWORD = Pattern.compile(
-            "\\b(SELECT|FROM|WHERE|INSERT|UPDATE|DELETE|CREATE|DROP|ALTER|TABLE|INDEX|VIEW|DATABASE|SCHEMA|JOIN|INNER|LEFT|RIGHT|OUTER|ON|GROUP|ORDER|BY|HAVING|UNION|DISTINCT|COUNT|SUM|AVG|MIN|MAX|AS|AND|OR|NOT|NULL|PRIMARY|KEY|FOREIGN|REFERENCES|CONSTRAINT|DEFAULT|UNIQUE|CHECK|BEGIN|END|COMMIT|ROLLBACK|TRANSACTION)\\b",
-            Pattern.CASE_INSENSITIVE
-    );
-
-    private static final Pattern PATRON_IDENTIFICADOR = Pattern.compile(
-            "[a-zA-Z_][a-zA-Z0-9_]*"
+    // Conjunto de keywords SQL; se reconocen sin distinguir mayúsculas
+    private static final KeywordTable KEYWORDS_SQL = KeywordTable.enMayusculas(
+            "SELECT", "FROM", "WHERE", "INSERT", "UPDATE", "DELETE", "CREATE", "DROP", "ALTER",
+            "TABLE", "INDEX", "VIEW", "DATABASE", "SCHEMA", "JOIN", "INNER", "LEFT", "RIGHT",
+            "OUTER", "ON", "GROUP", "ORDER", "BY", "HAVING", "UNION", "DISTINCT", "COUNT",
+            "SUM", "AVG", "MIN", "MAX", "AS", "AND", "OR", "NOT", "NULL", "PRIMARY", "KEY",
+            "FOREIGN", "REFERENCES", "CONSTRAINT", "DEFAULT", "UNIQUE", "CHECK", "BEGIN",
+            "END", "COMMIT", "ROLLBACK", "TRANSACTION"
     );
 
-    private static final Pattern PATRON_NUMERO = Pattern.compile(
-            "\\d+(?:\\.\\d+)?(?:[eE][+-]?\\d+)?"
+    // Keywords mal escritos comunes; la sugerencia tiene el mismo índice
+    private static final KeywordTable KEYWORDS_MAL_ESCRITOS = KeywordTable.enMayusculas(
+            "SELEC", "FORM", "WHRE", "CREAT", "INSER"
     );
+    private static final String[] SUGERENCIAS_KEYWORDS = {
+            "SELECT", "FROM", "WHERE", "CREATE", "INSERT"
+    };
 
-    private static final Pattern PATRON_STRING = Pattern.compile(
-            "'(?:[^'']|'')*'"
+    // Keywords que inician las queries que se validan, en el orden de los casos de validarEstructuraQueries
+    private static final KeywordTable INICIOS_QUERY = KeywordTable.enMayusculas(
+            "SELECT", "INSERT", "UPDATE", "DELETE"
     );
 
-    private static final Pattern PATRON_OPERADOR = Pattern.compile(
-            ">=|<=|<>|!=|[=<>+\\-*/%]"
-    );
+    // Tamaño a partir del cual analyzeLexicalBuffer reparte el script entre varios hilos
+    private static final int UMBRAL_PARALELO = 4 * 1024 * 1024;
+    private static final int TRAMO_MINIMO = 256 * 1024;
+    private static final int TRAMOS_POR_HILO = 4;
 
-    private static final Pattern PATRON_COMENTARIO_LINEA = Pattern.compile(
-            "--.*$"
-    );
+    // Modos del recorrido que busca los cortes entre tramos
+    private static final int CODIGO = 0;
+    private static final int STRING = 1;
+    private static final int COMENTARIO_LINEA = 2;
+    private static final int COMENTARIO_BLOQUE = 3;
 
-    private static final Pattern PATRON_COMENTARIO_BLOQUE = Pattern.compile(
-            "/\\*[\\s\\S]*?\\*/", Pattern.MULTILINE | Pattern.DOTALL
-    );
+    // Escáneres libres; cada tramo y cada análisis por ventanas usa el suyo
+    private static final ContextPool<SQLScanner> ESCANERES = new ContextPool<>(SQLScanner::new);
 
-    // Conjunto de keywords SQL
-    private static final Set<String> KEYWORDS_SQL = Set.of(
-            "SELECT", "FROM", "WHERE", "INSERT", "UPDATE", "DELETE", "CREATE", "DROP", "ALTER",
-            "TABLE", "INDEX", "VIEW", "DATABASE", "SCHEMA", "JOIN", "INNER", "LEFT", "RIGHT",
-            "OUTER", "ON", "GROUP", "ORDER", "BY", "HAVING", "UNION", "DISTINCT", "COUNT",
-            "SUM", "AVG", "MIN", "MAX", "AS", "AND", "OR", "NOT", "NULL", "PRIMARY", "KEY",
-            "FOREIGN", "REFERENCES", "CONSTRAINT", "DEFAULT", "UNIQUE", "CHECK", "BEGIN",
-            "END", "COMMIT", "ROLLBACK", "TRANSACTION"
-    );
+    // Tabla de nombres de los análisis sin contexto, o null; con contexto se usa la suya
+    private InternPool internado;
 
     @Override
     public List<Token> analyze(String code, LanguageType language) {
@@ -60,400 +66,526 @@ public  class SQLLexicalAnalyzer implements ILexicalAnalyzer {
 
     @Override
     public List<Token> analyzeLexical(String fuente, List<AnalysisError> errores) {
-        List<Token> tokens = new ArrayList<>();
+        return analyzeLexicalBuffer(fuente, errores).asList();
+    }
 
-        if (fuente == null || fuente.trim().isEmpty()) {
-            return tokens;
-        }
+    @Override
+    public TokenBuffer analyzeLexicalBuffer(String fuente, List<AnalysisError> errores) {
+        return analyzeLexicalBuffer((CharSequence) fuente, errores);
+    }
+
+    @Override
+    public void usarInternado(InternPool internado) {
+        this.internado = internado;
+    }
 
-        // Normalizar código SQL (mayúsculas para keywords)
-        String codigoNormalizado = normalizarCodigoSQL(fuente);
+    /**
+     * Buffer vacío sobre la fuente, con la tabla de nombres indicada (o ninguna si es null)
+     */
+    private static TokenBuffer nuevoBuffer(CharSequence fuente, InternPool internado) {
+        TokenBuffer tokens = new TokenBuffer(fuente);
+        tokens.usarInternado(internado);
+        return tokens;
+    }
 
-        // Analizar línea por línea
-        String[] lineas = codigoNormalizado.split("\n", -1);
+    @Override
+    public TokenBuffer analyzeLexicalBuffer(CharSequence fuente, List<AnalysisError> errores) {
+        return analizar(fuente, internado, errores);
+    }
 
-        for (int numeroLinea = 0; numeroLinea < lineas.length; numeroLinea++) {
-            String linea = lineas[numeroLinea];
-            tokenizarLineaSQL(linea, numeroLinea + 1, tokens, errores);
+    @Override
+    public TokenBuffer analyzeLexicalBuffer(AnalysisContext contexto, List<AnalysisError> errores) {
+        return analizar(contexto.getSource(), contexto.getInternPool(), errores);
+    }
+
+    /**
+     * @param internado tabla de nombres de los tokens, o null
+     */
+    private TokenBuffer analizar(CharSequence fuente, InternPool internado, List<AnalysisError> errores) {
+        if (fuente == null || ILexicalAnalyzer.estaEnBlanco(fuente)) {
+            return new TokenBuffer("");
         }
+        if (fuente.length() >= UMBRAL_PARALELO && ForkJoinPool.getCommonPoolParallelism() > 1) {
+            return analizarEnParalelo(fuente, internado, errores, ForkJoinPool.commonPool());
+        }
+
+        // Los tokens leen el código normalizado (mayúsculas para keywords) a través de una vista del original
+        VistaNormalizada codigoNormalizado = new VistaNormalizada(fuente);
+        TokenBuffer tokens = nuevoBuffer(codigoNormalizado, internado);
+
+        // Analizar el documento completo; los comentarios de bloque y los strings pueden ocupar varias líneas
+        ErrorSink sumidero = ErrorSink.sobre(errores);
+        tokenizarTramo(fuente, codigoNormalizado, true, 0, fuente.length(), 1, 0, tokens, sumidero);
 
         // Validaciones finales
-        validarEstructuraSQL(tokens, errores);
+        validarEstructuraSQL(tokens, sumidero);
 
         return tokens;
     }
 
     /**
-     * Normaliza el código SQL manteniendo strings intactos
+     * Analiza el script repartido en tramos que se tokenizan en paralelo en el
+     * pool. Los tramos empiezan después de un ';' o de una línea en blanco fuera
+     * de strings y comentarios; el resultado, con la numeración de líneas y
+     * columnas del script completo, es el mismo que el secuencial.
      */
-    private String normalizarCodigoSQL(String codigo) {
-        StringBuilder resultado = new StringBuilder();
-        boolean enString = false;
-        boolean enComentario = false;
-        char caracterString = 0;
+    public TokenBuffer analyzeLexicalParallel(CharSequence fuente, List<AnalysisError> errores, ForkJoinPool pool) {
+        if (fuente == null || ILexicalAnalyzer.estaEnBlanco(fuente)) {
+            return new TokenBuffer("");
+        }
+        return analizarEnParalelo(fuente, internado, errores, pool);
+    }
 
-        for (int i = 0; i < codigo.length(); i++) {
-            char c = codigo.charAt(i);
+    private TokenBuffer analizarEnParalelo(CharSequence fuente, InternPool internado, List<AnalysisError> errores,
+                                           ForkJoinPool pool) {
+
+        int objetivo = Math.max(TRAMO_MINIMO, fuente.length() / (pool.getParallelism() * TRAMOS_POR_HILO));
+        // El mismo recorrido que busca los cortes completa la vista normalizada
+        VistaNormalizada codigoNormalizado = new VistaNormalizada(fuente);
+        Particion particion = particionar(fuente, codigoNormalizado, objetivo);
+
+        List<ForkJoinTask<Tramo>> tokenizaciones = new ArrayList<>(particion.cantidad);
+        for (int k = 0; k < particion.cantidad; k++) {
+            int desde = particion.inicios[k];
+            int hasta = particion.fin(k, fuente.length());
+            int linea = particion.lineas[k];
+            int inicioLinea = particion.iniciosLinea[k];
+            tokenizaciones.add(pool.submit(() -> tokenizarTramo(fuente, codigoNormalizado, false, desde, hasta,
+                    linea, inicioLinea, nuevoBuffer(codigoNormalizado, internado), new ErrorSink())));
+        }
 
-            if (!enString && !enComentario) {
-                if (c == '\'') {
-                    enString = true;
-                    caracterString = c;
-                } else if (c == '-' && i + 1 < codigo.length() && codigo.charAt(i + 1) == '-') {
-                    enComentario = true;
-                }
-            } else if (enString && c == caracterString) {
-                // Verificar si es escape ''
-                if (i + 1 < codigo.length() && codigo.charAt(i + 1) == caracterString) {
-                    resultado.append(c); // Agregar el primer '
-                    resultado.append(codigo.charAt(++i)); // Agregar el segundo '
-                    continue;
-                } else {
-                    enString = false;
-                }
-            } else if (enComentario && c == '\n') {
-                enComentario = false;
-            }
-
-            // Normalizar a mayúsculas solo fuera de strings y comentarios
-            if (!enString && !enComentario && Character.isLetter(c)) {
-                resultado.append(Character.toUpperCase(c));
-            } else {
-                resultado.append(c);
+        // Unir los tramos en orden; si un token atravesó el corte, el tramo
+        // siguiente se vuelve a tokenizar desde donde terminó ese token
+        TokenBuffer tokens = nuevoBuffer(codigoNormalizado, internado);
+        Tramo anterior = null;
+        for (int k = 0; k < particion.cantidad; k++) {
+            Tramo tramo = tokenizaciones.get(k).join();
+            if (anterior != null && anterior.fin > tramo.inicio) {
+                tramo = tokenizarTramo(fuente, codigoNormalizado, false, anterior.fin,
+                        Math.max(anterior.fin, particion.fin(k, fuente.length())),
+                        anterior.linea, anterior.inicioLinea,
+                        nuevoBuffer(codigoNormalizado, internado), new ErrorSink());
             }
+            tokens.reemplazar(tokens.size(), tokens.size(), tramo.tokens, 0, 0);
+            errores.addAll(tramo.errores);
+            anterior = tramo;
         }
 
-        return resultado.toString();
+        validarEstructuraSQL(tokens, ErrorSink.sobre(errores));
+
+        return tokens;
     }
 
     /**
-     * Tokeniza una línea SQL completa
+     * Recorre el script una vez buscando dónde cortarlo: después de un ';' o al
+     * empezar una línea en blanco, fuera de strings y comentarios, cuando el
+     * tramo actual ya tiene al menos objetivo caracteres. Registra a la vez en
+     * la vista qué partes deja intactas la normalización.
      */
-    private void tokenizarLineaSQL(String linea, int numeroLinea, List<Token> tokens, List<AnalysisError> errores) {
-        if (linea.trim().isEmpty()) {
-            return;
-        }
-
-        int posicion = 0;
+    private static Particion particionar(CharSequence texto, VistaNormalizada vista, int objetivo) {
+        Particion particion = new Particion();
+        int modo = CODIGO;
+        char previo = 0;
+        int numeroLinea = 1;
+        int inicioLinea = 0;
+        int ultimoCorte = 0;
+        int longitud = texto.length();
+
+        particion.agregar(0, 1, 0);
+        for (int i = 0; i < longitud; i++) {
+            char c = texto.charAt(i);
+            vista.registrar(i, c);
+            boolean corte = false;
+
+            switch (modo) {
+                case CODIGO:
+                    if (c == '\'') {
+                        modo = STRING;
+                    } else if (c == '-' && previo == '-') {
+                        modo = COMENTARIO_LINEA;
+                    } else if (c == '*' && previo == '/') {
+                        modo = COMENTARIO_BLOQUE;
+                        c = 0; // El '*' de /* no cierra el comentario en /*/
+                    } else {
+                        corte = c == ';' || (c == '\n' && previo == '\n');
+                    }
+                    break;
+                case STRING:
+                    if (c == '\'') {
+                        modo = CODIGO; // El escape '' cierra y vuelve a abrir
+                    }
+                    break;
+                case COMENTARIO_LINEA:
+                    if (c == '\n') {
+                        modo = CODIGO;
+                    }
+                    break;
+                default:
+                    if (c == '/' && previo == '*') {
+                        modo = CODIGO;
+                        c = 0;
+                    }
+                    break;
+            }
 
-        while (posicion < linea.length()) {
-            // Saltar espacios
-            if (Character.isWhitespace(linea.charAt(posicion))) {
-                posicion++;
-                continue;
+            if (texto.charAt(i) == '\n') {
+                numeroLinea++;
+                inicioLinea = i + 1;
+            }
+            if (corte && i + 1 - ultimoCorte >= objetivo && i + 1 < longitud) {
+                ultimoCorte = i + 1;
+                particion.agregar(ultimoCorte, numeroLinea, inicioLinea);
             }
+            previo = c;
+        }
+        return particion;
+    }
 
-            // Intentar tokenización
-            ResultadoTokenSQL resultado = intentarTokenizarSQL(linea, posicion, numeroLinea, errores);
+    /**
+     * Versión por ventanas; la normalización se aplica mientras se lee y no se
+     * validan la estructura de las queries ni los delimitadores
+     */
+    @Override
+    public void analyzeLexicalStream(Reader fuente, Consumer<Token> consumidor, List<AnalysisError> errores)
+            throws IOException {
+        StreamingWindow ventana = new StreamingWindow(new LectorNormalizado(fuente));
+        TokenBuffer lote = nuevoBuffer(ventana, internado);
+        SQLScanner escaner = ESCANERES.tomar();
+        ErrorSink sumidero = ErrorSink.sobre(errores);
 
-            if (resultado.exito) {
-                if (resultado.token != null) {
-                    tokens.add(resultado.token);
-                }
-                posicion = resultado.siguientePosicion;
-            } else {
-                // Carácter no reconocido
-                registrarCaracterInvalidoSQL(linea.charAt(posicion), numeroLinea, posicion, errores);
-                posicion++;
-            }
+        try {
+            ventana.recorrer(escaner, lote, (numeroLinea, inicioLinea) ->
+                    agregarTokenSQL(ventana, escaner, numeroLinea, escaner.inicioToken() - inicioLinea, lote, sumidero),
+                    consumidor, sumidero);
+        } finally {
+            escaner.soltar();
+            ESCANERES.devolver(escaner);
         }
     }
 
     /**
-     * Intenta tokenizar en la posición actual
+     * Sesión para {@link IncrementalLexer}: el escáner recorre el texto del
+     * editor y los tokens se crean sobre una vista normalizada de ese mismo
+     * texto, como en el análisis completo; el estado de cada línea es el de la
+     * normalización
      */
-    private ResultadoTokenSQL intentarTokenizarSQL(String linea, int posicion, int numeroLinea, List<AnalysisError> errores) {
-        // 1. Comentarios de bloque
-        ResultadoTokenSQL resultado = reconocerComentarioBloque(linea, posicion, numeroLinea);
-        if (resultado.exito) return resultado;
+    SesionIncremental nuevaSesion() {
+        SQLScanner escaner = new SQLScanner();
+        return new SesionIncremental() {
+            private VistaNormalizada vista;
+
+            @Override
+            public TokenScanner escaner() {
+                escaner.usarMayusculas(vista);
+                return escaner;
+            }
 
-        // 2. Comentarios de línea
-        resultado = reconocerComentarioLinea(linea, posicion, numeroLinea);
-        if (resultado.exito) return resultado;
+            @Override
+            public void reiniciar() {
+                vista.vaciar();
+            }
+
+            @Override
+            public Object estadoLinea() { return null; }
 
-        // 3. Strings
-        resultado = reconocerStringSQL(linea, posicion, numeroLinea, errores);
-        if (resultado.exito) return resultado;
+            @Override
+            public void restaurarEstadoLinea(Object estado, int numeroLinea) {
+            }
 
-        // 4. Números
-        resultado = reconocerNumeroSQL(linea, posicion, numeroLinea, errores);
-        if (resultado.exito) return resultado;
+            @Override
+            public void agregarToken(CharSequence texto, int numeroLinea, int inicioLinea, int finLinea,
+                                     TokenBuffer tokens, ErrorSink errores) {
+                agregarTokenSQL(texto, escaner, numeroLinea, escaner.inicioToken() - inicioLinea, tokens, errores);
+            }
 
-        // 5. Operadores
-        resultado = reconocerOperadorSQL(linea, posicion, numeroLinea);
-        if (resultado.exito) return resultado;
+            @Override
+            public void validarFinal(TokenBuffer tokens, ErrorSink errores) {
+                validarEstructuraSQL(tokens, errores);
+            }
 
-        // 6. Identificadores/Keywords
-        resultado = reconocerIdentificadorSQL(linea, posicion, numeroLinea, errores);
-        if (resultado.exito) return resultado;
+            @Override
+            public boolean normaliza() { return true; }
 
-        // 7. Puntuación
-        resultado = reconocerPuntuacionSQL(linea, posicion, numeroLinea);
-        if (resultado.exito) return resultado;
+            @Override
+            public CharSequence vista(CharSequence original) {
+                vista = new VistaNormalizada(original);
+                return vista;
+            }
 
-        return new ResultadoTokenSQL(false, null, posicion);
-    }
+            @Override
+            public void normalizar(int posicion, char c) { vista.registrar(posicion, c); }
 
-    /**
-     * Reconoce comentarios de bloque /* */
+            @Override
+            public int estadoNormalizacion() { return vista.normalizador.estado(); }
 
-    private ResultadoTokenSQL reconocerComentarioBloque(String linea, int posicion, int numeroLinea) {
-        Matcher matcher = PATRON_COMENTARIO_BLOQUE.matcher(linea);
-        matcher.region(posicion, linea.length());
+            @Override
+            public void editarNormalizacion(int desde, int finEliminado, int delta, int estado) {
+                vista.editar(desde, finEliminado, delta, estado);
+            }
 
-        if (matcher.lookingAt()) {
-            String comentario = matcher.group();
-            Token token = new Token(comentario, "COMENTARIO_BLOQUE", numeroLinea, posicion);
-            return new ResultadoTokenSQL(true, token, matcher.end());
-        }
+            @Override
+            public void resincronizarNormalizacion(int posicion) { vista.resincronizar(posicion); }
 
-        return new ResultadoTokenSQL(false, null, posicion);
+            @Override
+            public void terminarNormalizacion() { vista.terminar(); }
+        };
     }
 
     /**
-     * Reconoce comentarios de línea --
+     * Tokeniza los tokens que empiezan en [inicio, fin); el último puede terminar
+     * después de fin. El escáner recorre el texto original y los tokens se leen
+     * de la vista normalizada; con registrar, la vista se completa token a
+     * token. La línea y la columna se cuentan desde numeroLinea, cuya línea
+     * empieza en inicioLinea.
+     * @return posición y línea en las que terminó el último token
      */
-    private ResultadoTokenSQL reconocerComentarioLinea(String linea, int posicion, int numeroLinea) {
-        if (posicion + 1 < linea.length() &&
-                linea.charAt(posicion) == '-' && linea.charAt(posicion + 1) == '-') {
-            String comentario = linea.substring(posicion);
-            Token token = new Token(comentario, "COMENTARIO", numeroLinea, posicion);
-            return new ResultadoTokenSQL(true, token, linea.length());
+    private Tramo tokenizarTramo(CharSequence original, VistaNormalizada vista, boolean registrar, int inicio, int fin,
+                                 int numeroLinea, int inicioLinea, TokenBuffer tokens, ErrorSink errores) {
+        SQLScanner escaner = ESCANERES.tomar();
+        try {
+            return recorrerTramo(original, vista, registrar, inicio, fin, numeroLinea, inicioLinea,
+                    escaner, tokens, errores);
+        } finally {
+            escaner.soltar();
+            ESCANERES.devolver(escaner);
         }
-
-        return new ResultadoTokenSQL(false, null, posicion);
     }
 
-    /**
-     * Reconoce strings SQL '...'
-     */
-    private ResultadoTokenSQL reconocerStringSQL(String linea, int posicion, int numeroLinea, List<AnalysisError> errores) {
-        Matcher matcher = PATRON_STRING.matcher(linea);
-        matcher.region(posicion, linea.length());
+    private Tramo recorrerTramo(CharSequence original, VistaNormalizada vista, boolean registrar, int inicio, int fin,
+                                int numeroLinea, int inicioLinea, SQLScanner escaner, TokenBuffer tokens,
+                                ErrorSink errores) {
+        int recorrido = inicio;
 
-        if (matcher.lookingAt()) {
-            String valorString = matcher.group();
+        escaner.usarMayusculas(vista);
+        escaner.reiniciar(original, inicio, original.length());
 
-            // Validar string SQL
-            validarStringSQL(valorString, numeroLinea, posicion, errores);
+        while (escaner.siguiente()) {
+            int posicion = escaner.inicioToken();
+            if (posicion >= fin) {
+                break;
+            }
 
-            Token token = new Token(valorString, "STRING", numeroLinea, posicion);
-            return new ResultadoTokenSQL(true, token, matcher.end());
-        }
+            int finToken = escaner.finToken();
+            if (registrar) {
+                vista.registrarHasta(finToken);
+            }
 
-        // Verificar string sin terminar
-        if (posicion < linea.length() && linea.charAt(posicion) == '\'') {
-            String stringIncompleto = linea.substring(posicion);
-            errores.add(new AnalysisError(
-                    "String SQL sin terminar: " + stringIncompleto,
-                    AnalysisError.ErrorType.LEXICAL,
-                    numeroLinea, posicion
-            ));
+            // Hasta el final del token; los saltos dentro del token cuentan recién para el siguiente
+            int saltos = 0;
+            int ultimoSalto = 0;
+            for (; recorrido < finToken; recorrido++) {
+                if (original.charAt(recorrido) == '\n') {
+                    if (recorrido < posicion) {
+                        numeroLinea++;
+                        inicioLinea = recorrido + 1;
+                    } else {
+                        saltos++;
+                        ultimoSalto = recorrido;
+                    }
+                }
+            }
 
-            Token token = new Token(stringIncompleto, "STRING_SIN_TERMINAR", numeroLinea, posicion);
-            return new ResultadoTokenSQL(true, token, linea.length());
+            agregarTokenSQL(vista, escaner, numeroLinea, posicion - inicioLinea, tokens, errores);
+            if (saltos > 0) {
+                numeroLinea += saltos;
+                inicioLinea = ultimoSalto + 1;
+            }
         }
 
-        return new ResultadoTokenSQL(false, null, posicion);
+        return new Tramo(inicio, recorrido, numeroLinea, inicioLinea, tokens, errores);
     }
 
     /**
-     * Reconoce números SQL
+     * Agrega el token que acaba de reconocer el escáner, validándolo según su tipo
      */
-    private ResultadoTokenSQL reconocerNumeroSQL(String linea, int posicion, int numeroLinea, List<AnalysisError> errores) {
-        Matcher matcher = PATRON_NUMERO.matcher(linea);
-        matcher.region(posicion, linea.length());
-
-        if (matcher.lookingAt()) {
-            String valorNumero = matcher.group();
-
-            // Validar número SQL
-            validarNumeroSQL(valorNumero, numeroLinea, posicion, errores);
-
-            String tipoToken = valorNumero.contains(".") ? "NUMERO_DECIMAL" : "NUMERO_ENTERO";
-            Token token = new Token(valorNumero, tipoToken, numeroLinea, posicion);
-
-            return new ResultadoTokenSQL(true, token, matcher.end());
+    private void agregarTokenSQL(CharSequence texto, SQLScanner escaner, int numeroLinea, int columna,
+                                 TokenBuffer tokens, ErrorSink errores) {
+        int posicion = escaner.inicioToken();
+        int fin = escaner.finToken();
+
+        switch (escaner.tipoToken()) {
+            case SQLScanner.COMENTARIO_BLOQUE:
+                tokens.agregar(TokenKind.COMENTARIO_BLOQUE, posicion, fin - posicion, numeroLinea, columna);
+                break;
+            case SQLScanner.COMENTARIO:
+                tokens.agregar(TokenKind.COMENTARIO, posicion, fin - posicion, numeroLinea, columna);
+                break;
+            case SQLScanner.STRING:
+                // Validar string SQL
+                validarStringSQL(texto, posicion, fin, numeroLinea, columna, errores);
+                tokens.agregar(TokenKind.STRING, posicion, fin - posicion, numeroLinea, columna);
+                break;
+            case SQLScanner.STRING_SIN_TERMINAR:
+                errores.reportar(ErrorCode.SQL_STRING_SIN_TERMINAR, numeroLinea, columna, texto, posicion, fin);
+                tokens.agregar(TokenKind.STRING_SIN_TERMINAR, posicion, fin - posicion, numeroLinea, columna);
+                break;
+            case SQLScanner.NUMERO_ENTERO:
+                validarNumeroSQL(texto, posicion, fin, numeroLinea, columna, errores);
+                tokens.agregar(TokenKind.NUMERO_ENTERO, posicion, fin - posicion, numeroLinea, columna);
+                break;
+            case SQLScanner.NUMERO_DECIMAL:
+                validarNumeroSQL(texto, posicion, fin, numeroLinea, columna, errores);
+                tokens.agregar(TokenKind.NUMERO_DECIMAL, posicion, fin - posicion, numeroLinea, columna);
+                break;
+            case SQLScanner.OPERADOR:
+                tokens.agregar(TokenKind.OPERADOR, posicion, fin - posicion, numeroLinea, columna);
+                break;
+            case SQLScanner.IDENTIFICADOR:
+                reconocerIdentificadorSQL(texto, escaner, numeroLinea, columna, tokens, errores);
+                break;
+            case SQLScanner.PUNTUACION:
+                tokens.agregar(obtenerTipoPuntuacionSQL(texto.charAt(posicion)), posicion, 1, numeroLinea, columna);
+                break;
+            default:
+                // Carácter no reconocido
+                registrarCaracterInvalidoSQL(texto.charAt(posicion), numeroLinea, columna, errores);
+                break;
         }
-
-        return new ResultadoTokenSQL(false, null, posicion);
     }
 
     /**
-     * Reconoce operadores SQL
+     * Registra un identificador o keyword SQL ya reconocido por el autómata. Las
+     * tablas de keywords no distinguen mayúsculas, así que se consultan sobre el
+     * texto que recorre el escáner, sin extraer el identificador
      */
-    private ResultadoTokenSQL reconocerOperadorSQL(String linea, int posicion, int numeroLinea) {
-        Matcher matcher = PATRON_OPERADOR.matcher(linea);
-        matcher.region(posicion, linea.length());
-
-        if (matcher.lookingAt()) {
-            String operador = matcher.group();
-            Token token = new Token(operador, "OPERADOR", numeroLinea, posicion);
-            return new ResultadoTokenSQL(true, token, matcher.end());
+    private void reconocerIdentificadorSQL(CharSequence texto, SQLScanner escaner, int numeroLinea, int columna,
+                                           TokenBuffer tokens, ErrorSink errores) {
+        int inicio = escaner.inicioToken();
+        int fin = escaner.finToken();
+        if (KEYWORDS_SQL.contiene(escaner.texto(), inicio, fin)) {
+            tokens.agregar(TokenKind.KEYWORD, inicio, fin - inicio, numeroLinea, columna);
+            return;
         }
 
-        return new ResultadoTokenSQL(false, null, posicion);
+        // Validar identificador SQL
+        validarIdentificadorSQL(texto, escaner.texto(), inicio, fin, numeroLinea, columna, errores);
+        tokens.agregar(TokenKind.IDENTIFICADOR, inicio, fin - inicio, numeroLinea, columna);
     }
 
     /**
-     * Reconoce identificadores y keywords SQL
+     * Valida el string texto[desde, hasta)
      */
-    private ResultadoTokenSQL reconocerIdentificadorSQL(String linea, int posicion, int numeroLinea, List<AnalysisError> errores) {
-        Matcher matcher = PATRON_IDENTIFICADOR.matcher(linea);
-        matcher.region(posicion, linea.length());
-
-        if (matcher.lookingAt()) {
-            String identificador = matcher.group();
-
-            // Validar identificador SQL
-            validarIdentificadorSQL(identificador, numeroLinea, posicion, errores);
-
-            // Determinar tipo
-            String tipoToken = KEYWORDS_SQL.contains(identificador.toUpperCase()) ? "KEYWORD" : "IDENTIFICADOR";
-            Token token = new Token(identificador, tipoToken, numeroLinea, posicion);
-
-            return new ResultadoTokenSQL(true, token, matcher.end());
+    private void validarStringSQL(CharSequence texto, int desde, int hasta, int numeroLinea, int posicion,
+                                  ErrorSink errores) {
+        // Verificar strings muy largos
+        if (hasta - desde > 8000) {
+            errores.reportar(ErrorCode.SQL_STRING_MUY_LARGO, numeroLinea, posicion, hasta - desde);
         }
 
-        return new ResultadoTokenSQL(false, null, posicion);
-    }
-
-    /**
-     * Reconoce puntuación SQL
-     */
-    private ResultadoTokenSQL reconocerPuntuacionSQL(String linea, int posicion, int numeroLinea) {
-        char c = linea.charAt(posicion);
-        if ("()[]{}:;,.".indexOf(c) != -1) {
-            String tipoPuntuacion = obtenerTipoPuntuacionSQL(c);
-            Token token = new Token(String.valueOf(c), tipoPuntuacion, numeroLinea, posicion);
-            return new ResultadoTokenSQL(true, token, posicion + 1);
+        // Verificar caracteres de control; los saltos de línea son válidos en strings multilínea
+        if (contieneCaracterDeControl(texto, desde, hasta)) {
+            errores.reportar(ErrorCode.SQL_STRING_CON_CONTROL, numeroLinea, posicion);
         }
-
-        return new ResultadoTokenSQL(false, null, posicion);
     }
 
     /**
-     * Valida un string SQL
+     * Indica si texto[desde, hasta) tiene algún carácter de control distinto de \n y \r
      */
-    private void validarStringSQL(String valorString, int numeroLinea, int posicion, List<AnalysisError> errores) {
-        // Verificar strings muy largos
-        if (valorString.length() > 8000) {
-            errores.add(new AnalysisError(
-                    "String SQL muy largo (" + valorString.length() + " caracteres)",
-                    AnalysisError.ErrorType.WARNING,
-                    numeroLinea, posicion
-            ));
-        }
-
-        // Verificar caracteres de control
-        if (valorString.matches(".*[\\x00-\\x1F\\x7F].*")) {
-            errores.add(new AnalysisError(
-                    "String contiene caracteres de control",
-                    AnalysisError.ErrorType.WARNING,
-                    numeroLinea, posicion
-            ));
+    private boolean contieneCaracterDeControl(CharSequence texto, int desde, int hasta) {
+        for (int i = desde; i < hasta; i++) {
+            char c = texto.charAt(i);
+            if ((c < ' ' && c != '\n' && c != '\r') || c == '\u007F') {
+                return true;
+            }
         }
+        return false;
     }
 
     /**
-     * Valida un número SQL
+     * Valida el número texto[desde, hasta). Los enteros se leen sin copiarlos; un
+     * decimal solo se copia para convertirlo si podría salirse del rango de double
      */
-    private void validarNumeroSQL(String valorNumero, int numeroLinea, int posicion, List<AnalysisError> errores) {
+    private void validarNumeroSQL(CharSequence texto, int desde, int hasta, int numeroLinea, int posicion,
+                                  ErrorSink errores) {
         try {
-            if (valorNumero.contains(".")) {
-                double valor = Double.parseDouble(valorNumero);
-                if (Double.isInfinite(valor) || Double.isNaN(valor)) {
-                    errores.add(new AnalysisError(
-                            "Número decimal fuera de rango: " + valorNumero,
-                            AnalysisError.ErrorType.LEXICAL,
-                            numeroLinea, posicion
-                    ));
+            if (indiceDe(texto, desde, hasta, '.') >= 0) {
+                if (puedeDesbordar(texto, desde, hasta)
+                        && Double.isInfinite(Double.parseDouble(texto.subSequence(desde, hasta).toString()))) {
+                    errores.reportar(ErrorCode.SQL_DECIMAL_FUERA_DE_RANGO, numeroLinea, posicion, texto, desde, hasta);
                 }
             } else {
-                long valor = Long.parseLong(valorNumero);
+                long valor = Long.parseLong(texto, desde, hasta, 10);
                 if (valor > Integer.MAX_VALUE) {
-                    errores.add(new AnalysisError(
-                            "Número entero muy grande: " + valorNumero,
-                            AnalysisError.ErrorType.WARNING,
-                            numeroLinea, posicion
-                    ));
+                    errores.reportar(ErrorCode.SQL_ENTERO_MUY_GRANDE, numeroLinea, posicion, texto, desde, hasta);
                 }
             }
         } catch (NumberFormatException e) {
-            errores.add(new AnalysisError(
-                    "Formato de número inválido: " + valorNumero,
-                    AnalysisError.ErrorType.LEXICAL,
-                    numeroLinea, posicion
-            ));
+            errores.reportar(ErrorCode.SQL_NUMERO_INVALIDO, numeroLinea, posicion, texto, desde, hasta);
+        }
+    }
+
+    private static int indiceDe(CharSequence texto, int desde, int hasta, char buscado) {
+        for (int i = desde; i < hasta; i++) {
+            if (texto.charAt(i) == buscado) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Un decimal sin exponente y con menos de 309 cifras enteras significativas
+     * es menor que Double.MAX_VALUE, así que no hace falta convertirlo
+     */
+    private static boolean puedeDesbordar(CharSequence texto, int desde, int hasta) {
+        if (indiceDe(texto, desde, hasta, 'e') >= 0 || indiceDe(texto, desde, hasta, 'E') >= 0) {
+            return true;
         }
+        int inicio = desde;
+        while (texto.charAt(inicio) == '0') {
+            inicio++;
+        }
+        return indiceDe(texto, inicio, hasta, '.') - inicio > 308;
     }
 
     /**
-     * Valida un identificador SQL
+     * Valida un identificador SQL; los keywords mal escritos se buscan en recorrido
      */
-    private void validarIdentificadorSQL(String identificador, int numeroLinea, int posicion, List<AnalysisError> errores) {
+    private void validarIdentificadorSQL(CharSequence texto, CharSequence recorrido, int inicio, int fin,
+                                         int numeroLinea, int posicion, ErrorSink errores) {
         // Verificar longitud
-        if (identificador.length() > 128) {
-            errores.add(new AnalysisError(
-                    "Identificador SQL muy largo (" + identificador.length() + " caracteres)",
-                    AnalysisError.ErrorType.WARNING,
-                    numeroLinea, posicion
-            ));
+        if (fin - inicio > 128) {
+            errores.reportar(ErrorCode.SQL_IDENTIFICADOR_MUY_LARGO, numeroLinea, posicion, fin - inicio);
         }
 
         // Verificar keywords mal escritos
-        Map<String, String> erroresComunes = Map.of(
-                "SELEC", "SELECT",
-                "FORM", "FROM",
-                "WHRE", "WHERE",
-                "CREAT", "CREATE",
-                "INSER", "INSERT"
-        );
-
-        String sugerencia = erroresComunes.get(identificador.toUpperCase());
-        if (sugerencia != null) {
-            errores.add(new AnalysisError(
-                    "Posible keyword mal escrito: '" + identificador + "', ¿quiso decir '" + sugerencia + "'?",
-                    AnalysisError.ErrorType.WARNING,
-                    numeroLinea, posicion
-            ));
+        int malEscrito = KEYWORDS_MAL_ESCRITOS.indice(recorrido, inicio, fin);
+        if (malEscrito >= 0) {
+            errores.reportar(ErrorCode.SQL_KEYWORD_MAL_ESCRITO, numeroLinea, posicion, texto, inicio, fin,
+                    SUGERENCIAS_KEYWORDS[malEscrito]);
         }
     }
 
     /**
      * Obtiene el tipo de puntuación SQL
      */
-    private String obtenerTipoPuntuacionSQL(char c) {
+    private TokenKind obtenerTipoPuntuacionSQL(char c) {
         switch (c) {
-            case '(': return "PAREN_IZQ";
-            case ')': return "PAREN_DER";
-            case '[': return "CORCHETE_IZQ";
-            case ']': return "CORCHETE_DER";
-            case '{': return "LLAVE_IZQ";
-            case '}': return "LLAVE_DER";
-            case ':': return "DOS_PUNTOS";
-            case ';': return "PUNTO_COMA";
-            case ',': return "COMA";
-            case '.': return "PUNTO";
-            default: return "PUNTUACION";
+            case '(': return TokenKind.PAREN_IZQ;
+            case ')': return TokenKind.PAREN_DER;
+            case '[': return TokenKind.CORCHETE_IZQ;
+            case ']': return TokenKind.CORCHETE_DER;
+            case '{': return TokenKind.LLAVE_IZQ;
+            case '}': return TokenKind.LLAVE_DER;
+            case ':': return TokenKind.DOS_PUNTOS;
+            case ';': return TokenKind.PUNTO_COMA;
+            case ',': return TokenKind.COMA;
+            case '.': return TokenKind.PUNTO;
+            default: return TokenKind.PUNTUACION;
         }
     }
 
     /**
      * Registra carácter inválido SQL
      */
-    private void registrarCaracterInvalidoSQL(char caracter, int numeroLinea, int posicion, List<AnalysisError> errores) {
-        errores.add(new AnalysisError(
-                "Carácter no reconocido en SQL: '" + caracter + "'",
-                AnalysisError.ErrorType.LEXICAL,
-                numeroLinea, posicion
-        ));
+    private void registrarCaracterInvalidoSQL(char caracter, int numeroLinea, int posicion, ErrorSink errores) {
+        errores.reportar(ErrorCode.SQL_CARACTER_INVALIDO, numeroLinea, posicion, caracter);
     }
 
     /**
      * Validaciones finales de estructura SQL
      */
-    private void validarEstructuraSQL(List<Token> tokens, List<AnalysisError> errores) {
+    private void validarEstructuraSQL(TokenBuffer tokens, ErrorSink errores) {
         // Verificar queries básicas
         validarEstructuraQueries(tokens, errores);
 
@@ -462,24 +594,25 @@ public  class SQLLexicalAnalyzer implements ILexicalAnalyzer {
     }
 
     /**
-     * Valida estructura básica de queries SQL
+     * Valida estructura básica de queries SQL; el keyword se busca sobre el
+     * texto del token, sin crear Strings
      */
-    private void validarEstructuraQueries(List<Token> tokens, List<AnalysisError> errores) {
+    private void validarEstructuraQueries(TokenBuffer tokens, ErrorSink errores) {
+        CharSequence fuente = tokens.getFuente();
         for (int i = 0; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-
-            if ("KEYWORD".equals(token.getType())) {
-                switch (token.getValue().toUpperCase()) {
-                    case "SELECT":
+            if (tokens.kind(i) == TokenKind.KEYWORD) {
+                int inicio = tokens.inicio(i);
+                switch (INICIOS_QUERY.indice(fuente, inicio, inicio + tokens.longitud(i))) {
+                    case 0: // SELECT
                         validarSelectQuery(tokens, i, errores);
                         break;
-                    case "INSERT":
+                    case 1: // INSERT
                         validarInsertQuery(tokens, i, errores);
                         break;
-                    case "UPDATE":
+                    case 2: // UPDATE
                         validarUpdateQuery(tokens, i, errores);
                         break;
-                    case "DELETE":
+                    case 3: // DELETE
                         validarDeleteQuery(tokens, i, errores);
                         break;
                 }
@@ -490,172 +623,565 @@ public  class SQLLexicalAnalyzer implements ILexicalAnalyzer {
     /**
      * Valida query SELECT básica
      */
-    private void validarSelectQuery(List<Token> tokens, int inicioSelect, List<AnalysisError> errores) {
+    private void validarSelectQuery(TokenBuffer tokens, int inicioSelect, ErrorSink errores) {
         boolean tieneFrom = false;
 
         for (int i = inicioSelect + 1; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-            if ("KEYWORD".equals(token.getType()) && "FROM".equals(token.getValue())) {
+            if (tokens.kind(i) == TokenKind.KEYWORD && tokens.tieneValor(i, "FROM")) {
                 tieneFrom = true;
                 break;
             }
-            if ("KEYWORD".equals(token.getType()) && "SELECT".equals(token.getValue())) {
+            if (tokens.kind(i) == TokenKind.KEYWORD && tokens.tieneValor(i, "SELECT")) {
                 break; // Otro SELECT
             }
         }
 
         if (!tieneFrom) {
-            errores.add(new AnalysisError(
-                    "SELECT sin cláusula FROM",
-                    AnalysisError.ErrorType.SYNTACTIC,
-                    tokens.get(inicioSelect).getLine(), tokens.get(inicioSelect).getColumn()
-            ));
+            errores.reportar(ErrorCode.SQL_SELECT_SIN_FROM, tokens.linea(inicioSelect), tokens.columna(inicioSelect));
         }
     }
 
     /**
      * Valida query INSERT básica
      */
-    private void validarInsertQuery(List<Token> tokens, int inicioInsert, List<AnalysisError> errores) {
+    private void validarInsertQuery(TokenBuffer tokens, int inicioInsert, ErrorSink errores) {
         boolean tieneInto = false;
         boolean tieneValues = false;
 
         for (int i = inicioInsert + 1; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-            if ("KEYWORD".equals(token.getType())) {
-                if ("INTO".equals(token.getValue())) {
+            if (tokens.kind(i) == TokenKind.KEYWORD) {
+                if (tokens.tieneValor(i, "INTO")) {
                     tieneInto = true;
-                } else if ("VALUES".equals(token.getValue())) {
+                } else if (tokens.tieneValor(i, "VALUES")) {
                     tieneValues = true;
-                } else if ("INSERT".equals(token.getValue())) {
+                } else if (tokens.tieneValor(i, "INSERT")) {
                     break; // Otro INSERT
                 }
             }
         }
 
         if (!tieneInto) {
-            errores.add(new AnalysisError(
-                    "INSERT debe incluir INTO",
-                    AnalysisError.ErrorType.SYNTACTIC,
-                    tokens.get(inicioInsert).getLine(), tokens.get(inicioInsert).getColumn()
-            ));
+            errores.reportar(ErrorCode.SQL_INSERT_SIN_INTO, tokens.linea(inicioInsert), tokens.columna(inicioInsert));
         }
 
         if (!tieneValues) {
-            errores.add(new AnalysisError(
-                    "INSERT debe incluir VALUES",
-                    AnalysisError.ErrorType.SYNTACTIC,
-                    tokens.get(inicioInsert).getLine(), tokens.get(inicioInsert).getColumn()
-            ));
+            errores.reportar(ErrorCode.SQL_INSERT_SIN_VALUES, tokens.linea(inicioInsert), tokens.columna(inicioInsert));
         }
     }
 
     /**
      * Valida query UPDATE básica
      */
-    private void validarUpdateQuery(List<Token> tokens, int inicioUpdate, List<AnalysisError> errores) {
+    private void validarUpdateQuery(TokenBuffer tokens, int inicioUpdate, ErrorSink errores) {
         boolean tieneSet = false;
 
         for (int i = inicioUpdate + 1; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-            if ("KEYWORD".equals(token.getType()) && "SET".equals(token.getValue())) {
+            if (tokens.kind(i) == TokenKind.KEYWORD && tokens.tieneValor(i, "SET")) {
                 tieneSet = true;
                 break;
             }
-            if ("KEYWORD".equals(token.getType()) && "UPDATE".equals(token.getValue())) {
+            if (tokens.kind(i) == TokenKind.KEYWORD && tokens.tieneValor(i, "UPDATE")) {
                 break; // Otro UPDATE
             }
         }
 
         if (!tieneSet) {
-            errores.add(new AnalysisError(
-                    "UPDATE debe incluir SET",
-                    AnalysisError.ErrorType.SYNTACTIC,
-                    tokens.get(inicioUpdate).getLine(), tokens.get(inicioUpdate).getColumn()
-            ));
+            errores.reportar(ErrorCode.SQL_UPDATE_SIN_SET, tokens.linea(inicioUpdate), tokens.columna(inicioUpdate));
         }
     }
 
     /**
      * Valida query DELETE básica
      */
-    private void validarDeleteQuery(List<Token> tokens, int inicioDelete, List<AnalysisError> errores) {
+    private void validarDeleteQuery(TokenBuffer tokens, int inicioDelete, ErrorSink errores) {
         boolean tieneFrom = false;
         boolean tieneWhere = false;
 
         for (int i = inicioDelete + 1; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-            if ("KEYWORD".equals(token.getType())) {
-                if ("FROM".equals(token.getValue())) {
+            if (tokens.kind(i) == TokenKind.KEYWORD) {
+                if (tokens.tieneValor(i, "FROM")) {
                     tieneFrom = true;
-                } else if ("WHERE".equals(token.getValue())) {
+                } else if (tokens.tieneValor(i, "WHERE")) {
                     tieneWhere = true;
-                } else if ("DELETE".equals(token.getValue())) {
+                } else if (tokens.tieneValor(i, "DELETE")) {
                     break; // Otro DELETE
                 }
             }
         }
 
         if (!tieneFrom) {
-            errores.add(new AnalysisError(
-                    "DELETE debe incluir FROM",
-                    AnalysisError.ErrorType.SYNTACTIC,
-                    tokens.get(inicioDelete).getLine(), tokens.get(inicioDelete).getColumn()
-            ));
+            errores.reportar(ErrorCode.SQL_DELETE_SIN_FROM, tokens.linea(inicioDelete), tokens.columna(inicioDelete));
         }
 
         if (!tieneWhere) {
-            errores.add(new AnalysisError(
-                    "DELETE sin WHERE eliminará todos los registros - PELIGRO",
-                    AnalysisError.ErrorType.WARNING,
-                    tokens.get(inicioDelete).getLine(), tokens.get(inicioDelete).getColumn()
-            ));
+            errores.reportar(ErrorCode.SQL_DELETE_SIN_WHERE, tokens.linea(inicioDelete), tokens.columna(inicioDelete));
         }
     }
 
     /**
      * Valida delimitadores balanceados
      */
-    private void validarDelimitadoresSQL(List<Token> tokens, List<AnalysisError> errores) {
+    private void validarDelimitadoresSQL(TokenBuffer tokens, ErrorSink errores) {
         int contadorParentesis = 0;
 
-        for (Token token : tokens) {
-            if ("PAREN_IZQ".equals(token.getType())) {
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.kind(i) == TokenKind.PAREN_IZQ) {
                 contadorParentesis++;
-            } else if ("PAREN_DER".equals(token.getType())) {
+            } else if (tokens.kind(i) == TokenKind.PAREN_DER) {
                 contadorParentesis--;
                 if (contadorParentesis < 0) {
-                    errores.add(new AnalysisError(
-                            "Paréntesis de cierre sin apertura",
-                            AnalysisError.ErrorType.SYNTACTIC,
-                            token.getLine(), token.getColumn()
-                    ));
+                    errores.reportar(ErrorCode.SQL_PARENTESIS_SIN_APERTURA, tokens.linea(i), tokens.columna(i));
                 }
             }
         }
 
         if (contadorParentesis > 0) {
-            errores.add(new AnalysisError(
-                    contadorParentesis + " paréntesis sin cerrar",
-                    AnalysisError.ErrorType.SYNTACTIC,
-                    1, 0
-            ));
+            errores.reportar(ErrorCode.SQL_PARENTESIS_SIN_CERRAR, 1, 0, contadorParentesis);
         }
     }
 
     /**
-     * Clase auxiliar para resultados de tokenización SQL
+     * Cortes del script: inicio de cada tramo, su línea y el inicio de esa línea
      */
-    private static class ResultadoTokenSQL {
-        final boolean exito;
-        final Token token;
-        final int siguientePosicion;
+    private static final class Particion {
+        private int[] inicios = new int[16];
+        private int[] lineas = new int[16];
+        private int[] iniciosLinea = new int[16];
+        private int cantidad;
+
+        void agregar(int inicio, int linea, int inicioLinea) {
+            if (cantidad == inicios.length) {
+                inicios = Arrays.copyOf(inicios, cantidad * 2);
+                lineas = Arrays.copyOf(lineas, cantidad * 2);
+                iniciosLinea = Arrays.copyOf(iniciosLinea, cantidad * 2);
+            }
+            inicios[cantidad] = inicio;
+            lineas[cantidad] = linea;
+            iniciosLinea[cantidad] = inicioLinea;
+            cantidad++;
+        }
 
-        ResultadoTokenSQL(boolean exito, Token token, int siguientePosicion) {
-            this.exito = exito;
-            this.token = token;
-            this.siguientePosicion = siguientePosicion;
+        int fin(int tramo, int longitud) {
+            return tramo + 1 < cantidad ? inicios[tramo + 1] : longitud;
+        }
+    }
+
+    /**
+     * Tokens y errores de un tramo, con la posición, la línea y el inicio de
+     * línea en los que terminó su último token
+     */
+    private static final class Tramo {
+        final int inicio;
+        final int fin;
+        final int linea;
+        final int inicioLinea;
+        final TokenBuffer tokens;
+        final ErrorSink errores;
+
+        Tramo(int inicio, int fin, int linea, int inicioLinea, TokenBuffer tokens, ErrorSink errores) {
+            this.inicio = inicio;
+            this.fin = fin;
+            this.linea = linea;
+            this.inicioLinea = inicioLinea;
+            this.tokens = tokens;
+            this.errores = errores;
         }
     }
-}
 
+    /**
+     * Normalización del código SQL carácter a carácter: las letras pasan a
+     * mayúsculas salvo dentro de strings y comentarios --
+     */
+    private static final class NormalizadorSQL {
+        private boolean enString;
+        private boolean enComentario;
+        private boolean comillaPendiente;
+        private boolean guionPrevio;
+
+        /**
+         * Estado actual codificado en un entero
+         */
+        int estado() {
+            return (enString ? 1 : 0) | (enComentario ? 2 : 0) | (comillaPendiente ? 4 : 0) | (guionPrevio ? 8 : 0);
+        }
+
+        void restaurar(int estado) {
+            enString = (estado & 1) != 0;
+            enComentario = (estado & 2) != 0;
+            comillaPendiente = (estado & 4) != 0;
+            guionPrevio = (estado & 8) != 0;
+        }
+
+        char normalizar(char c) {
+            boolean conserva = conservaLetras();
+            consumir(c);
+            return conserva || !Character.isLetter(c) ? c : Character.toUpperCase(c);
+        }
+
+        /**
+         * Indica si el próximo carácter, en caso de ser una letra, queda igual
+         */
+        boolean conservaLetras() {
+            // Después de una comilla dentro del string, solo otra comilla sigue en el string
+            return (enString && !comillaPendiente) || enComentario;
+        }
+
+        /**
+         * Primera posición desde i cuyo carácter puede cambiar el estado; los
+         * anteriores no lo cambian
+         */
+        int saltarNeutros(CharSequence texto, int i, int hasta) {
+            if (comillaPendiente || guionPrevio) {
+                return i;
+            }
+            if (enString) {
+                while (i < hasta && texto.charAt(i) != '\'') {
+                    i++;
+                }
+            } else if (enComentario) {
+                while (i < hasta && texto.charAt(i) != '\n') {
+                    i++;
+                }
+            } else {
+                while (i < hasta) {
+                    char c = texto.charAt(i);
+                    if (c == '\'' || c == '-') {
+                        break;
+                    }
+                    i++;
+                }
+            }
+            return i;
+        }
+
+        /**
+         * Avanza el estado con el carácter c
+         */
+        void consumir(char c) {
+            if (comillaPendiente) {
+                comillaPendiente = false;
+                if (c == '\'') {
+                    return; // Escape '': sigue dentro del string
+                }
+                enString = false;
+            }
+            if (enString) {
+                comillaPendiente = c == '\'';
+                return;
+            }
+            if (enComentario) {
+                enComentario = c != '\n';
+                return;
+            }
+
+            if (c == '\'') {
+                enString = true;
+                guionPrevio = false;
+            } else if (c == '-') {
+                // El segundo guion de -- abre el comentario
+                enComentario = guionPrevio;
+                guionPrevio = !guionPrevio;
+            } else {
+                guionPrevio = false;
+            }
+        }
+    }
+
+    /**
+     * Código SQL normalizado sin copiar el original: cada letra minúscula se
+     * pasa a mayúsculas al leerla, salvo en los tramos que la normalización deja
+     * intactos. Esos tramos se registran carácter a carácter, en orden, con
+     * {@link #registrar}; solo se puede leer hasta donde se registró, salvo con
+     * {@link #enMayusculas}, que registra hasta la posición consultada.
+     * <p>
+     * Sobre un texto que se edita, {@link #editar} vuelve a registrar desde el
+     * inicio de la línea editada y aparta los tramos posteriores a la edición,
+     * ya desplazados; {@link #resincronizar} los recupera cuando la
+     * normalización vuelve al mismo estado que tenía antes.
+     */
+    private static final class VistaNormalizada implements CharSequence, SQLScanner.Mayusculas {
+        private final CharSequence original;
+        private final NormalizadorSQL normalizador = new NormalizadorSQL();
+        private int registrado;
+
+        // Tramos intactos [inicios[k], fines[k]), ordenados
+        private int[] inicios = new int[16];
+        private int[] fines = new int[16];
+        private int cantidad;
+        private int abierto = -1;
+
+        // Último tramo consultado; las lecturas suelen avanzar en orden
+        private int pista;
+
+        // Tramos posteriores a una edición, en posiciones del texto editado; el
+        // último queda abierto si lo estaba. Estado y registro del final del texto
+        private int[] iniciosApartados = new int[16];
+        private int[] finesApartados = new int[16];
+        private int apartados;
+        private boolean apartadoAbierto;
+        private int estadoFinal;
+        private int registradoFinal;
+
+        VistaNormalizada(CharSequence original) {
+            this.original = original;
+        }
+
+        /**
+         * Vuelve al inicio del texto, sin tramos registrados
+         */
+        void vaciar() {
+            normalizador.restaurar(0);
+            registrado = 0;
+            cantidad = 0;
+            abierto = -1;
+            pista = 0;
+            apartados = 0;
+        }
+
+        /**
+         * Prepara la vista para el texto en que [.., finEliminado) se reemplazó
+         * por un tramo delta caracteres más largo: se conservan los tramos hasta
+         * desde, se aparta el resto y el registro sigue en desde con el estado indicado
+         */
+        void editar(int desde, int finEliminado, int delta, int estado) {
+            estadoFinal = normalizador.estado();
+            registradoFinal = registrado + delta;
+
+            apartados = 0;
+            for (int k = 0; k < cantidad; k++) {
+                if (fines[k] > finEliminado) {
+                    apartar(inicios[k] + delta, fines[k] + delta);
+                }
+            }
+            apartadoAbierto = abierto >= 0;
+            if (apartadoAbierto) {
+                apartar(abierto + delta, Integer.MAX_VALUE);
+            }
+
+            normalizador.restaurar(estado);
+            boolean conserva = normalizador.conservaLetras();
+            int conservados = 0;
+            int cubre = -1;
+            while (conservados < cantidad && inicios[conservados] <= desde) {
+                if (fines[conservados] > desde) {
+                    cubre = inicios[conservados];
+                    break;
+                }
+                conservados++;
+            }
+            if (cubre < 0 && abierto >= 0 && abierto <= desde) {
+                cubre = abierto;
+            }
+            cantidad = conservados;
+            abierto = -1;
+            if (conserva) {
+                abierto = cubre >= 0 ? cubre : desde;
+            } else if (cubre >= 0 && cubre < desde) {
+                agregarTramo(cubre, desde);
+            }
+            registrado = desde;
+            pista = 0;
+        }
+
+        /**
+         * La normalización llegó a la posición con el mismo estado que tenía
+         * antes de la edición: desde ahí valen los tramos apartados
+         */
+        void resincronizar(int posicion) {
+            int k = 0;
+            while (k < apartados && finesApartados[k] <= posicion) {
+                k++;
+            }
+            for (; k < apartados; k++) {
+                int inicio = Math.max(iniciosApartados[k], posicion);
+                boolean ultimoAbierto = apartadoAbierto && k == apartados - 1;
+                if (abierto >= 0 && inicio == posicion) {
+                    // El tramo que sigue abierto continúa en el apartado
+                    inicio = abierto;
+                }
+                abierto = -1;
+                if (ultimoAbierto) {
+                    abierto = inicio;
+                } else {
+                    agregarTramo(inicio, finesApartados[k]);
+                }
+            }
+            apartados = 0;
+            registrado = registradoFinal;
+            normalizador.restaurar(estadoFinal);
+            pista = 0;
+        }
+
+        /**
+         * La normalización llegó al final del texto sin volver al estado anterior
+         */
+        void terminar() {
+            apartados = 0;
+        }
+
+        private void apartar(int inicio, int fin) {
+            if (apartados == iniciosApartados.length) {
+                iniciosApartados = Arrays.copyOf(iniciosApartados, apartados * 2);
+                finesApartados = Arrays.copyOf(finesApartados, apartados * 2);
+            }
+            iniciosApartados[apartados] = inicio;
+            finesApartados[apartados] = fin;
+            apartados++;
+        }
+
+        private void agregarTramo(int inicio, int fin) {
+            if (cantidad == inicios.length) {
+                inicios = Arrays.copyOf(inicios, cantidad * 2);
+                fines = Arrays.copyOf(fines, cantidad * 2);
+            }
+            inicios[cantidad] = inicio;
+            fines[cantidad] = fin;
+            cantidad++;
+        }
+
+        void registrar(int posicion, char c) {
+            if (posicion < registrado) {
+                return;
+            }
+            registrado = posicion + 1;
+            normalizador.consumir(c);
+
+            // El cambio de estado vale desde el carácter siguiente
+            boolean conserva = normalizador.conservaLetras();
+            if (conserva != abierto >= 0) {
+                if (conserva) {
+                    abierto = posicion + 1;
+                } else {
+                    agregarTramo(abierto, posicion + 1);
+                    abierto = -1;
+                }
+            }
+        }
+
+        /**
+         * Registra hasta la posición hasta, sin incluirla, saltando de una vez
+         * los caracteres que no cambian el estado de la normalización
+         */
+        void registrarHasta(int hasta) {
+            while (registrado < hasta) {
+                int siguiente = normalizador.saltarNeutros(original, registrado, hasta);
+                if (siguiente >= hasta) {
+                    registrado = hasta;
+                    break;
+                }
+                registrado = siguiente;
+                registrar(siguiente, original.charAt(siguiente));
+            }
+        }
+
+        @Override
+        public boolean enMayusculas(int posicion) {
+            registrarHasta(posicion + 1);
+            return !intacto(posicion);
+        }
+
+        @Override
+        public int length() {
+            return original.length();
+        }
+
+        @Override
+        public char charAt(int indice) {
+            char c = original.charAt(indice);
+            if (c < 128) {
+                return c >= 'a' && c <= 'z' && !intacto(indice) ? (char) (c - 32) : c;
+            }
+            return Character.isLetter(c) && !intacto(indice) ? Character.toUpperCase(c) : c;
+        }
+
+        private boolean intacto(int posicion) {
+            if (abierto >= 0 && posicion >= abierto) {
+                return true;
+            }
+            if (cantidad == 0 || posicion < inicios[0]) {
+                return false;
+            }
+
+            int k = pista;
+            if (k >= cantidad || inicios[k] > posicion || (k + 1 < cantidad && inicios[k + 1] <= posicion)) {
+                // Último tramo que empieza antes de la posición
+                int bajo = 0;
+                int alto = cantidad - 1;
+                while (bajo < alto) {
+                    int medio = (bajo + alto + 1) >>> 1;
+                    if (inicios[medio] <= posicion) {
+                        bajo = medio;
+                    } else {
+                        alto = medio - 1;
+                    }
+                }
+                k = bajo;
+                pista = k;
+            }
+            return posicion < fines[k];
+        }
+
+        @Override
+        public CharSequence subSequence(int desde, int hasta) {
+            char[] valor = new char[hasta - desde];
+            if (sinTramosIntactos(desde, hasta)) {
+                for (int i = 0; i < valor.length; i++) {
+                    char c = original.charAt(desde + i);
+                    valor[i] = c < 128 ? (c >= 'a' && c <= 'z' ? (char) (c - 32) : c)
+                            : Character.isLetter(c) ? Character.toUpperCase(c) : c;
+                }
+            } else {
+                for (int i = 0; i < valor.length; i++) {
+                    valor[i] = charAt(desde + i);
+                }
+            }
+            return new String(valor);
+        }
+
+        /**
+         * Indica si [desde, hasta) no se cruza con ningún tramo intacto
+         */
+        private boolean sinTramosIntactos(int desde, int hasta) {
+            if (desde >= hasta || intacto(desde)) {
+                return desde >= hasta;
+            }
+            // El tramo que sigue a desde, si lo hay, tiene que empezar en hasta o después
+            if (abierto >= 0 && abierto < hasta) {
+                return false;
+            }
+            int k = cantidad == 0 || desde < inicios[0] ? 0 : pista + 1;
+            return k >= cantidad || inicios[k] >= hasta;
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length()).toString();
+        }
+    }
+
+    /**
+     * Reader que normaliza el código SQL a medida que se lee
+     */
+    private static final class LectorNormalizado extends FilterReader {
+        private final NormalizadorSQL normalizador = new NormalizadorSQL();
+
+        LectorNormalizado(Reader lector) {
+            super(lector);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int c = super.read();
+            return c < 0 ? c : normalizador.normalizar((char) c);
+        }
+
+        @Override
+        public int read(char[] destino, int desplazamiento, int cantidad) throws IOException {
+            int leidos = super.read(destino, desplazamiento, cantidad);
+            for (int i = 0; i < leidos; i++) {
+                destino[desplazamiento + i] = normalizador.normalizar(destino[desplazamiento + i]);
+            }
+            return leidos;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.analyzer.service.LexicalAnalizer;
+
+import com.analyzer.util.CharScan;
+
+/**
+ * Autómata finito determinista para el léxico SQL.
+ * Avanza una sola vez sobre los caracteres guiado por la tabla de clases de
+ * carácter y la tabla de transiciones de {@link SQLTokenDfa}, generadas al
+ * compilar desde lexico/sql.tokens, reconociendo en cada posición el token
+ * más largo posible sin crear objetos intermedios.
+ */
+final class SQLScanner implements TokenScanner {
+
+    // Tipos de token reconocidos por el autómata
+    static final int SIN_TOKEN = SQLTokenDfa.SIN_TOKEN;
+    static final int COMENTARIO_BLOQUE = SQLTokenDfa.COMENTARIO_BLOQUE;
+    static final int COMENTARIO = SQLTokenDfa.COMENTARIO;
+    static final int STRING = SQLTokenDfa.STRING;
+    static final int STRING_SIN_TERMINAR = SQLTokenDfa.STRING_SIN_TERMINAR;
+    static final int NUMERO_ENTERO = SQLTokenDfa.NUMERO_ENTERO;
+    static final int NUMERO_DECIMAL = SQLTokenDfa.NUMERO_DECIMAL;
+    static final int OPERADOR = SQLTokenDfa.OPERADOR;
+    static final int IDENTIFICADOR = SQLTokenDfa.IDENTIFICADOR;
+    static final int PUNTUACION = SQLTokenDfa.PUNTUACION;
+    // Carácter que no inicia ningún token de la especificación
+    static final int CARACTER_INVALIDO = SQLTokenDfa.NUM_REGLAS;
+
+    private static final int CLASE_LETRA = SQLTokenDfa.clase('I');
+
+    // Cómo recorrer de una vez los caracteres con los que un estado vuelve a sí mismo
+    private static final int SALTO_NINGUNO = 0;
+    private static final int SALTO_IDENTIFICADOR = 1;
+    private static final int SALTO_DIGITOS = 2;
+    private static final int SALTO_BUSCAR = 3;
+
+    private static final byte[] SALTOS = new byte[SQLTokenDfa.NUM_ESTADOS];
+    // Para SALTO_BUSCAR, los únicos caracteres que sacan al estado de sí mismo
+    private static final char[][] PARADAS = new char[SQLTokenDfa.NUM_ESTADOS][];
+
+    static {
+        boolean[] clasesNoAscii = new boolean[SQLTokenDfa.NUM_CLASES];
+        for (int c = 128; c <= Character.MAX_VALUE; c++) {
+            clasesNoAscii[SQLTokenDfa.clase((char) c)] = true;
+        }
+        for (int estado = 0; estado < SQLTokenDfa.NUM_ESTADOS; estado++) {
+            clasificarSalto(estado, clasesNoAscii);
+        }
+    }
+
+    private static void clasificarSalto(int estado, boolean[] clasesNoAscii) {
+        StringBuilder paradas = new StringBuilder();
+        boolean identificador = true;
+        boolean digitos = true;
+        for (char c = 0; c < 128; c++) {
+            boolean cicla = SQLTokenDfa.siguiente(estado, SQLTokenDfa.clase(c)) == estado;
+            if (!cicla) {
+                paradas.append(c);
+                identificador &= !(Character.isLetterOrDigit(c) || c == '_');
+                digitos &= !(c >= '0' && c <= '9');
+            }
+        }
+        boolean ciclaNoAscii = SQLTokenDfa.siguiente(estado, CLASE_LETRA) == estado;
+        for (int clase = 0; clase < clasesNoAscii.length; clase++) {
+            ciclaNoAscii &= !clasesNoAscii[clase] || SQLTokenDfa.siguiente(estado, clase) == estado;
+        }
+
+        if (ciclaNoAscii && paradas.length() >= 1 && paradas.length() <= 3) {
+            SALTOS[estado] = SALTO_BUSCAR;
+            while (paradas.length() < 3) {
+                paradas.append(paradas.charAt(0));
+            }
+            PARADAS[estado] = paradas.toString().toCharArray();
+        } else if (identificador) {
+            SALTOS[estado] = SALTO_IDENTIFICADOR;
+        } else if (digitos) {
+            SALTOS[estado] = SALTO_DIGITOS;
+        } else {
+            SALTOS[estado] = SALTO_NINGUNO;
+        }
+    }
+
+    /**
+     * Indica si el carácter de una posición se lee pasado a mayúsculas
+     */
+    interface Mayusculas {
+        boolean enMayusculas(int posicion);
+    }
+
+    private CharSequence texto;
+    private Mayusculas mayusculas;
+    private int posicion;
+    private int limite;
+    private int inicioToken;
+    private int finToken;
+    private int tipoToken;
+
+    /**
+     * Prepara el autómata para recorrer texto[inicio, fin)
+     */
+    @Override
+    public void reiniciar(CharSequence texto, int inicio, int fin) {
+        this.texto = texto;
+        this.posicion = inicio;
+        this.limite = fin;
+        this.tipoToken = SIN_TOKEN;
+    }
+
+    /**
+     * Para recorrer el texto sin normalizar: 'ı' y 'ſ' en mayúsculas son las
+     * letras ASCII I y S, así que su clase depende de la normalización
+     */
+    void usarMayusculas(Mayusculas mayusculas) {
+        this.mayusculas = mayusculas;
+    }
+
+    @Override
+    public void soltar() {
+        reiniciar("", 0, 0);
+        mayusculas = null;
+    }
+
+    /**
+     * Avanza hasta el siguiente token, saltando espacios.
+     * @return false cuando se alcanza el final del rango
+     */
+    @Override
+    public boolean siguiente() {
+        posicion = CharScan.saltarEspacios(texto, posicion, limite);
+        if (posicion >= limite) {
+            return false;
+        }
+
+        int estado = SQLTokenDfa.ESTADO_INICIAL;
+        int i = posicion;
+        int ultimoTipo = SIN_TOKEN;
+        int ultimoFin = posicion;
+
+        while (i < limite) {
+            int destino = SQLTokenDfa.siguiente(estado, claseEn(i));
+            if (destino < 0) {
+                break;
+            }
+            estado = destino;
+            i = saltarTramo(estado, i + 1);
+            if (SQLTokenDfa.acepta(estado) != SIN_TOKEN) {
+                ultimoTipo = SQLTokenDfa.acepta(estado);
+                ultimoFin = i;
+            }
+        }
+
+        if (ultimoTipo == SIN_TOKEN && i == limite && SQLTokenDfa.aceptaAlFinal(estado) != SIN_TOKEN) {
+            // Un token que llega al final del texto sin cerrarse se reporta hasta
+            // el final de su línea para no arrastrar el resto del documento
+            ultimoTipo = SQLTokenDfa.aceptaAlFinal(estado);
+            ultimoFin = finDeLinea(posicion);
+        }
+
+        if (ultimoTipo == SIN_TOKEN) {
+            // Carácter que no inicia ningún token válido
+            ultimoTipo = CARACTER_INVALIDO;
+            ultimoFin = posicion + 1;
+        }
+
+        inicioToken = posicion;
+        finToken = ultimoFin;
+        tipoToken = ultimoTipo;
+        posicion = ultimoFin;
+        return true;
+    }
+
+    CharSequence texto() { return texto; }
+    @Override
+    public int inicioToken() { return inicioToken; }
+    @Override
+    public int finToken() { return finToken; }
+    int tipoToken() { return tipoToken; }
+
+    /**
+     * Fin del tramo que empieza en i con caracteres que dejan al autómata en el mismo estado
+     */
+    private int saltarTramo(int estado, int i) {
+        switch (SALTOS[estado]) {
+            case SALTO_IDENTIFICADOR:
+                return CharScan.finIdentificador(texto, i, limite);
+            case SALTO_DIGITOS:
+                return CharScan.finDigitos(texto, i, limite);
+            case SALTO_BUSCAR:
+                char[] paradas = PARADAS[estado];
+                return CharScan.buscar(texto, i, limite, paradas[0], paradas[1], paradas[2]);
+            default:
+                return i;
+        }
+    }
+
+    private int finDeLinea(int desde) {
+        return CharScan.buscar(texto, desde, limite, '\n');
+    }
+
+    private int claseEn(int i) {
+        char c = texto.charAt(i);
+        if ((c == '\u0131' || c == '\u017F') && mayusculas != null && mayusculas.enMayusculas(i)) {
+            return CLASE_LETRA;
+        }
+        return SQLTokenDfa.clase(c);
+    }
+}
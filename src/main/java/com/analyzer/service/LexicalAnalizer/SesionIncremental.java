@@ -0,0 +1,82 @@
+package com.analyzer.service.LexicalAnalizer;
+
+import com.analyzer.model.ErrorSink;
+import com.analyzer.model.TokenBuffer;
+
+/**
+ * Lo que necesita {@link IncrementalLexer} de un analizador: su escáner, el
+ * estado que se guarda al inicio de cada línea y cómo agregar cada token.
+ * El estado de línea debe ser inmutable y comparable con equals.
+ */
+interface SesionIncremental {
+
+    TokenScanner escaner();
+
+    /**
+     * Vuelve al estado del inicio del documento
+     */
+    void reiniciar();
+
+    Object estadoLinea();
+
+    void restaurarEstadoLinea(Object estado, int numeroLinea);
+
+    /**
+     * Agrega el token que acaba de reconocer el escáner; texto[inicioLinea, finLinea)
+     * es la línea en que empieza
+     */
+    void agregarToken(CharSequence texto, int numeroLinea, int inicioLinea, int finLinea,
+                      TokenBuffer tokens, ErrorSink errores);
+
+    /**
+     * Tokens que se agregan al llegar al final del texto
+     */
+    default void cerrar(CharSequence texto, int numeroLineas, TokenBuffer tokens) {
+    }
+
+    /**
+     * Validaciones que recorren todos los tokens del documento
+     */
+    void validarFinal(TokenBuffer tokens, ErrorSink errores);
+
+    /**
+     * Indica si los tokens se crean sobre una vista del texto transformada
+     * carácter a carácter, como la normalización de SQL
+     */
+    default boolean normaliza() { return false; }
+
+    /**
+     * Vista sobre la que se crean los tokens; se pide una sola vez, con el
+     * texto del editor, que la vista lee sin copiarlo
+     */
+    default CharSequence vista(CharSequence original) { return original; }
+
+    /**
+     * Avanza la normalización con el carácter de la posición indicada
+     */
+    default void normalizar(int posicion, char c) {
+    }
+
+    default int estadoNormalizacion() { return 0; }
+
+    /**
+     * Después de reemplazar el texto hasta finEliminado por uno delta
+     * caracteres más largo, la normalización sigue desde la posición desde,
+     * con el estado que tenía ahí
+     */
+    default void editarNormalizacion(int desde, int finEliminado, int delta, int estado) {
+    }
+
+    /**
+     * La normalización llegó a la posición con el mismo estado que antes de la
+     * edición; lo que sigue no cambia
+     */
+    default void resincronizarNormalizacion(int posicion) {
+    }
+
+    /**
+     * La normalización llegó al final del texto
+     */
+    default void terminarNormalizacion() {
+    }
+}
@@ -0,0 +1,220 @@
+package com.analyzer.service.LexicalAnalizer;
+
+import com.analyzer.model.ErrorCode;
+import com.analyzer.model.ErrorSink;
+import com.analyzer.model.Token;
+import com.analyzer.model.TokenBuffer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Ventana de tamaño fijo sobre un Reader, vista como CharSequence para que los
+ * escáneres la recorran igual que un texto completo. Cuando un token puede
+ * continuar en el texto que aún no se leyó, la ventana descarta lo ya
+ * procesado, lee más y el escáner retoma desde el último token entregado.
+ * La memoria queda acotada por el tamaño de la ventana y no por el de la entrada.
+ * <p>
+ * Un token más largo que la ventana, como un literal o un comentario enorme,
+ * agranda la ventana al doble las veces necesarias y se vuelve a reconocer
+ * desde su inicio, hasta {@link #MAXIMO_POR_DEFECTO} caracteres; la ventana
+ * vuelve a su tamaño cuando el token sale de ella. Así la memoria queda
+ * acotada por la ventana o por el token más largo, y los tokens y sus
+ * posiciones son los mismos que en el análisis del texto completo. Un token
+ * que ni así cabe se entrega con la parte que entró en la ventana máxima y se
+ * reporta {@link ErrorCode#TOKEN_DEMASIADO_LARGO}; el resto de ese token se
+ * recorre desde el corte como texto nuevo.
+ */
+final class StreamingWindow implements CharSequence {
+
+    static final int TAMANO_POR_DEFECTO = 64 * 1024;
+    static final int MAXIMO_POR_DEFECTO = 64 * 1024 * 1024;
+
+    // Caracteres que un escáner puede mirar más allá del último que leyó
+    private static final int MARGEN = 16;
+
+    /**
+     * Recibe el token que acaba de reconocer el escáner, con la línea en que
+     * empieza y la posición (relativa a la ventana) del inicio de esa línea,
+     * negativa si ese inicio ya salió de la ventana
+     */
+    interface Receptor {
+        void token(int numeroLinea, int inicioLinea);
+    }
+
+    private final Reader lector;
+    private final int tamano;
+    private final int maximo;
+    private char[] buffer;
+    private int llenos;
+    private boolean finEntrada;
+    private int maximoLeido;
+    private char ultimoCaracter;
+
+    // Seguimiento de líneas: saltos contados hasta 'contado'
+    private int numeroLinea = 1;
+    private int inicioLinea;
+    private int contado;
+
+    StreamingWindow(Reader lector) {
+        this(lector, TAMANO_POR_DEFECTO, MAXIMO_POR_DEFECTO);
+    }
+
+    /**
+     * @param tamano caracteres de la ventana
+     * @param maximo caracteres hasta los que crece la ventana para un token que no cabe en ella
+     */
+    StreamingWindow(Reader lector, int tamano, int maximo) {
+        this.lector = lector;
+        this.tamano = Math.max(tamano, 4 * MARGEN);
+        this.maximo = Math.max(maximo, this.tamano);
+        this.buffer = new char[this.tamano];
+    }
+
+    /**
+     * Recorre toda la entrada con el escáner. Los tokens que agrega el receptor
+     * al lote (creado sobre esta ventana) se entregan al consumidor como Token
+     * independientes antes de desplazar la ventana.
+     */
+    void recorrer(TokenScanner escaner, TokenBuffer lote, Receptor receptor, Consumer<Token> consumidor,
+                  ErrorSink errores) throws IOException {
+        llenar();
+        int reanudar = 0;
+
+        while (true) {
+            escaner.reiniciar(this, reanudar, llenos);
+            int desde = -1;
+
+            while (true) {
+                maximoLeido = -1;
+                if (!escaner.siguiente()) {
+                    break;
+                }
+                int inicio = escaner.inicioToken();
+                contarLineas(inicio);
+
+                if (!finEntrada && maximoLeido >= llenos - MARGEN) {
+                    // El token puede seguir en el texto que falta leer: conservar desde el
+                    // token anterior, o al menos desde el inicio de su línea
+                    desde = reanudar > 0 ? reanudar : Math.max(inicioLinea, 0);
+                    if (desde > 0 || llenos < buffer.length) {
+                        break;
+                    }
+                    if (buffer.length < maximo) {
+                        // La línea del token ocupa toda la ventana: se agranda y se vuelve a
+                        // reconocer, conservando el inicio de la línea para la indentación
+                        buffer = Arrays.copyOf(buffer, (int) Math.min(2L * buffer.length, maximo));
+                        break;
+                    }
+                    if (inicio > 0) {
+                        desde = inicio;
+                        break;
+                    }
+                    // Ni la ventana máxima alcanza: se entrega tal como quedó
+                    errores.reportar(ErrorCode.TOKEN_DEMASIADO_LARGO, numeroLinea, inicio - inicioLinea,
+                            Integer.toString(maximo));
+                    desde = -1;
+                }
+
+                receptor.token(numeroLinea, inicioLinea);
+                reanudar = escaner.finToken();
+                contarLineas(reanudar);
+            }
+
+            entregar(lote, consumidor);
+
+            if (desde < 0) {
+                // Solo quedan espacios en la ventana
+                contarLineas(llenos);
+                if (finEntrada) {
+                    return;
+                }
+                desde = inicioLinea >= reanudar ? inicioLinea : llenos;
+                if (desde == 0 && llenos == buffer.length) {
+                    desde = llenos;
+                }
+            }
+
+            desplazar(desde);
+            reanudar = Math.max(reanudar - desde, 0);
+            llenar();
+        }
+    }
+
+    /**
+     * Número de líneas leídas; una entrada que termina en salto de línea tiene una última línea vacía
+     */
+    int numeroLineas() { return numeroLinea; }
+
+    boolean terminaEnSalto() { return ultimoCaracter == '\n'; }
+
+    @Override
+    public int length() {
+        return llenos;
+    }
+
+    @Override
+    public char charAt(int indice) {
+        if (indice > maximoLeido) {
+            maximoLeido = indice;
+        }
+        return buffer[indice];
+    }
+
+    @Override
+    public CharSequence subSequence(int inicio, int fin) {
+        return new String(buffer, inicio, fin - inicio);
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, 0, llenos);
+    }
+
+    private void contarLineas(int hasta) {
+        for (int i = contado; i < hasta; i++) {
+            if (buffer[i] == '\n') {
+                numeroLinea++;
+                inicioLinea = i + 1;
+            }
+        }
+        if (hasta > contado) {
+            contado = hasta;
+        }
+    }
+
+    private void entregar(TokenBuffer lote, Consumer<Token> consumidor) {
+        for (int i = 0; i < lote.size(); i++) {
+            consumidor.accept(lote.tokenIndependiente(i));
+        }
+        lote.vaciar();
+    }
+
+    private void desplazar(int desde) {
+        if (buffer.length > tamano && llenos - desde <= tamano / 2) {
+            // El token largo ya salió: la ventana vuelve a su tamaño
+            char[] anterior = buffer;
+            buffer = new char[tamano];
+            System.arraycopy(anterior, desde, buffer, 0, llenos - desde);
+        } else {
+            System.arraycopy(buffer, desde, buffer, 0, llenos - desde);
+        }
+        llenos -= desde;
+        inicioLinea -= desde;
+        contado = Math.max(contado - desde, 0);
+    }
+
+    private void llenar() throws IOException {
+        while (llenos < buffer.length && !finEntrada) {
+            int leidos = lector.read(buffer, llenos, buffer.length - llenos);
+            if (leidos < 0) {
+                finEntrada = true;
+            } else if (leidos > 0) {
+                llenos += leidos;
+                ultimoCaracter = buffer[llenos - 1];
+            }
+        }
+    }
+}
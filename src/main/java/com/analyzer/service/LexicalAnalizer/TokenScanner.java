@@ -0,0 +1,30 @@
+package com.analyzer.service.LexicalAnalizer;
+
+/**
+ * Operaciones comunes de los escáneres de cada lenguaje, para que el recorrido
+ * por ventanas de {@link StreamingWindow} no dependa del lenguaje.
+ */
+interface TokenScanner {
+
+    /**
+     * Prepara el escáner para recorrer texto[inicio, fin)
+     */
+    void reiniciar(CharSequence texto, int inicio, int fin);
+
+    /**
+     * Avanza hasta el siguiente token, saltando espacios.
+     * @return false cuando se alcanza el final del rango
+     */
+    boolean siguiente();
+
+    int inicioToken();
+
+    int finToken();
+
+    /**
+     * Suelta el texto recorrido, para que un escáner que se reutiliza no lo retenga
+     */
+    default void soltar() {
+        reiniciar("", 0, 0);
+    }
+}
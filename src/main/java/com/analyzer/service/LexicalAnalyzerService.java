@@ -4,15 +4,25 @@ package com.analyzer.service;
 
 import com.analyzer.model.LanguageType;
 import com.analyzer.model.Token;
+import com.analyzer.model.TokenBuffer;
+import com.analyzer.model.AnalysisContext;
 import com.analyzer.model.AnalysisError;
+import com.analyzer.model.ErrorSink;
+import com.analyzer.model.InternPool;
+import com.analyzer.model.SniffResult;
 import com.analyzer.service.LexicalAnalizer.HTMLLexicalAnalyzer;
 import com.analyzer.service.LexicalAnalizer.PythonLexicalAnalyzer;
 import com.analyzer.service.LexicalAnalizer.SQLLexicalAnalyzer;
 import com.analyzer.service.interfaces.ILexicalAnalyzer;
 import com.analyzer.service.interfaces.ILanguageDetector;
 import com.analyzer.service.interfaces.ISyntacticAnalyzer;
+import com.analyzer.util.MappedTextFile;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * Servicio orquestador para análisis léxico.
@@ -26,13 +36,29 @@ public class LexicalAnalyzerService implements ILexicalAnalyzer {
 
     private final Map<LanguageType, ILexicalAnalyzer> analizadores;
     private final ILanguageDetector detector;
-    private List<AnalysisError> ultimosErrores = new ArrayList<>();
+    // Errores del último análisis de cada hilo, para que varios hilos compartan el servicio
+    private final ThreadLocal<List<AnalysisError>> ultimosErrores = ThreadLocal.withInitial(ErrorSink::new);
+
+    // Nombres compartidos por los análisis de este servicio sin contexto, incluidos los de archivos;
+    // los análisis con contexto usan la tabla del contexto
+    private final InternPool internado;
 
     public LexicalAnalyzerService(ILanguageDetector detector, Map<LanguageType, ILexicalAnalyzer> analizadores) {
+        this(detector, analizadores, new InternPool());
+    }
+
+    public LexicalAnalyzerService(ILanguageDetector detector, Map<LanguageType, ILexicalAnalyzer> analizadores,
+                                  InternPool internado) {
         this.detector = detector;
         this.analizadores = analizadores;
+        this.internado = internado;
+        for (ILexicalAnalyzer analizador : analizadores.values()) {
+            analizador.usarInternado(internado);
+        }
     }
 
+    public InternPool getInternado() { return internado; }
+
 
     /**
      * Analiza léxicamente la fuente y devuelve la lista de tokens.
@@ -40,7 +66,8 @@ public class LexicalAnalyzerService implements ILexicalAnalyzer {
      * @return lista de tokens encontrados
      */
     public List<Token> analyzeLexical(String fuente) {
-        ultimosErrores.clear();
+        List<AnalysisError> errores = new ErrorSink();
+        ultimosErrores.set(errores);
 
         if (fuente == null || fuente.trim().isEmpty()) {
             return new ArrayList<>();
@@ -53,46 +80,66 @@ public class LexicalAnalyzerService implements ILexicalAnalyzer {
         ILexicalAnalyzer analizador = analizadores.get(lenguaje);
         if (analizador == null) {
             // Lenguaje no soportado, usar analizador genérico
-            return analizarGenerico(fuente);
+            return analizarGenerico(fuente, internado).asList();
         }
 
         // Realizar análisis léxico
-        List<Token> tokens = analizador.analyzeLexical(fuente, ultimosErrores);
+        List<Token> tokens = analizador.analyzeLexical(fuente, errores);
 
         return tokens;
     }
 
     /**
-     * Obtiene los errores del último análisis realizado.
+     * Obtiene los errores del último análisis realizado en el hilo actual.
      * @return lista de errores léxicos encontrados
      */
     public List<AnalysisError> obtenerUltimosErrores() {
-        return new ArrayList<>(ultimosErrores);
+        return new ArrayList<>(ultimosErrores.get());
     }
 
     /**
      * Análisis genérico para lenguajes no soportados.
+     * Cada palabra es una región del texto fuente; la columna es su posición en la línea.
      */
-    private List<Token> analizarGenerico(String fuente) {
-        List<Token> tokens = new ArrayList<>();
-        String[] lineas = fuente.split("\n");
-
-        for (int numeroLinea = 0; numeroLinea < lineas.length; numeroLinea++) {
-            String linea = lineas[numeroLinea].trim();
-            if (!linea.isEmpty()) {
-                // Tokenización básica por palabras
-                String[] palabras = linea.split("\\s+");
-                for (int i = 0; i < palabras.length; i++) {
-                    if (!palabras[i].isEmpty()) {
-                        tokens.add(new Token(palabras[i], "GENERICO", numeroLinea + 1, i));
-                    }
-                }
+    private static TokenBuffer analizarGenerico(String fuente, InternPool internado) {
+        TokenBuffer tokens = new TokenBuffer(fuente);
+        tokens.usarInternado(internado);
+        int numeroLinea = 0;
+        int inicioLinea = 0;
+
+        while (inicioLinea < fuente.length()) {
+            int finLinea = fuente.indexOf('\n', inicioLinea);
+            if (finLinea < 0) {
+                finLinea = fuente.length();
+            }
+            numeroLinea++;
+
+            // Equivalente a trim() de la línea
+            int inicio = inicioLinea;
+            int fin = finLinea;
+            while (inicio < fin && fuente.charAt(inicio) <= ' ') inicio++;
+            while (fin > inicio && fuente.charAt(fin - 1) <= ' ') fin--;
+
+            // Tokenización básica por palabras, separadas como en split("\\s+")
+            int palabra = 0;
+            int posicion = inicio;
+            while (posicion < fin) {
+                int inicioPalabra = posicion;
+                while (posicion < fin && !esEspacioRegex(fuente.charAt(posicion))) posicion++;
+                tokens.agregar("GENERICO", inicioPalabra, posicion - inicioPalabra, numeroLinea, palabra++);
+                while (posicion < fin && esEspacioRegex(fuente.charAt(posicion))) posicion++;
             }
+
+            inicioLinea = finLinea + 1;
         }
 
         return tokens;
     }
 
+    private static boolean esEspacioRegex(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
     /**
      * Obtiene información sobre los analizadores disponibles.
      * @return conjunto de tipos de lenguaje soportados
@@ -103,23 +150,116 @@ public class LexicalAnalyzerService implements ILexicalAnalyzer {
 
     @Override
     public List<Token> analyze(String code, LanguageType language) {
-        ultimosErrores.clear();
+        ultimosErrores.set(new ErrorSink());
         ILexicalAnalyzer analizador = analizadores.get(language);
         if (analizador == null) {
-            return analizarGenerico(code);
+            return analizarGenerico(code, internado).asList();
         }
         return analizador.analyze(code, language);
     }
 
     @Override
     public List<Token> analyzeLexical(String fuente, List<AnalysisError> errores) {
-        ultimosErrores = errores;
+        ultimosErrores.set(errores);
         LanguageType lenguaje = detector.detectLanguage(fuente);
         ILexicalAnalyzer analizador = analizadores.get(lenguaje);
         if (analizador == null) {
-            return analizarGenerico(fuente);
+            return analizarGenerico(fuente, internado).asList();
         }
         return analizador.analyzeLexical(fuente, errores);
     }
 
+    @Override
+    public TokenBuffer analyzeLexicalBuffer(String fuente, List<AnalysisError> errores) {
+        ultimosErrores.set(errores);
+        LanguageType lenguaje = detector.detectLanguage(fuente);
+        ILexicalAnalyzer analizador = analizadores.get(lenguaje);
+        if (analizador == null) {
+            return analizarGenerico(fuente, internado);
+        }
+        return analizador.analyzeLexicalBuffer(fuente, errores);
+    }
+
+    /**
+     * Analiza con el lenguaje que ya se detectó para el contexto, sin volver a detectarlo
+     */
+    @Override
+    public TokenBuffer analyzeLexicalBuffer(AnalysisContext contexto, List<AnalysisError> errores) {
+        ultimosErrores.set(errores);
+        ILexicalAnalyzer analizador = analizadores.get(contexto.getLanguage());
+        if (analizador == null) {
+            return analizarGenerico(contexto.getSource().toString(), contexto.getInternPool());
+        }
+        return analizador.analyzeLexicalBuffer(contexto, errores);
+    }
+
+    /**
+     * Analiza la entrada a medida que se lee con el analizador del lenguaje
+     * indicado; sin leerla completa no se puede detectar el lenguaje.
+     */
+    public void analyzeLexicalStream(Reader fuente, LanguageType lenguaje, Consumer<Token> consumidor,
+                                     List<AnalysisError> errores) throws IOException {
+        ultimosErrores.set(errores);
+        ILexicalAnalyzer analizador = analizadores.get(lenguaje);
+        if (analizador == null) {
+            ILexicalAnalyzer.super.analyzeLexicalStream(fuente, consumidor, errores);
+            return;
+        }
+        analizador.analyzeLexicalStream(fuente, consumidor, errores);
+    }
+
+    /**
+     * Analiza un archivo mapeado en memoria. Si cada byte es un carácter, el
+     * analizador recorre la vista mapeada como un documento completo; si no, se
+     * decodifica por partes con el análisis por ventanas. En ambos casos los
+     * tokens se entregan con su valor copiado, antes de liberar el mapeo.
+     */
+    public void analyzeLexicalFile(Path ruta, LanguageType lenguaje, Consumer<Token> consumidor,
+                                   List<AnalysisError> errores) throws IOException {
+        try (MappedTextFile archivo = MappedTextFile.mapTextFile(ruta)) {
+            analizarArchivo(archivo, lenguaje, consumidor, errores);
+        }
+    }
+
+    /**
+     * Reconoce el lenguaje y la codificación de un archivo sobre sus bytes
+     * mapeados, sin decodificarlo; sirve para descartar o repartir archivos al
+     * recorrer un directorio sin crear un String de los que no interesan
+     */
+    public SniffResult sniffFile(Path ruta) throws IOException {
+        return detector.detect(MappedTextFile.mapBytes(ruta));
+    }
+
+    /**
+     * Analiza un archivo con el lenguaje y la codificación reconocidos en sus
+     * bytes; si el lenguaje no se reconoce, el archivo no se decodifica
+     * @return lo reconocido en los bytes del archivo
+     */
+    public SniffResult analyzeLexicalFile(Path ruta, Consumer<Token> consumidor,
+                                          List<AnalysisError> errores) throws IOException {
+        SniffResult reconocido = sniffFile(ruta);
+        if (reconocido.getLanguage() == LanguageType.UNKNOWN) {
+            ultimosErrores.set(errores);
+            return reconocido;
+        }
+        try (MappedTextFile archivo = MappedTextFile.mapTextFile(ruta, reconocido.getCharset(), reconocido.getBomLength())) {
+            analizarArchivo(archivo, reconocido.getLanguage(), consumidor, errores);
+        }
+        return reconocido;
+    }
+
+    private void analizarArchivo(MappedTextFile archivo, LanguageType lenguaje, Consumer<Token> consumidor,
+                                 List<AnalysisError> errores) throws IOException {
+        ILexicalAnalyzer analizador = analizadores.get(lenguaje);
+        if (analizador != null && archivo.tamano() <= Integer.MAX_VALUE && archivo.esUnBytePorCaracter()) {
+            ultimosErrores.set(errores);
+            TokenBuffer tokens = analizador.analyzeLexicalBuffer(archivo.comoTexto(), errores);
+            for (int i = 0; i < tokens.size(); i++) {
+                consumidor.accept(tokens.tokenIndependiente(i));
+            }
+            return;
+        }
+        analyzeLexicalStream(archivo.abrirLector(), lenguaje, consumidor, errores);
+    }
+
 }
@@ -8,13 +8,28 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
 
     private Map<String, Symbol> symbolTable;
 
+    // Tabla de nombres para los tokens que no traen la suya; si la traen, los
+    // nombres de los símbolos se comparten con los tokens del mismo análisis
+    private final InternPool internado;
+
     public SemanticAnalyzerService() {
+        this(new InternPool());
+    }
+
+    public SemanticAnalyzerService(InternPool internado) {
         this.symbolTable = new HashMap<>();
+        this.internado = internado;
     }
 
     @Override
     public List<AnalysisError> analyze(List<Token> tokens, LanguageType language,
                                        Map<String, Symbol> existingSymbolTable) {
+        return analyze(TokenBuffer.desdeTokens(tokens), language, existingSymbolTable);
+    }
+
+    @Override
+    public List<AnalysisError> analyze(TokenBuffer tokens, LanguageType language,
+                                       Map<String, Symbol> existingSymbolTable) {
         List<AnalysisError> errors = new ArrayList<>();
 
         if (existingSymbolTable != null) {
@@ -50,10 +65,24 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
         return new HashMap<>(symbolTable);
     }
 
+    /**
+     * Texto del token como instancia compartida; si ya está en la tabla no se crea
+     * ningún String, y las comparaciones con otros nombres iguales son por referencia
+     */
+    private String nombre(TokenBuffer tokens, int indice) {
+        int inicio = tokens.inicio(indice);
+        return internado(tokens).intern(tokens.getFuente(), inicio, inicio + tokens.longitud(indice));
+    }
+
+    private InternPool internado(TokenBuffer tokens) {
+        InternPool propio = tokens.getInternado();
+        return propio != null ? propio : internado;
+    }
+
     // ==============================================
     // ANÁLISIS SEMÁNTICO PARA PYTHON - MEJORADO
     // ==============================================
-    private List<AnalysisError> analyzePythonSemantics(List<Token> tokens) {
+    private List<AnalysisError> analyzePythonSemantics(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
 
         errors.addAll(checkPythonLogicalExpressions(tokens));
@@ -69,30 +98,28 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
         return errors;
     }
 
-    private List<AnalysisError> checkPythonLogicalExpressions(List<Token> tokens) {
+    private List<AnalysisError> checkPythonLogicalExpressions(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
 
         for (int i = 0; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-
             // Verificar uso de '=' en lugar de '==' en condiciones
-            if (token.getValue().equals("=") && isInConditionalContext(tokens, i)) {
+            if (tokens.tieneValor(i, "=") && isInConditionalContext(tokens, i)) {
                 errors.add(new AnalysisError(
                         "Posible error: uso de '=' (asignación) en lugar de '==' (comparación) en condición",
                         AnalysisError.ErrorType.SEMANTIC,
-                        token.getLine(), token.getColumn()
+                        tokens.linea(i), tokens.columna(i)
                 ));
             }
 
             // Verificar expresiones como "if x == True or False:"
-            if (token.getValue().equals("or") || token.getValue().equals("and")) {
+            if (tokens.tieneValor(i, "or") || tokens.tieneValor(i, "and")) {
                 if (i + 1 < tokens.size()) {
-                    Token nextToken = tokens.get(i + 1);
-                    if (nextToken.getValue().equals("True") || nextToken.getValue().equals("False")) {
+                    int nextIndex = i + 1;
+                    if (tokens.tieneValor(nextIndex, "True") || tokens.tieneValor(nextIndex, "False")) {
                         errors.add(new AnalysisError(
                                 "Expresión lógica ambigua. Considere usar paréntesis para clarificar: (x == True) or (y == False)",
                                 AnalysisError.ErrorType.SEMANTIC,
-                                token.getLine(), token.getColumn()
+                                tokens.linea(i), tokens.columna(i)
                         ));
                     }
                 }
@@ -102,51 +129,48 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
         return errors;
     }
 
-    private boolean isInConditionalContext(List<Token> tokens, int index) {
+    private boolean isInConditionalContext(TokenBuffer tokens, int index) {
         // Buscar hacia atrás por 'if', 'while', 'elif'
         for (int i = index - 1; i >= 0; i--) {
-            Token token = tokens.get(i);
-            if (token.getLine() != tokens.get(index).getLine()) break;
+            if (tokens.linea(i) != tokens.linea(index)) break;
 
-            if (token.getValue().equals("if") || token.getValue().equals("while") ||
-                    token.getValue().equals("elif")) {
+            if (tokens.tieneValor(i, "if") || tokens.tieneValor(i, "while") ||
+                    tokens.tieneValor(i, "elif")) {
                 return true;
             }
         }
         return false;
     }
 
-    private List<AnalysisError> checkPythonMathematicalExpressions(List<Token> tokens) {
+    private List<AnalysisError> checkPythonMathematicalExpressions(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
 
         for (int i = 0; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-
             // Verificar división por cero
-            if (token.getValue().equals("/")) {
+            if (tokens.tieneValor(i, "/")) {
                 if (i + 1 < tokens.size()) {
-                    Token nextToken = tokens.get(i + 1);
-                    if (nextToken.getValue().equals("0")) {
+                    int nextIndex = i + 1;
+                    if (tokens.tieneValor(nextIndex, "0")) {
                         errors.add(new AnalysisError(
                                 "División por cero detectada",
                                 AnalysisError.ErrorType.SEMANTIC,
-                                token.getLine(), token.getColumn()
+                                tokens.linea(i), tokens.columna(i)
                         ));
                     }
                 }
             }
 
             // Verificar mezcla de tipos (simulado - strings y números)
-            if (token.getValue().equals("+")) {
+            if (tokens.tieneValor(i, "+")) {
                 if (i > 0 && i + 1 < tokens.size()) {
-                    Token prevToken = tokens.get(i - 1);
-                    Token nextToken = tokens.get(i + 1);
+                    int prevIndex = i - 1;
+                    int nextIndex = i + 1;
 
-                    if (isStringLiteral(prevToken) && isNumericLiteral(nextToken)) {
+                    if (isStringLiteral(tokens, prevIndex) && isNumericLiteral(tokens, nextIndex)) {
                         errors.add(new AnalysisError(
                                 "Posible error: intento de sumar string con número",
                                 AnalysisError.ErrorType.SEMANTIC,
-                                token.getLine(), token.getColumn()
+                                tokens.linea(i), tokens.columna(i)
                         ));
                     }
                 }
@@ -156,38 +180,55 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
         return errors;
     }
 
-    private boolean isStringLiteral(Token token) {
-        return token.isOfType("STRING") ||
-                (token.getValue().startsWith("\"") && token.getValue().endsWith("\"")) ||
-                (token.getValue().startsWith("'") && token.getValue().endsWith("'"));
+    private boolean isStringLiteral(TokenBuffer tokens, int index) {
+        return tokens.kind(index) == TokenKind.STRING ||
+                (tokens.empiezaCon(index, "\"") && tokens.terminaCon(index, "\"")) ||
+                (tokens.empiezaCon(index, "'") && tokens.terminaCon(index, "'"));
+    }
+
+    private boolean isNumericLiteral(TokenBuffer tokens, int index) {
+        return tokens.kind(index) == TokenKind.NUMBER || esNumeroDecimal(tokens, index);
+    }
+
+    /**
+     * Equivale a valor.matches("\\d+(\\.\\d+)?") sin crear el String del token
+     */
+    private boolean esNumeroDecimal(TokenBuffer tokens, int index) {
+        int longitud = tokens.longitud(index);
+        int k = 0;
+        while (k < longitud && esDigitoAscii(tokens.caracter(index, k))) k++;
+        if (k == 0) return false;
+        if (k == longitud) return true;
+        if (tokens.caracter(index, k) != '.') return false;
+        int inicioFraccion = ++k;
+        while (k < longitud && esDigitoAscii(tokens.caracter(index, k))) k++;
+        return k > inicioFraccion && k == longitud;
     }
 
-    private boolean isNumericLiteral(Token token) {
-        return token.isOfType("NUMBER") || token.getValue().matches("\\d+(\\.\\d+)?");
+    private boolean esDigitoAscii(char c) {
+        return c >= '0' && c <= '9';
     }
 
 
     //verificamos que los nombres antes de "=" sean variables pero no nombres propios de python
 
-    private List<AnalysisError> checkPythonVariables2(List<Token> tokens) {
+    private List<AnalysisError> checkPythonVariables2(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
         Set<String> pythonBuiltins = Set.of("print", "len", "range", "str", "int", "float", "bool", "list", "dict",
                 "set", "tuple", "type", "isinstance", "hasattr", "getattr", "setattr",
                 "min", "max", "sum", "abs", "round", "input", "open", "enumerate", "zip");
 
         for (int i = 0; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-
             // Verificar asignaciones
-            if (token.isOfType("IDENTIFIER") && i + 1 < tokens.size() && tokens.get(i + 1).getValue().equals("=")) {
-                String varName = token.getValue();
+            if (tokens.kind(i) == TokenKind.IDENTIFIER && i + 1 < tokens.size() && tokens.tieneValor(i + 1, "=")) {
+                String varName = nombre(tokens, i);
 
                 // Verificar si es un nombre propio de Python
                 if (pythonBuiltins.contains(varName)) {
                     errors.add(new AnalysisError(
                             "Uso de nombre propio de Python como variable: '" + varName + "'",
                             AnalysisError.ErrorType.SEMANTIC,
-                            token.getLine(), token.getColumn()
+                            tokens.linea(i), tokens.columna(i)
                     ));
                 }
             }
@@ -201,7 +242,7 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
 
 
 
-    private List<AnalysisError> checkPythonVariables(List<Token> tokens) {
+    private List<AnalysisError> checkPythonVariables(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
         Map<String, Set<Integer>> variableScopes = new HashMap<>(); // Variable -> Set de scopes donde es válida
         Set<String> functionParameters = new HashSet<>();
@@ -211,20 +252,18 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
 
         // Primera pasada: registrar declaraciones y sus scopes
         for (int i = 0; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-
             // Incrementar scope al entrar en una nueva función o bloque
-            if (token.getValue().equals(":")) {
+            if (tokens.tieneValor(i, ":")) {
                 currentScope++;
                 continue;
             }
 
             // Detectar declaraciones globales
-            if (token.getValue().equals("global")) {
+            if (tokens.tieneValor(i, "global")) {
                 i++;
-                while (i < tokens.size() && !tokens.get(i).getValue().equals("\n")) {
-                    if (tokens.get(i).isOfType("IDENTIFIER")) {
-                        globalVariables.add(tokens.get(i).getValue());
+                while (i < tokens.size() && !tokens.tieneValor(i, "\n")) {
+                    if (tokens.kind(i) == TokenKind.IDENTIFIER) {
+                        globalVariables.add(nombre(tokens, i));
                     }
                     i++;
                 }
@@ -232,16 +271,16 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
             }
 
             // Registrar funciones y parámetros
-            if (token.isOfType("KEYWORD") && token.getValue().equals("def")) {
+            if (tokens.kind(i) == TokenKind.KEYWORD && tokens.tieneValor(i, "def")) {
                 if (i + 1 < tokens.size()) {
-                    Token funcNameToken = tokens.get(i + 1);
-                    functionNames.add(funcNameToken.getValue());
+                    int funcNameIndex = i + 1;
+                    functionNames.add(nombre(tokens, funcNameIndex));
 
                     // Registrar parámetros en el scope de la función
                     i += 2;
-                    while (i < tokens.size() && !tokens.get(i).getValue().equals(":")) {
-                        if (tokens.get(i).isOfType("IDENTIFIER")) {
-                            String paramName = tokens.get(i).getValue();
+                    while (i < tokens.size() && !tokens.tieneValor(i, ":")) {
+                        if (tokens.kind(i) == TokenKind.IDENTIFIER) {
+                            String paramName = nombre(tokens, i);
                             functionParameters.add(paramName);
                             addToScope(variableScopes, paramName, currentScope + 1);
                         }
@@ -252,19 +291,19 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
             }
 
             //registra varibles en for
-            if (token.isOfType("KEYWORD") && token.getValue().equals("for")) {
+            if (tokens.kind(i) == TokenKind.KEYWORD && tokens.tieneValor(i, "for")) {
                 // Asumimos que la variable del for es la siguiente
-                if (i + 1 < tokens.size() && tokens.get(i + 1).isOfType("IDENTIFIER")) {
-                    String loopVar = tokens.get(i + 1).getValue();
+                if (i + 1 < tokens.size() && tokens.kind(i + 1) == TokenKind.IDENTIFIER) {
+                    String loopVar = nombre(tokens, i + 1);
                     addToScope(variableScopes, loopVar, currentScope);
                 }
                 continue;
             }
 
             // Registrar asignaciones con su scope
-            if (token.isOfType("IDENTIFIER")) {
-                if (i + 1 < tokens.size() && tokens.get(i + 1).getValue().equals("=")) {
-                    String varName = token.getValue();
+            if (tokens.kind(i) == TokenKind.IDENTIFIER) {
+                if (i + 1 < tokens.size() && tokens.tieneValor(i + 1, "=")) {
+                    String varName = nombre(tokens, i);
                     if (globalVariables.contains(varName)) {
                         addToScope(variableScopes, varName, 0); // scope global
                     } else {
@@ -277,16 +316,14 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
         // Segunda pasada: verificar usos considerando scopes
         currentScope = 0;
         for (int i = 0; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-
-            if (token.getValue().equals(":")) {
+            if (tokens.tieneValor(i, ":")) {
                 currentScope++;
                 continue;
             }
 
 
-            if (token.isOfType("IDENTIFIER")) {
-                String name = token.getValue();
+            if (tokens.kind(i) == TokenKind.IDENTIFIER) {
+                String name = nombre(tokens, i);
 
                 // Verificar si la variable es válida en el scope actual
                 if (!isValidInCurrentScope(name, currentScope, variableScopes) &&
@@ -298,8 +335,8 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
                     errors.add(new AnalysisError(
                             "Variable '" + name + "' usada antes de ser declarada",
                             AnalysisError.ErrorType.SEMANTIC,
-                            token.getLine(),
-                            token.getColumn()
+                            tokens.linea(i),
+                            tokens.columna(i)
                     ));
                 }
             }
@@ -366,19 +403,19 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
 //        return errors;
 //    }
 
-    private String determineType(Token token) {
-        if (isStringLiteral(token)) return "string";
-        if (isNumericLiteral(token)) return "number";
-        if (token.getValue().equals("True") || token.getValue().equals("False")) return "boolean";
-        if (token.getValue().equals("None")) return "none";
+    private String determineType(TokenBuffer tokens, int index) {
+        if (isStringLiteral(tokens, index)) return "string";
+        if (isNumericLiteral(tokens, index)) return "number";
+        if (tokens.tieneValor(index, "True") || tokens.tieneValor(index, "False")) return "boolean";
+        if (tokens.tieneValor(index, "None")) return "none";
         return "unknown";
     }
 
-    private boolean isInAssignmentContext(List<Token> tokens, int index) {
+    private boolean isInAssignmentContext(TokenBuffer tokens, int index) {
         // Verificar si el token está del lado izquierdo de una asignación
         if (index + 1 < tokens.size()) {
-            Token nextToken = tokens.get(index + 1);
-            return nextToken.getValue().equals("=");
+            int nextIndex = index + 1;
+            return tokens.tieneValor(nextIndex, "=");
         }
         return false;
     }
@@ -392,31 +429,29 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
         return builtins.contains(name);
     }
 
-    private List<AnalysisError> checkPythonConstants(List<Token> tokens) {
+    private List<AnalysisError> checkPythonConstants(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
         Map<String, Integer> constantAssignments = new HashMap<>();
 
         for (int i = 0; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-
             // Verificar constantes (nombres en mayúsculas)
-            if (token.isOfType("IDENTIFIER") && token.getValue().matches("[A-Z_]+") &&
-                    i + 1 < tokens.size() && tokens.get(i + 1).getValue().equals("=")) {
+            if (tokens.kind(i) == TokenKind.IDENTIFIER && tokens.valor(i).matches("[A-Z_]+") &&
+                    i + 1 < tokens.size() && tokens.tieneValor(i + 1, "=")) {
 
-                String constName = token.getValue();
+                String constName = nombre(tokens, i);
                 constantAssignments.put(constName, constantAssignments.getOrDefault(constName, 0) + 1);
 
                 if (constantAssignments.get(constName) > 1) {
                     errors.add(new AnalysisError(
                             "Reasignación de constante '" + constName + "' (rompe convención)",
                             AnalysisError.ErrorType.SEMANTIC,
-                            token.getLine(), token.getColumn()
+                            tokens.linea(i), tokens.columna(i)
                     ));
                 }
 
                 // Agregar a tabla de símbolos
                 Symbol constant = new Symbol(constName, Symbol.SymbolType.CONSTANT, "unknown", "global");
-                constant.setDeclarationLine(token.getLine());
+                constant.setDeclarationLine(tokens.linea(i));
                 symbolTable.put(constName, constant);
             }
         }
@@ -424,27 +459,24 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
         return errors;
     }
 
-    private List<AnalysisError> checkPythonFunctions(List<Token> tokens) {
+    private List<AnalysisError> checkPythonFunctions(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
 
         for (int i = 0; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-
-            if (token.isOfType("KEYWORD") && token.getValue().equals("def")) {
+            if (tokens.kind(i) == TokenKind.KEYWORD && tokens.tieneValor(i, "def")) {
                 if (i + 1 < tokens.size()) {
-                    Token nameToken = tokens.get(i + 1);
-                    String funcName = nameToken.getValue();
+                    int nameIndex = i + 1;
+                    String funcName = nombre(tokens, nameIndex);
 
                     // Verificar función con error lógico común
                     if (funcName.equals("suma") || funcName.equals("sumar")) {
                         // Buscar return en la función
                         boolean hasSubtraction = false;
                         for (int j = i + 2; j < tokens.size(); j++) {
-                            Token t = tokens.get(j);
-                            if (t.getValue().equals("def")) break; // Nueva función
-                            if (t.getValue().equals("return") && j + 3 < tokens.size()) {
-                                Token op = tokens.get(j + 2);
-                                if (op.getValue().equals("-")) {
+                            if (tokens.tieneValor(j, "def")) break; // Nueva función
+                            if (tokens.tieneValor(j, "return") && j + 3 < tokens.size()) {
+                                int op = j + 2;
+                                if (tokens.tieneValor(op, "-")) {
                                     hasSubtraction = true;
                                     break;
                                 }
@@ -455,14 +487,14 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
                             errors.add(new AnalysisError(
                                     "Error lógico en función '" + funcName + "': hace resta en lugar de suma",
                                     AnalysisError.ErrorType.SEMANTIC,
-                                    nameToken.getLine(), nameToken.getColumn()
+                                    tokens.linea(nameIndex), tokens.columna(nameIndex)
                             ));
                         }
                     }
 
                     // Agregar función a tabla de símbolos
                     Symbol function = new Symbol(funcName, Symbol.SymbolType.FUNCTION, "function", "global");
-                    function.setDeclarationLine(nameToken.getLine());
+                    function.setDeclarationLine(tokens.linea(nameIndex));
                     symbolTable.put(funcName, function);
                 }
             }
@@ -471,29 +503,27 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
         return errors;
     }
 
-    private List<AnalysisError> checkPythonClasses(List<Token> tokens) {
+    private List<AnalysisError> checkPythonClasses(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
 
         for (int i = 0; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-
-            if (token.isOfType("KEYWORD") && token.getValue().equals("class")) {
+            if (tokens.kind(i) == TokenKind.KEYWORD && tokens.tieneValor(i, "class")) {
                 if (i + 1 < tokens.size()) {
-                    Token nameToken = tokens.get(i + 1);
-                    String className = nameToken.getValue();
+                    int nameIndex = i + 1;
+                    String className = nombre(tokens, nameIndex);
 
                     // Verificar método __init__ con errores comunes
                     if (hasInitMethodWithErrors(tokens, i, className)) {
                         errors.add(new AnalysisError(
                                 "Error en método __init__ de clase '" + className + "': asignación incorrecta de atributos",
                                 AnalysisError.ErrorType.SEMANTIC,
-                                nameToken.getLine(), nameToken.getColumn()
+                                tokens.linea(nameIndex), tokens.columna(nameIndex)
                         ));
                     }
 
                     // Agregar clase a tabla de símbolos
                     Symbol clazz = new Symbol(className, Symbol.SymbolType.CLASS, "class", "global");
-                    clazz.setDeclarationLine(nameToken.getLine());
+                    clazz.setDeclarationLine(tokens.linea(nameIndex));
                     symbolTable.put(className, clazz);
                 }
             }
@@ -502,25 +532,23 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
         return errors;
     }
 
-    private boolean hasInitMethodWithErrors(List<Token> tokens, int classIndex, String className) {
+    private boolean hasInitMethodWithErrors(TokenBuffer tokens, int classIndex, String className) {
         // Buscar método __init__ y verificar asignaciones incorrectas
         for (int i = classIndex; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-            if (token.getValue().equals("def") && i + 1 < tokens.size() &&
-                    tokens.get(i + 1).getValue().equals("__init__")) {
+            if (tokens.tieneValor(i, "def") && i + 1 < tokens.size() &&
+                    tokens.tieneValor(i + 1, "__init__")) {
 
                 // Verificar asignaciones como self.edad = nombre
                 for (int j = i + 2; j < tokens.size(); j++) {
-                    Token t = tokens.get(j);
-                    if (t.getValue().equals("def")) break; // Otro método
+                    if (tokens.tieneValor(j, "def")) break; // Otro método
 
-                    if (t.getValue().startsWith("self.") && j + 2 < tokens.size() &&
-                            tokens.get(j + 1).getValue().equals("=")) {
-                        Token assignedValue = tokens.get(j + 2);
-                        String attrName = t.getValue().substring(5); // Quitar "self."
+                    if (tokens.empiezaCon(j, "self.") && j + 2 < tokens.size() &&
+                            tokens.tieneValor(j + 1, "=")) {
+                        int assignedValue = j + 2;
+                        String attrName = tokens.valor(j).substring(5); // Quitar "self."
 
                         // Error común: self.edad = nombre
-                        if (attrName.equals("edad") && assignedValue.getValue().equals("nombre")) {
+                        if (attrName.equals("edad") && tokens.tieneValor(assignedValue, "nombre")) {
                             return true;
                         }
                     }
@@ -531,19 +559,17 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
         return false;
     }
 
-    private List<AnalysisError> checkPythonLoops(List<Token> tokens) {
+    private List<AnalysisError> checkPythonLoops(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
 
         for (int i = 0; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-
-            if (token.isOfType("KEYWORD") && token.getValue().equals("for")) {
+            if (tokens.kind(i) == TokenKind.KEYWORD && tokens.tieneValor(i, "for")) {
                 // Verificar rangos incorrectos: for i in range(10, 1)
                 if (hasIncorrectRange(tokens, i)) {
                     errors.add(new AnalysisError(
                             "Rango incorrecto en bucle for: el inicio es mayor que el final",
                             AnalysisError.ErrorType.SEMANTIC,
-                            token.getLine(), token.getColumn()
+                            tokens.linea(i), tokens.columna(i)
                     ));
                 }
             }
@@ -552,25 +578,24 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
         return errors;
     }
 
-    private boolean hasIncorrectRange(List<Token> tokens, int forIndex) {
+    private boolean hasIncorrectRange(TokenBuffer tokens, int forIndex) {
         // Buscar patrón: range(start, end) donde start > end
         for (int i = forIndex; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-            if (token.getLine() != tokens.get(forIndex).getLine()) break;
+            if (tokens.linea(i) != tokens.linea(forIndex)) break;
 
-            if (token.getValue().equals("range") && i + 5 < tokens.size()) {
-                Token openParen = tokens.get(i + 1);
-                Token start = tokens.get(i + 2);
-                Token comma = tokens.get(i + 3);
-                Token end = tokens.get(i + 4);
-                Token closeParen = tokens.get(i + 5);
+            if (tokens.tieneValor(i, "range") && i + 5 < tokens.size()) {
+                int openParen = i + 1;
+                int start = i + 2;
+                int comma = i + 3;
+                int end = i + 4;
+                int closeParen = i + 5;
 
-                if (openParen.getValue().equals("(") && comma.getValue().equals(",") &&
-                        closeParen.getValue().equals(")")) {
+                if (tokens.tieneValor(openParen, "(") && tokens.tieneValor(comma, ",") &&
+                        tokens.tieneValor(closeParen, ")")) {
 
                     try {
-                        int startNum = Integer.parseInt(start.getValue());
-                        int endNum = Integer.parseInt(end.getValue());
+                        int startNum = Integer.parseInt(tokens.valor(start));
+                        int endNum = Integer.parseInt(tokens.valor(end));
                         return startNum > endNum;
                     } catch (NumberFormatException e) {
                         // No son números, no podemos verificar
@@ -582,19 +607,17 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
         return false;
     }
 
-    private List<AnalysisError> checkPythonConditionals(List<Token> tokens) {
+    private List<AnalysisError> checkPythonConditionals(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
 
         for (int i = 0; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-
-            if (token.isOfType("KEYWORD") && token.getValue().equals("if")) {
+            if (tokens.kind(i) == TokenKind.KEYWORD && tokens.tieneValor(i, "if")) {
                 // Verificar condiciones que pueden no cubrir todos los casos
                 if (hasIncompleteCondition(tokens, i)) {
                     errors.add(new AnalysisError(
                             "Condición posiblemente incompleta: puede no cubrir todos los casos esperados",
                             AnalysisError.ErrorType.SEMANTIC,
-                            token.getLine(), token.getColumn()
+                            tokens.linea(i), tokens.columna(i)
                     ));
                 }
             }
@@ -603,14 +626,13 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
         return errors;
     }
 
-    private boolean hasIncompleteCondition(List<Token> tokens, int ifIndex) {
+    private boolean hasIncompleteCondition(TokenBuffer tokens, int ifIndex) {
         // Buscar patrón: if x > 10 or x < 5 (gap entre 5 y 10)
         for (int i = ifIndex; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-            if (token.getLine() != tokens.get(ifIndex).getLine()) break;
+            if (tokens.linea(i) != tokens.linea(ifIndex)) break;
 
             // Simplificado: buscar patrón común de condiciones con gaps
-            if (token.getValue().equals("or") && i + 4 < tokens.size()) {
+            if (tokens.tieneValor(i, "or") && i + 4 < tokens.size()) {
                 // Esta es una verificación muy simplificada
                 return true; // Para el ejemplo, marcamos todas las condiciones con 'or' como posiblemente incompletas
             }
@@ -621,7 +643,7 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
     // ==============================================
     // ANÁLISIS SEMÁNTICO PARA SQL - MEJORADO
     // ==============================================
-    private List<AnalysisError> analyzePlsqlSemantics(List<Token> tokens) {
+    private List<AnalysisError> analyzePlsqlSemantics(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
 
         errors.addAll(checkSqlFunctionUsage(tokens));
@@ -632,26 +654,24 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
         return errors;
     }
 
-    private List<AnalysisError> checkSqlFunctionUsage(List<Token> tokens) {
+    private List<AnalysisError> checkSqlFunctionUsage(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
 
         for (int i = 0; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-
             // Verificar funciones agregadas usadas incorrectamente
-            if (token.getValue().toUpperCase().equals("AVG") ||
-                    token.getValue().toUpperCase().equals("SUM")) {
+            if (tokens.tieneValorMayusculas(i, "AVG") ||
+                    tokens.tieneValorMayusculas(i, "SUM")) {
 
                 // Verificar que no se use en columnas de texto
-                if (i + 2 < tokens.size() && tokens.get(i + 1).getValue().equals("(")) {
-                    Token columnToken = tokens.get(i + 2);
-                    String columnName = columnToken.getValue();
+                if (i + 2 < tokens.size() && tokens.tieneValor(i + 1, "(")) {
+                    int columnIndex = i + 2;
+                    String columnName = tokens.valor(columnIndex);
 
                     if (isTextColumn(columnName)) {
                         errors.add(new AnalysisError(
-                                "Función " + token.getValue() + " no puede usarse en columna de texto: " + columnName,
+                                "Función " + tokens.valor(i) + " no puede usarse en columna de texto: " + columnName,
                                 AnalysisError.ErrorType.SEMANTIC,
-                                token.getLine(), token.getColumn()
+                                tokens.linea(i), tokens.columna(i)
                         ));
                     }
                 }
@@ -667,22 +687,20 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
         return textColumns.contains(columnName.toLowerCase());
     }
 
-    private List<AnalysisError> checkSqlColumnReferences(List<Token> tokens) {
+    private List<AnalysisError> checkSqlColumnReferences(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
         Set<String> availableColumns = new HashSet<>();
 
         // Simular columnas disponibles basándose en CREATE TABLE
         for (int i = 0; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-
-            if (token.getValue().toUpperCase().equals("CREATE") &&
+            if (tokens.tieneValorMayusculas(i, "CREATE") &&
                     i + 2 < tokens.size() &&
-                    tokens.get(i + 1).getValue().toUpperCase().equals("TABLE")) {
+                    tokens.tieneValorMayusculas(i + 1, "TABLE")) {
 
                 // Agregar tabla a símbolos
-                String tableName = tokens.get(i + 2).getValue();
+                String tableName = nombre(tokens, i + 2);
                 Symbol table = new Symbol(tableName, Symbol.SymbolType.TABLE, "table", "database");
-                table.setDeclarationLine(token.getLine());
+                table.setDeclarationLine(tokens.linea(i));
                 symbolTable.put(tableName, table);
 
                 // Simular algunas columnas comunes
@@ -692,21 +710,18 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
 
         // Verificar referencias a columnas en SELECT
         for (int i = 0; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-
-            if (token.getValue().toUpperCase().equals("SELECT")) {
+            if (tokens.tieneValorMayusculas(i, "SELECT")) {
                 for (int j = i + 1; j < tokens.size(); j++) {
-                    Token nextToken = tokens.get(j);
-                    if (nextToken.getValue().toUpperCase().equals("FROM")) break;
+                    if (tokens.tieneValorMayusculas(j, "FROM")) break;
 
-                    if (nextToken.isOfType("IDENTIFIER") &&
-                            !nextToken.getValue().equals("*") &&
-                            !availableColumns.contains(nextToken.getValue().toLowerCase())) {
+                    if (tokens.kind(j) == TokenKind.IDENTIFIER &&
+                            !tokens.tieneValor(j, "*") &&
+                            !availableColumns.contains(tokens.valor(j).toLowerCase())) {
 
                         errors.add(new AnalysisError(
-                                "Referencia a columna posiblemente inexistente: " + nextToken.getValue(),
+                                "Referencia a columna posiblemente inexistente: " + tokens.valor(j),
                                 AnalysisError.ErrorType.SEMANTIC,
-                                nextToken.getLine(), nextToken.getColumn()
+                                tokens.linea(j), tokens.columna(j)
                         ));
                     }
                 }
@@ -716,32 +731,29 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
         return errors;
     }
 
-    private List<AnalysisError> checkSqlIntegrityConstraints(List<Token> tokens) {
+    private List<AnalysisError> checkSqlIntegrityConstraints(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
 
         for (int i = 0; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-
             // Verificar UPDATE que podría violar restricciones
-            if (token.getValue().toUpperCase().equals("UPDATE")) {
+            if (tokens.tieneValorMayusculas(i, "UPDATE")) {
                 // Buscar SET id = NULL (si id es clave primaria)
                 for (int j = i + 1; j < tokens.size(); j++) {
-                    Token setToken = tokens.get(j);
-                    if (setToken.getValue().toUpperCase().equals("SET")) {
+                    if (tokens.tieneValorMayusculas(j, "SET")) {
                         if (j + 4 < tokens.size()) {
-                            Token columnToken = tokens.get(j + 1);
-                            Token equalsToken = tokens.get(j + 2);
-                            Token valueToken = tokens.get(j + 3);
+                            int columnIndex = j + 1;
+                            int equalsIndex = j + 2;
+                            int valueIndex = j + 3;
 
-                            if (equalsToken.getValue().equals("=") &&
-                                    valueToken.getValue().toUpperCase().equals("NULL") &&
-                                    isPrimaryKeyColumn(columnToken.getValue())) {
+                            if (tokens.tieneValor(equalsIndex, "=") &&
+                                    tokens.tieneValorMayusculas(valueIndex, "NULL") &&
+                                    isPrimaryKeyColumn(tokens.valor(columnIndex))) {
 
                                 errors.add(new AnalysisError(
                                         "Violación de restricción: intento de asignar NULL a clave primaria '" +
-                                                columnToken.getValue() + "'",
+                                                tokens.valor(columnIndex) + "'",
                                         AnalysisError.ErrorType.SEMANTIC,
-                                        columnToken.getLine(), columnToken.getColumn()
+                                        tokens.linea(columnIndex), tokens.columna(columnIndex)
                                 ));
                             }
                         }
@@ -760,48 +772,46 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
                 columnName.toLowerCase().endsWith("_id");
     }
 
-    private List<AnalysisError> checkSqlCrudOperations(List<Token> tokens) {
+    private List<AnalysisError> checkSqlCrudOperations(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
 
         for (int i = 0; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-
             // Verificar INSERT sin VALUES
-            if (token.getValue().toUpperCase().equals("INSERT")) {
+            if (tokens.tieneValorMayusculas(i, "INSERT")) {
                 boolean hasValues = false;
                 for (int j = i + 1; j < tokens.size(); j++) {
-                    if (tokens.get(j).getValue().toUpperCase().equals("VALUES")) {
+                    if (tokens.tieneValorMayusculas(j, "VALUES")) {
                         hasValues = true;
                         break;
                     }
-                    if (tokens.get(j).getValue().toUpperCase().equals("INSERT")) break;
+                    if (tokens.tieneValorMayusculas(j, "INSERT")) break;
                 }
 
                 if (!hasValues) {
                     errors.add(new AnalysisError(
                             "INSERT sin cláusula VALUES",
                             AnalysisError.ErrorType.SEMANTIC,
-                            token.getLine(), token.getColumn()
+                            tokens.linea(i), tokens.columna(i)
                     ));
                 }
             }
 
             // Verificar DELETE sin WHERE (peligroso)
-            if (token.getValue().toUpperCase().equals("DELETE")) {
+            if (tokens.tieneValorMayusculas(i, "DELETE")) {
                 boolean hasWhere = false;
                 for (int j = i + 1; j < tokens.size(); j++) {
-                    if (tokens.get(j).getValue().toUpperCase().equals("WHERE")) {
+                    if (tokens.tieneValorMayusculas(j, "WHERE")) {
                         hasWhere = true;
                         break;
                     }
-                    if (tokens.get(j).getValue().toUpperCase().equals("DELETE")) break;
+                    if (tokens.tieneValorMayusculas(j, "DELETE")) break;
                 }
 
                 if (!hasWhere) {
                     errors.add(new AnalysisError(
                             "DELETE sin cláusula WHERE: esto eliminará todos los registros",
                             AnalysisError.ErrorType.SEMANTIC,
-                            token.getLine(), token.getColumn()
+                            tokens.linea(i), tokens.columna(i)
                     ));
                 }
             }
@@ -813,7 +823,7 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
     // ==============================================
     // ANÁLISIS SEMÁNTICO PARA HTML - MEJORADO
     // ==============================================
-    private List<AnalysisError> analyzeHtmlSemantics(List<Token> tokens) {
+    private List<AnalysisError> analyzeHtmlSemantics(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
 
         errors.addAll(checkHtmlSemanticUsage(tokens));
@@ -823,36 +833,36 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
         return errors;
     }
 
-    private List<AnalysisError> checkHtmlSemanticUsage(List<Token> tokens) {
+    private List<AnalysisError> checkHtmlSemanticUsage(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
 
-        for (Token token : tokens) {
-            if (token.isOfType("TAG")) {
-                String tagValue = token.getValue();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.kind(i) == TokenKind.TAG) {
+                String tagValue = tokens.valor(i);
 
                 // Verificar uso semánticamente incorrecto de etiquetas
-                if (tagValue.contains("<div") && isUsedAsHeading(token)) {
+                if (tagValue.contains("<div") && isUsedAsHeading(tagValue)) {
                     errors.add(new AnalysisError(
                             "Uso semánticamente incorrecto: use <h1>-<h6> para encabezados en lugar de <div>",
                             AnalysisError.ErrorType.SEMANTIC,
-                            token.getLine(), token.getColumn()
+                            tokens.linea(i), tokens.columna(i)
                     ));
                 }
 
-                if (tagValue.contains("<span") && isUsedAsTitle(token)) {
+                if (tagValue.contains("<span") && isUsedAsTitle(tagValue)) {
                     errors.add(new AnalysisError(
                             "Uso semánticamente incorrecto: use <h1>-<h6> para títulos en lugar de <span>",
                             AnalysisError.ErrorType.SEMANTIC,
-                            token.getLine(), token.getColumn()
+                            tokens.linea(i), tokens.columna(i)
                     ));
                 }
 
                 // Agregar elementos a tabla de símbolos
-                String tagName = extractTagName(tagValue);
+                String tagName = internado(tokens).intern(extractTagName(tagValue));
                 if (!tagName.isEmpty()) {
                     Symbol tag = new Symbol(tagName, Symbol.SymbolType.TAG, "html", "document");
-                    tag.setDeclarationLine(token.getLine());
-                    symbolTable.put(tagName + "_" + token.getLine(), tag);
+                    tag.setDeclarationLine(tokens.linea(i));
+                    symbolTable.put(tagName + "_" + tokens.linea(i), tag);
                 }
             }
         }
@@ -860,24 +870,24 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
         return errors;
     }
 
-    private boolean isUsedAsHeading(Token divToken) {
+    private boolean isUsedAsHeading(String divTag) {
         // Heurística: si el div contiene palabras como "title", "encabezado", etc.
-        String tagValue = divToken.getValue().toLowerCase();
+        String tagValue = divTag.toLowerCase();
         return tagValue.contains("title") || tagValue.contains("encabezado") ||
                 tagValue.contains("heading");
     }
 
-    private boolean isUsedAsTitle(Token spanToken) {
-        String tagValue = spanToken.getValue().toLowerCase();
+    private boolean isUsedAsTitle(String spanTag) {
+        String tagValue = spanTag.toLowerCase();
         return tagValue.contains("title") || tagValue.contains("titulo");
     }
 
-    private List<AnalysisError> checkHtmlStructuralElements(List<Token> tokens) {
+    private List<AnalysisError> checkHtmlStructuralElements(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
 
-        for (Token token : tokens) {
-            if (token.isOfType("TAG")) {
-                String tagValue = token.getValue();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.kind(i) == TokenKind.TAG) {
+                String tagValue = tokens.valor(i);
 
                 // Verificar elementos estructurales sin significado
                 if (tagValue.contains("<div") && !hasSemanticMeaning(tagValue)) {
@@ -885,7 +895,7 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
                             "Elemento <div> sin significado semántico claro. " +
                                     "Considere usar <section>, <article>, <nav>, <aside>, etc.",
                             AnalysisError.ErrorType.SEMANTIC,
-                            token.getLine(), token.getColumn()
+                            tokens.linea(i), tokens.columna(i)
                     ));
                 }
             }
@@ -900,19 +910,17 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
                 tagValue.contains("id=");
     }
 
-    private List<AnalysisError> checkHtmlSemanticNesting(List<Token> tokens) {
+    private List<AnalysisError> checkHtmlSemanticNesting(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
 
         for (int i = 0; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-
-            if (token.isOfType("TAG") && token.getValue().contains("<a")) {
+            if (tokens.kind(i) == TokenKind.TAG && tokens.valor(i).contains("<a")) {
                 // Verificar anidación semánticamente incorrecta: <a><div>...</div></a>
                 if (hasBlockElementInside(tokens, i)) {
                     errors.add(new AnalysisError(
                             "Anidación semánticamente incorrecta: elementos de bloque dentro de <a>",
                             AnalysisError.ErrorType.SEMANTIC,
-                            token.getLine(), token.getColumn()
+                            tokens.linea(i), tokens.columna(i)
                     ));
                 }
             }
@@ -921,17 +929,15 @@ public class SemanticAnalyzerService implements ISemanticAnalyzer {
         return errors;
     }
 
-    private boolean hasBlockElementInside(List<Token> tokens, int aTagIndex) {
-        Token aTag = tokens.get(aTagIndex);
+    private boolean hasBlockElementInside(TokenBuffer tokens, int aTagIndex) {
         Set<String> blockElements = Set.of("div", "p", "h1", "h2", "h3", "h4", "h5", "h6");
 
         // Buscar elementos de bloque después del tag <a> y antes del </a>
         for (int i = aTagIndex + 1; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-            if (token.getValue().equals("</a>")) break;
+            if (tokens.tieneValor(i, "</a>")) break;
 
-            if (token.isOfType("TAG")) {
-                String tagName = extractTagName(token.getValue());
+            if (tokens.kind(i) == TokenKind.TAG) {
+                String tagName = extractTagName(tokens.valor(i));
                 if (blockElements.contains(tagName.toLowerCase())) {
                     return true;
                 }
@@ -101,6 +101,11 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
 
     @Override
     public List<AnalysisError> analyze(List<Token> tokens, LanguageType language) {
+        return analyze(TokenBuffer.desdeTokens(tokens), language);
+    }
+
+    @Override
+    public List<AnalysisError> analyze(TokenBuffer tokens, LanguageType language) {
         List<AnalysisError> errors = new ArrayList<>();
 
         switch (language) {
@@ -124,7 +129,7 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
     // ==============================================
     // ANÁLISIS SINTÁCTICO PARA PYTHON - MEJORADO
     // ==============================================
-    private List<AnalysisError> analyzePythonSyntax(List<Token> tokens) {
+    private List<AnalysisError> analyzePythonSyntax(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
 
         // Verificar indentación
@@ -148,25 +153,25 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
         return errors;
     }
 
-    private List<AnalysisError> checkPythonIndentation(List<Token> tokens) {
+    private List<AnalysisError> checkPythonIndentation(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
         Map<Integer, Integer> lineIndentations = new HashMap<>();
         Stack<Integer> indentationStack = new Stack<>();
         indentationStack.push(0); // Nivel base
 
         // Calcular indentación por línea
-        for (Token token : tokens) {
-            if (!lineIndentations.containsKey(token.getLine())) {
+        for (int i = 0; i < tokens.size(); i++) {
+            if (!lineIndentations.containsKey(tokens.linea(i))) {
                 // Calcular espacios al inicio de la línea (simulado)
-                int indentation = token.getColumn();
-                lineIndentations.put(token.getLine(), indentation);
+                int indentation = tokens.columna(i);
+                lineIndentations.put(tokens.linea(i), indentation);
             }
         }
 
         // Verificar consistencia de indentación
-        for (Token token : tokens) {
-            if (token.isOfType("KEYWORD")) {
-                String keyword = token.getValue();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.kind(i) == TokenKind.KEYWORD) {
+                String keyword = tokens.valor(i);
 
                 if (keyword.equals("def") || keyword.equals("class") ||
                         keyword.equals("if") || keyword.equals("for") ||
@@ -174,29 +179,29 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
                         keyword.equals("except") || keyword.equals("with")) {
 
                     // Verificar que termine con ':'
-                    if (!hasColonInSameLine(tokens, token)) {
+                    if (!hasColonInSameLine(tokens, i)) {
                         errors.add(new AnalysisError(
                                 "Se esperaba ':' después de '" + keyword + "'",
                                 AnalysisError.ErrorType.SYNTACTIC,
-                                token.getLine(), token.getColumn()
+                                tokens.linea(i), tokens.columna(i)
                         ));
                     }
 
                     // El siguiente bloque debe estar indentado
-                    int currentIndent = lineIndentations.getOrDefault(token.getLine(), 0);
+                    int currentIndent = lineIndentations.getOrDefault(tokens.linea(i), 0);
                     indentationStack.push(currentIndent + 4); // Asumir 4 espacios
                 }
                 else if (keyword.equals("else") || keyword.equals("elif") ||
                         keyword.equals("except") || keyword.equals("finally")) {
 
-                    int currentIndent = lineIndentations.getOrDefault(token.getLine(), 0);
+                    int currentIndent = lineIndentations.getOrDefault(tokens.linea(i), 0);
                     if (!indentationStack.isEmpty()) {
                         int expectedIndent = indentationStack.peek() - 4;
                         if (currentIndent != expectedIndent) {
                             errors.add(new AnalysisError(
                                     "Indentación incorrecta para '" + keyword + "'",
                                     AnalysisError.ErrorType.SYNTACTIC,
-                                    token.getLine(), token.getColumn()
+                                    tokens.linea(i), tokens.columna(i)
                             ));
                         }
                     }
@@ -207,31 +212,29 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
         return errors;
     }
 
-    private boolean hasColonInSameLine(List<Token> tokens, Token referenceToken) {
-        for (Token token : tokens) {
-            if (token.getLine() == referenceToken.getLine() &&
-                    token.getValue().contains(":")) {
+    private boolean hasColonInSameLine(TokenBuffer tokens, int referenceIndex) {
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.linea(i) == tokens.linea(referenceIndex) &&
+                    tokens.contiene(i, ":")) {
                 return true;
             }
         }
         return false;
     }
 
-    private List<AnalysisError> checkPythonControlStructures(List<Token> tokens) {
+    private List<AnalysisError> checkPythonControlStructures(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
 
         for (int i = 0; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-
-            if (token.isOfType("KEYWORD")) {
-                switch (token.getValue()) {
+            if (tokens.kind(i) == TokenKind.KEYWORD) {
+                switch (tokens.valor(i)) {
                     case "if":
                         // Verificar que no use '=>' en lugar de '=='
-                        if (hasTokenInSameLine(tokens, token, "=>")) {
+                        if (hasTokenInSameLine(tokens, i, "=>")) {
                             errors.add(new AnalysisError(
                                     "Operador incorrecto. Use '==' para comparación, no '=>'",
                                     AnalysisError.ErrorType.SYNTACTIC,
-                                    token.getLine(), token.getColumn()
+                                    tokens.linea(i), tokens.columna(i)
                             ));
                         }
 
@@ -240,7 +243,7 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
                             errors.add(new AnalysisError(
                                     "Estructura 'if' incompleta. Formato: if condición:",
                                     AnalysisError.ErrorType.SYNTACTIC,
-                                    token.getLine(), token.getColumn()
+                                    tokens.linea(i), tokens.columna(i)
                             ));
                         }
                         break;
@@ -251,7 +254,7 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
                             errors.add(new AnalysisError(
                                     "Estructura 'for' incorrecta. Formato: for variable in iterable:",
                                     AnalysisError.ErrorType.SYNTACTIC,
-                                    token.getLine(), token.getColumn()
+                                    tokens.linea(i), tokens.columna(i)
                             ));
                         }
                         break;
@@ -262,7 +265,7 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
                             errors.add(new AnalysisError(
                                     "Estructura 'while' sin condición",
                                     AnalysisError.ErrorType.SYNTACTIC,
-                                    token.getLine(), token.getColumn()
+                                    tokens.linea(i), tokens.columna(i)
                             ));
                         }
                         break;
@@ -273,79 +276,86 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
         return errors;
     }
 
-    private boolean hasTokenInSameLine(List<Token> tokens, Token referenceToken, String searchValue) {
-        return tokens.stream()
-                .anyMatch(t -> t.getLine() == referenceToken.getLine() &&
-                        t.getValue().equals(searchValue));
+    private boolean hasTokenInSameLine(TokenBuffer tokens, int referenceIndex, String searchValue) {
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.linea(i) == tokens.linea(referenceIndex) &&
+                    tokens.tieneValor(i, searchValue)) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private boolean hasBasicIfStructure(List<Token> tokens, int ifIndex) {
+    private boolean hasBasicIfStructure(TokenBuffer tokens, int ifIndex) {
         // Buscar ':' en la misma línea después del if
-        Token ifToken = tokens.get(ifIndex);
-        return tokens.stream()
-                .anyMatch(t -> t.getLine() == ifToken.getLine() &&
-                        t.getValue().contains(":") &&
-                        t.getColumn() > ifToken.getColumn());
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.linea(i) == tokens.linea(ifIndex) &&
+                    tokens.contiene(i, ":") &&
+                    tokens.columna(i) > tokens.columna(ifIndex)) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private boolean hasValidForStructure(List<Token> tokens, int forIndex) {
+    private boolean hasValidForStructure(TokenBuffer tokens, int forIndex) {
         // Verificar patrón: for [variable] in [iterable]:
         if (forIndex + 3 >= tokens.size()) return false;
 
-        Token forToken = tokens.get(forIndex);
         boolean foundIn = false;
         boolean foundColon = false;
 
         for (int i = forIndex + 1; i < tokens.size(); i++) {
-            Token t = tokens.get(i);
-            if (t.getLine() != forToken.getLine()) break;
+            if (tokens.linea(i) != tokens.linea(forIndex)) break;
 
-            if (t.getValue().equals("in")) foundIn = true;
-            if (t.getValue().contains(":")) foundColon = true;
+            if (tokens.tieneValor(i, "in")) foundIn = true;
+            if (tokens.contiene(i, ":")) foundColon = true;
         }
 
         return foundIn && foundColon;
     }
 
-    private boolean hasConditionAfterWhile(List<Token> tokens, int whileIndex) {
+    private boolean hasConditionAfterWhile(TokenBuffer tokens, int whileIndex) {
         if (whileIndex + 1 >= tokens.size()) return false;
 
-        Token whileToken = tokens.get(whileIndex);
-        Token nextToken = tokens.get(whileIndex + 1);
-
-        return nextToken.getLine() == whileToken.getLine() &&
-                !nextToken.getValue().equals(":");
+        int nextIndex = whileIndex + 1;
+        return tokens.linea(nextIndex) == tokens.linea(whileIndex) &&
+                !tokens.tieneValor(nextIndex, ":");
     }
 
-    private List<AnalysisError> checkBalancedBrackets(List<Token> tokens) {
+    private List<AnalysisError> checkBalancedBrackets(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
-        Stack<Token> stack = new Stack<>();
-        Map<String, String> brackets = Map.of("(", ")", "[", "]", "{", "}");
+        Stack<Integer> stack = new Stack<>();
+        String openings = "([{";
+        String closings = ")]}";
 
-        for (Token token : tokens) {
-            String value = token.getValue();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (!tokens.tieneCategoria(i, TokenKind.Categoria.APERTURA | TokenKind.Categoria.CIERRE) ||
+                    tokens.longitud(i) != 1) continue;
+            char value = tokens.caracter(i, 0);
 
-            if (brackets.containsKey(value)) {
+            if (openings.indexOf(value) != -1) {
                 // Apertura
-                stack.push(token);
-            } else if (brackets.containsValue(value)) {
+                stack.push(i);
+            } else if (closings.indexOf(value) != -1) {
                 // Cierre
                 if (stack.isEmpty()) {
                     errors.add(new AnalysisError(
                             "Paréntesis/corchete de cierre sin apertura: '" + value + "'",
                             AnalysisError.ErrorType.SYNTACTIC,
-                            token.getLine(), token.getColumn()
+                            tokens.linea(i), tokens.columna(i)
                     ));
                 } else {
-                    Token openToken = stack.pop();
-                    String expectedClose = brackets.get(openToken.getValue());
-                    if (!expectedClose.equals(value)) {
+                    int openIndex = stack.pop();
+                    char openValue = tokens.caracter(openIndex, 0);
+                    char expectedClose = closings.charAt(openings.indexOf(openValue));
+                    if (expectedClose != value) {
                         errors.add(new AnalysisError(
-                                "Paréntesis/corchetes no coinciden: '" + openToken.getValue() +
-                                        "' abierto en línea " + openToken.getLine() +
+                                "Paréntesis/corchetes no coinciden: '" + openValue +
+                                        "' abierto en línea " + tokens.linea(openIndex) +
                                         " pero se cierra con '" + value + "'",
                                 AnalysisError.ErrorType.SYNTACTIC,
-                                token.getLine(), token.getColumn()
+                                tokens.linea(i), tokens.columna(i)
                         ));
                     }
                 }
@@ -354,39 +364,36 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
 
         // Verificar paréntesis sin cerrar
         while (!stack.isEmpty()) {
-            Token unclosedToken = stack.pop();
+            int unclosedIndex = stack.pop();
             errors.add(new AnalysisError(
-                    "Paréntesis/corchete sin cerrar: '" + unclosedToken.getValue() + "'",
+                    "Paréntesis/corchete sin cerrar: '" + tokens.caracter(unclosedIndex, 0) + "'",
                     AnalysisError.ErrorType.SYNTACTIC,
-                    unclosedToken.getLine(), unclosedToken.getColumn()
+                    tokens.linea(unclosedIndex), tokens.columna(unclosedIndex)
             ));
         }
 
         return errors;
     }
 
-    private List<AnalysisError> checkPythonDefinitions(List<Token> tokens) {
+    private List<AnalysisError> checkPythonDefinitions(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
 
         for (int i = 0; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-
-            if (token.isOfType("KEYWORD") && token.getValue().equals("def")) {
+            if (tokens.kind(i) == TokenKind.KEYWORD && tokens.tieneValor(i, "def")) {
                 // Verificar estructura de función
                 if (i + 1 < tokens.size()) {
-                    Token nameToken = tokens.get(i + 1);
-                    if (!nameToken.isOfType("IDENTIFIER")) {
+                    if (tokens.kind(i + 1) != TokenKind.IDENTIFIER) {
                         errors.add(new AnalysisError(
                                 "Se esperaba nombre de función después de 'def'",
                                 AnalysisError.ErrorType.SYNTACTIC,
-                                token.getLine(), token.getColumn()
+                                tokens.linea(i), tokens.columna(i)
                         ));
                     } else {
                         // Verificar que haya paréntesis
                         boolean hasParens = false;
                         for (int j = i + 2; j < tokens.size() &&
-                                tokens.get(j).getLine() == token.getLine(); j++) {
-                            if (tokens.get(j).getValue().equals("(")) {
+                                tokens.linea(j) == tokens.linea(i); j++) {
+                            if (tokens.tieneValor(j, "(")) {
                                 hasParens = true;
                                 break;
                             }
@@ -395,22 +402,21 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
                             errors.add(new AnalysisError(
                                     "Definición de función sin paréntesis",
                                     AnalysisError.ErrorType.SYNTACTIC,
-                                    token.getLine(), token.getColumn()
+                                    tokens.linea(i), tokens.columna(i)
                             ));
                         }
                     }
                 }
             }
 
-            if (token.isOfType("KEYWORD") && token.getValue().equals("class")) {
+            if (tokens.kind(i) == TokenKind.KEYWORD && tokens.tieneValor(i, "class")) {
                 // Verificar estructura de clase
                 if (i + 1 < tokens.size()) {
-                    Token nameToken = tokens.get(i + 1);
-                    if (!nameToken.isOfType("IDENTIFIER")) {
+                    if (tokens.kind(i + 1) != TokenKind.IDENTIFIER) {
                         errors.add(new AnalysisError(
                                 "Se esperaba nombre de clase después de 'class'",
                                 AnalysisError.ErrorType.SYNTACTIC,
-                                token.getLine(), token.getColumn()
+                                tokens.linea(i), tokens.columna(i)
                         ));
                     }
                 }
@@ -420,20 +426,17 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
         return errors;
     }
 
-    private List<AnalysisError> checkPythonMathExpressions(List<Token> tokens) {
+    private List<AnalysisError> checkPythonMathExpressions(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
 
         for (int i = 0; i < tokens.size() - 1; i++) {
-            Token current = tokens.get(i);
-            Token next = tokens.get(i + 1);
-
             // Verificar operadores consecutivos
-            if (current.isOfType("OPERATOR") && next.isOfType("OPERATOR") &&
-                    current.getLine() == next.getLine()) {
+            if (tokens.kind(i) == TokenKind.OPERATOR && tokens.kind(i + 1) == TokenKind.OPERATOR &&
+                    tokens.linea(i) == tokens.linea(i + 1)) {
                 errors.add(new AnalysisError(
-                        "Operadores consecutivos: '" + current.getValue() + " " + next.getValue() + "'",
+                        "Operadores consecutivos: '" + tokens.valor(i) + " " + tokens.valor(i + 1) + "'",
                         AnalysisError.ErrorType.SYNTACTIC,
-                        current.getLine(), current.getColumn()
+                        tokens.linea(i), tokens.columna(i)
                 ));
             }
         }
@@ -441,26 +444,22 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
         return errors;
     }
 
-    private List<AnalysisError> checkPythonVariableNames(List<Token> tokens) {
+    private List<AnalysisError> checkPythonVariableNames(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
 
         for (int i = 0; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-
-            if (token.isOfType("IDENTIFIER")) {
-                String name = token.getValue();
-
+            if (tokens.kind(i) == TokenKind.IDENTIFIER) {
                 // Verificar espacios en nombres (esto debería detectarse en análisis léxico,
                 // pero podemos verificar tokens adyacentes)
                 if (i + 1 < tokens.size()) {
-                    Token next = tokens.get(i + 1);
-                    if (next.isOfType("IDENTIFIER") &&
-                            next.getLine() == token.getLine() &&
-                            next.getColumn() == token.getColumn() + token.getValue().length() + 1) {
+                    int next = i + 1;
+                    if (tokens.kind(next) == TokenKind.IDENTIFIER &&
+                            tokens.linea(next) == tokens.linea(i) &&
+                            tokens.columna(next) == tokens.columna(i) + tokens.longitud(i) + 1) {
                         errors.add(new AnalysisError(
-                                "Posible espacio en nombre de variable: '" + name + " " + next.getValue() + "'",
+                                "Posible espacio en nombre de variable: '" + tokens.valor(i) + " " + tokens.valor(next) + "'",
                                 AnalysisError.ErrorType.SYNTACTIC,
-                                token.getLine(), token.getColumn()
+                                tokens.linea(i), tokens.columna(i)
                         ));
                     }
                 }
@@ -473,7 +472,7 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
     // ==============================================
     // ANÁLISIS SINTÁCTICO PARA SQL - MEJORADO
     // ==============================================
-    private List<AnalysisError> analyzePlsqlSyntax(List<Token> tokens) {
+    private List<AnalysisError> analyzePlsqlSyntax(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
 
         errors.addAll(checkSqlBasicStructure(tokens));
@@ -483,14 +482,12 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
         return errors;
     }
 
-    private List<AnalysisError> checkSqlBasicStructure(List<Token> tokens) {
+    private List<AnalysisError> checkSqlBasicStructure(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
 
         for (int i = 0; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-
-            if (token.isOfType("KEYWORD")) {
-                String keyword = token.getValue().toUpperCase();
+            if (tokens.kind(i) == TokenKind.KEYWORD) {
+                String keyword = tokens.valor(i).toUpperCase();
 
                 switch (keyword) {
                     case "SELECT":
@@ -499,7 +496,7 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
                             errors.add(new AnalysisError(
                                     "SELECT sin FROM correspondiente",
                                     AnalysisError.ErrorType.SYNTACTIC,
-                                    token.getLine(), token.getColumn()
+                                    tokens.linea(i), tokens.columna(i)
                             ));
                         }
 
@@ -508,7 +505,7 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
                             errors.add(new AnalysisError(
                                     "SELECT sin especificar columnas",
                                     AnalysisError.ErrorType.SYNTACTIC,
-                                    token.getLine(), token.getColumn()
+                                    tokens.linea(i), tokens.columna(i)
                             ));
                         }
                         break;
@@ -519,7 +516,7 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
                             errors.add(new AnalysisError(
                                     "Estructura INSERT incorrecta. Formato: INSERT INTO tabla (columnas) VALUES (valores)",
                                     AnalysisError.ErrorType.SYNTACTIC,
-                                    token.getLine(), token.getColumn()
+                                    tokens.linea(i), tokens.columna(i)
                             ));
                         }
                         break;
@@ -530,7 +527,7 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
                             errors.add(new AnalysisError(
                                     "UPDATE sin cláusula SET",
                                     AnalysisError.ErrorType.SYNTACTIC,
-                                    token.getLine(), token.getColumn()
+                                    tokens.linea(i), tokens.columna(i)
                             ));
                         }
                         break;
@@ -541,7 +538,7 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
                             errors.add(new AnalysisError(
                                     "DELETE sin especificar FROM tabla",
                                     AnalysisError.ErrorType.SYNTACTIC,
-                                    token.getLine(), token.getColumn()
+                                    tokens.linea(i), tokens.columna(i)
                             ));
                         }
                         break;
@@ -552,89 +549,82 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
         return errors;
     }
 
-    private boolean hasFromAfterSelect(List<Token> tokens, int selectIndex) {
+    private boolean hasFromAfterSelect(TokenBuffer tokens, int selectIndex) {
         for (int i = selectIndex + 1; i < tokens.size(); i++) {
-            if (tokens.get(i).getValue().toUpperCase().equals("FROM")) {
+            if (tokens.tieneValorMayusculas(i, "FROM")) {
                 return true;
             }
             // Si encontramos otro SELECT, parar la búsqueda
-            if (tokens.get(i).getValue().toUpperCase().equals("SELECT")) {
+            if (tokens.tieneValorMayusculas(i, "SELECT")) {
                 break;
             }
         }
         return false;
     }
 
-    private boolean hasColumnsAfterSelect(List<Token> tokens, int selectIndex) {
+    private boolean hasColumnsAfterSelect(TokenBuffer tokens, int selectIndex) {
         if (selectIndex + 1 >= tokens.size()) return false;
 
         // Verificar que el siguiente token no sea FROM
-        Token nextToken = tokens.get(selectIndex + 1);
-        return !nextToken.getValue().toUpperCase().equals("FROM");
+        return !tokens.tieneValorMayusculas(selectIndex + 1, "FROM");
     }
 
-    private boolean hasValidInsertStructure(List<Token> tokens, int insertIndex) {
+    private boolean hasValidInsertStructure(TokenBuffer tokens, int insertIndex) {
         boolean hasInto = false;
         boolean hasValues = false;
 
         for (int i = insertIndex + 1; i < tokens.size(); i++) {
-            String tokenValue = tokens.get(i).getValue().toUpperCase();
-            if (tokenValue.equals("INTO")) hasInto = true;
-            if (tokenValue.equals("VALUES")) hasValues = true;
+            if (tokens.tieneValorMayusculas(i, "INTO")) hasInto = true;
+            if (tokens.tieneValorMayusculas(i, "VALUES")) hasValues = true;
         }
 
         return hasInto && hasValues;
     }
 
-    private boolean hasSetAfterUpdate(List<Token> tokens, int updateIndex) {
+    private boolean hasSetAfterUpdate(TokenBuffer tokens, int updateIndex) {
         for (int i = updateIndex + 1; i < tokens.size(); i++) {
-            if (tokens.get(i).getValue().toUpperCase().equals("SET")) {
+            if (tokens.tieneValorMayusculas(i, "SET")) {
                 return true;
             }
         }
         return false;
     }
 
-    private boolean hasFromAfterDelete(List<Token> tokens, int deleteIndex) {
+    private boolean hasFromAfterDelete(TokenBuffer tokens, int deleteIndex) {
         for (int i = deleteIndex + 1; i < tokens.size(); i++) {
-            if (tokens.get(i).getValue().toUpperCase().equals("FROM")) {
+            if (tokens.tieneValorMayusculas(i, "FROM")) {
                 return true;
             }
         }
         return false;
     }
 
-    private List<AnalysisError> checkSqlExpressions(List<Token> tokens) {
+    private List<AnalysisError> checkSqlExpressions(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
 
         for (int i = 0; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-
             // Verificar expresiones WHERE mal formadas
-            if (token.getValue().toUpperCase().equals("WHERE")) {
+            if (tokens.tieneValorMayusculas(i, "WHERE")) {
                 if (i + 1 < tokens.size()) {
-                    Token nextToken = tokens.get(i + 1);
-
                     // WHERE id = AND ... (falta valor)
-                    if (nextToken.getValue().equals("=") || nextToken.getValue().toUpperCase().equals("AND")) {
+                    if (tokens.tieneValor(i + 1, "=") || tokens.tieneValorMayusculas(i + 1, "AND")) {
                         errors.add(new AnalysisError(
                                 "Expresión WHERE mal formada: falta condición",
                                 AnalysisError.ErrorType.SYNTACTIC,
-                                token.getLine(), token.getColumn()
+                                tokens.linea(i), tokens.columna(i)
                         ));
                     }
                 }
             }
 
             // Verificar operadores matemáticos consecutivos
-            if (token.getValue().matches("[+\\-*/]")) {
+            if (isMathOperator(tokens, i)) {
                 if (i + 1 < tokens.size()) {
-                    Token nextToken = tokens.get(i + 1);
-                    if (nextToken.getValue().matches("[+\\-*/]")) {
+                    if (isMathOperator(tokens, i + 1)) {
                         errors.add(new AnalysisError(
-                                "Operadores matemáticos consecutivos: '" + token.getValue() + " " + nextToken.getValue() + "'",
+                                "Operadores matemáticos consecutivos: '" + tokens.valor(i) + " " + tokens.valor(i + 1) + "'",
                                 AnalysisError.ErrorType.SYNTACTIC,
-                                token.getLine(), token.getColumn()
+                                tokens.linea(i), tokens.columna(i)
                         ));
                     }
                 }
@@ -644,21 +634,24 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
         return errors;
     }
 
-    private List<AnalysisError> checkSqlConditionals(List<Token> tokens) {
+    private boolean isMathOperator(TokenBuffer tokens, int index) {
+        // Equivale a value.matches("[+\\-*/]") para los operadores del léxico SQL
+        return tokens.tieneCategoria(index, TokenKind.Categoria.OPERADOR) &&
+                tokens.longitud(index) == 1 && "+-*/".indexOf(tokens.caracter(index, 0)) != -1;
+    }
+
+    private List<AnalysisError> checkSqlConditionals(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
 
         for (int i = 0; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
-
-            if (token.getValue().toUpperCase().equals("IF")) {
+            if (tokens.tieneValorMayusculas(i, "IF")) {
                 // Verificar estructura IF ... THEN ... ELSE ... END
                 boolean hasThen = false;
                 boolean hasEnd = false;
 
                 for (int j = i + 1; j < tokens.size(); j++) {
-                    String tokenValue = tokens.get(j).getValue().toUpperCase();
-                    if (tokenValue.equals("THEN")) hasThen = true;
-                    if (tokenValue.equals("END")) {
+                    if (tokens.tieneValorMayusculas(j, "THEN")) hasThen = true;
+                    if (tokens.tieneValorMayusculas(j, "END")) {
                         hasEnd = true;
                         break;
                     }
@@ -668,7 +661,7 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
                     errors.add(new AnalysisError(
                             "IF sin THEN correspondiente",
                             AnalysisError.ErrorType.SYNTACTIC,
-                            token.getLine(), token.getColumn()
+                            tokens.linea(i), tokens.columna(i)
                     ));
                 }
 
@@ -676,7 +669,7 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
                     errors.add(new AnalysisError(
                             "IF sin END correspondiente",
                             AnalysisError.ErrorType.SYNTACTIC,
-                            token.getLine(), token.getColumn()
+                            tokens.linea(i), tokens.columna(i)
                     ));
                 }
             }
@@ -688,7 +681,7 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
     // ==============================================
     // ANÁLISIS SINTÁCTICO PARA HTML - MEJORADO
     // ==============================================
-    private List<AnalysisError> analyzeHtmlSyntax(List<Token> tokens) {
+    private List<AnalysisError> analyzeHtmlSyntax(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
 
         errors.addAll(checkHtmlTagNesting(tokens));
@@ -699,13 +692,13 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
         return errors;
     }
 
-    private List<AnalysisError> checkHtmlTagNesting(List<Token> tokens) {
+    private List<AnalysisError> checkHtmlTagNesting(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
-        Stack<Token> tagStack = new Stack<>();
+        Stack<Integer> tagStack = new Stack<>();
 
-        for (Token token : tokens) {
-            if (token.isOfType("TAG")) {
-                String tagValue = token.getValue();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.kind(i) == TokenKind.TAG) {
+                String tagValue = tokens.valor(i);
 
                 if (tagValue.startsWith("</")) {
                     // Etiqueta de cierre
@@ -715,48 +708,48 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
                         errors.add(new AnalysisError(
                                 "Etiqueta de cierre sin etiqueta de apertura: " + tagValue,
                                 AnalysisError.ErrorType.SYNTACTIC,
-                                token.getLine(), token.getColumn()
+                                tokens.linea(i), tokens.columna(i)
                         ));
                     } else {
-                        Token lastOpenTag = tagStack.pop();
-                        String lastOpenTagName = extractTagName(lastOpenTag.getValue().substring(1));
+                        int lastOpenTag = tagStack.pop();
+                        String lastOpenTagName = extractTagName(tokens.valor(lastOpenTag).substring(1));
 
                         if (!lastOpenTagName.equals(tagName)) {
                             errors.add(new AnalysisError(
                                     "Etiquetas mal anidadas: esperaba </" + lastOpenTagName +
                                             "> pero encontró " + tagValue,
                                     AnalysisError.ErrorType.SYNTACTIC,
-                                    token.getLine(), token.getColumn()
+                                    tokens.linea(i), tokens.columna(i)
                             ));
                         }
                     }
                 } else if (!tagValue.endsWith("/>") && !isSelfClosingTag(tagValue)) {
                     // Etiqueta de apertura
-                    tagStack.push(token);
+                    tagStack.push(i);
                 }
             }
         }
 
         // Verificar etiquetas no cerradas
         while (!tagStack.isEmpty()) {
-            Token unclosedTag = tagStack.pop();
-            String tagName = extractTagName(unclosedTag.getValue().substring(1));
+            int unclosedTag = tagStack.pop();
+            String tagName = extractTagName(tokens.valor(unclosedTag).substring(1));
             errors.add(new AnalysisError(
                     "Etiqueta no cerrada: <" + tagName + ">",
                     AnalysisError.ErrorType.SYNTACTIC,
-                    unclosedTag.getLine(), unclosedTag.getColumn()
+                    tokens.linea(unclosedTag), tokens.columna(unclosedTag)
             ));
         }
 
         return errors;
     }
 
-    private List<AnalysisError> checkHtmlTagClosure(List<Token> tokens) {
+    private List<AnalysisError> checkHtmlTagClosure(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
 
-        for (Token token : tokens) {
-            if (token.isOfType("TAG")) {
-                String tagValue = token.getValue();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.kind(i) == TokenKind.TAG) {
+                String tagValue = tokens.valor(i);
 
                 // Verificar etiquetas que requieren cierre obligatorio
                 Set<String> requiresClosure = Set.of("p", "div", "span", "a", "h1", "h2", "h3", "h4", "h5", "h6");
@@ -765,15 +758,17 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
                     String tagName = extractTagName(tagValue.substring(1));
                     if (requiresClosure.contains(tagName.toLowerCase())) {
                         // Verificar que tenga cierre correspondiente
-                        boolean hasClosure = tokens.stream()
-                                .anyMatch(t -> t.isOfType("TAG") &&
-                                        t.getValue().equals("</" + tagName + ">"));
+                        String closingTag = "</" + tagName + ">";
+                        boolean hasClosure = false;
+                        for (int j = 0; j < tokens.size() && !hasClosure; j++) {
+                            hasClosure = tokens.kind(j) == TokenKind.TAG && tokens.tieneValor(j, closingTag);
+                        }
 
                         if (!hasClosure) {
                             errors.add(new AnalysisError(
                                     "Etiqueta obligatoria sin cierre: <" + tagName + ">",
                                     AnalysisError.ErrorType.SYNTACTIC,
-                                    token.getLine(), token.getColumn()
+                                    tokens.linea(i), tokens.columna(i)
                             ));
                         }
                     }
@@ -784,12 +779,12 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
         return errors;
     }
 
-    private List<AnalysisError> checkHtmlAttributes(List<Token> tokens) {
+    private List<AnalysisError> checkHtmlAttributes(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
 
-        for (Token token : tokens) {
-            if (token.isOfType("TAG")) {
-                String tagValue = token.getValue();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.kind(i) == TokenKind.TAG) {
+                String tagValue = tokens.valor(i);
 
                 // Verificar atributos sin valores o sin comillas
                 Pattern attrPattern = Pattern.compile("\\s+(\\w+)\\s*=\\s*([^\"'\\s>]+)");
@@ -801,7 +796,7 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
                         errors.add(new AnalysisError(
                                 "Valor de atributo sin comillas: " + matcher.group(1) + "=" + attrValue,
                                 AnalysisError.ErrorType.SYNTACTIC,
-                                token.getLine(), token.getColumn()
+                                tokens.linea(i), tokens.columna(i)
                         ));
                     }
                 }
@@ -814,7 +809,7 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
                     errors.add(new AnalysisError(
                             "Atributo sin valor: " + matcher.group(1),
                             AnalysisError.ErrorType.SYNTACTIC,
-                            token.getLine(), token.getColumn()
+                            tokens.linea(i), tokens.columna(i)
                     ));
                 }
             }
@@ -823,21 +818,21 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
         return errors;
     }
 
-    private List<AnalysisError> checkHtmlDoctype(List<Token> tokens) {
+    private List<AnalysisError> checkHtmlDoctype(TokenBuffer tokens) {
         List<AnalysisError> errors = new ArrayList<>();
 
         // Verificar si hay DOCTYPE y si está bien formado
         boolean hasDoctype = false;
-        for (Token token : tokens) {
-            if (token.getValue().toUpperCase().contains("<!DOCTYPE")) {
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.contieneMayusculas(i, "<!DOCTYPE")) {
                 hasDoctype = true;
 
                 // Verificar formato básico
-                if (!token.getValue().toLowerCase().contains("html")) {
+                if (!tokens.valor(i).toLowerCase().contains("html")) {
                     errors.add(new AnalysisError(
                             "DOCTYPE incorrecto. Use: <!DOCTYPE html>",
                             AnalysisError.ErrorType.SYNTACTIC,
-                            token.getLine(), token.getColumn()
+                            tokens.linea(i), tokens.columna(i)
                     ));
                 }
                 break;
@@ -846,7 +841,6 @@ public class SyntacticAnalyzerService implements ISyntacticAnalyzer {
 
         return errors;
     }
-
     private String extractTagName(String tagContent) {
         // Extraer solo el nombre de la etiqueta, sin atributos
         int spaceIndex = tagContent.indexOf(' ');
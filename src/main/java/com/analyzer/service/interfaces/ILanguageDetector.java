@@ -1,8 +1,36 @@
 // --- ILanguageDetector.java ---
 package com.analyzer.service.interfaces;
 
+import com.analyzer.model.DetectionResult;
 import com.analyzer.model.LanguageType;
+import com.analyzer.model.SniffResult;
+import com.analyzer.util.ByteSniffer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 
 public interface ILanguageDetector {
     LanguageType detectLanguage(String code);
+
+    /**
+     * Lenguaje con la confianza y los caracteres revisados; esta implementación
+     * por defecto revisa el texto completo y solo distingue si lo reconoció
+     */
+    default DetectionResult detect(CharSequence code) {
+        LanguageType lenguaje = detectLanguage(code.toString());
+        return new DetectionResult(lenguaje, lenguaje == LanguageType.UNKNOWN ? 0 : 1, code.length(), true);
+    }
+
+    /**
+     * Lenguaje y codificación de los bytes de un archivo, sin mover su posición.
+     * Esta implementación por defecto reconoce la codificación por los bytes y
+     * decodifica el contenido completo para detectar el lenguaje.
+     */
+    default SniffResult detect(ByteBuffer bytes) {
+        Charset charset = ByteSniffer.detectarCharset(bytes, Integer.MAX_VALUE);
+        int bom = ByteSniffer.longitudBom(bytes);
+        ByteBuffer contenido = bytes.duplicate();
+        contenido.position(contenido.position() + bom);
+        return new SniffResult(detect(charset.decode(contenido)), charset, bom);
+    }
 }
@@ -1,13 +1,84 @@
 // --- ILexicalAnalyzer.java ---
 package com.analyzer.service.interfaces;
 
+import com.analyzer.model.AnalysisContext;
 import com.analyzer.model.AnalysisError;
+import com.analyzer.model.InternPool;
 import com.analyzer.model.Token;
+import com.analyzer.model.TokenBuffer;
 import com.analyzer.model.LanguageType;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ILexicalAnalyzer {
     List<Token> analyze(String code, LanguageType language);
 
     List<Token> analyzeLexical(String fuente, List<AnalysisError> errores);
+
+    // Tokens en columnas primitivas, sin un objeto Token por elemento
+    default TokenBuffer analyzeLexicalBuffer(String fuente, List<AnalysisError> errores) {
+        return TokenBuffer.desdeTokens(analyzeLexical(fuente, errores));
+    }
+
+    /**
+     * Analiza un texto que no es un String, como la vista de un archivo mapeado
+     * en memoria; los analizadores de cada lenguaje lo recorren sin copiarlo
+     */
+    default TokenBuffer analyzeLexicalBuffer(CharSequence fuente, List<AnalysisError> errores) {
+        return analyzeLexicalBuffer(fuente.toString(), errores);
+    }
+
+    /**
+     * Analiza el texto del contexto con el lenguaje ya detectado; los
+     * analizadores que usan el índice de líneas toman el del contexto
+     */
+    default TokenBuffer analyzeLexicalBuffer(AnalysisContext contexto, List<AnalysisError> errores) {
+        return analyzeLexicalBuffer(contexto.getSource(), errores);
+    }
+
+    /**
+     * Tabla de nombres compartidos que usarán los tokens de los próximos
+     * análisis; las implementaciones que no la aprovechan la ignoran
+     */
+    default void usarInternado(InternPool internado) {
+    }
+
+    /**
+     * Analiza la entrada a medida que se lee y entrega cada token al consumidor.
+     * Los analizadores de cada lenguaje la recorren con una ventana de tamaño fijo,
+     * que solo crece para un token más largo que ella, así que la memoria no crece
+     * con el tamaño de la entrada; solo se reportan
+     * los errores de cada token, no los que requieren el documento completo.
+     * Esta implementación por defecto lee toda la entrada antes de analizarla.
+     */
+    default void analyzeLexicalStream(Reader fuente, Consumer<Token> consumidor, List<AnalysisError> errores)
+            throws IOException {
+        StringWriter texto = new StringWriter();
+        fuente.transferTo(texto);
+        analyzeLexical(texto.toString(), errores).forEach(consumidor);
+    }
+
+    default void analyzeLexicalStream(ReadableByteChannel canal, Charset charset, Consumer<Token> consumidor,
+                                      List<AnalysisError> errores) throws IOException {
+        analyzeLexicalStream(Channels.newReader(canal, charset.newDecoder(), -1), consumidor, errores);
+    }
+
+    /**
+     * Equivale a trim().isEmpty() sin copiar el texto
+     */
+    static boolean estaEnBlanco(CharSequence texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
 }
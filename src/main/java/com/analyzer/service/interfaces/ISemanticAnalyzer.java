@@ -1,7 +1,9 @@
 // --- ISemanticAnalyzer.java ---
 package com.analyzer.service.interfaces;
 
+import com.analyzer.model.AnalysisContext;
 import com.analyzer.model.Token;
+import com.analyzer.model.TokenBuffer;
 import com.analyzer.model.AnalysisError;
 import com.analyzer.model.Symbol;
 import com.analyzer.model.LanguageType;
@@ -11,4 +13,15 @@ import java.util.Map;
 public interface ISemanticAnalyzer {
     List<AnalysisError> analyze(List<Token> tokens, LanguageType language, Map<String, Symbol> symbolTable);
     Map<String, Symbol> getSymbolTable();
-}
\ No newline at end of file
+
+    default List<AnalysisError> analyze(TokenBuffer tokens, LanguageType language, Map<String, Symbol> symbolTable) {
+        return analyze(tokens.asList(), language, symbolTable);
+    }
+
+    /**
+     * Analiza los tokens que la etapa léxica dejó en el contexto
+     */
+    default List<AnalysisError> analyze(AnalysisContext contexto, Map<String, Symbol> symbolTable) {
+        return analyze(contexto.getTokens(), contexto.getLanguage(), symbolTable);
+    }
+}
@@ -1,11 +1,24 @@
 // --- ISyntacticAnalyzer.java ---
 package com.analyzer.service.interfaces;
 
+import com.analyzer.model.AnalysisContext;
 import com.analyzer.model.Token;
+import com.analyzer.model.TokenBuffer;
 import com.analyzer.model.AnalysisError;
 import com.analyzer.model.LanguageType;
 import java.util.List;
 
 public interface ISyntacticAnalyzer {
     List<AnalysisError> analyze(List<Token> tokens, LanguageType language);
-}
\ No newline at end of file
+
+    default List<AnalysisError> analyze(TokenBuffer tokens, LanguageType language) {
+        return analyze(tokens.asList(), language);
+    }
+
+    /**
+     * Analiza los tokens que la etapa léxica dejó en el contexto
+     */
+    default List<AnalysisError> analyze(AnalysisContext contexto) {
+        return analyze(contexto.getTokens(), contexto.getLanguage());
+    }
+}
@@ -0,0 +1,113 @@
+package com.analyzer.service.metrics;
+
+import com.analyzer.model.LanguageType;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+/**
+ * Contadores de throughput y latencia de cada etapa del análisis por
+ * lenguaje. Los analizadores instrumentados registran cada llamada aquí; las
+ * métricas se consultan con {@link #instantanea()} o por JMX.
+ */
+public final class AnalysisMetrics implements AnalysisMetricsMXBean {
+
+    /**
+     * Etapas medidas; EDICION es cada edición que el editor aplica al análisis
+     * léxico incremental, aparte de LEXICO, que solo cuenta los análisis completos
+     */
+    public enum Etapa { LEXICO, SINTACTICO, SEMANTICO, EDICION }
+
+    private static final String NOMBRE_JMX = "com.analyzer:type=AnalysisMetrics";
+
+    // Una entrada por etapa y lenguaje, creadas de antemano para no sincronizar al registrar
+    private final StageMetrics[][] metricas;
+
+    public AnalysisMetrics() {
+        Etapa[] etapas = Etapa.values();
+        LanguageType[] lenguajes = LanguageType.values();
+        metricas = new StageMetrics[etapas.length][lenguajes.length];
+        for (Etapa etapa : etapas) {
+            for (LanguageType lenguaje : lenguajes) {
+                metricas[etapa.ordinal()][lenguaje.ordinal()] = new StageMetrics(etapa, lenguaje);
+            }
+        }
+    }
+
+    /**
+     * Métricas del proceso, registradas en el servidor JMX de la plataforma
+     * la primera vez que se piden
+     */
+    public static AnalysisMetrics global() {
+        return Global.INSTANCIA;
+    }
+
+    private static final class Global {
+        static final AnalysisMetrics INSTANCIA = registrar(new AnalysisMetrics());
+
+        private static AnalysisMetrics registrar(AnalysisMetrics metricas) {
+            try {
+                MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+                ObjectName nombre = new ObjectName(NOMBRE_JMX);
+                if (!servidor.isRegistered(nombre)) {
+                    servidor.registerMBean(metricas, nombre);
+                }
+            } catch (JMException | SecurityException e) {
+                // Sin JMX las métricas siguen disponibles con instantanea()
+            }
+            return metricas;
+        }
+    }
+
+    /**
+     * Registra una llamada a una etapa
+     * @param caracteres caracteres de entrada, o 0 si la etapa no lee texto
+     * @param tokens tokens producidos o recorridos
+     * @param errores errores reportados
+     * @param nanos duración de la llamada
+     */
+    public void registrar(Etapa etapa, LanguageType lenguaje, long caracteres, long tokens, long errores, long nanos) {
+        LanguageType clave = lenguaje != null ? lenguaje : LanguageType.UNKNOWN;
+        metricas[etapa.ordinal()][clave.ordinal()].registrar(caracteres, tokens, errores, nanos);
+    }
+
+    /**
+     * Contadores de una etapa y un lenguaje
+     */
+    public StageSnapshot instantanea(Etapa etapa, LanguageType lenguaje) {
+        return metricas[etapa.ordinal()][lenguaje.ordinal()].instantanea();
+    }
+
+    /**
+     * Contadores de cada etapa y lenguaje que ya tuvo al menos una llamada
+     */
+    public List<StageSnapshot> instantanea() {
+        List<StageSnapshot> resultado = new ArrayList<>();
+        for (StageMetrics[] porEtapa : metricas) {
+            for (StageMetrics medicion : porEtapa) {
+                StageSnapshot copia = medicion.instantanea();
+                if (copia.getLlamadas() > 0) {
+                    resultado.add(copia);
+                }
+            }
+        }
+        return resultado;
+    }
+
+    @Override
+    public List<StageSnapshot> getEtapas() {
+        return instantanea();
+    }
+
+    @Override
+    public void reiniciar() {
+        for (StageMetrics[] porEtapa : metricas) {
+            for (StageMetrics medicion : porEtapa) {
+                medicion.reiniciar();
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.analyzer.service.metrics;
+
+import java.util.List;
+
+/**
+ * Vista JMX de {@link AnalysisMetrics}, registrada como com.analyzer:type=AnalysisMetrics
+ */
+public interface AnalysisMetricsMXBean {
+
+    /**
+     * Contadores de cada etapa y lenguaje que ya tuvo al menos una llamada
+     */
+    List<StageSnapshot> getEtapas();
+
+    /**
+     * Pone todos los contadores en cero
+     */
+    void reiniciar();
+}
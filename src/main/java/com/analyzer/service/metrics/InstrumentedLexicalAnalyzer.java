@@ -0,0 +1,130 @@
+package com.analyzer.service.metrics;
+
+import com.analyzer.model.*;
+import com.analyzer.service.interfaces.ILexicalAnalyzer;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Analizador léxico de un lenguaje que registra en {@link AnalysisMetrics}
+ * los caracteres leídos, los tokens producidos, los errores y la duración de
+ * cada análisis que delega.
+ */
+public class InstrumentedLexicalAnalyzer implements ILexicalAnalyzer {
+
+    private final LanguageType lenguaje;
+    private final ILexicalAnalyzer analizador;
+    private final AnalysisMetrics metricas;
+
+    public InstrumentedLexicalAnalyzer(LanguageType lenguaje, ILexicalAnalyzer analizador, AnalysisMetrics metricas) {
+        this.lenguaje = lenguaje;
+        this.analizador = analizador;
+        this.metricas = metricas;
+    }
+
+    @Override
+    public List<Token> analyze(String code, LanguageType language) {
+        long inicio = System.nanoTime();
+        List<Token> tokens = analizador.analyze(code, language);
+        registrar(code, tokens.size(), 0, inicio);
+        return tokens;
+    }
+
+    @Override
+    public List<Token> analyzeLexical(String fuente, List<AnalysisError> errores) {
+        int erroresPrevios = errores.size();
+        long inicio = System.nanoTime();
+        List<Token> tokens = analizador.analyzeLexical(fuente, errores);
+        registrar(fuente, tokens.size(), errores.size() - erroresPrevios, inicio);
+        return tokens;
+    }
+
+    @Override
+    public TokenBuffer analyzeLexicalBuffer(String fuente, List<AnalysisError> errores) {
+        int erroresPrevios = errores.size();
+        long inicio = System.nanoTime();
+        TokenBuffer tokens = analizador.analyzeLexicalBuffer(fuente, errores);
+        registrar(fuente, tokens.size(), errores.size() - erroresPrevios, inicio);
+        return tokens;
+    }
+
+    @Override
+    public TokenBuffer analyzeLexicalBuffer(CharSequence fuente, List<AnalysisError> errores) {
+        int erroresPrevios = errores.size();
+        long inicio = System.nanoTime();
+        TokenBuffer tokens = analizador.analyzeLexicalBuffer(fuente, errores);
+        registrar(fuente, tokens.size(), errores.size() - erroresPrevios, inicio);
+        return tokens;
+    }
+
+    @Override
+    public TokenBuffer analyzeLexicalBuffer(AnalysisContext contexto, List<AnalysisError> errores) {
+        int erroresPrevios = errores.size();
+        long inicio = System.nanoTime();
+        TokenBuffer tokens = analizador.analyzeLexicalBuffer(contexto, errores);
+        registrar(contexto.getSource(), tokens.size(), errores.size() - erroresPrevios, inicio);
+        return tokens;
+    }
+
+    @Override
+    public void usarInternado(InternPool internado) {
+        analizador.usarInternado(internado);
+    }
+
+    /**
+     * La duración incluye el tiempo de leer la entrada y el de los consumidores
+     */
+    @Override
+    public void analyzeLexicalStream(Reader fuente, Consumer<Token> consumidor, List<AnalysisError> errores)
+            throws IOException {
+        LectorContado lector = new LectorContado(fuente);
+        long[] tokens = new long[1];
+        int erroresPrevios = errores.size();
+        long inicio = System.nanoTime();
+        analizador.analyzeLexicalStream(lector, token -> {
+            tokens[0]++;
+            consumidor.accept(token);
+        }, errores);
+        metricas.registrar(AnalysisMetrics.Etapa.LEXICO, lenguaje, lector.leidos, tokens[0],
+                errores.size() - erroresPrevios, System.nanoTime() - inicio);
+    }
+
+    private void registrar(CharSequence fuente, int tokens, int errores, long inicio) {
+        long duracion = System.nanoTime() - inicio;
+        metricas.registrar(AnalysisMetrics.Etapa.LEXICO, lenguaje, fuente != null ? fuente.length() : 0,
+                tokens, errores, duracion);
+    }
+
+    /**
+     * Lector que cuenta los caracteres que entrega
+     */
+    private static final class LectorContado extends FilterReader {
+        long leidos;
+
+        LectorContado(Reader lector) {
+            super(lector);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int c = super.read();
+            if (c >= 0) {
+                leidos++;
+            }
+            return c;
+        }
+
+        @Override
+        public int read(char[] destino, int desde, int cantidad) throws IOException {
+            int n = super.read(destino, desde, cantidad);
+            if (n > 0) {
+                leidos += n;
+            }
+            return n;
+        }
+    }
+}
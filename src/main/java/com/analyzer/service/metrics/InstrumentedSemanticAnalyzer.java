@@ -0,0 +1,57 @@
+package com.analyzer.service.metrics;
+
+import com.analyzer.model.*;
+import com.analyzer.service.interfaces.ISemanticAnalyzer;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Analizador semántico que registra en {@link AnalysisMetrics} los tokens
+ * recorridos, los errores y la duración de cada análisis que delega.
+ */
+public class InstrumentedSemanticAnalyzer implements ISemanticAnalyzer {
+
+    private final ISemanticAnalyzer analizador;
+    private final AnalysisMetrics metricas;
+
+    public InstrumentedSemanticAnalyzer(ISemanticAnalyzer analizador, AnalysisMetrics metricas) {
+        this.analizador = analizador;
+        this.metricas = metricas;
+    }
+
+    @Override
+    public List<AnalysisError> analyze(List<Token> tokens, LanguageType language, Map<String, Symbol> symbolTable) {
+        long inicio = System.nanoTime();
+        List<AnalysisError> errores = analizador.analyze(tokens, language, symbolTable);
+        registrar(language, tokens.size(), errores, inicio);
+        return errores;
+    }
+
+    @Override
+    public List<AnalysisError> analyze(TokenBuffer tokens, LanguageType language, Map<String, Symbol> symbolTable) {
+        long inicio = System.nanoTime();
+        List<AnalysisError> errores = analizador.analyze(tokens, language, symbolTable);
+        registrar(language, tokens.size(), errores, inicio);
+        return errores;
+    }
+
+    @Override
+    public List<AnalysisError> analyze(AnalysisContext contexto, Map<String, Symbol> symbolTable) {
+        long inicio = System.nanoTime();
+        List<AnalysisError> errores = analizador.analyze(contexto, symbolTable);
+        registrar(contexto.getLanguage(), contexto.getTokens().size(), errores, inicio);
+        return errores;
+    }
+
+    @Override
+    public Map<String, Symbol> getSymbolTable() {
+        return analizador.getSymbolTable();
+    }
+
+    private void registrar(LanguageType lenguaje, int tokens, List<AnalysisError> errores, long inicio) {
+        long duracion = System.nanoTime() - inicio;
+        metricas.registrar(AnalysisMetrics.Etapa.SEMANTICO, lenguaje, 0, tokens,
+                errores != null ? errores.size() : 0, duracion);
+    }
+}
@@ -0,0 +1,55 @@
+package com.analyzer.service.metrics;
+
+import com.analyzer.model.AnalysisContext;
+import com.analyzer.model.AnalysisError;
+import com.analyzer.model.LanguageType;
+import com.analyzer.model.Token;
+import com.analyzer.model.TokenBuffer;
+import com.analyzer.service.interfaces.ISyntacticAnalyzer;
+
+import java.util.List;
+
+/**
+ * Analizador sintáctico que registra en {@link AnalysisMetrics} los tokens
+ * recorridos, los errores y la duración de cada análisis que delega.
+ */
+public class InstrumentedSyntacticAnalyzer implements ISyntacticAnalyzer {
+
+    private final ISyntacticAnalyzer analizador;
+    private final AnalysisMetrics metricas;
+
+    public InstrumentedSyntacticAnalyzer(ISyntacticAnalyzer analizador, AnalysisMetrics metricas) {
+        this.analizador = analizador;
+        this.metricas = metricas;
+    }
+
+    @Override
+    public List<AnalysisError> analyze(List<Token> tokens, LanguageType language) {
+        long inicio = System.nanoTime();
+        List<AnalysisError> errores = analizador.analyze(tokens, language);
+        registrar(language, tokens.size(), errores, inicio);
+        return errores;
+    }
+
+    @Override
+    public List<AnalysisError> analyze(TokenBuffer tokens, LanguageType language) {
+        long inicio = System.nanoTime();
+        List<AnalysisError> errores = analizador.analyze(tokens, language);
+        registrar(language, tokens.size(), errores, inicio);
+        return errores;
+    }
+
+    @Override
+    public List<AnalysisError> analyze(AnalysisContext contexto) {
+        long inicio = System.nanoTime();
+        List<AnalysisError> errores = analizador.analyze(contexto);
+        registrar(contexto.getLanguage(), contexto.getTokens().size(), errores, inicio);
+        return errores;
+    }
+
+    private void registrar(LanguageType lenguaje, int tokens, List<AnalysisError> errores, long inicio) {
+        long duracion = System.nanoTime() - inicio;
+        metricas.registrar(AnalysisMetrics.Etapa.SINTACTICO, lenguaje, 0, tokens,
+                errores != null ? errores.size() : 0, duracion);
+    }
+}
@@ -0,0 +1,93 @@
+package com.analyzer.service.metrics;
+
+import com.analyzer.model.LanguageType;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de una etapa para un lenguaje. Se actualizan sin bloqueos desde
+ * cualquier hilo; la latencia se acumula en un histograma de potencias de dos
+ * de nanosegundos, así que los percentiles son cotas superiores.
+ */
+final class StageMetrics {
+
+    // Cubeta i: latencias en [2^(i-1), 2^i) nanosegundos; la 0 es para 0 ns
+    private static final int CUBETAS = 64;
+
+    private final AnalysisMetrics.Etapa etapa;
+    private final LanguageType lenguaje;
+
+    private final LongAdder llamadas = new LongAdder();
+    private final LongAdder caracteres = new LongAdder();
+    private final LongAdder tokens = new LongAdder();
+    private final LongAdder errores = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final LongAccumulator maximo = new LongAccumulator(Math::max, 0);
+    private final LongAdder[] histograma = new LongAdder[CUBETAS];
+
+    StageMetrics(AnalysisMetrics.Etapa etapa, LanguageType lenguaje) {
+        this.etapa = etapa;
+        this.lenguaje = lenguaje;
+        for (int i = 0; i < CUBETAS; i++) {
+            histograma[i] = new LongAdder();
+        }
+    }
+
+    void registrar(long caracteresLeidos, long tokensProcesados, long erroresReportados, long duracion) {
+        long latencia = Math.max(duracion, 0);
+        llamadas.increment();
+        caracteres.add(caracteresLeidos);
+        tokens.add(tokensProcesados);
+        errores.add(erroresReportados);
+        nanos.add(latencia);
+        maximo.accumulate(latencia);
+        histograma[Math.min(64 - Long.numberOfLeadingZeros(latencia), CUBETAS - 1)].increment();
+    }
+
+    void reiniciar() {
+        llamadas.reset();
+        caracteres.reset();
+        tokens.reset();
+        errores.reset();
+        nanos.reset();
+        maximo.reset();
+        for (LongAdder cubeta : histograma) {
+            cubeta.reset();
+        }
+    }
+
+    /**
+     * Copia de los contadores; con análisis en curso los valores pueden no
+     * corresponder todos exactamente al mismo instante
+     */
+    StageSnapshot instantanea() {
+        long[] cuentas = new long[CUBETAS];
+        long total = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            cuentas[i] = histograma[i].sum();
+            total += cuentas[i];
+        }
+        return new StageSnapshot(etapa.name(), lenguaje.name(), llamadas.sum(), caracteres.sum(), tokens.sum(),
+                errores.sum(), nanos.sum(), maximo.get(),
+                percentil(cuentas, total, 0.50), percentil(cuentas, total, 0.90), percentil(cuentas, total, 0.99));
+    }
+
+    /**
+     * Límite superior de la cubeta en la que cae el percentil
+     */
+    private static long percentil(long[] cuentas, long total, double fraccion) {
+        if (total == 0) {
+            return 0;
+        }
+        long objetivo = (long) Math.ceil(total * fraccion);
+        long acumulado = 0;
+        for (int i = 0; i < cuentas.length; i++) {
+            acumulado += cuentas[i];
+            if (acumulado >= objetivo) {
+                return i == 0 ? 0 : (i >= 63 ? Long.MAX_VALUE : (1L << i) - 1);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,73 @@
+package com.analyzer.service.metrics;
+
+/**
+ * Valores de los contadores de una etapa y un lenguaje en un momento dado.
+ * Los tiempos están en nanosegundos; los percentiles de latencia son el
+ * límite superior de la cubeta del histograma en la que caen.
+ */
+public final class StageSnapshot {
+    private final String etapa;
+    private final String lenguaje;
+    private final long llamadas;
+    private final long caracteres;
+    private final long tokens;
+    private final long errores;
+    private final long nanosTotales;
+    private final long nanosMaximo;
+    private final long nanosP50;
+    private final long nanosP90;
+    private final long nanosP99;
+
+    StageSnapshot(String etapa, String lenguaje, long llamadas, long caracteres, long tokens, long errores,
+                  long nanosTotales, long nanosMaximo, long nanosP50, long nanosP90, long nanosP99) {
+        this.etapa = etapa;
+        this.lenguaje = lenguaje;
+        this.llamadas = llamadas;
+        this.caracteres = caracteres;
+        this.tokens = tokens;
+        this.errores = errores;
+        this.nanosTotales = nanosTotales;
+        this.nanosMaximo = nanosMaximo;
+        this.nanosP50 = nanosP50;
+        this.nanosP90 = nanosP90;
+        this.nanosP99 = nanosP99;
+    }
+
+    public String getEtapa() { return etapa; }
+    public String getLenguaje() { return lenguaje; }
+    public long getLlamadas() { return llamadas; }
+
+    /**
+     * Caracteres de entrada; solo los cuenta la etapa léxica
+     */
+    public long getCaracteres() { return caracteres; }
+
+    /**
+     * Tokens producidos por la etapa léxica o recorridos por las demás
+     */
+    public long getTokens() { return tokens; }
+    public long getErrores() { return errores; }
+    public long getNanosTotales() { return nanosTotales; }
+    public long getNanosMaximo() { return nanosMaximo; }
+    public long getNanosP50() { return nanosP50; }
+    public long getNanosP90() { return nanosP90; }
+    public long getNanosP99() { return nanosP99; }
+
+    /**
+     * Caracteres por segundo de análisis, o 0 si todavía no hubo llamadas
+     */
+    public double getCaracteresPorSegundo() {
+        return nanosTotales == 0 ? 0 : caracteres * 1e9 / nanosTotales;
+    }
+
+    public double getTokensPorSegundo() {
+        return nanosTotales == 0 ? 0 : tokens * 1e9 / nanosTotales;
+    }
+
+    @Override
+    public String toString() {
+        return etapa + "/" + lenguaje + ": " + llamadas + " llamadas, " + caracteres + " caracteres, "
+                + tokens + " tokens, " + errores + " errores, p50=" + nanosP50 + "ns p99=" + nanosP99
+                + "ns max=" + nanosMaximo + "ns";
+    }
+}
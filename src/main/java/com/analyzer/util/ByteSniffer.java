@@ -0,0 +1,195 @@
+package com.analyzer.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reconoce la codificación de un archivo mirando sus bytes, antes de
+ * decodificarlo: primero la marca de orden de bytes (BOM) y, si no la tiene,
+ * si los primeros bytes son UTF-8 válido. También da una vista de los bytes
+ * como texto, sin decodificar, para buscar en ella cadenas ASCII.
+ */
+public final class ByteSniffer {
+
+    private static final Charset UTF_32BE = Charset.forName("UTF-32BE");
+    private static final Charset UTF_32LE = Charset.forName("UTF-32LE");
+
+    private ByteSniffer() {
+    }
+
+    /**
+     * Codificación indicada por el BOM al inicio de los bytes; sin BOM, UTF-8 si
+     * los primeros bytes revisados son UTF-8 válido y si no Latin-1, donde
+     * cualquier byte es un carácter
+     * @param revisar cantidad de bytes del inicio en los que se valida UTF-8
+     */
+    public static Charset detectarCharset(ByteBuffer bytes, int revisar) {
+        Charset porBom = charsetPorBom(bytes);
+        if (porBom != null) {
+            return porBom;
+        }
+        int hasta = bytes.position() + Math.min(revisar, bytes.remaining());
+        return esUtf8Valido(bytes, bytes.position(), hasta) ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1;
+    }
+
+    /**
+     * Codificación del BOM con que empiezan los bytes, o null si no tienen BOM
+     */
+    public static Charset charsetPorBom(ByteBuffer bytes) {
+        int p = bytes.position();
+        int n = bytes.remaining();
+        int b0 = n > 0 ? bytes.get(p) & 0xFF : -1;
+        int b1 = n > 1 ? bytes.get(p + 1) & 0xFF : -1;
+        int b2 = n > 2 ? bytes.get(p + 2) & 0xFF : -1;
+        int b3 = n > 3 ? bytes.get(p + 3) & 0xFF : -1;
+        // UTF-32LE antes que UTF-16LE: su BOM empieza igual
+        if (b0 == 0x00 && b1 == 0x00 && b2 == 0xFE && b3 == 0xFF) {
+            return UTF_32BE;
+        }
+        if (b0 == 0xFF && b1 == 0xFE && b2 == 0x00 && b3 == 0x00) {
+            return UTF_32LE;
+        }
+        if (b0 == 0xEF && b1 == 0xBB && b2 == 0xBF) {
+            return StandardCharsets.UTF_8;
+        }
+        if (b0 == 0xFE && b1 == 0xFF) {
+            return StandardCharsets.UTF_16BE;
+        }
+        if (b0 == 0xFF && b1 == 0xFE) {
+            return StandardCharsets.UTF_16LE;
+        }
+        return null;
+    }
+
+    /**
+     * Bytes del BOM con que empiezan los bytes, o 0 si no tienen BOM
+     */
+    public static int longitudBom(ByteBuffer bytes) {
+        Charset porBom = charsetPorBom(bytes);
+        if (porBom == null) {
+            return 0;
+        }
+        return porBom.equals(StandardCharsets.UTF_8) ? 3 : anchoUnidad(porBom);
+    }
+
+    /**
+     * Vista de los bytes que siguen al BOM como texto de unidades del ancho de
+     * la codificación, sin decodificar ni copiar. En UTF-8 y Latin-1 cada byte
+     * es un carácter, así que los caracteres de varios bytes aparecen como
+     * varios caracteres no ASCII: solo sirve para buscar cadenas ASCII, que se
+     * encuentran igual que en el texto decodificado.
+     */
+    public static CharSequence vistaAscii(ByteBuffer bytes, Charset charset) {
+        int bom = longitudBom(bytes);
+        int ancho = anchoUnidad(charset);
+        boolean mayorPrimero = charset.equals(StandardCharsets.UTF_16BE) || charset.equals(UTF_32BE);
+        int inicio = bytes.position() + bom;
+        return new VistaBytes(bytes, inicio, (bytes.limit() - inicio) / ancho, ancho, mayorPrimero);
+    }
+
+    /**
+     * Indica si bytes[desde, hasta) es UTF-8 válido; una secuencia cortada por
+     * hasta se acepta, porque puede seguir después de lo revisado
+     */
+    static boolean esUtf8Valido(ByteBuffer bytes, int desde, int hasta) {
+        int i = desde;
+        while (i < hasta) {
+            int b = bytes.get(i) & 0xFF;
+            if (b < 0x80) {
+                i++;
+                continue;
+            }
+            int continuaciones;
+            int minimoSegundo = 0x80;
+            int maximoSegundo = 0xBF;
+            if (b >= 0xC2 && b <= 0xDF) {
+                continuaciones = 1;
+            } else if (b >= 0xE0 && b <= 0xEF) {
+                continuaciones = 2;
+                // Sin formas largas ni sustitutos codificados
+                if (b == 0xE0) minimoSegundo = 0xA0;
+                if (b == 0xED) maximoSegundo = 0x9F;
+            } else if (b >= 0xF0 && b <= 0xF4) {
+                continuaciones = 3;
+                if (b == 0xF0) minimoSegundo = 0x90;
+                if (b == 0xF4) maximoSegundo = 0x8F;
+            } else {
+                return false;
+            }
+            for (int k = 1; k <= continuaciones && i + k < hasta; k++) {
+                int c = bytes.get(i + k) & 0xFF;
+                int minimo = k == 1 ? minimoSegundo : 0x80;
+                int maximo = k == 1 ? maximoSegundo : 0xBF;
+                if (c < minimo || c > maximo) {
+                    return false;
+                }
+            }
+            i += continuaciones + 1;
+        }
+        return true;
+    }
+
+    private static int anchoUnidad(Charset charset) {
+        if (charset.equals(StandardCharsets.UTF_16BE) || charset.equals(StandardCharsets.UTF_16LE)) {
+            return 2;
+        }
+        if (charset.equals(UTF_32BE) || charset.equals(UTF_32LE)) {
+            return 4;
+        }
+        return 1;
+    }
+
+    /**
+     * Unidades de uno, dos o cuatro bytes leídas como caracteres; las de UTF-32
+     * fuera del plano básico se leen como U+FFFF
+     */
+    private static final class VistaBytes implements CharSequence {
+        private final ByteBuffer bytes;
+        private final int inicio;
+        private final int longitud;
+        private final int ancho;
+        private final boolean mayorPrimero;
+
+        VistaBytes(ByteBuffer bytes, int inicio, int longitud, int ancho, boolean mayorPrimero) {
+            this.bytes = bytes;
+            this.inicio = inicio;
+            this.longitud = longitud;
+            this.ancho = ancho;
+            this.mayorPrimero = mayorPrimero;
+        }
+
+        @Override
+        public int length() {
+            return longitud;
+        }
+
+        @Override
+        public char charAt(int indice) {
+            int posicion = inicio + indice * ancho;
+            if (ancho == 1) {
+                return (char) (bytes.get(posicion) & 0xFF);
+            }
+            int valor = 0;
+            for (int k = 0; k < ancho; k++) {
+                int b = bytes.get(posicion + (mayorPrimero ? k : ancho - 1 - k)) & 0xFF;
+                valor = (valor << 8) | b;
+            }
+            return valor >= 0 && valor <= Character.MAX_VALUE ? (char) valor : '\uFFFF';
+        }
+
+        @Override
+        public CharSequence subSequence(int desde, int hasta) {
+            return new VistaBytes(bytes, inicio + desde * ancho, hasta - desde, ancho, mayorPrimero);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder texto = new StringBuilder(longitud);
+            for (int i = 0; i < longitud; i++) {
+                texto.append(charAt(i));
+            }
+            return texto.toString();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.analyzer.util;
+
+/**
+ * Recorridos de tramos de caracteres que usan los escáneres de cada lenguaje:
+ * espacios, identificadores y dígitos ASCII, y la búsqueda del siguiente de
+ * unos pocos caracteres.
+ * <p>
+ * Los primeros caracteres se revisan de a uno, porque la mayoría de los tramos
+ * son cortos. Si el tramo sigue, el proyecto se compiló con el perfil vector
+ * ({@code mvn -Pvector}) y el módulo jdk.incubator.vector está cargado (por
+ * ejemplo con {@code --add-modules jdk.incubator.vector}), el resto se compara
+ * de a varios caracteres por instrucción; si no, se sigue de a uno. El
+ * resultado es el mismo en los dos casos.
+ */
+public final class CharScan {
+
+    // Caracteres que se revisan de a uno antes de pasar al recorrido vectorial
+    private static final int TRAMO_ESCALAR = 16;
+
+    private static final Vectorial VECTORIAL = cargarVectorial();
+
+    /**
+     * Recorrido vectorial. Cada operación avanza mientras puede comparar de a
+     * un vector completo y devuelve la posición en la que se detuvo: la del
+     * primer carácter que termina el tramo, o una anterior si no puede seguir
+     */
+    interface Vectorial {
+        int saltarEspacios(CharSequence texto, int desde, int hasta);
+        int finIdentificador(CharSequence texto, int desde, int hasta);
+        int finDigitos(CharSequence texto, int desde, int hasta);
+        int buscar(CharSequence texto, int desde, int hasta, char a, char b, char c);
+    }
+
+    private CharScan() {
+    }
+
+    private static Vectorial cargarVectorial() {
+        Module vector = ModuleLayer.boot().findModule("jdk.incubator.vector").orElse(null);
+        if (vector == null) {
+            return null;
+        }
+        try {
+            // Por nombre, para que sin el módulo o sin el perfil vector no se llegue a
+            // cargar la clase; el módulo com.analyzer no declara que lo lee
+            CharScan.class.getModule().addReads(vector);
+            return (Vectorial) Class.forName("com.analyzer.util.CharScanVector")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Indica si los recorridos usan instrucciones vectoriales
+     */
+    public static boolean esVectorial() {
+        return VECTORIAL != null;
+    }
+
+    /**
+     * Primera posición desde la indicada que no es un espacio según
+     * Character.isWhitespace. Los tramos de espacios ASCII se recorren como los
+     * demás tramos; un espacio no ASCII se salta de a uno y el recorrido sigue.
+     */
+    public static int saltarEspacios(CharSequence texto, int desde, int hasta) {
+        int i = saltarEspaciosAscii(texto, desde, hasta);
+        while (i < hasta && texto.charAt(i) >= 0x80 && Character.isWhitespace(texto.charAt(i))) {
+            i = saltarEspaciosAscii(texto, i + 1, hasta);
+        }
+        return i;
+    }
+
+    private static int saltarEspaciosAscii(CharSequence texto, int desde, int hasta) {
+        int i = desde;
+        int corte = Math.min(hasta, desde + TRAMO_ESCALAR);
+        while (i < corte && esEspacioAscii(texto.charAt(i))) i++;
+        if (i == corte && VECTORIAL != null) {
+            i = VECTORIAL.saltarEspacios(texto, i, hasta);
+        }
+        while (i < hasta && esEspacioAscii(texto.charAt(i))) i++;
+        return i;
+    }
+
+    /**
+     * Fin del tramo de caracteres [a-zA-Z0-9_] que empieza en la posición indicada
+     */
+    public static int finIdentificador(CharSequence texto, int desde, int hasta) {
+        int i = desde;
+        int corte = Math.min(hasta, desde + TRAMO_ESCALAR);
+        while (i < corte && esParteIdentificador(texto.charAt(i))) i++;
+        if (i == corte && VECTORIAL != null) {
+            i = VECTORIAL.finIdentificador(texto, i, hasta);
+        }
+        while (i < hasta && esParteIdentificador(texto.charAt(i))) i++;
+        return i;
+    }
+
+    /**
+     * Fin del tramo de dígitos ASCII que empieza en la posición indicada
+     */
+    public static int finDigitos(CharSequence texto, int desde, int hasta) {
+        int i = desde;
+        int corte = Math.min(hasta, desde + TRAMO_ESCALAR);
+        while (i < corte && esDigito(texto.charAt(i))) i++;
+        if (i == corte && VECTORIAL != null) {
+            i = VECTORIAL.finDigitos(texto, i, hasta);
+        }
+        while (i < hasta && esDigito(texto.charAt(i))) i++;
+        return i;
+    }
+
+    /**
+     * Posición del primer carácter igual a a, o hasta si no aparece
+     */
+    public static int buscar(CharSequence texto, int desde, int hasta, char a) {
+        return buscar(texto, desde, hasta, a, a, a);
+    }
+
+    public static int buscar(CharSequence texto, int desde, int hasta, char a, char b) {
+        return buscar(texto, desde, hasta, a, b, b);
+    }
+
+    /**
+     * Posición del primer carácter igual a a, b o c, o hasta si no aparece ninguno
+     */
+    public static int buscar(CharSequence texto, int desde, int hasta, char a, char b, char c) {
+        int i = desde;
+        int corte = Math.min(hasta, desde + TRAMO_ESCALAR);
+        while (i < corte && !esUnoDe(texto.charAt(i), a, b, c)) i++;
+        if (i == corte && VECTORIAL != null) {
+            i = VECTORIAL.buscar(texto, i, hasta, a, b, c);
+        }
+        while (i < hasta && !esUnoDe(texto.charAt(i), a, b, c)) i++;
+        return i;
+    }
+
+    private static boolean esEspacioAscii(char c) {
+        return (c >= '\t' && c <= '\r') || (c >= '\u001C' && c <= ' ');
+    }
+
+    private static boolean esParteIdentificador(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    private static boolean esDigito(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean esUnoDe(char x, char a, char b, char c) {
+        return x == a || x == b || x == c;
+    }
+}
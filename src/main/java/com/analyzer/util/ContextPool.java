@@ -0,0 +1,45 @@
+package com.analyzer.util;
+
+import java.util.ArrayDeque;
+import java.util.function.Supplier;
+
+/**
+ * Contextos reutilizables de un analizador: el estado de cada análisis vive en
+ * un contexto que se toma al empezar y se devuelve al terminar, así que una
+ * misma instancia puede atender varios análisis a la vez sin bloqueos.
+ * <p>
+ * Cada hilo guarda sus propios contextos libres. Un análisis anidado en el
+ * mismo hilo, por ejemplo desde el consumidor de un análisis por ventanas,
+ * toma otro contexto distinto del que está en uso.
+ */
+public final class ContextPool<T> {
+
+    // Contextos libres que conserva cada hilo; los demás se descartan al devolverlos
+    private static final int LIBRES_POR_HILO = 4;
+
+    private final Supplier<T> fabrica;
+    private final ThreadLocal<ArrayDeque<T>> libres = ThreadLocal.withInitial(ArrayDeque::new);
+
+    public ContextPool(Supplier<T> fabrica) {
+        this.fabrica = fabrica;
+    }
+
+    /**
+     * Un contexto libre del hilo actual, o uno nuevo si no queda ninguno
+     */
+    public T tomar() {
+        T contexto = libres.get().pollFirst();
+        return contexto != null ? contexto : fabrica.get();
+    }
+
+    /**
+     * Devuelve un contexto que ya no se usa; quien lo devuelve debe haber
+     * soltado antes las referencias al texto analizado
+     */
+    public void devolver(T contexto) {
+        ArrayDeque<T> delHilo = libres.get();
+        if (delHilo.size() < LIBRES_POR_HILO) {
+            delHilo.addFirst(contexto);
+        }
+    }
+}
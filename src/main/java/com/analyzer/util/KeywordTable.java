@@ -0,0 +1,216 @@
+package com.analyzer.util;
+
+import java.util.*;
+
+/**
+ * Conjunto fijo de palabras con hash perfecto: cada palabra ocupa una casilla
+ * propia, así que una búsqueda calcula un hash y compara contra una sola
+ * palabra. Se busca directamente sobre un tramo de un CharSequence, sin crear
+ * Strings. La semilla del hash se elige al construir la tabla, una sola vez.
+ */
+public final class KeywordTable {
+
+    // Intentos de semilla antes de duplicar el tamaño de la tabla
+    private static final int INTENTOS_POR_TAMANO = 1 << 12;
+
+    private final String[] palabras;
+    private final char[][] casillas;
+    private final int[] indices;
+    private final int mascara;
+    private final int semilla;
+    private final Mayusculas modo;
+    private final int longitudMinima;
+    private final int longitudMaxima;
+
+    /**
+     * Cómo se comparan mayúsculas y minúsculas
+     */
+    private enum Mayusculas {
+        // Comparación exacta
+        EXACTA,
+        // Como palabra.toUpperCase() contra palabras en mayúsculas
+        MAYUSCULAS,
+        // Como palabra.toLowerCase() contra palabras en minúsculas
+        MINUSCULAS
+    }
+
+    private KeywordTable(Mayusculas modo, String... palabras) {
+        this.modo = modo;
+        this.palabras = new String[palabras.length];
+        int minima = Integer.MAX_VALUE;
+        int maxima = 0;
+        for (int i = 0; i < palabras.length; i++) {
+            String palabra = modo == Mayusculas.MAYUSCULAS ? palabras[i].toUpperCase(Locale.ROOT)
+                    : modo == Mayusculas.MINUSCULAS ? palabras[i].toLowerCase(Locale.ROOT) : palabras[i];
+            for (int j = 0; j < i; j++) {
+                if (this.palabras[j].equals(palabra)) {
+                    throw new IllegalArgumentException("Palabra repetida: " + palabra);
+                }
+            }
+            this.palabras[i] = palabra;
+            minima = Math.min(minima, palabra.length());
+            maxima = Math.max(maxima, palabra.length());
+        }
+        this.longitudMinima = minima;
+        this.longitudMaxima = maxima;
+
+        int tamano = Integer.highestOneBit(Math.max(1, palabras.length) * 2 - 1) << 1;
+        int encontrada;
+        while ((encontrada = buscarSemilla(tamano - 1)) == 0) {
+            tamano <<= 1;
+        }
+        this.mascara = tamano - 1;
+        this.semilla = encontrada;
+
+        this.casillas = new char[tamano][];
+        this.indices = new int[tamano];
+        for (int i = 0; i < this.palabras.length; i++) {
+            int casilla = casilla(hash(this.palabras[i], 0, this.palabras[i].length(), semilla));
+            casillas[casilla] = this.palabras[i].toCharArray();
+            indices[casilla] = i;
+        }
+    }
+
+    /**
+     * Tabla que distingue mayúsculas de minúsculas
+     */
+    public static KeywordTable exacta(String... palabras) {
+        return new KeywordTable(Mayusculas.EXACTA, palabras);
+    }
+
+    /**
+     * Tabla que reconoce una palabra si su versión en mayúsculas está en la tabla
+     */
+    public static KeywordTable enMayusculas(String... palabras) {
+        return new KeywordTable(Mayusculas.MAYUSCULAS, palabras);
+    }
+
+    /**
+     * Tabla que reconoce una palabra si su versión en minúsculas está en la tabla
+     */
+    public static KeywordTable enMinusculas(String... palabras) {
+        return new KeywordTable(Mayusculas.MINUSCULAS, palabras);
+    }
+
+    public int size() { return palabras.length; }
+
+    /**
+     * Palabra de la tabla en la forma en que se compara (en mayúsculas o en
+     * minúsculas según la tabla), en el orden en que se pasó al construirla
+     */
+    public String palabra(int indice) {
+        return palabras[indice];
+    }
+
+    public boolean contiene(CharSequence palabra) {
+        return indice(palabra, 0, palabra.length()) >= 0;
+    }
+
+    public boolean contiene(CharSequence texto, int desde, int hasta) {
+        return indice(texto, desde, hasta) >= 0;
+    }
+
+    /**
+     * Posición en la tabla de la palabra texto[desde, hasta), o -1 si no está
+     */
+    public int indice(CharSequence texto, int desde, int hasta) {
+        int longitud = hasta - desde;
+        if (longitud < longitudMinima || longitud > longitudMaxima) {
+            return -1;
+        }
+
+        int h = semilla;
+        for (int i = desde; i < hasta; i++) {
+            char c = texto.charAt(i);
+            if (c >= 0x80 && modo != Mayusculas.EXACTA) {
+                // Fuera de ASCII el cambio de mayúsculas puede variar la longitud
+                return indiceConvertido(texto.subSequence(desde, hasta).toString());
+            }
+            h = h * 31 + plegar(c);
+        }
+
+        return comparar(texto, desde, longitud, h);
+    }
+
+    /**
+     * Compara texto[desde, desde + longitud) con la única palabra que puede
+     * tener el hash h
+     */
+    private int comparar(CharSequence texto, int desde, int longitud, int h) {
+        int casilla = casilla(h);
+        char[] candidata = casillas[casilla];
+        if (candidata == null || candidata.length != longitud) {
+            return -1;
+        }
+        for (int i = 0; i < longitud; i++) {
+            if (plegar(texto.charAt(desde + i)) != candidata[i]) {
+                return -1;
+            }
+        }
+        return indices[casilla];
+    }
+
+    private int indiceConvertido(String palabra) {
+        String convertida = modo == Mayusculas.MAYUSCULAS ? palabra.toUpperCase() : palabra.toLowerCase();
+        return comparar(convertida, 0, convertida.length(), hash(convertida, 0, convertida.length(), semilla));
+    }
+
+    /**
+     * Semilla distinta de cero con la que ninguna palabra comparte casilla, o
+     * cero si no hay ninguna para esta máscara
+     */
+    private int buscarSemilla(int mascara) {
+        boolean[] ocupadas = new boolean[mascara + 1];
+        for (int intento = 1; intento <= INTENTOS_POR_TAMANO; intento++) {
+            int candidata = intento * 0x9E3779B9;
+            if (candidata == 0) {
+                continue;
+            }
+            Arrays.fill(ocupadas, false);
+            boolean colision = false;
+            for (String palabra : palabras) {
+                int casilla = mezclar(hash(palabra, 0, palabra.length(), candidata)) & mascara;
+                if (ocupadas[casilla]) {
+                    colision = true;
+                    break;
+                }
+                ocupadas[casilla] = true;
+            }
+            if (!colision) {
+                return candidata;
+            }
+        }
+        return 0;
+    }
+
+    private static int hash(CharSequence palabra, int desde, int hasta, int semilla) {
+        int h = semilla;
+        for (int i = desde; i < hasta; i++) {
+            h = h * 31 + palabra.charAt(i);
+        }
+        return h;
+    }
+
+    private int casilla(int h) {
+        return mezclar(h) & mascara;
+    }
+
+    private static int mezclar(int h) {
+        h *= 0x85EBCA6B;
+        return h ^ (h >>> 15);
+    }
+
+    /**
+     * Lleva un carácter ASCII a la forma en que se guardan las palabras
+     */
+    private char plegar(char c) {
+        switch (modo) {
+            case MAYUSCULAS:
+                return c >= 'a' && c <= 'z' ? (char) (c - 32) : c;
+            case MINUSCULAS:
+                return c >= 'A' && c <= 'Z' ? (char) (c + 32) : c;
+            default:
+                return c;
+        }
+    }
+}
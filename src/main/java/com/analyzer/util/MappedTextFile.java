@@ -0,0 +1,290 @@
+package com.analyzer.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Archivo de texto mapeado en memoria con FileChannel.map. El contenido queda en
+ * la caché de páginas del sistema y no se decodifica completo en el heap: se lee
+ * con {@link #abrirLector()}, que decodifica por partes, o con
+ * {@link #comoTexto()}, una vista sin copia cuando cada byte es un carácter.
+ * Los bytes del BOM, si se indican, quedan fuera del texto.
+ */
+public final class MappedTextFile implements Closeable {
+
+    // Tamaño máximo de cada región mapeada
+    private static final long TAMANO_REGION = 1L << 30;
+
+    private final FileChannel canal;
+    private final Charset charset;
+    private final long tamano;
+    // Posición del primer byte del texto, después del BOM
+    private final long inicio;
+    private final boolean unByte;
+    // Si los bytes ASCII son los mismos caracteres, como en UTF-8 y no en UTF-16
+    private final boolean compatibleAscii;
+    private Boolean soloAscii;
+
+    public MappedTextFile(Path ruta, Charset charset) throws IOException {
+        this(ruta, charset, 0);
+    }
+
+    /**
+     * @param bom bytes del inicio que no forman parte del texto
+     */
+    public MappedTextFile(Path ruta, Charset charset, int bom) throws IOException {
+        this.canal = FileChannel.open(ruta, StandardOpenOption.READ);
+        this.charset = charset;
+        this.tamano = canal.size();
+        this.inicio = Math.min(bom, tamano);
+        this.unByte = charset.equals(StandardCharsets.ISO_8859_1);
+        this.compatibleAscii = unByte || charset.equals(StandardCharsets.UTF_8)
+                || charset.equals(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Mapea un archivo UTF-8 en memoria sin cargarlo en el heap, para analizar
+     * archivos grandes; el llamador debe cerrarlo
+     */
+    public static MappedTextFile mapTextFile(Path ruta) throws IOException {
+        return new MappedTextFile(ruta, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Mapea un archivo con la codificación ya reconocida, saltando los bytes
+     * de su BOM; el llamador debe cerrarlo
+     */
+    public static MappedTextFile mapTextFile(Path ruta, Charset charset, int bom) throws IOException {
+        return new MappedTextFile(ruta, charset, bom);
+    }
+
+    /**
+     * Bytes del archivo mapeados en memoria, sin decodificar, para reconocer su
+     * lenguaje y codificación; de un archivo de más de 2 GB solo se mapea el
+     * inicio. Solo se leen del disco las páginas que se recorren.
+     */
+    public static MappedByteBuffer mapBytes(Path ruta) throws IOException {
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            return canal.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(canal.size(), Integer.MAX_VALUE));
+        }
+    }
+
+    /**
+     * Bytes del texto, sin el BOM
+     */
+    public long tamano() { return tamano - inicio; }
+
+    /**
+     * Indica si cada byte del archivo es un carácter: Latin-1, o un archivo
+     * que solo tiene ASCII. La comprobación recorre el archivo una sola vez.
+     */
+    public boolean esUnBytePorCaracter() throws IOException {
+        if (unByte) {
+            return true;
+        }
+        if (!compatibleAscii) {
+            return false;
+        }
+        if (soloAscii == null) {
+            soloAscii = verificarAscii();
+        }
+        return soloAscii;
+    }
+
+    /**
+     * Vista del archivo como CharSequence sin copiar su contenido; cada acceso
+     * lee el byte mapeado. Solo es posible si cada byte es un carácter y el
+     * archivo cabe en una región de int posiciones.
+     */
+    public CharSequence comoTexto() throws IOException {
+        if (tamano() > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Archivo demasiado grande para verse como texto: " + tamano() + " bytes");
+        }
+        if (!esUnBytePorCaracter()) {
+            throw new IllegalStateException("El archivo tiene caracteres de varios bytes; use abrirLector()");
+        }
+        return new VistaUnByte(canal.map(FileChannel.MapMode.READ_ONLY, inicio, tamano()), 0, (int) tamano());
+    }
+
+    /**
+     * Reader que decodifica el archivo mapeado por partes; en las codificaciones
+     * compatibles con ASCII, los bytes ASCII (o todos, en Latin-1) se copian
+     * directamente sin pasar por el decodificador
+     */
+    public Reader abrirLector() {
+        return new LectorMapeado();
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    private boolean verificarAscii() throws IOException {
+        for (long desde = inicio; desde < tamano; desde += TAMANO_REGION) {
+            MappedByteBuffer region = canal.map(FileChannel.MapMode.READ_ONLY, desde,
+                    Math.min(TAMANO_REGION, tamano - desde));
+            while (region.hasRemaining()) {
+                if (region.get() < 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Texto de un byte por carácter sobre el buffer mapeado
+     */
+    private static final class VistaUnByte implements CharSequence {
+        private final ByteBuffer bytes;
+        private final int inicio;
+        private final int longitud;
+
+        VistaUnByte(ByteBuffer bytes, int inicio, int longitud) {
+            this.bytes = bytes;
+            this.inicio = inicio;
+            this.longitud = longitud;
+        }
+
+        @Override
+        public int length() {
+            return longitud;
+        }
+
+        @Override
+        public char charAt(int indice) {
+            return (char) (bytes.get(inicio + indice) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int desde, int hasta) {
+            return new VistaUnByte(bytes, inicio + desde, hasta - desde);
+        }
+
+        @Override
+        public String toString() {
+            byte[] copia = new byte[longitud];
+            bytes.get(inicio, copia);
+            return new String(copia, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    /**
+     * Lector que avanza región por región. Una secuencia de varios bytes que
+     * queda cortada al final de una región se vuelve a mapear al inicio de la siguiente.
+     */
+    private final class LectorMapeado extends Reader {
+        // Caracteres que se decodifican de una vez antes de volver a la copia directa
+        private static final int TRAMO_DECODIFICADO = 256;
+
+        private final CharsetDecoder decodificador = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private MappedByteBuffer region;
+        private long inicioRegion;
+        private boolean terminado;
+
+        // Segunda mitad de un par sustituto que no cupo en la lectura anterior
+        private char pendiente;
+        private boolean hayPendiente;
+
+        @Override
+        public int read(char[] destino, int desplazamiento, int cantidad) throws IOException {
+            if (cantidad == 0) {
+                return 0;
+            }
+            int escritos = 0;
+            if (hayPendiente) {
+                destino[desplazamiento + escritos++] = pendiente;
+                hayPendiente = false;
+            }
+
+            while (escritos < cantidad && !terminado) {
+                if (!prepararRegion()) {
+                    // Fin del archivo: vaciar el estado del decodificador
+                    CharBuffer salida = CharBuffer.wrap(destino, desplazamiento + escritos, cantidad - escritos);
+                    decodificador.decode(ByteBuffer.allocate(0), salida, true);
+                    decodificador.flush(salida);
+                    escritos = salida.position() - desplazamiento;
+                    terminado = true;
+                    break;
+                }
+
+                // Copia directa mientras cada byte sea un carácter
+                while (compatibleAscii && escritos < cantidad && region.hasRemaining()) {
+                    byte b = region.get(region.position());
+                    if (b < 0 && !unByte) {
+                        break;
+                    }
+                    region.position(region.position() + 1);
+                    destino[desplazamiento + escritos++] = (char) (b & 0xFF);
+                }
+
+                if (escritos < cantidad && region.hasRemaining()) {
+                    int tramo = Math.min(cantidad - escritos, TRAMO_DECODIFICADO);
+                    CharBuffer salida = CharBuffer.wrap(destino, desplazamiento + escritos, tramo);
+                    int antes = region.position();
+                    boolean ultima = esUltimaRegion();
+                    CoderResult resultado = decodificador.decode(region, salida, ultima);
+                    escritos = salida.position() - desplazamiento;
+                    if (resultado.isUnderflow() && region.position() == antes && !ultima) {
+                        // Secuencia cortada por el borde de la región
+                        mapear(inicioRegion + region.position());
+                    } else if (resultado.isOverflow() && region.position() == antes) {
+                        // Solo queda lugar para la primera mitad de un par sustituto
+                        CharBuffer par = CharBuffer.allocate(2);
+                        decodificador.decode(region, par, ultima);
+                        par.flip();
+                        destino[desplazamiento + escritos++] = par.get();
+                        if (par.hasRemaining()) {
+                            pendiente = par.get();
+                            hayPendiente = true;
+                        }
+                    }
+                }
+            }
+
+            return escritos == 0 && terminado ? -1 : escritos;
+        }
+
+        /**
+         * Deja una región con bytes pendientes, mapeando la siguiente si hace falta.
+         * @return false si ya no quedan bytes
+         */
+        private boolean prepararRegion() throws IOException {
+            if (region == null) {
+                mapear(inicio);
+            } else if (!region.hasRemaining() && !esUltimaRegion()) {
+                mapear(inicioRegion + region.limit());
+            }
+            return region.hasRemaining();
+        }
+
+        private boolean esUltimaRegion() {
+            return inicioRegion + region.limit() >= tamano;
+        }
+
+        private void mapear(long desde) throws IOException {
+            region = canal.map(FileChannel.MapMode.READ_ONLY, desde, Math.min(TAMANO_REGION, tamano - desde));
+            inicioRegion = desde;
+        }
+
+        @Override
+        public void close() {
+            region = null;
+        }
+    }
+}
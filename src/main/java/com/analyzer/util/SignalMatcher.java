@@ -0,0 +1,155 @@
+package com.analyzer.util;
+
+import java.util.*;
+
+/**
+ * Autómata de Aho–Corasick que busca a la vez un conjunto fijo de cadenas
+ * ASCII sin distinguir mayúsculas. Se construye una vez y recorre el texto
+ * con una sola transición por carácter, informando cada aparición de cada
+ * cadena, incluidas las que se superponen.
+ */
+public final class SignalMatcher {
+
+    private static final int ALFABETO = 128;
+
+    // Siguiente estado para cada estado y carácter ASCII en minúsculas; el estado 0 es la raíz
+    private final int[] transiciones;
+    // Cadenas que terminan en cada estado, incluidas las que son sufijo de otra; null si ninguna
+    private final int[][] salidas;
+    private final int[] longitudes;
+
+    /**
+     * Recibe cada aparición de una cadena, en orden de posición final
+     */
+    public interface Receptor {
+        /**
+         * @param patron índice de la cadena en el constructor
+         * @return false para detener el recorrido
+         */
+        boolean encontrado(int patron, int inicio, int fin);
+    }
+
+    /**
+     * @param patrones cadenas ASCII no vacías; el índice de cada una es el que se informa al encontrarla
+     */
+    public SignalMatcher(String... patrones) {
+        longitudes = new int[patrones.length];
+
+        // Trie de los patrones
+        List<int[]> hijos = new ArrayList<>();
+        List<int[]> terminan = new ArrayList<>();
+        hijos.add(nuevoNodo());
+        terminan.add(null);
+        for (int p = 0; p < patrones.length; p++) {
+            String patron = patrones[p];
+            if (patron.isEmpty()) {
+                throw new IllegalArgumentException("Patrón vacío en la posición " + p);
+            }
+            longitudes[p] = patron.length();
+            int estado = 0;
+            for (int k = 0; k < patron.length(); k++) {
+                char c = patron.charAt(k);
+                if (c >= ALFABETO) {
+                    throw new IllegalArgumentException("Patrón no ASCII: " + patron);
+                }
+                int simbolo = minuscula(c);
+                if (hijos.get(estado)[simbolo] < 0) {
+                    hijos.get(estado)[simbolo] = hijos.size();
+                    hijos.add(nuevoNodo());
+                    terminan.add(null);
+                }
+                estado = hijos.get(estado)[simbolo];
+            }
+            terminan.set(estado, agregar(terminan.get(estado), p));
+        }
+
+        // Enlaces de fallo por niveles, completando las transiciones que faltan
+        int estados = hijos.size();
+        transiciones = new int[estados * ALFABETO];
+        salidas = new int[estados][];
+        int[] fallo = new int[estados];
+        ArrayDeque<Integer> pendientes = new ArrayDeque<>();
+        for (int c = 0; c < ALFABETO; c++) {
+            int hijo = hijos.get(0)[c];
+            transiciones[c] = Math.max(hijo, 0);
+            if (hijo > 0) {
+                pendientes.add(hijo);
+            }
+        }
+        while (!pendientes.isEmpty()) {
+            int estado = pendientes.poll();
+            salidas[estado] = unir(terminan.get(estado), salidas[fallo[estado]]);
+            for (int c = 0; c < ALFABETO; c++) {
+                int hijo = hijos.get(estado)[c];
+                int porFallo = transiciones[fallo[estado] * ALFABETO + c];
+                if (hijo >= 0) {
+                    fallo[hijo] = porFallo;
+                    transiciones[estado * ALFABETO + c] = hijo;
+                    pendientes.add(hijo);
+                } else {
+                    transiciones[estado * ALFABETO + c] = porFallo;
+                }
+            }
+        }
+    }
+
+    public int cantidadPatrones() {
+        return longitudes.length;
+    }
+
+    /**
+     * Informa cada aparición de un patrón que empieza y termina dentro de texto[desde, hasta)
+     * @return posición en la que se detuvo: hasta, o el fin de la aparición con la que el receptor lo detuvo
+     */
+    public int recorrer(CharSequence texto, int desde, int hasta, Receptor receptor) {
+        int estado = 0;
+        for (int i = desde; i < hasta; i++) {
+            char c = texto.charAt(i);
+            // Ningún patrón tiene caracteres fuera de ASCII
+            estado = c < ALFABETO ? transiciones[estado * ALFABETO + minuscula(c)] : 0;
+            int[] encontrados = salidas[estado];
+            if (encontrados != null) {
+                for (int patron : encontrados) {
+                    if (!receptor.encontrado(patron, i + 1 - longitudes[patron], i + 1)) {
+                        return i + 1;
+                    }
+                }
+            }
+        }
+        return hasta;
+    }
+
+    private static int[] nuevoNodo() {
+        int[] nodo = new int[ALFABETO];
+        Arrays.fill(nodo, -1);
+        return nodo;
+    }
+
+    private static int[] agregar(int[] lista, int valor) {
+        if (lista == null) {
+            return new int[] {valor};
+        }
+        int[] nueva = Arrays.copyOf(lista, lista.length + 1);
+        nueva[lista.length] = valor;
+        return nueva;
+    }
+
+    /**
+     * Las propias primero, que son las más largas
+     */
+    private static int[] unir(int[] propias, int[] heredadas) {
+        if (propias == null) {
+            return heredadas;
+        }
+        if (heredadas == null) {
+            return propias;
+        }
+        int[] todas = Arrays.copyOf(propias, propias.length + heredadas.length);
+        System.arraycopy(heredadas, 0, todas, propias.length, heredadas.length);
+        return todas;
+    }
+
+    private static int minuscula(int c) {
+        return c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+    }
+}
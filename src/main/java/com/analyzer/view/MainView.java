@@ -105,6 +105,9 @@ public class MainView {
         // Botón Guardar
         saveButton.setOnAction(e -> saveFile());
 
+        // Cada edición actualiza los tokens del último análisis sin volver a tokenizar todo
+        codeEditorPane.setOnCodeEdit(analysisController::registrarEdicion);
+
         // Atajo de teclado para analizar (Ctrl+Enter)
         codeEditorPane.getTextArea().setOnKeyPressed(e -> {
             if (e.isControlDown() && e.getCode().toString().equals("ENTER")) {
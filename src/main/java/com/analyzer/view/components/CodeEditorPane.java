@@ -64,4 +64,22 @@ public class CodeEditorPane extends VBox {
     public TextArea getTextArea() {
         return codeTextArea;
     }
+
+    /**
+     * Notifica cada cambio del texto como el reemplazo de [start, start + removed)
+     * por inserted, antes de aplicarlo
+     */
+    public void setOnCodeEdit(CodeEditListener listener) {
+        codeTextArea.setTextFormatter(new TextFormatter<String>(change -> {
+            if (change.isContentChange()) {
+                listener.onEdit(change.getRangeStart(), change.getRangeEnd() - change.getRangeStart(), change.getText());
+            }
+            return change;
+        }));
+    }
+
+    @FunctionalInterface
+    public interface CodeEditListener {
+        void onEdit(int start, int removed, String inserted);
+    }
 }
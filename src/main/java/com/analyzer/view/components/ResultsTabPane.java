@@ -149,7 +149,7 @@ public class ResultsTabPane extends TabPane {
 
         // Actualizar tokens
         if (result.getTokens() != null) {
-            ObservableList<Token> tokenData = FXCollections.observableArrayList(result.getTokens());
+            ObservableList<Token> tokenData = FXCollections.observableList(result.getTokens());
             tokensTable.setItems(tokenData);
         }
 
@@ -180,7 +180,7 @@ public class ResultsTabPane extends TabPane {
 
     public void clearResults() {
         languageLabel.setText("No detectado");
-        tokensTable.getItems().clear();
+        tokensTable.setItems(FXCollections.observableArrayList());
         errorsTable.getItems().clear();
         symbolsTable.getItems().clear();
         outputTextArea.clear();
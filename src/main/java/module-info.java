@@ -4,11 +4,13 @@ module com.analyzer {
         requires javafx.controls;
         requires javafx.fxml;
         requires java.desktop;
+        requires java.management;
     requires org.junit.jupiter.api;
 
     exports com.analyzer;
         exports com.analyzer.model;
         exports com.analyzer.service;
+        exports com.analyzer.service.metrics;
         exports com.analyzer.controller;
         exports com.analyzer.view;
         exports com.analyzer.util;
@@ -0,0 +1,140 @@
+package com.analyzer.util;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Recorridos de {@link CharScan} con jdk.incubator.vector. Los caracteres se
+ * copian por bloques a un arreglo del hilo y se comparan de a un vector
+ * (16 caracteres con registros de 256 bits). Se compila solo con el perfil
+ * vector de Maven, para que el resto del proyecto no dependa de un módulo en
+ * incubación, y se usa solo cuando el módulo está cargado; {@link CharScan}
+ * carga esta clase por nombre.
+ */
+final class CharScanVector implements CharScan.Vectorial {
+
+    private static final VectorSpecies<Short> ESPECIE = ShortVector.SPECIES_PREFERRED;
+    private static final int ANCHO = ESPECIE.length();
+    private static final int BLOQUE = Math.max(64, ANCHO * 4);
+
+    private static final ThreadLocal<char[]> BUFFERS = ThreadLocal.withInitial(() -> new char[BLOQUE]);
+
+    CharScanVector() {
+    }
+
+    @Override
+    public int saltarEspacios(CharSequence texto, int desde, int hasta) {
+        char[] buffer = BUFFERS.get();
+        int i = desde;
+        while (hasta - i >= ANCHO) {
+            int n = copiar(texto, i, hasta, buffer);
+            if (n == 0) {
+                return i;
+            }
+            for (int k = 0; k < n; k += ANCHO) {
+                ShortVector v = ShortVector.fromCharArray(ESPECIE, buffer, k);
+                // Como Character.isWhitespace en ASCII: de '\t' a '\r' y de 0x1C a ' '
+                VectorMask<Short> espacio = entre(v, '\t', '\r').or(entre(v, '\u001C', ' '));
+                int primero = espacio.not().firstTrue();
+                if (primero < ANCHO) {
+                    return i + k + primero;
+                }
+            }
+            i += n;
+        }
+        return i;
+    }
+
+    @Override
+    public int finIdentificador(CharSequence texto, int desde, int hasta) {
+        char[] buffer = BUFFERS.get();
+        int i = desde;
+        while (hasta - i >= ANCHO) {
+            int n = copiar(texto, i, hasta, buffer);
+            if (n == 0) {
+                return i;
+            }
+            for (int k = 0; k < n; k += ANCHO) {
+                ShortVector v = ShortVector.fromCharArray(ESPECIE, buffer, k);
+                VectorMask<Short> parte = entre(v, 'a', 'z').or(entre(v, 'A', 'Z'))
+                        .or(entre(v, '0', '9')).or(v.eq((short) '_'));
+                int primero = parte.not().firstTrue();
+                if (primero < ANCHO) {
+                    return i + k + primero;
+                }
+            }
+            i += n;
+        }
+        return i;
+    }
+
+    @Override
+    public int finDigitos(CharSequence texto, int desde, int hasta) {
+        char[] buffer = BUFFERS.get();
+        int i = desde;
+        while (hasta - i >= ANCHO) {
+            int n = copiar(texto, i, hasta, buffer);
+            if (n == 0) {
+                return i;
+            }
+            for (int k = 0; k < n; k += ANCHO) {
+                ShortVector v = ShortVector.fromCharArray(ESPECIE, buffer, k);
+                int primero = entre(v, '0', '9').not().firstTrue();
+                if (primero < ANCHO) {
+                    return i + k + primero;
+                }
+            }
+            i += n;
+        }
+        return i;
+    }
+
+    @Override
+    public int buscar(CharSequence texto, int desde, int hasta, char a, char b, char c) {
+        char[] buffer = BUFFERS.get();
+        int i = desde;
+        while (hasta - i >= ANCHO) {
+            int n = copiar(texto, i, hasta, buffer);
+            if (n == 0) {
+                return i;
+            }
+            for (int k = 0; k < n; k += ANCHO) {
+                ShortVector v = ShortVector.fromCharArray(ESPECIE, buffer, k);
+                int primero = v.eq((short) a).or(v.eq((short) b)).or(v.eq((short) c)).firstTrue();
+                if (primero < ANCHO) {
+                    return i + k + primero;
+                }
+            }
+            i += n;
+        }
+        return i;
+    }
+
+    /**
+     * Caracteres entre desde y hasta, ambos menores que 0x8000: con la
+     * comparación con signo, los caracteres desde 0x8000 quedan afuera
+     */
+    private static VectorMask<Short> entre(ShortVector v, char desde, char hasta) {
+        return v.compare(VectorOperators.GE, (short) desde)
+                .and(v.compare(VectorOperators.LE, (short) hasta));
+    }
+
+    /**
+     * Copia al buffer el mayor múltiplo de ANCHO de caracteres desde la posición
+     * que entra en el buffer y en el texto.
+     * @return caracteres copiados, o 0 si el texto no permite copiar por bloques
+     */
+    private static int copiar(CharSequence texto, int desde, int hasta, char[] buffer) {
+        int n = Math.min(buffer.length, (hasta - desde) / ANCHO * ANCHO);
+        if (texto instanceof String) {
+            ((String) texto).getChars(desde, desde + n, buffer, 0);
+        } else if (texto instanceof StringBuilder) {
+            ((StringBuilder) texto).getChars(desde, desde + n, buffer, 0);
+        } else {
+            return 0;
+        }
+        return n;
+    }
+}